@@ -0,0 +1,319 @@
+package com.example.ICUReceiver.cache;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.snapshot.StateSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The newest {@code capacity} signals of each patient, so dashboards polling
+ * <code>/latest</code> are answered from memory rather than from the database.
+ * <p>
+ * A patient enters the cache on its first read that finds signals:
+ * {@link com.example.ICUReceiver.service.ICUService} takes the patient's {@link #version}, reads
+ * the newest signals from the store and {@link #seed seeds} an entry with them. From then on the
+ * ingest pipeline {@link #record records} every committed signal, and the waveform lane
+ * {@link #attachWaveforms attaches} the ECG references of signals whose samples are stored later.
+ * A signal recorded while a seed query runs bumps the version and the seed is discarded, so
+ * the cache never misses a signal the query did not see; the next read simply seeds again.
+ * Versions live in a fixed array of stripes shared by many patients, so reads of unknown or
+ * empty patients leave nothing behind; a seed racing a signal of another patient on the same
+ * stripe is merely retried on the next read.
+ * <p>
+ * At most {@code maxPatients} patients are held; seeding one more evicts the patient read least
+ * recently.
+ * <p>
+ * Signals are held without their ECG samples, which readers load through the reference. The
+ * whole cache is part of the {@link com.example.ICUReceiver.snapshot.StateSnapshotter state
+ * snapshot}, so a restarted node answers <code>/latest</code> from memory straight away.
+ * <p>
+ * Each entry is guarded by its own lock; readers get copies. Entries are only created, filled
+ * by signals and removed inside {@link ConcurrentHashMap#compute}, which serializes them with
+ * the version check of a seed.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.cache.latest.requests{result=hit|miss}</b> – Latest-signal reads answered from the cache or not.</li>
+ *   <li><b>icu.cache.latest.patients</b> – Patients held in the cache.</li>
+ *   <li><b>icu.cache.latest.evicted</b> – Patients evicted to stay within {@code maxPatients}.</li>
+ * </ul>
+ */
+public class LatestSignalCache {
+
+    private static final int VERSION_STRIPES = 4096;
+
+    private final int capacity;
+    private final int maxPatients;
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictedCounter;
+
+    /**
+     * @param capacity    Signals kept per patient; 0 disables the cache.
+     * @param maxPatients Patients kept at most.
+     */
+    public LatestSignalCache(int capacity, int maxPatients, MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.maxPatients = Math.max(1, maxPatients);
+        this.hitCounter = meterRegistry.counter("icu.cache.latest.requests", "result", "hit");
+        this.missCounter = meterRegistry.counter("icu.cache.latest.requests", "result", "miss");
+        this.evictedCounter = meterRegistry.counter("icu.cache.latest.evicted");
+        meterRegistry.gauge("icu.cache.latest.patients", entries, Map::size);
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Whether a page ending at {@code offset + size} can ever be held by the cache.
+     */
+    public boolean covers(long offset, int size) {
+        return isEnabled() && offset + size <= capacity;
+    }
+
+    /**
+     * Returns one page of a patient's newest signals, without ECG samples.
+     *
+     * @return The page together with the patient's total signal count, or {@code null} if the
+     *         patient is not cached or the page reaches past the cached signals.
+     */
+    public Slice read(int nationalId, long offset, int size) {
+        Entry entry = isEnabled() ? entries.get(nationalId) : null;
+        if (entry != null) {
+            synchronized (entry) {
+                int cached = entry.signals.size();
+                if (offset + size <= cached || cached == entry.total) {
+                    entry.lastRead = System.nanoTime();
+                    List<ICUSignal> page = new ArrayList<>(size);
+                    for (int i = (int) Math.min(offset, cached); i < Math.min(offset + size, cached); i++) {
+                        page.add(copy(entry.signals.get(i)));
+                    }
+                    hitCounter.increment();
+                    return new Slice(page, entry.total);
+                }
+            }
+        }
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * Version of a patient's signals, to be passed to {@link #seed} once the store was read.
+     */
+    public long version(int nationalId) {
+        return versions.get(stripe(nationalId));
+    }
+
+    /**
+     * Creates a patient's entry from the store, unless the patient is cached already, the store
+     * has no signals for it, or signals were recorded since {@code version} was taken.
+     *
+     * @param newest The newest signals from the store, newest first.
+     * @param total  The patient's total signal count in the store.
+     * @return {@code true} if the entry was seeded.
+     */
+    public boolean seed(int nationalId, long version, List<ICUSignal> newest, long total) {
+        if (!isEnabled() || newest.isEmpty()) {
+            return false;
+        }
+        Entry seeded = new Entry();
+        seeded.fill(newest, total);
+        Entry entry = entries.compute(nationalId, (id, existing) ->
+                existing != null || versions.get(stripe(id)) != version ? existing : seeded);
+        if (entry != seeded) {
+            return false;
+        }
+        evictBeyondMaxPatients(nationalId);
+        return true;
+    }
+
+    /**
+     * Adds committed signals to the entries of their patients. Patients not cached are skipped.
+     */
+    public void record(List<ICUSignal> signals) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (ICUSignal signal : signals) {
+            // Before the insert, so a seed either sees the new version or created the entry first.
+            bump(signal.getNationalId());
+            entries.computeIfPresent(signal.getNationalId(), (id, entry) -> {
+                synchronized (entry) {
+                    entry.insert(copy(signal));
+                }
+                return entry;
+            });
+        }
+    }
+
+    /**
+     * Sets the ECG references of cached signals whose samples were stored after them.
+     *
+     * @param signals Copies of the signals carrying their id and new reference.
+     */
+    public void attachWaveforms(List<ICUSignal> signals) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (ICUSignal signal : signals) {
+            Entry entry = entries.get(signal.getNationalId());
+            if (entry != null) {
+                synchronized (entry) {
+                    for (ICUSignal cached : entry.signals) {
+                        // Ids alone may repeat across restarts of an in-memory database.
+                        if (cached.getId() == signal.getId() && cached.getTimestamp().equals(signal.getTimestamp())) {
+                            cached.setEcgRef(signal.getEcgRef());
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops a patient's entry, for writes that bypass {@link #record}.
+     */
+    public void invalidate(int nationalId) {
+        bump(nationalId);
+        entries.remove(nationalId);
+    }
+
+    /**
+     * Copies every seeded entry for a state snapshot.
+     */
+    public List<StateSnapshot.PatientLatest> capture() {
+        List<StateSnapshot.PatientLatest> patients = new ArrayList<>(entries.size());
+        entries.forEach((nationalId, entry) -> {
+            synchronized (entry) {
+                List<ICUSignal> signals = new ArrayList<>(entry.signals.size());
+                for (ICUSignal signal : entry.signals) {
+                    signals.add(copy(signal));
+                }
+                patients.add(new StateSnapshot.PatientLatest(nationalId, entry.total, signals));
+            }
+        });
+        return patients;
+    }
+
+    /**
+     * Seeds entries from a state snapshot, before any signal is recorded.
+     */
+    public void restore(List<StateSnapshot.PatientLatest> patients) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (StateSnapshot.PatientLatest patient : patients) {
+            if (!patient.signals().isEmpty()) {
+                Entry entry = new Entry();
+                entry.fill(patient.signals(), patient.total());
+                entries.put(patient.nationalId(), entry);
+                evictBeyondMaxPatients(patient.nationalId());
+            }
+        }
+    }
+
+    public int getPatientCount() {
+        return entries.size();
+    }
+
+    /**
+     * Evicts the patients read least recently until at most {@code maxPatients} remain; a scan
+     * over all entries, paid only when a new patient is seeded into a full cache.
+     */
+    private void evictBeyondMaxPatients(int seeded) {
+        while (entries.size() > maxPatients) {
+            Integer idlest = null;
+            long oldest = 0;
+            for (Map.Entry<Integer, Entry> candidate : entries.entrySet()) {
+                long lastRead = candidate.getValue().lastRead;
+                if (candidate.getKey() != seeded && (idlest == null || lastRead - oldest < 0)) {
+                    idlest = candidate.getKey();
+                    oldest = lastRead;
+                }
+            }
+            if (idlest == null || entries.remove(idlest) == null) {
+                return;
+            }
+            evictedCounter.increment();
+        }
+    }
+
+    private void bump(int nationalId) {
+        versions.incrementAndGet(stripe(nationalId));
+    }
+
+    private static int stripe(int nationalId) {
+        int h = nationalId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    /**
+     * Copy of a signal without its ECG samples; features and waveform reference are shared, as
+     * neither is modified once the signal is persisted.
+     */
+    private static ICUSignal copy(ICUSignal signal) {
+        return ICUSignal.builder()
+                .id(signal.getId())
+                .nationalId(signal.getNationalId())
+                .heartbeat(signal.getHeartbeat())
+                .pulse(signal.getPulse())
+                .timestamp(signal.getTimestamp())
+                .ecgRef(signal.getEcgRef())
+                .ecgFeatures(signal.getEcgFeatures())
+                .build();
+    }
+
+    /**
+     * One cached page.
+     *
+     * @param signals Copies without ECG samples, newest first.
+     * @param total   The patient's total signal count.
+     */
+    public record Slice(List<ICUSignal> signals, long total) {
+    }
+
+    private final class Entry {
+        /** Newest first. */
+        private final List<ICUSignal> signals = new ArrayList<>();
+        private long total;
+        private volatile long lastRead = System.nanoTime();
+
+        void fill(List<ICUSignal> newest, long total) {
+            for (int i = 0; i < Math.min(newest.size(), capacity); i++) {
+                signals.add(copy(newest.get(i)));
+            }
+            this.total = total;
+        }
+
+        /**
+         * Places a signal by timestamp, so late signals land where the store would list them.
+         */
+        void insert(ICUSignal signal) {
+            total++;
+            int position = 0;
+            while (position < signals.size() && signals.get(position).getTimestamp().isAfter(signal.getTimestamp())) {
+                position++;
+            }
+            if (position < capacity) {
+                signals.add(position, signal);
+                if (signals.size() > capacity) {
+                    signals.remove(signals.size() - 1);
+                }
+            }
+        }
+    }
+}
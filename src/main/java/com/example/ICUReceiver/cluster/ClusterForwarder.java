@@ -0,0 +1,150 @@
+package com.example.ICUReceiver.cluster;
+
+import com.example.ICUReceiver.configuration.ClusterProperties;
+import com.example.ICUReceiver.configuration.ClusterProperties.Member;
+import com.example.ICUReceiver.dto.ApiResponse;
+import com.example.ICUReceiver.dto.ICUSignalDto;
+import com.example.ICUReceiver.exception.ClusterForwardingException;
+import com.example.ICUReceiver.exception.IngestOverloadedException;
+import com.example.ICUReceiver.exception.InvalidICUSignalException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Relays signals and patient queries to the node that owns the patient.
+ * <p>
+ * Forwarded requests carry {@value #FORWARDED_BY} and the cluster secret in
+ * {@value #CLUSTER_SECRET}, and a node serves such a request itself even if its own ring
+ * disagrees, so a misconfigured member can never bounce a request around the cluster. A member
+ * that cannot be reached, or does not answer within {@code forwardTimeout}, surfaces as
+ * {@link ClusterForwardingException} so the caller can suspect it; any answer from the
+ * owner, including an error, is passed on.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.cluster.forwarded</b> – Calls forwarded, tagged {@code kind} (signal, query) and {@code target}.</li>
+ *   <li><b>icu.cluster.forward.failed</b> – Forwarded calls the owner did not answer, tagged {@code target}.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class ClusterForwarder {
+
+    public static final String FORWARDED_BY = "X-ICU-Forwarded-By";
+    public static final String CLUSTER_SECRET = "X-ICU-Cluster-Secret";
+
+    /** Hop-by-hop and restricted headers that must not be copied onto the relayed response. */
+    private static final Set<String> SKIPPED_HEADERS = Set.of(":status", "connection", "transfer-encoding", "keep-alive");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final Duration timeout;
+    private final String localId;
+    private final String secret;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ClusterForwarder(ClusterProperties properties, MeterRegistry meterRegistry) {
+        this.timeout = properties.getForwardTimeout();
+        this.localId = properties.getNodeId();
+        this.secret = properties.getSecret();
+        this.meterRegistry = meterRegistry;
+        this.client = properties.isEnabled() ? HttpClient.newBuilder().connectTimeout(timeout).build() : null;
+    }
+
+    /**
+     * Submits a signal to the owner's upload endpoint.
+     *
+     * @throws InvalidICUSignalException  if the owner rejected the signal.
+     * @throws IngestOverloadedException  if the owner's ingest queue is full.
+     * @throws ClusterForwardingException if the owner could not be reached.
+     */
+    public void forwardSignal(Member owner, ICUSignalDto signal) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(owner.getUrl() + "/api/v1/icu/upload"))
+                .timeout(timeout)
+                .header(FORWARDED_BY, localId)
+                .header(CLUSTER_SECRET, secret)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(signal)))
+                .build();
+        HttpResponse<String> response = send(owner, request, HttpResponse.BodyHandlers.ofString());
+        meterRegistry.counter("icu.cluster.forwarded", "kind", "signal", "target", owner.getId()).increment();
+
+        int status = response.statusCode();
+        if (status == HttpStatus.BAD_REQUEST.value()) {
+            throw new InvalidICUSignalException(messageOf(response.body()));
+        }
+        if (status == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            throw new IngestOverloadedException(messageOf(response.body()));
+        }
+        if (status / 100 != 2) {
+            throw new IllegalStateException("Owner " + owner.getId() + " answered " + status + ": " + messageOf(response.body()));
+        }
+    }
+
+    /**
+     * Replays a GET request against the owner and streams its answer into {@code response}.
+     *
+     * @throws ClusterForwardingException if the owner could not be reached.
+     */
+    public void forwardQuery(Member owner, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String query = request.getQueryString();
+        URI uri = URI.create(owner.getUrl() + request.getRequestURI() + (query != null ? "?" + query : ""));
+        HttpRequest forwarded = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header(FORWARDED_BY, localId)
+                .header(CLUSTER_SECRET, secret)
+                .GET()
+                .build();
+        HttpResponse<InputStream> answer = send(owner, forwarded, HttpResponse.BodyHandlers.ofInputStream());
+        meterRegistry.counter("icu.cluster.forwarded", "kind", "query", "target", owner.getId()).increment();
+
+        response.setStatus(answer.statusCode());
+        answer.headers().map().forEach((name, values) -> {
+            if (!SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        try (InputStream body = answer.body()) {
+            body.transferTo(response.getOutputStream());
+        }
+    }
+
+    private <T> HttpResponse<T> send(Member owner, HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        try {
+            return client.send(request, handler);
+        } catch (IOException e) {
+            meterRegistry.counter("icu.cluster.forward.failed", "target", owner.getId()).increment();
+            throw new ClusterForwardingException("Cluster member " + owner.getId() + " unreachable", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClusterForwardingException("Interrupted while forwarding to " + owner.getId(), e);
+        }
+    }
+
+    private String messageOf(String body) {
+        try {
+            ApiResponse<?> response = objectMapper.readValue(body, ApiResponse.class);
+            return response.getMessage();
+        } catch (RuntimeException e) {
+            return body;
+        }
+    }
+}
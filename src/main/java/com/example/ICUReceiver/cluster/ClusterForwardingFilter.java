@@ -0,0 +1,117 @@
+package com.example.ICUReceiver.cluster;
+
+import com.example.ICUReceiver.configuration.ClusterProperties.Member;
+import com.example.ICUReceiver.dto.ApiResponse;
+import com.example.ICUReceiver.exception.ClusterForwardingException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves patient queries from the node that owns the patient.
+ * <p>
+ * <code>/range</code>, <code>/latest</code> and <code>/stats</code> requests name the patient in
+ * the path; <code>/ecg</code> requests must carry a <code>nationalId</code> parameter and are
+ * rejected with 400 otherwise, because signal ids are only unique per node. Requests for a patient
+ * owned elsewhere are relayed to the owner and its response is streamed back unchanged, so the
+ * owner's in-memory and on-disk state (segment files, waveforms) answer the query. If the owner
+ * cannot be reached the query fails with 503 rather than being answered from another node, which
+ * holds none of the patient's signals. Requests already forwarded by another node, as checked by
+ * {@link ClusterMembership#isForwardedByMember}, are always served locally.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "icu.cluster", name = "enabled", havingValue = "true")
+@Slf4j
+public class ClusterForwardingFilter extends OncePerRequestFilter {
+
+    private static final Pattern PATIENT_PATH = Pattern.compile("^/api/v1/icu/(?:range|latest|stats)/(\\d+)$");
+    private static final Pattern ECG_PATH = Pattern.compile("^/api/v1/icu/ecg/\\d+$");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ClusterMembership membership;
+    private final ClusterForwarder forwarder;
+
+    @Autowired
+    public ClusterForwardingFilter(ClusterMembership membership, ClusterForwarder forwarder) {
+        this.membership = membership;
+        this.forwarder = forwarder;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || membership.isForwardedByMember(
+                request.getHeader(ClusterForwarder.FORWARDED_BY), request.getHeader(ClusterForwarder.CLUSTER_SECRET));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Integer nationalId = patientOf(request);
+        if (nationalId == null) {
+            if (ECG_PATH.matcher(request.getRequestURI()).matches()) {
+                reject(response, HttpStatus.BAD_REQUEST, "nationalId is required for ECG requests in cluster mode");
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+        Member owner = membership.ownerOf(nationalId);
+        if (membership.isLocal(owner)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (membership.isSuspected(owner)) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Owner " + owner.getId() + " is unreachable");
+            return;
+        }
+        try {
+            forwarder.forwardQuery(owner, request, response);
+        } catch (ClusterForwardingException e) {
+            log.warn("Forwarding query failed | nationalId={} | owner={} | reason={}",
+                    nationalId, owner.getId(), e.getMessage());
+            membership.suspect(owner);
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Owner " + owner.getId() + " is unreachable");
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.failure(message));
+    }
+
+    static Integer patientOf(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        Matcher matcher = PATIENT_PATH.matcher(path);
+        if (matcher.matches()) {
+            return parse(matcher.group(1));
+        }
+        if (ECG_PATH.matcher(path).matches()) {
+            return parse(request.getParameter("nationalId"));
+        }
+        return null;
+    }
+
+    private static Integer parse(String value) {
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
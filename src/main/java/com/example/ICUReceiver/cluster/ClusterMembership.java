@@ -0,0 +1,119 @@
+package com.example.ICUReceiver.cluster;
+
+import com.example.ICUReceiver.configuration.ClusterProperties;
+import com.example.ICUReceiver.configuration.ClusterProperties.Member;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This node's view of the cluster: who owns which patient, and which members are unreachable.
+ * <p>
+ * Ownership comes from a {@link ConsistentHashRing} over the configured members. A patient never
+ * moves off its owner: every node keeps its signals in a private database, so signals written
+ * elsewhere while the owner is down would stay invisible to its queries once it is back. A member
+ * that fails to answer a forwarded call is instead suspected for {@code suspectDuration}, and
+ * requests for its patients are refused at once rather than each waiting for the forward timeout.
+ * The local node is never suspected. With clustering disabled every patient is owned locally.
+ * <p>
+ * Requests claiming to be forwarded are only trusted when they name a configured member and
+ * carry the cluster's shared secret, see {@link #isForwardedByMember}.
+ */
+@Component
+@Slf4j
+public class ClusterMembership {
+
+    private final boolean enabled;
+    private final Member local;
+    private final ConsistentHashRing<Member> ring;
+    private final long suspectNanos;
+    private final Set<String> memberIds;
+    private final byte[] secret;
+    private final Map<String, Long> suspectedUntil = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ClusterMembership(ClusterProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.suspectNanos = properties.getSuspectDuration().toNanos();
+        this.secret = properties.getSecret().getBytes(StandardCharsets.UTF_8);
+        if (!enabled) {
+            this.local = new Member(properties.getNodeId(), null);
+            this.ring = null;
+            this.memberIds = Set.of();
+            return;
+        }
+        Map<String, Member> members = new LinkedHashMap<>();
+        for (Member member : properties.getMembers()) {
+            members.put(member.getId(), member);
+        }
+        this.local = members.get(properties.getNodeId());
+        if (local == null) {
+            throw new IllegalStateException("icu.cluster.node-id " + properties.getNodeId()
+                    + " is not among icu.cluster.members " + members.keySet());
+        }
+        this.ring = new ConsistentHashRing<>(members, properties.getVirtualNodes());
+        this.memberIds = Set.copyOf(members.keySet());
+        if (secret.length == 0) {
+            log.warn("icu.cluster.secret is blank, forwarded requests will be routed and rate limited again");
+        }
+        log.info("Cluster membership | node={} | members={}", local.getId(), members.keySet());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Member localMember() {
+        return local;
+    }
+
+    public boolean isLocal(Member member) {
+        return member == local;
+    }
+
+    /**
+     * Whether a request carrying {@link ClusterForwarder#FORWARDED_BY} really comes from another
+     * node: clustering is on, the header names a configured member, and the request carries the
+     * cluster secret in {@link ClusterForwarder#CLUSTER_SECRET}.
+     *
+     * @param forwardedBy The forwarding node's id as claimed by the request, may be {@code null}.
+     * @param secret      The secret sent with the request, may be {@code null}.
+     */
+    public boolean isForwardedByMember(String forwardedBy, String secret) {
+        return enabled && forwardedBy != null && secret != null && this.secret.length > 0
+                && memberIds.contains(forwardedBy)
+                && MessageDigest.isEqual(this.secret, secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the member that owns the patient, whether or not it is currently suspected.
+     */
+    public Member ownerOf(int nationalId) {
+        return enabled ? ring.ownerOf(nationalId) : local;
+    }
+
+    /**
+     * Marks a member that did not answer as unreachable until the suspect duration has passed.
+     */
+    public void suspect(Member member) {
+        if (member != local) {
+            suspectedUntil.put(member.getId(), System.nanoTime() + suspectNanos);
+            log.warn("Cluster member unreachable, refusing its patients | member={}", member.getId());
+        }
+    }
+
+    /**
+     * Whether requests for the member's patients should fail without trying to reach it.
+     */
+    public boolean isSuspected(Member member) {
+        Long until = suspectedUntil.get(member.getId());
+        return member != local && until != null && System.nanoTime() - until < 0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.ICUReceiver.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Consistent-hash ring assigning patients to nodes.
+ * <p>
+ * Each node is placed at {@code virtualNodes} pseudo-random points; a patient belongs to the
+ * first node clockwise from the hash of its {@code nationalId}. Adding or removing a node only
+ * moves the patients adjacent to its points, roughly {@code 1/n} of them. The hash is fixed
+ * (FNV-1a with a 64-bit finalizer), so every JVM builds the identical ring from the same members.
+ * <p>
+ * Immutable and thread-safe.
+ *
+ * @param <N> The node type.
+ */
+public final class ConsistentHashRing<N> {
+
+    private final TreeMap<Long, N> ring = new TreeMap<>();
+    private final int nodeCount;
+
+    /**
+     * @param nodes        The members, keyed by their stable id.
+     * @param virtualNodes Points per member.
+     */
+    public ConsistentHashRing(Map<String, N> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        nodes.forEach((id, node) -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(id + "#" + i), node);
+            }
+        });
+        this.nodeCount = nodes.size();
+    }
+
+    public N ownerOf(int nationalId) {
+        return ownerOf(nationalId, node -> true);
+    }
+
+    /**
+     * Returns the first node clockwise from the patient's hash that passes {@code available},
+     * or {@code null} if none does.
+     */
+    public N ownerOf(int nationalId, Predicate<N> available) {
+        long key = mix(nationalId);
+        Collection<N> clockwise = ring.tailMap(key, true).values();
+        N owner = firstAvailable(clockwise, available);
+        return owner != null ? owner : firstAvailable(ring.headMap(key, false).values(), available);
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    private static <N> N firstAvailable(Collection<N> nodes, Predicate<N> available) {
+        for (N node : nodes) {
+            if (available.test(node)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * MurmurHash3's 64-bit finalizer; spreads sequential ids over the whole ring.
+     */
+    static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.ICUReceiver.cluster;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * {@link SignalBus} within one JVM, standing in for a message broker.
+ * <p>
+ * Instances obtained through {@link #topic(String)} are shared by every application context in
+ * the JVM, so several receiver nodes started side by side (in tests, or on one box) see each
+ * other's signals as they would through a broker. Each subscriber gets a bounded queue and its
+ * own delivery thread; a subscriber that falls behind loses batches instead of slowing the
+ * publishing shard writer.
+ */
+@Slf4j
+public final class InProcessSignalBus implements SignalBus {
+
+    private static final Map<String, InProcessSignalBus> TOPICS = new ConcurrentHashMap<>();
+    private static final int SUBSCRIBER_QUEUE_CAPACITY = 1024;
+
+    private final List<QueueSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Returns the JVM-wide bus for a topic.
+     */
+    public static InProcessSignalBus topic(String name) {
+        return TOPICS.computeIfAbsent(name, n -> new InProcessSignalBus());
+    }
+
+    @Override
+    public void publish(List<ICUSignal> signals) {
+        for (QueueSubscription subscription : subscriptions) {
+            subscription.offer(signals);
+        }
+    }
+
+    @Override
+    public Subscription subscribe(String name, Consumer<List<ICUSignal>> consumer) {
+        QueueSubscription subscription = new QueueSubscription(name, consumer);
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    private final class QueueSubscription implements Subscription {
+
+        private final BlockingQueue<List<ICUSignal>> queue = new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE_CAPACITY);
+        private final LongAdder dropped = new LongAdder();
+        private final Consumer<List<ICUSignal>> consumer;
+        private final Thread thread;
+
+        private QueueSubscription(String name, Consumer<List<ICUSignal>> consumer) {
+            this.consumer = consumer;
+            this.thread = new Thread(this::run, "signal-bus-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        private void offer(List<ICUSignal> signals) {
+            if (!queue.offer(signals)) {
+                dropped.increment();
+            }
+        }
+
+        private void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    consumer.accept(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    log.error("Signal bus subscriber failed | subscriber={} | reason={}",
+                            thread.getName(), e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public long dropped() {
+            return dropped.sum();
+        }
+
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.ICUReceiver.cluster;
+
+import com.example.ICUReceiver.model.ICUSignal;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Publish/subscribe channel for persisted signals, spanning all nodes of a cluster.
+ * <p>
+ * Each signal is persisted, and therefore published, by exactly one node: its owner. Every
+ * subscriber on every node receives it, which lets a live viewer connected to any node follow
+ * any patient.
+ */
+public interface SignalBus {
+
+    /**
+     * Hands signals to all subscribers without blocking the caller.
+     */
+    void publish(List<ICUSignal> signals);
+
+    /**
+     * Delivers published signals to {@code consumer} on a thread owned by the bus.
+     */
+    Subscription subscribe(String name, Consumer<List<ICUSignal>> consumer);
+
+    interface Subscription extends AutoCloseable {
+
+        /**
+         * Number of batches dropped because this subscriber fell behind.
+         */
+        long dropped();
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ICUReceiver.cluster;
+
+import com.example.ICUReceiver.configuration.ClusterProperties.Member;
+import com.example.ICUReceiver.exception.ClusterForwardingException;
+import com.example.ICUReceiver.exception.IngestOverloadedException;
+import com.example.ICUReceiver.exception.InvalidICUSignalException;
+import com.example.ICUReceiver.ingest.IngestPipeline;
+import com.example.ICUReceiver.ingest.SignalValidator;
+import com.example.ICUReceiver.mapper.ICUSignalMapper;
+import com.example.ICUReceiver.model.ICUSignal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entry point for incoming signals on both the REST and the WebSocket path.
+ * <p>
+ * A signal for a patient this node owns goes into the local {@link IngestPipeline}; any other
+ * signal is validated here, so garbage is not shipped across the network, and forwarded to the
+ * owner. If the owner cannot be reached it is suspected and the signal is refused with
+ * {@link IngestOverloadedException}, so the client retries it later; storing it on another node
+ * would hide it from the owner's queries once the owner is back.
+ */
+@Component
+@Slf4j
+public class SignalRouter {
+
+    private final IngestPipeline ingestPipeline;
+    private final ClusterMembership membership;
+    private final ClusterForwarder forwarder;
+    private final SignalValidator validator;
+    private final ICUSignalMapper mapper;
+
+    @Autowired
+    public SignalRouter(IngestPipeline ingestPipeline, ClusterMembership membership, ClusterForwarder forwarder,
+                        SignalValidator validator, ICUSignalMapper mapper) {
+        this.ingestPipeline = ingestPipeline;
+        this.membership = membership;
+        this.forwarder = forwarder;
+        this.validator = validator;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Ingests or forwards one signal.
+     *
+     * @param signal    The signal as received.
+     * @param forwarded Whether another node already routed the signal here; it is then ingested locally.
+     * @throws InvalidICUSignalException if the signal fails validation here or on its owner.
+     * @throws IngestOverloadedException if the owning node's ingest queue is full or the owner is unreachable.
+     */
+    public void submit(ICUSignal signal, boolean forwarded) {
+        if (forwarded || !membership.isEnabled()) {
+            ingestPipeline.submit(signal);
+            return;
+        }
+        Member owner = membership.ownerOf(signal.getNationalId());
+        if (membership.isLocal(owner)) {
+            ingestPipeline.submit(signal);
+            return;
+        }
+        validator.validate(signal);
+        if (membership.isSuspected(owner)) {
+            throw new IngestOverloadedException("Owner " + owner.getId() + " is unreachable");
+        }
+        try {
+            forwarder.forwardSignal(owner, mapper.toDto(signal));
+        } catch (ClusterForwardingException e) {
+            log.warn("Forwarding signal failed | nationalId={} | owner={} | reason={}",
+                    signal.getNationalId(), owner.getId(), e.getMessage());
+            membership.suspect(owner);
+            throw new IngestOverloadedException("Owner " + owner.getId() + " is unreachable");
+        }
+    }
+}
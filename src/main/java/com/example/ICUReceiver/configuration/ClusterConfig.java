@@ -0,0 +1,37 @@
+package com.example.ICUReceiver.configuration;
+
+import com.example.ICUReceiver.cluster.InProcessSignalBus;
+import com.example.ICUReceiver.cluster.SignalBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the cluster settings and provides the {@link SignalBus}.
+ * <p>
+ * Clustered nodes share the JVM-wide in-process topic; a broker-backed bus can replace it by
+ * declaring its own {@link SignalBus} bean. The in-process topic never leaves the JVM, so a
+ * warning is logged when it backs a cluster of several members. A standalone node gets a private
+ * bus, so contexts that happen to share a JVM do not see each other's signals.
+ */
+@Configuration
+@EnableConfigurationProperties(ClusterProperties.class)
+@Slf4j
+public class ClusterConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SignalBus signalBus(ClusterProperties properties) {
+        if (!properties.isEnabled()) {
+            return new InProcessSignalBus();
+        }
+        if (properties.getMembers().size() > 1) {
+            log.warn("Cluster of {} members uses the in-process signal bus, live viewers only see signals "
+                    + "persisted by nodes in this JVM; declare a broker-backed SignalBus bean for separate hosts",
+                    properties.getMembers().size());
+        }
+        return InProcessSignalBus.topic(properties.getTopic());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cluster membership and routing, bound from the <code>icu.cluster</code> prefix.
+ * <p>
+ * Every node is configured with the same member list, so all nodes build the same hash ring
+ * and agree on which node owns a patient without talking to each other.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.cluster")
+public class ClusterProperties {
+
+    /**
+     * Whether signals and queries are routed to the owning node; when off every node serves every patient.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Id of this node; must match one of the {@link #members}.
+     */
+    private String nodeId = "node-1";
+
+    /**
+     * All nodes of the cluster, this one included.
+     */
+    private List<Member> members = new ArrayList<>();
+
+    /**
+     * Points per member on the hash ring; more points spread patients more evenly.
+     */
+    private int virtualNodes = 128;
+
+    /**
+     * How long a forwarded signal or query may take before the owner is treated as unreachable.
+     */
+    private Duration forwardTimeout = Duration.ofSeconds(2);
+
+    /**
+     * How long an unreachable member is suspected, its patients refused without trying to reach it.
+     */
+    private Duration suspectDuration = Duration.ofSeconds(10);
+
+    /**
+     * Name of the topic persisted signals are published on for live viewers.
+     */
+    private String topic = "icu-signals";
+
+    /**
+     * Shared secret nodes send with forwarded requests. A forwarded header without it is ignored,
+     * so clients cannot skip routing or rate limits by setting it; while blank, nothing is trusted.
+     */
+    private String secret = "";
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Member {
+        private String id;
+
+        /**
+         * Base URL other nodes forward to, e.g. <code>http://10.0.0.2:8080</code>.
+         */
+        private String url;
+    }
+}
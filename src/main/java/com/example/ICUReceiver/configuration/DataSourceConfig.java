@@ -0,0 +1,67 @@
+package com.example.ICUReceiver.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits database access across two Hikari pools on the <code>spring.datasource</code> database,
+ * enabled with <code>icu.datasource.split-pools=true</code>.
+ * <p>
+ * Read-only transactions (repository queries behind the REST endpoints and dashboards) borrow
+ * from the query pool; everything else, chiefly the shard writers' batch inserts and rollup
+ * merges, borrows from the ingest pool. A burst of heavy range queries therefore cannot leave
+ * the writers waiting for a connection, and a write backlog cannot block reads. Routing relies
+ * on {@link LazyConnectionDataSourceProxy}, which only fetches a physical connection once the
+ * transaction has marked it read-only or not.
+ * <p>
+ * Both pools report <code>hikaricp.connections.*</code> metrics (acquire time, usage, active,
+ * pending, timeouts), tagged with their pool name.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+@ConditionalOnProperty(prefix = "icu.datasource", name = "split-pools", havingValue = "true")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("icu.datasource.ingest")
+    public HikariDataSource ingestDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        return instrumentedPool(properties, meterRegistry);
+    }
+
+    @Bean
+    @ConfigurationProperties("icu.datasource.query")
+    public HikariDataSource queryDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        return instrumentedPool(properties, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("ingestDataSource") DataSource ingestDataSource,
+                                 @Qualifier("queryDataSource") DataSource queryDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(ingestDataSource);
+        dataSource.setReadOnlyDataSource(queryDataSource);
+        return dataSource;
+    }
+
+    /**
+     * The metrics tracker is set here rather than left to the actuator's binder, which can only
+     * attach it before the pool starts, while the routing proxy opens a connection at startup.
+     */
+    private static HikariDataSource instrumentedPool(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ICUReceiver.configuration;
+
+import com.example.ICUReceiver.dsp.EcgAnalyzer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the {@link EcgAnalyzer} from <code>icu.ecg</code>, at the sampling rate of the
+ * waveform store.
+ */
+@Configuration
+@EnableConfigurationProperties(EcgProperties.class)
+public class EcgConfig {
+
+    @Bean
+    public EcgAnalyzer ecgAnalyzer(EcgProperties properties, WaveformProperties waveformProperties,
+                                   MeterRegistry meterRegistry) {
+        return new EcgAnalyzer(properties, waveformProperties.getSampleRateHz(), meterRegistry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Ingest-time ECG analysis, bound from the <code>icu.ecg</code> prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.ecg")
+public class EcgProperties {
+
+    /**
+     * Whether R peaks, R-R intervals and heart rate are derived from the ECG samples at ingest.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Worker threads analysing patients in parallel; 0 uses one per available processor.
+     */
+    private int parallelism = 0;
+
+    /**
+     * Largest difference between a signal's timestamp and the end of the previous signal's
+     * samples for the two to be analysed as one continuous stream.
+     */
+    private Duration maxGap = Duration.ofSeconds(1);
+
+    /**
+     * Time without signals after which a patient's detector and filter state are dropped; the
+     * patient's next signal starts a new stream.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(5);
+}
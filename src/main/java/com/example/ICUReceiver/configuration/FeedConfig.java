@@ -0,0 +1,29 @@
+package com.example.ICUReceiver.configuration;
+
+import com.example.ICUReceiver.feed.ChangeFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Opens the {@link ChangeFeed} from <code>icu.feed</code>.
+ */
+@Configuration
+@EnableConfigurationProperties(FeedProperties.class)
+public class FeedConfig {
+
+    @Bean
+    public ChangeFeed changeFeed(FeedProperties properties, MeterRegistry meterRegistry) throws IOException {
+        return new ChangeFeed(
+                Path.of(properties.getDirectory()),
+                properties.getSegmentSize().toBytes(),
+                properties.getRetention().toBytes(),
+                properties.getIndexInterval(),
+                properties.getTailCapacity(),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Change feed of persisted signals, bound from the <code>icu.feed</code> prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.feed")
+public class FeedProperties {
+
+    /**
+     * Directory holding the feed segment files.
+     */
+    private String directory = "./data/feed";
+
+    /**
+     * Size at which the active feed segment is sealed and a new one started.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Total size of feed segments kept on disk; the oldest sealed segments are deleted beyond it.
+     */
+    private DataSize retention = DataSize.ofGigabytes(1);
+
+    /**
+     * Number of records covered by each sparse sequence index entry.
+     */
+    private int indexInterval = 64;
+
+    /**
+     * Most recent records kept in memory, so consumers that are caught up never read segments.
+     */
+    private int tailCapacity = 65_536;
+
+    /**
+     * Records written to a consumer per response chunk.
+     */
+    private int batchSize = 256;
+
+    /**
+     * How long one streaming response stays open; consumers reconnect from their next sequence.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(5);
+}
@@ -0,0 +1,13 @@
+package com.example.ICUReceiver.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the ingest pipeline settings. Shard writers run on their own threads and perform
+ * their periodic flushes themselves, so no scheduler is required.
+ */
+@Configuration
+@EnableConfigurationProperties(IngestProperties.class)
+public class IngestConfig {
+}
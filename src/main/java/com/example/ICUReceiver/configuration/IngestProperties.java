@@ -0,0 +1,175 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Ingest pipeline tuning, bound from the <code>icu.ingest</code> prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.ingest")
+public class IngestProperties {
+
+    private Reorder reorder = new Reorder();
+
+    private Dedup dedup = new Dedup();
+
+    private Shards shards = new Shards();
+
+    private Rollup rollup = new Rollup();
+
+    private Validation validation = new Validation();
+
+    private Lanes lanes = new Lanes();
+
+    private WriteRetry writeRetry = new WriteRetry();
+
+    @Data
+    public static class Reorder {
+        /**
+         * How far behind the newest device timestamp a signal may arrive and still be put in order.
+         */
+        private Duration maxLateness = Duration.ofSeconds(2);
+
+        /**
+         * How often each shard checks buffers of quiet streams for signals that waited out the lateness window.
+         */
+        private Duration flushInterval = Duration.ofMillis(500);
+    }
+
+    @Data
+    public static class Dedup {
+        /**
+         * How far back device timestamps are remembered per patient to detect replays.
+         */
+        private Duration window = Duration.ofMinutes(5);
+
+        /**
+         * Upper bound on remembered timestamps per patient, bounding memory for fast streams.
+         */
+        private int maxEntriesPerPatient = 1024;
+    }
+
+    @Data
+    public static class Shards {
+        /**
+         * Number of single-writer shards patients are partitioned across; 0 uses one per available processor.
+         */
+        private int count = 0;
+
+        /**
+         * Capacity of each shard's inbound queue.
+         */
+        private int queueCapacity = 4096;
+
+        /**
+         * Maximum number of queued signals a shard writer drains and persists in one batch.
+         */
+        private int batchSize = 256;
+
+        /**
+         * How long a submitter waits for room in a full shard queue before the signal is rejected.
+         */
+        private Duration enqueueTimeout = Duration.ofMillis(100);
+    }
+
+    @Data
+    public static class WriteRetry {
+        /**
+         * Pause before repeating a batch write the write limits turned away; doubled on every further rejection.
+         */
+        private Duration initialBackoff = Duration.ofMillis(50);
+
+        /**
+         * Longest pause between two attempts of a rejected batch write.
+         */
+        private Duration maxBackoff = Duration.ofSeconds(2);
+    }
+
+    @Data
+    public static class Rollup {
+        /**
+         * How often each shard merges its accumulated per-window statistics into the rollup table.
+         */
+        private Duration flushInterval = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Lanes {
+        /**
+         * Target arrival-to-persisted time for vitals, including the reorder hold of up to
+         * {@code reorder.max-lateness}; slower vitals are counted as budget breaches.
+         */
+        private Duration vitalsLatencyBudget = Duration.ofSeconds(3);
+
+        private Waveform waveform = new Waveform();
+    }
+
+    @Data
+    public static class Waveform {
+        /**
+         * Whether ECG samples are persisted by the waveform lane after the vitals, instead of inline with them.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of waveform writer threads.
+         */
+        private int writers = 2;
+
+        /**
+         * Capacity of the waveform queue; while it is full, signals carrying samples are rejected on submission.
+         */
+        private int queueCapacity = 256;
+
+        /**
+         * Maximum number of waveforms a writer persists in one batch.
+         */
+        private int batchSize = 32;
+
+        /**
+         * How long a writer waits for a batch to fill before persisting a partial one.
+         */
+        private Duration maxLinger = Duration.ofMillis(50);
+    }
+
+    @Data
+    public static class Validation {
+        /**
+         * Lowest plausible heart rate in beats per minute.
+         */
+        private double minHeartbeat = 0;
+
+        /**
+         * Highest plausible heart rate in beats per minute.
+         */
+        private double maxHeartbeat = 350;
+
+        /**
+         * Lowest plausible pulse reading.
+         */
+        private double minPulse = 0;
+
+        /**
+         * Highest plausible pulse reading.
+         */
+        private double maxPulse = 350;
+
+        /**
+         * How far ahead of the receiver's clock a device timestamp may be, absorbing device clock drift.
+         */
+        private Duration maxFutureSkew = Duration.ofMinutes(5);
+
+        /**
+         * How far behind the receiver's clock a device timestamp may be; 0 accepts any age, e.g. for backfills.
+         */
+        private Duration maxAge = Duration.ofDays(30);
+
+        /**
+         * Most ECG samples accepted with one signal.
+         */
+        private int maxEcgSamples = 15_000;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cache of the newest signals per patient, bound from the <code>icu.latest-cache</code> prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.latest-cache")
+public class LatestCacheProperties {
+
+    /**
+     * Whether <code>/latest</code> reads are answered from memory.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Signals kept per patient; pages reaching further are read from the store.
+     */
+    private int size = 50;
+
+    /**
+     * Patients kept at most; seeding one more evicts the patient read least recently.
+     */
+    private int maxPatients = 10_000;
+}
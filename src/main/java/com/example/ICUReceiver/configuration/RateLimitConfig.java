@@ -0,0 +1,20 @@
+package com.example.ICUReceiver.configuration;
+
+import com.example.ICUReceiver.limit.IngestRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the {@link IngestRateLimiter} for uploaded signals from <code>icu.rate-limit</code>.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public IngestRateLimiter ingestRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new IngestRateLimiter(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token-bucket limits on uploaded signals, bound from the <code>icu.rate-limit</code> prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether uploads are limited at all; when false every signal is admitted.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Limit per REST client (authenticated principal, else remote address) and per WebSocket session.
+     */
+    private Bucket client = new Bucket(500, 1_000);
+
+    /**
+     * Limit per patient, whichever client the signals arrive from.
+     */
+    private Bucket patient = new Bucket(10, 50);
+
+    /**
+     * Remote addresses, e.g. of an ingest gateway, whose <code>X-Client-Id</code> header names the
+     * client behind them; the header of any other caller is ignored.
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /**
+     * How often buckets that have refilled completely are dropped.
+     */
+    private Duration evictionInterval = Duration.ofMinutes(1);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+
+        /**
+         * Signals per second admitted on average; 0 disables this limit.
+         */
+        private double rate;
+
+        /**
+         * Signals admitted at once after an idle period, e.g. a device flushing its backlog.
+         */
+        private int burst;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.ICUReceiver.configuration;
+
+import com.example.ICUReceiver.dto.ApiResponse;
+import com.example.ICUReceiver.dto.FeedRecordDto;
+import com.example.ICUReceiver.dto.ICUSignalDto;
+import com.example.ICUReceiver.dto.MetricStatsDto;
+import com.example.ICUReceiver.dto.PatientStatsDto;
+import com.example.ICUReceiver.dto.WindowStatsDto;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.WaveformRef;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection hints for the AOT-processed and native builds (<code>-Paot</code>, <code>-Pnative</code>).
+ * <p>
+ * Spring's AOT engine derives hints for beans, configuration properties and JPA entities, but it
+ * only knows the Jackson 2 mapper behind Spring MVC. The WebSocket handlers, the change feed and
+ * the cluster forwarder serialize with their own Jackson 3 {@code ObjectMapper}, so the types it
+ * binds are registered here.
+ */
+@Configuration
+@ImportRuntimeHints(RuntimeHintsConfig.IcuRuntimeHints.class)
+public class RuntimeHintsConfig {
+
+    static class IcuRuntimeHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Read and written by the Jackson 3 mapper; nested types (List<Double>, records) are walked too.
+            bindings.registerReflectionHints(hints.reflection(),
+                    ICUSignalDto.class, FeedRecordDto.class, ApiResponse.class,
+                    PatientStatsDto.class, WindowStatsDto.class, MetricStatsDto.class);
+
+            // Hydrated by Hibernate through field access and its no-arg constructor.
+            for (Class<?> entity : new Class<?>[]{ICUSignal.class, WaveformRef.class}) {
+                hints.reflection().registerType(entity,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+        }
+    }
+}
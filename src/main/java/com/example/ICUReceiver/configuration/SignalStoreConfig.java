@@ -0,0 +1,48 @@
+package com.example.ICUReceiver.configuration;
+
+import com.example.ICUReceiver.repository.ICURepository;
+import com.example.ICUReceiver.repository.SignalBlockRepository;
+import com.example.ICUReceiver.store.JpaSignalStore;
+import com.example.ICUReceiver.store.SegmentSignalStore;
+import com.example.ICUReceiver.store.SignalStore;
+import com.example.ICUReceiver.store.WaveformStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Selects the {@link SignalStore} implementation from <code>icu.store.type</code>.
+ */
+@Configuration
+@EnableConfigurationProperties({SignalStoreProperties.class, WaveformProperties.class})
+public class SignalStoreConfig {
+
+    @Bean
+    public WaveformStore waveformStore(WaveformProperties properties) throws IOException {
+        return new WaveformStore(
+                Path.of(properties.getDirectory()),
+                properties.getSegmentSize().toBytes(),
+                properties.getSampleRateHz());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "icu.store", name = "type", havingValue = "jpa", matchIfMissing = true)
+    public SignalStore jpaSignalStore(ICURepository repository, SignalBlockRepository blockRepository,
+                                      WaveformStore waveformStore) {
+        return new JpaSignalStore(repository, blockRepository, waveformStore);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "icu.store", name = "type", havingValue = "segment")
+    public SignalStore segmentSignalStore(SignalStoreProperties properties) throws IOException {
+        SignalStoreProperties.Segment segment = properties.getSegment();
+        return new SegmentSignalStore(
+                Path.of(segment.getDirectory()),
+                segment.getMaxSegmentSize().toBytes(),
+                segment.getIndexInterval());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Storage engine selection, bound from the <code>icu.store</code> prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.store")
+public class SignalStoreProperties {
+
+    /**
+     * Which {@link com.example.ICUReceiver.store.SignalStore} backs the service.
+     */
+    private Type type = Type.JPA;
+
+    private Segment segment = new Segment();
+
+    private Compaction compaction = new Compaction();
+
+    public enum Type {
+        JPA,
+        SEGMENT
+    }
+
+    @Data
+    public static class Segment {
+        /**
+         * Root directory holding one sub-directory of segment files per patient.
+         */
+        private String directory = "./data/segments";
+
+        /**
+         * Size at which the active segment file is sealed and a new one started.
+         */
+        private DataSize maxSegmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Number of records covered by each sparse timestamp index entry.
+         */
+        private int indexInterval = 64;
+    }
+
+    @Data
+    public static class Compaction {
+        /**
+         * Whether old signals are periodically rewritten into compressed per-patient blocks.
+         * Only stores that support it are compacted.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Age after which a signal is compacted.
+         */
+        private Duration olderThan = Duration.ofDays(7);
+
+        /**
+         * Delay between compaction runs, also used as the delay before the first run.
+         */
+        private Duration interval = Duration.ofHours(1);
+
+        /**
+         * Maximum number of signals encoded into one block.
+         */
+        private int blockSize = 1024;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.ICUReceiver.configuration;
+
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.store.DeferredWaveformStore;
+import com.example.ICUReceiver.store.SignalStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the {@link LatestSignalCache} from <code>icu.latest-cache</code> and binds
+ * <code>icu.snapshot</code> for the {@link com.example.ICUReceiver.snapshot.StateSnapshotter}.
+ * <p>
+ * The cache holds signals without their samples, so it is only enabled with a store that reads
+ * ECG samples back through waveform references.
+ */
+@Configuration
+@EnableConfigurationProperties({LatestCacheProperties.class, SnapshotProperties.class})
+@Slf4j
+public class SnapshotConfig {
+
+    @Bean
+    public LatestSignalCache latestSignalCache(LatestCacheProperties properties, SignalStore store,
+                                               MeterRegistry meterRegistry) {
+        boolean enabled = properties.isEnabled() && store instanceof DeferredWaveformStore;
+        if (properties.isEnabled() && !enabled) {
+            log.info("Latest signal cache disabled | reason=store keeps ECG samples inline");
+        }
+        return new LatestSignalCache(enabled ? properties.getSize() : 0, properties.getMaxPatients(), meterRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Periodic snapshots of in-process state for warm restarts, bound from the
+ * <code>icu.snapshot</code> prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.snapshot")
+public class SnapshotProperties {
+
+    /**
+     * Whether state is restored on startup and snapshotted while running.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Snapshot file; replaced atomically on every snapshot.
+     */
+    private String file = "./data/state.snapshot";
+
+    /**
+     * Time between two snapshots; a final one is taken on shutdown.
+     */
+    private Duration interval = Duration.ofSeconds(30);
+
+    /**
+     * Snapshots older than this are not restored, as signals may have reached another node
+     * meanwhile.
+     */
+    private Duration maxAge = Duration.ofMinutes(10);
+
+    /**
+     * How long a snapshot waits for the ingest shards to copy their state between batches.
+     */
+    private Duration captureTimeout = Duration.ofSeconds(5);
+}
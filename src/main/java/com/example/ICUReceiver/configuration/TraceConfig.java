@@ -0,0 +1,19 @@
+package com.example.ICUReceiver.configuration;
+
+import com.example.ICUReceiver.trace.IngestTracer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the {@link IngestTracer} from <code>icu.trace</code>.
+ */
+@Configuration
+@EnableConfigurationProperties(TraceProperties.class)
+public class TraceConfig {
+
+    @Bean
+    public IngestTracer ingestTracer(TraceProperties properties) {
+        return new IngestTracer(properties);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Per-stage ingest timing, bound from the <code>icu.trace</code> prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.trace")
+public class TraceProperties {
+
+    /**
+     * Whether every ingested signal records its stage timings.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Most recent traces kept in memory for the <code>ingesttrace</code> actuator endpoint; rounded up to a power of two.
+     */
+    private int capacity = 16_384;
+
+    /**
+     * Traces returned by the endpoint when no limit is given.
+     */
+    private int defaultLimit = 20;
+}
@@ -0,0 +1,28 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Raw ECG waveform storage, bound from the <code>icu.waveform</code> prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.waveform")
+public class WaveformProperties {
+
+    /**
+     * Root directory holding one sub-directory of waveform segments per patient.
+     */
+    private String directory = "./data/waveforms";
+
+    /**
+     * Preallocated size of each memory-mapped waveform segment.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Sampling rate of the bedside ECG feed, recorded in every segment header.
+     */
+    private int sampleRateHz = 500;
+}
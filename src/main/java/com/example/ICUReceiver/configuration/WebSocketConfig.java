@@ -1,22 +1,59 @@
 package com.example.ICUReceiver.configuration;
 
 import com.example.ICUReceiver.handler.ICUSignalWebSocketHandler;
+import com.example.ICUReceiver.handler.LiveSignalWebSocketHandler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSocket
+@EnableConfigurationProperties(WebSocketProperties.class)
 public class WebSocketConfig implements WebSocketConfigurer {
 
+    private static final String TEXT_BUFFER_SIZE_PARAM = "org.apache.tomcat.websocket.textBufferSize";
+    private static final String BINARY_BUFFER_SIZE_PARAM = "org.apache.tomcat.websocket.binaryBufferSize";
+
     @Autowired
     private ICUSignalWebSocketHandler icuSignalWebSocketHandler;
 
+    @Autowired
+    private LiveSignalWebSocketHandler liveSignalWebSocketHandler;
+
+    @Autowired
+    private WebSocketProperties webSocketProperties;
+
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(icuSignalWebSocketHandler, "/ws/dynamic")
+                .setHandshakeHandler(new CompressionAwareHandshakeHandler(
+                        webSocketProperties.isPermessageDeflate()))
+                .setAllowedOrigins("*");
+        registry.addHandler(liveSignalWebSocketHandler, "/ws/live")
+                .setHandshakeHandler(new CompressionAwareHandshakeHandler(
+                        webSocketProperties.isPermessageDeflate()))
                 .setAllowedOrigins("*");
     }
+
+    /**
+     * Raises Tomcat's WebSocket frame buffers so ECG-bearing frames are accepted whole.
+     * Applied as context parameters rather than a container factory bean so that mock
+     * servlet environments without a WebSocket container still start.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> webSocketBufferCustomizer() {
+        String bufferSize = String.valueOf(webSocketProperties.getMaxTextMessageSize().toBytes());
+        return factory -> factory.addContextCustomizers(context -> {
+            context.addParameter(TEXT_BUFFER_SIZE_PARAM, bufferSize);
+            context.addParameter(BINARY_BUFFER_SIZE_PARAM, bufferSize);
+        });
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * WebSocket transport settings for the <code>/ws/dynamic</code> ingest endpoint.
+ * <p>
+ * Bound from the <code>icu.websocket</code> prefix in <code>application.yaml</code>.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.websocket")
+public class WebSocketProperties {
+
+    /**
+     * Whether the permessage-deflate extension (RFC 7692) may be negotiated with clients.
+     */
+    private boolean permessageDeflate = true;
+
+    /**
+     * Largest text frame the container will buffer; ECG-bearing frames exceed the 8KB container default.
+     */
+    private DataSize maxTextMessageSize = DataSize.ofKilobytes(512);
+}
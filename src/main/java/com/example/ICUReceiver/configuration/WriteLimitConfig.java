@@ -0,0 +1,20 @@
+package com.example.ICUReceiver.configuration;
+
+import com.example.ICUReceiver.limit.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the {@link AdaptiveConcurrencyLimiter} for database writes from <code>icu.write-limit</code>.
+ */
+@Configuration
+@EnableConfigurationProperties(WriteLimitProperties.class)
+public class WriteLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter writeLimiter(WriteLimitProperties properties, MeterRegistry meterRegistry) {
+        return new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+    }
+}
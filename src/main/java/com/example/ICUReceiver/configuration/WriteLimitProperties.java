@@ -0,0 +1,59 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Adaptive cap on concurrent database writes, bound from the <code>icu.write-limit</code> prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.write-limit")
+public class WriteLimitProperties {
+
+    /**
+     * Whether writes are limited at all; when false every write is admitted immediately.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Concurrent writes admitted before any latency has been observed.
+     */
+    private int initialLimit = 4;
+
+    /**
+     * Lowest limit the latency gradient or failures can push the limit down to.
+     */
+    private int minLimit = 1;
+
+    /**
+     * Highest limit; keep it at or below the writers' connection pool size.
+     */
+    private int maxLimit = 8;
+
+    /**
+     * How much slower than the long-term average a write may be before the limit shrinks.
+     */
+    private double tolerance = 2.0;
+
+    /**
+     * Factor the limit is multiplied by after a failed or rejected write.
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * Weight of each new limit estimate, from 0 (never move) to 1 (follow every sample).
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Number of writes the long-term latency average spans.
+     */
+    private int longWindow = 600;
+
+    /**
+     * How long a writer waits for a free slot before the write is rejected.
+     */
+    private Duration maxWait = Duration.ofSeconds(1);
+}
@@ -0,0 +1,61 @@
+package com.example.ICUReceiver.controller;
+
+import com.example.ICUReceiver.feed.ChangeFeed;
+import com.example.ICUReceiver.feed.FeedStreamer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * REST controller exposing the {@link ChangeFeed} of persisted ICU signals to downstream consumers.
+ *
+ * <p>Base URL: <b>/api/v1/icu/feed</b></p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/icu/feed")
+public class FeedController {
+
+    @Autowired
+    private FeedStreamer feedStreamer;
+
+    /**
+     * Streams persisted signals in sequence order as newline-delimited JSON.
+     * <p>
+     * The response first replays every retained record from {@code from}, then stays open and
+     * streams new records as they are persisted. It ends when the stream timeout (5 minutes by
+     * default) elapses; the consumer reconnects with the last sequence it processed plus one.
+     * Records older than the feed's disk retention are skipped, and the stream starts at the
+     * oldest retained record. Sequences are per node.
+     * </p>
+     *
+     * @param consumer name of the consumer, used to report its lag as <b>icu.feed.consumer.lag</b>.
+     * @param from     first sequence to send. Defaults to 0, the oldest retained record.
+     *
+     * <p><b>Example request:</b></p>
+     * <pre>
+     * GET /api/v1/icu/feed?consumer=ehr-bridge&from=1024
+     * </pre>
+     *
+     * <p><b>Response:</b></p>
+     * <pre>
+     * {"sequence":1024,"signal":{"nationalId":123456,"heartbeat":85.0,"pulse":97.0,"timestamp":"2025-11-09T14:30:00",...}}
+     * {"sequence":1025,"signal":{...}}
+     * </pre>
+     */
+    @GetMapping
+    public ResponseEntity<ResponseBodyEmitter> stream(
+            @RequestParam String consumer,
+            @RequestParam(defaultValue = "0") long from
+    ) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(feedStreamer.stream(consumer, from));
+    }
+}
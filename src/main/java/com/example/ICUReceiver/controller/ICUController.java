@@ -1,16 +1,35 @@
 package com.example.ICUReceiver.controller;
 
+import com.example.ICUReceiver.cluster.ClusterForwarder;
+import com.example.ICUReceiver.cluster.ClusterMembership;
+import com.example.ICUReceiver.cluster.SignalRouter;
 import com.example.ICUReceiver.dto.ApiResponse;
 import com.example.ICUReceiver.dto.ICUSignalDto;
+import com.example.ICUReceiver.dto.PatientStatsDto;
+import com.example.ICUReceiver.limit.IngestRateLimiter;
 import com.example.ICUReceiver.mapper.ICUSignalMapper;
 import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.RollupGranularity;
 import com.example.ICUReceiver.service.ICUService;
+import com.example.ICUReceiver.service.StatsService;
+import com.example.ICUReceiver.service.WaveformService;
+import com.example.ICUReceiver.store.WaveformWindow;
+import com.example.ICUReceiver.trace.IngestTrace;
+import com.example.ICUReceiver.trace.IngestTracer;
+import com.example.ICUReceiver.trace.Stage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.security.Principal;
 import java.time.LocalDateTime;
 
 /**
@@ -26,24 +45,62 @@ import java.time.LocalDateTime;
  *
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/icu")
 @Slf4j
 public class ICUController {
 
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Identifies the client behind a trusted proxy for rate limiting, see {@link IngestRateLimiter#clientKey}.
+     */
+    public static final String CLIENT_ID = "X-Client-Id";
+
     @Autowired
     private ICUService service;
 
     @Autowired
     private ICUSignalMapper mapper;
 
+    @Autowired
+    private SignalRouter signalRouter;
+
+    @Autowired
+    private WaveformService waveformService;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private IngestTracer tracer;
+
+    @Autowired
+    private IngestRateLimiter rateLimiter;
+
+    @Autowired
+    private ClusterMembership membership;
+
     /**
      * Receives and stores ICU signal data from a client.
      * <p>
-     * This endpoint accepts a JSON payload representing an ICU signal and saves it
-     * to the database after mapping it to an {@link ICUSignal} entity.
+     * This endpoint accepts a JSON payload representing an ICU signal, maps it to an
+     * {@link ICUSignal} entity and hands it to the {@link SignalRouter}. On the node owning
+     * the patient the ingest pipeline drops replayed duplicates and persists signals in
+     * device-timestamp order; other nodes forward the signal to the owner. Implausible
+     * signals are answered with <b>400 Bad Request</b> naming the failed check. Signals over the
+     * rate limit of their client or patient are answered with <b>429 Too Many Requests</b> and a
+     * <code>Retry-After</code> header, before they are mapped. The forwarding header is only
+     * honored from cluster members presenting the cluster secret; otherwise it is ignored and the
+     * signal is routed and limited like any other.
      * </p>
      *
-     * @param dto the ICU signal data transfer object containing signal information.
+     * @param dto         the ICU signal data transfer object containing signal information.
+     * @param forwardedBy the node that forwarded this signal, if any; forwarded signals are ingested here.
+     * @param request     the HTTP request, identifying the client for rate limiting.
      * @return a {@link ResponseEntity} containing a success message and a null body
      *         wrapped inside an {@link ApiResponse}.
      *
@@ -67,9 +124,28 @@ public class ICUController {
      * </pre>
      */
     @PostMapping("/upload")
-    public ResponseEntity<ApiResponse<Void>> receive(@RequestBody ICUSignalDto dto) {
-        ICUSignal entity = mapper.toEntity(dto);
-        service.saveSignal(entity);
+    public ResponseEntity<ApiResponse<Void>> receive(
+            @RequestBody ICUSignalDto dto,
+            @RequestHeader(value = ClusterForwarder.FORWARDED_BY, required = false) String forwardedBy,
+            HttpServletRequest request
+    ) {
+        boolean forwarded = forwardedBy != null
+                && membership.isForwardedByMember(forwardedBy, request.getHeader(ClusterForwarder.CLUSTER_SECRET));
+        if (forwardedBy != null && !forwarded) {
+            log.warn("Ignoring untrusted {} header | value={} | remote={}",
+                    ClusterForwarder.FORWARDED_BY, forwardedBy, request.getRemoteAddr());
+        }
+        if (!forwarded) {
+            rateLimiter.acquire(IngestTrace.Channel.REST, clientOf(request), dto.getNationalId());
+        }
+        IngestTrace trace = tracer.begin(IngestTrace.Channel.REST);
+        try {
+            ICUSignal entity = mapper.toEntity(dto);
+            trace.mark(Stage.MAP);
+            signalRouter.submit(entity, forwarded);
+        } finally {
+            tracer.clear();
+        }
         log.info("Received dto {}", dto);
         return ResponseEntity.ok(ApiResponse.success("Data received successfully", null));
     }
@@ -99,7 +175,7 @@ public class ICUController {
      *   "message": "Fetched ICU signals in time range",
      *   "data": {
      *     "content": [
-     *       {"timestamp": "2025-11-09T14:30:00", "heartbeat": 85, "pulse": 97},
+     *       {"id": 4211, "timestamp": "2025-11-09T14:30:00", "heartbeat": 85, "pulse": 97},
      *       ...,
      *     ],
      *     "pageable": {...},
@@ -147,7 +223,7 @@ public class ICUController {
      *   "message": "Fetched latest ICU signals",
      *   "data": {
      *     "content": [
-     *       {"timestamp": "2025-11-09T14:45:00", "heartbeat": 87, "pulse": 96},
+     *       {"id": 4250, "timestamp": "2025-11-09T14:45:00", "heartbeat": 87, "pulse": 96},
      *       ...,
      *     ]
      *   }
@@ -165,4 +241,104 @@ public class ICUController {
         return ResponseEntity.ok(ApiResponse.success(
                 "Fetched latest ICU signals", dtoPage));
     }
+
+    /**
+     * Retrieves heartbeat and pulse statistics for a patient over tumbling windows.
+     * <p>
+     * Statistics are maintained incrementally on ingest and read from the rollup table, one row
+     * per window, so the cost depends on the number of windows rather than on raw signals.
+     * Windows are merged from the ingest shards every rollup flush interval (10s by default).
+     * </p>
+     *
+     * @param nationalId  the patient’s national ID.
+     * @param granularity window size: MINUTE, HOUR or DAY. Defaults to MINUTE.
+     * @param from        earliest window start; omitted for the 60 windows up to {@code to}.
+     * @param to          latest window start; omitted for now.
+     * @return the per-window statistics and their merge wrapped in an {@link ApiResponse}.
+     *
+     * <p><b>Example request:</b></p>
+     * <pre>
+     * GET /api/v1/icu/stats/123456?granularity=MINUTE
+     * </pre>
+     *
+     * <p><b>Response:</b></p>
+     * <pre>
+     * {
+     *   "message": "Fetched ICU signal statistics",
+     *   "data": {
+     *     "granularity": "MINUTE",
+     *     "summary": {"heartbeat": {"count": 3600, "mean": 84.2, "variance": 6.1, ...}, ...},
+     *     "windows": [...]
+     *   }
+     * }
+     * </pre>
+     */
+    @GetMapping("/stats/{nationalId}")
+    public ResponseEntity<ApiResponse<PatientStatsDto>> findStats(
+            @PathVariable int nationalId,
+            @RequestParam(defaultValue = "MINUTE") RollupGranularity granularity,
+            @RequestParam(required = false) LocalDateTime from,
+            @RequestParam(required = false) LocalDateTime to
+    ) {
+        PatientStatsDto stats = statsService.findStats(nationalId, granularity, from, to);
+        return ResponseEntity.ok(ApiResponse.success("Fetched ICU signal statistics", stats));
+    }
+
+    /**
+     * Streams a window of the raw ECG waveform recorded with a signal.
+     * <p>
+     * The body is the raw sample window as big-endian IEEE 754 doubles, read straight from the
+     * waveform segment file. When the connector supports sendfile the byte range is handed to
+     * Tomcat, which sends it with {@link java.nio.channels.FileChannel#transferTo}; otherwise
+     * the range is transferred to the response channel directly.
+     * </p>
+     *
+     * @param signalId   the id of the signal whose waveform is requested, as returned in the
+     *                   <code>id</code> field of <code>/range</code> and <code>/latest</code>.
+     * @param nationalId the patient the signal belongs to; required in cluster mode, where it
+     *                   routes the request to the owner and signal ids are only unique per node.
+     * @param from       the first sample of the window. Defaults to 0.
+     * @param count      the number of samples; omitted for the rest of the waveform.
+     *
+     * <p><b>Example request:</b></p>
+     * <pre>
+     * GET /api/v1/icu/ecg/42?nationalId=12345&from=0&count=250
+     * </pre>
+     *
+     * <p><b>Response headers:</b></p>
+     * <pre>
+     * Content-Type: application/octet-stream
+     * X-Sample-Rate: 500
+     * X-Sample-Count: 250
+     * </pre>
+     */
+    @GetMapping("/ecg/{signalId}")
+    public void streamEcg(
+            @PathVariable int signalId,
+            @RequestParam(required = false) Integer nationalId,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(required = false) Integer count,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        WaveformWindow window = waveformService.findWindow(signalId, nationalId, from, count);
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(window.getByteLength());
+        response.setHeader("X-Sample-Rate", String.valueOf(window.getSampleRateHz()));
+        response.setHeader("X-Sample-Count", String.valueOf(window.getSampleCount()));
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, window.getFile().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, window.getPosition());
+            request.setAttribute(SENDFILE_END, window.getPosition() + window.getByteLength());
+            return;
+        }
+        waveformService.transferTo(window, Channels.newChannel(response.getOutputStream()));
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return rateLimiter.clientKey(principal != null ? principal.getName() : null,
+                request.getHeader(CLIENT_ID), request.getRemoteAddr());
+    }
 }
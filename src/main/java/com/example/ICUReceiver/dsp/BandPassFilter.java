@@ -0,0 +1,44 @@
+package com.example.ICUReceiver.dsp;
+
+/**
+ * Fourth-order Butterworth band-pass built from two high-pass and two low-pass {@link Biquad}s.
+ * <p>
+ * With the QRS band (5–15 Hz) it removes baseline wander, T and P waves and mains and muscle
+ * noise, leaving mostly the steep QRS slopes.
+ */
+public final class BandPassFilter {
+
+    /** Pole quality factors of a fourth-order Butterworth response split into two sections. */
+    private static final double[] BUTTERWORTH_Q = {0.5411961, 1.3065630};
+
+    private final Biquad[] sections;
+
+    public BandPassFilter(double lowCutHz, double highCutHz, double sampleRateHz) {
+        if (!(lowCutHz > 0 && lowCutHz < highCutHz && highCutHz < sampleRateHz / 2)) {
+            throw new IllegalArgumentException("Band-pass needs 0 < lowCut < highCut < sampleRate / 2, got "
+                    + lowCutHz + ".." + highCutHz + " Hz at " + sampleRateHz + " Hz");
+        }
+        sections = new Biquad[]{
+                Biquad.highPass(lowCutHz, sampleRateHz, BUTTERWORTH_Q[0]),
+                Biquad.highPass(lowCutHz, sampleRateHz, BUTTERWORTH_Q[1]),
+                Biquad.lowPass(highCutHz, sampleRateHz, BUTTERWORTH_Q[0]),
+                Biquad.lowPass(highCutHz, sampleRateHz, BUTTERWORTH_Q[1])
+        };
+    }
+
+    /**
+     * Filters the first {@code length} samples of {@code buffer} in place, continuing from the
+     * state left by the previous call.
+     */
+    public void apply(double[] buffer, int length) {
+        for (Biquad section : sections) {
+            section.apply(buffer, length);
+        }
+    }
+
+    public void reset() {
+        for (Biquad section : sections) {
+            section.reset();
+        }
+    }
+}
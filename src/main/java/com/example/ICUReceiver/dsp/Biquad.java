@@ -0,0 +1,60 @@
+package com.example.ICUReceiver.dsp;
+
+/**
+ * Second-order IIR section in transposed direct form II, with the RBJ cookbook coefficients.
+ * Keeps its two state variables between calls, so a stream can be filtered buffer by buffer.
+ */
+final class Biquad {
+
+    private final double b0;
+    private final double b1;
+    private final double b2;
+    private final double a1;
+    private final double a2;
+    private double z1;
+    private double z2;
+
+    private Biquad(double b0, double b1, double b2, double a0, double a1, double a2) {
+        this.b0 = b0 / a0;
+        this.b1 = b1 / a0;
+        this.b2 = b2 / a0;
+        this.a1 = a1 / a0;
+        this.a2 = a2 / a0;
+    }
+
+    static Biquad lowPass(double cutoffHz, double sampleRateHz, double q) {
+        double w0 = 2 * Math.PI * cutoffHz / sampleRateHz;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2 * q);
+        return new Biquad((1 - cos) / 2, 1 - cos, (1 - cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+    }
+
+    static Biquad highPass(double cutoffHz, double sampleRateHz, double q) {
+        double w0 = 2 * Math.PI * cutoffHz / sampleRateHz;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2 * q);
+        return new Biquad((1 + cos) / 2, -(1 + cos), (1 + cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+    }
+
+    /**
+     * Filters the first {@code length} samples of {@code buffer} in place.
+     */
+    void apply(double[] buffer, int length) {
+        double s1 = z1;
+        double s2 = z2;
+        for (int i = 0; i < length; i++) {
+            double in = buffer[i];
+            double out = b0 * in + s1;
+            s1 = b1 * in - a1 * out + s2;
+            s2 = b2 * in - a2 * out;
+            buffer[i] = out;
+        }
+        z1 = s1;
+        z2 = s2;
+    }
+
+    void reset() {
+        z1 = 0;
+        z2 = 0;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.ICUReceiver.dsp;
+
+import com.example.ICUReceiver.configuration.EcgProperties;
+import com.example.ICUReceiver.model.EcgFeatures;
+import com.example.ICUReceiver.model.ICUSignal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest-time DSP stage: derives {@link EcgFeatures} from the ECG samples of each signal so
+ * consumers no longer detect R peaks themselves.
+ * <p>
+ * Every patient's samples form one stream with its own {@link QrsDetector}, so filter state and
+ * the last R peak carry over from one signal to the next. A signal whose timestamp is more than
+ * {@code maxGap} away from the end of the previous signal's samples restarts the stream. The
+ * ingest shards {@link #evictIdle evict} the streams of their patients that received no signal
+ * for {@code idleTimeout}, so discharged patients do not keep their state forever.
+ * <p>
+ * {@link #analyze(List)} is called by the ingest shards with each released batch, before it is
+ * persisted. The batch is split by patient, and the patients are analysed in parallel on a
+ * fork-join pool. Within a patient, signals are analysed in batch order. A patient belongs to
+ * exactly one shard, so its stream is never analysed by two tasks at once. Samples are copied
+ * into a per-thread {@code double[]}, and filtering and detection work on that array in place.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.ecg.signals</b> – Signals analysed.</li>
+ *   <li><b>icu.ecg.samples</b> – ECG samples analysed.</li>
+ *   <li><b>icu.ecg.resets</b> – Streams restarted after a gap or out-of-order samples.</li>
+ *   <li><b>icu.ecg.streams.evicted</b> – Streams dropped after {@code idleTimeout} without signals.</li>
+ *   <li><b>icu.ecg.failed</b> – Signals left without features because analysis failed.</li>
+ *   <li><b>icu.ecg.batch.duration</b> – Time to analyse one ingest batch.</li>
+ * </ul>
+ */
+@Slf4j
+public class EcgAnalyzer implements Closeable {
+
+    private final boolean enabled;
+    private final double sampleRateHz;
+    private final long maxGapNanos;
+    private final long idleTimeoutNanos;
+    private final ForkJoinPool pool;
+    private final Map<Integer, PatientStream> streams = new ConcurrentHashMap<>();
+    private final ThreadLocal<double[]> buffers = ThreadLocal.withInitial(() -> new double[0]);
+
+    private final Counter signalCounter;
+    private final Counter sampleCounter;
+    private final Counter resetCounter;
+    private final Counter evictedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+
+    public EcgAnalyzer(EcgProperties properties, int sampleRateHz, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.sampleRateHz = sampleRateHz;
+        this.maxGapNanos = properties.getMaxGap().toNanos();
+        this.idleTimeoutNanos = properties.getIdleTimeout().toNanos();
+        int parallelism = properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ecg-dsp-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+
+        this.signalCounter = meterRegistry.counter("icu.ecg.signals");
+        this.sampleCounter = meterRegistry.counter("icu.ecg.samples");
+        this.resetCounter = meterRegistry.counter("icu.ecg.resets");
+        this.evictedCounter = meterRegistry.counter("icu.ecg.streams.evicted");
+        this.failedCounter = meterRegistry.counter("icu.ecg.failed");
+        this.batchTimer = meterRegistry.timer("icu.ecg.batch.duration");
+    }
+
+    /**
+     * Sets {@link ICUSignal#getEcgFeatures() ecgFeatures} on every signal carrying ECG samples.
+     * Returns once all of them are analysed.
+     *
+     * @param signals One batch in stream order, possibly spanning several patients.
+     */
+    public void analyze(List<ICUSignal> signals) {
+        if (!enabled) {
+            return;
+        }
+        Map<Integer, List<ICUSignal>> byPatient = new LinkedHashMap<>();
+        for (ICUSignal signal : signals) {
+            if (signal.getEcgList() != null && !signal.getEcgList().isEmpty()) {
+                byPatient.computeIfAbsent(signal.getNationalId(), id -> new ArrayList<>()).add(signal);
+            }
+        }
+        if (byPatient.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        if (byPatient.size() == 1) {
+            byPatient.forEach(this::analyzePatient);
+        } else {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(byPatient.size());
+            byPatient.forEach((nationalId, patientSignals) ->
+                    tasks.add(pool.submit(() -> analyzePatient(nationalId, patientSignals))));
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Drops the streams of patients whose ingest state the shard has evicted, whether or not
+     * they have been idle for {@code idleTimeout}.
+     *
+     * @param nationalIds The patients whose streams go.
+     */
+    public void evict(Collection<Integer> nationalIds) {
+        for (Integer nationalId : nationalIds) {
+            if (streams.remove(nationalId) != null) {
+                evictedCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops the streams of those patients whose last signal was analysed more than
+     * {@code idleTimeout} before {@code now}.
+     *
+     * @param nationalIds The patients to check, typically those of one ingest shard.
+     * @param now         Current {@link System#nanoTime()}.
+     */
+    public void evictIdle(Collection<Integer> nationalIds, long now) {
+        for (Integer nationalId : nationalIds) {
+            streams.computeIfPresent(nationalId, (id, stream) -> {
+                if (now - stream.lastUsed <= idleTimeoutNanos) {
+                    return stream;
+                }
+                evictedCounter.increment();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Number of patients with an open stream.
+     */
+    public int getStreamCount() {
+        return streams.size();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private void analyzePatient(int nationalId, List<ICUSignal> signals) {
+        // Touched inside compute, so a concurrent evictIdle either sees the new time or ran first.
+        PatientStream stream = streams.compute(nationalId, (id, existing) -> {
+            PatientStream touched = existing != null ? existing : new PatientStream(new QrsDetector(sampleRateHz));
+            touched.lastUsed = System.nanoTime();
+            return touched;
+        });
+        for (ICUSignal signal : signals) {
+            try {
+                signal.setEcgFeatures(stream.process(signal.getTimestamp(), signal.getEcgList()));
+                signalCounter.increment();
+                sampleCounter.increment(signal.getEcgList().size());
+            } catch (RuntimeException e) {
+                stream.reset();
+                failedCounter.increment();
+                log.error("ECG analysis failed | nationalId={} | timestamp={} | reason={}",
+                        nationalId, signal.getTimestamp(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Detector of one patient plus where the previous signal's samples ended.
+     */
+    private final class PatientStream {
+        private final QrsDetector detector;
+        private LocalDateTime expectedNext;
+        private volatile long lastUsed;
+
+        private PatientStream(QrsDetector detector) {
+            this.detector = detector;
+        }
+
+        EcgFeatures process(LocalDateTime timestamp, List<Double> samples) {
+            if (timestamp != null && expectedNext != null
+                    && Math.abs(Duration.between(expectedNext, timestamp).toNanos()) > maxGapNanos) {
+                reset();
+            }
+            int length = samples.size();
+            double[] buffer = buffers.get();
+            if (buffer.length < length) {
+                buffer = new double[Math.max(length, buffer.length * 2)];
+                buffers.set(buffer);
+            }
+            for (int i = 0; i < length; i++) {
+                buffer[i] = samples.get(i);
+            }
+            EcgFeatures features = detector.process(buffer, length);
+            if (timestamp != null) {
+                expectedNext = timestamp.plusNanos(Math.round(length * 1e9 / sampleRateHz));
+            }
+            return features;
+        }
+
+        void reset() {
+            detector.reset();
+            expectedNext = null;
+            resetCounter.increment();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.ICUReceiver.dsp;
+
+import com.example.ICUReceiver.model.EcgFeatures;
+
+import java.util.Arrays;
+
+/**
+ * Streaming R-peak detector for one patient's ECG, after Pan and Tompkins.
+ * <p>
+ * Each buffer is band-passed in place, then every sample goes through a five-point derivative,
+ * squaring and a 150 ms moving-window integration. The integrated signal is compared against an
+ * adaptive threshold that sits a quarter of the way from the running noise-peak level to the
+ * running signal-peak level. A run above the threshold is one QRS complex, and its maximum is
+ * taken as the R peak. The first two seconds of a stream only seed the two levels. After a peak,
+ * 200 ms are ignored. A run within 360 ms of the previous peak whose steepest slope is under half
+ * that of the previous QRS is a T wave and counts as noise. If no peak is found for three seconds,
+ * the signal level is halved.
+ * <p>
+ * Every stage delays all peaks equally, so the delay cancels out of the R-R intervals. All state
+ * carries over between buffers. A QRS complex split across two signals is counted in the second.
+ * Not thread-safe; a detector is used by one task at a time.
+ */
+final class QrsDetector {
+
+    static final double LOW_CUT_HZ = 5;
+    static final double HIGH_CUT_HZ = 15;
+
+    /** Intervals outside 200 ms – 3 s (300 – 20 bpm) are treated as detection errors. */
+    private static final double MIN_RR_MILLIS = 200;
+    private static final double MAX_RR_MILLIS = 3_000;
+
+    private final double sampleRateHz;
+    private final BandPassFilter filter;
+    private final double[] window;
+    private final long learningSamples;
+    private final long refractorySamples;
+    private final long tWaveSamples;
+    private final long decaySamples;
+
+    private long clock;
+    private double baseline;
+    private double x1, x2, x3, x4;
+    private int windowPosition;
+    private double windowSum;
+    private double previous;
+    private double beforePrevious;
+    private double learningMax;
+    private double learningSum;
+    private double signalLevel;
+    private double noiseLevel;
+    private boolean inQrs;
+    private double qrsMax;
+    private long qrsPeak;
+    private double qrsSlope;
+    private double lastSlope;
+    private long lastPeak = -1;
+    private long lastEvent;
+
+    QrsDetector(double sampleRateHz) {
+        this.sampleRateHz = sampleRateHz;
+        this.filter = new BandPassFilter(LOW_CUT_HZ, HIGH_CUT_HZ, sampleRateHz);
+        this.window = new double[Math.max(1, (int) Math.round(0.150 * sampleRateHz))];
+        this.learningSamples = Math.round(2 * sampleRateHz);
+        this.refractorySamples = Math.round(0.200 * sampleRateHz);
+        this.tWaveSamples = Math.round(0.360 * sampleRateHz);
+        this.decaySamples = Math.round(3 * sampleRateHz);
+        reset();
+    }
+
+    /**
+     * Forgets the stream, e.g. after a gap; the next buffer starts a new learning phase.
+     */
+    void reset() {
+        filter.reset();
+        Arrays.fill(window, 0);
+        clock = 0;
+        x1 = x2 = x3 = x4 = 0;
+        windowPosition = 0;
+        windowSum = 0;
+        previous = beforePrevious = 0;
+        learningMax = learningSum = 0;
+        signalLevel = noiseLevel = 0;
+        inQrs = false;
+        lastPeak = -1;
+        lastSlope = 0;
+        lastEvent = 0;
+    }
+
+    /**
+     * Runs the next {@code length} samples of the stream through the detector. The buffer is
+     * overwritten with its band-passed samples.
+     *
+     * @return Peaks and R-R intervals found in these samples.
+     */
+    EcgFeatures process(double[] samples, int length) {
+        if (clock == 0 && length > 0) {
+            // Filtering from zero state would turn the electrode offset into a step.
+            baseline = samples[0];
+        }
+        for (int i = 0; i < length; i++) {
+            samples[i] -= baseline;
+        }
+        filter.apply(samples, length);
+
+        int peaks = 0;
+        int intervals = 0;
+        double rrSum = 0;
+        double rrMin = Double.MAX_VALUE;
+        double rrMax = 0;
+        for (int i = 0; i < length; i++) {
+            double x = samples[i];
+            double derivative = (2 * x + x1 - x3 - 2 * x4) * 0.125;
+            x4 = x3;
+            x3 = x2;
+            x2 = x1;
+            x1 = x;
+
+            double squared = derivative * derivative;
+            windowSum += squared - window[windowPosition];
+            window[windowPosition] = squared;
+            if (++windowPosition == window.length) {
+                windowPosition = 0;
+            }
+            double integrated = Math.max(0, windowSum) / window.length;
+            clock++;
+
+            if (clock <= learningSamples) {
+                learningMax = Math.max(learningMax, integrated);
+                learningSum += integrated;
+                if (clock == learningSamples) {
+                    signalLevel = learningMax / 3;
+                    noiseLevel = learningSum / learningSamples / 2;
+                    lastEvent = clock;
+                }
+                continue;
+            }
+
+            double threshold = noiseLevel + 0.25 * (signalLevel - noiseLevel);
+            if (inQrs) {
+                if (integrated > qrsMax) {
+                    qrsMax = integrated;
+                    qrsPeak = clock;
+                }
+                qrsSlope = Math.max(qrsSlope, squared);
+                if (integrated < threshold) {
+                    inQrs = false;
+                    if (lastPeak >= 0 && qrsPeak - lastPeak < tWaveSamples && qrsSlope < 0.25 * lastSlope) {
+                        // A T wave: slopes are compared squared, so a quarter is half the slope.
+                        noiseLevel = 0.125 * qrsMax + 0.875 * noiseLevel;
+                    } else {
+                        signalLevel = 0.125 * qrsMax + 0.875 * signalLevel;
+                        peaks++;
+                        if (lastPeak >= 0) {
+                            double rr = (qrsPeak - lastPeak) * 1_000 / sampleRateHz;
+                            if (rr >= MIN_RR_MILLIS && rr <= MAX_RR_MILLIS) {
+                                intervals++;
+                                rrSum += rr;
+                                rrMin = Math.min(rrMin, rr);
+                                rrMax = Math.max(rrMax, rr);
+                            }
+                        }
+                        lastPeak = qrsPeak;
+                        lastSlope = qrsSlope;
+                        lastEvent = clock;
+                    }
+                }
+            } else if (integrated > threshold && (lastPeak < 0 || clock - lastPeak > refractorySamples)) {
+                inQrs = true;
+                qrsMax = integrated;
+                qrsPeak = clock;
+                qrsSlope = squared;
+            } else if (previous > integrated && previous >= beforePrevious && previous <= threshold) {
+                noiseLevel = 0.125 * previous + 0.875 * noiseLevel;
+            }
+            if (clock - lastEvent > decaySamples) {
+                signalLevel /= 2;
+                lastEvent = clock;
+            }
+            beforePrevious = previous;
+            previous = integrated;
+        }
+
+        if (intervals == 0) {
+            return new EcgFeatures(peaks, null, null, null, null);
+        }
+        double rrMean = rrSum / intervals;
+        return new EcgFeatures(peaks, rrMean, rrMin, rrMax, 60_000 / rrMean);
+    }
+}
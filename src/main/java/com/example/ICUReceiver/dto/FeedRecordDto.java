@@ -0,0 +1,16 @@
+package com.example.ICUReceiver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the change feed stream.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedRecordDto {
+    private long sequence;
+    private ICUSignalDto signal;
+}
@@ -1,5 +1,7 @@
 package com.example.ICUReceiver.dto;
 
+import com.example.ICUReceiver.model.EcgFeatures;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,9 +13,25 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ICUSignalDto {
+    /**
+     * Assigned by the store; addresses the signal's waveform at <code>/ecg/{id}</code>. Ignored on upload.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer id;
+
     private int nationalId;
     private double heartbeat;
     private double pulse;
     private LocalDateTime timestamp;
     private List<Double> ecgList;
+
+    /**
+     * Derived by the receiver from {@link #ecgList}; ignored on upload.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private EcgFeatures ecgFeatures;
+
+    public ICUSignalDto(int nationalId, double heartbeat, double pulse, LocalDateTime timestamp, List<Double> ecgList) {
+        this(null, nationalId, heartbeat, pulse, timestamp, ecgList, null);
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.ICUReceiver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricStatsDto {
+    private long count;
+    private double sum;
+    private double mean;
+    private double min;
+    private double max;
+    private double variance;
+    private double stdDev;
+}
@@ -0,0 +1,22 @@
+package com.example.ICUReceiver.dto;
+
+import com.example.ICUReceiver.model.RollupGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientStatsDto {
+    private int nationalId;
+    private RollupGranularity granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    /** All returned windows merged into one. */
+    private WindowStatsDto summary;
+    private List<WindowStatsDto> windows;
+}
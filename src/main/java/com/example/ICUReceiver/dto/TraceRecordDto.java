@@ -0,0 +1,23 @@
+package com.example.ICUReceiver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Stage breakdown of one traced signal, as listed by the <code>ingesttrace</code> actuator endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TraceRecordDto {
+    private long sequence;
+    private LocalDateTime receivedAt;
+    private int nationalId;
+    private String channel;
+    private double totalMillis;
+    private Map<String, Double> stageMillis;
+}
@@ -0,0 +1,17 @@
+package com.example.ICUReceiver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WindowStatsDto {
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+    private MetricStatsDto heartbeat;
+    private MetricStatsDto pulse;
+}
@@ -0,0 +1,7 @@
+package com.example.ICUReceiver.exception;
+
+public class ClusterForwardingException extends RuntimeException {
+    public ClusterForwardingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
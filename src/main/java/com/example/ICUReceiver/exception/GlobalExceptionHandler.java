@@ -3,6 +3,7 @@ package com.example.ICUReceiver.exception;
 import com.example.ICUReceiver.dto.ApiResponse;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -45,4 +46,28 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest()
                 .body(ApiResponse.failure(e.getMessage()));
     }
+
+    @ExceptionHandler(InvalidFeedRequestException.class)
+    public ResponseEntity<ApiResponse<Void>> handleInvalidFeedRequest(
+            InvalidFeedRequestException e) {
+        return ResponseEntity.badRequest()
+                .body(ApiResponse.failure(e.getMessage()));
+    }
+
+    @ExceptionHandler(IngestOverloadedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleIngestOverloaded(
+            IngestOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.failure(e.getMessage()));
+    }
+
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRateLimited(
+            RateLimitedException e) {
+        // Retry-After is in whole seconds; round up so a client honouring it finds a token.
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ApiResponse.failure(e.getMessage()));
+    }
 }
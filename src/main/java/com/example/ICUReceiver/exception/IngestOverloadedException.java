@@ -0,0 +1,7 @@
+package com.example.ICUReceiver.exception;
+
+public class IngestOverloadedException extends RuntimeException {
+    public IngestOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.ICUReceiver.exception;
+
+public class InvalidFeedRequestException extends RuntimeException {
+    public InvalidFeedRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ICUReceiver.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A signal exceeded the upload rate of its client or patient.
+ */
+@Getter
+public class RateLimitedException extends RuntimeException {
+
+    /**
+     * Which limit was hit: <code>client</code> or <code>patient</code>.
+     */
+    private final String scope;
+
+    /**
+     * Patient of the rejected signal.
+     */
+    private final int nationalId;
+
+    /**
+     * When the next signal would be admitted.
+     */
+    private final Duration retryAfter;
+
+    public RateLimitedException(String message, String scope, int nationalId, Duration retryAfter) {
+        // Thrown for every signal of a flooding client; the stack trace would cost more than the decision.
+        super(message, null, false, false);
+        this.scope = scope;
+        this.nationalId = nationalId;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ICUReceiver.exception;
+
+/**
+ * A database write was refused before reaching the database because the write limits were
+ * exhausted: the adaptive concurrency limit, the write bulkhead or an open circuit breaker.
+ */
+public class WriteRejectedException extends IngestOverloadedException {
+    public WriteRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.ICUReceiver.feed;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ordered, append-only feed of every signal persisted on this node.
+ * <p>
+ * The ingest shards append each batch right after it is stored, and every signal receives the
+ * next sequence number. Records go to {@link FeedSegmentLog disk segments} and to an in-memory
+ * ring of the most recent {@code tailCapacity} records. Consumers read from any sequence still
+ * retained: caught-up consumers are served from the ring, and consumers catching up read the
+ * memory-mapped segments, so neither touches the signal table.
+ * <p>
+ * Appends are serialized, one positional write per batch; reads never block appends.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.feed.appended</b> – Records appended to the feed.</li>
+ *   <li><b>icu.feed.append.failed</b> – Persisted signals that could not be written to the feed.</li>
+ *   <li><b>icu.feed.read</b> – Records read by consumers, tagged {@code source} (<code>tail</code> or <code>segment</code>).</li>
+ *   <li><b>icu.feed.sequence</b> – Sequence of the last appended record.</li>
+ * </ul>
+ */
+@Slf4j
+public class ChangeFeed implements Closeable {
+
+    private final FeedSegmentLog segmentLog;
+    private final AtomicReferenceArray<FeedRecord> tail;
+    private final long tailFloor;
+    private final Object arrivals = new Object();
+    private volatile long nextSequence;
+
+    private final Counter appendedCounter;
+    private final Counter appendFailedCounter;
+    private final Counter tailReadCounter;
+    private final Counter segmentReadCounter;
+
+    public ChangeFeed(Path directory, long segmentSize, long retentionBytes, int indexInterval, int tailCapacity,
+                      MeterRegistry meterRegistry) throws IOException {
+        this.segmentLog = FeedSegmentLog.open(directory, segmentSize, retentionBytes, indexInterval);
+        this.tail = new AtomicReferenceArray<>(tailCapacity);
+        this.nextSequence = segmentLog.nextSequence();
+        // Records from before a restart are only on disk.
+        this.tailFloor = nextSequence;
+
+        this.appendedCounter = meterRegistry.counter("icu.feed.appended");
+        this.appendFailedCounter = meterRegistry.counter("icu.feed.append.failed");
+        this.tailReadCounter = meterRegistry.counter("icu.feed.read", "source", "tail");
+        this.segmentReadCounter = meterRegistry.counter("icu.feed.read", "source", "segment");
+        meterRegistry.gauge("icu.feed.sequence", this, ChangeFeed::lastSequence);
+    }
+
+    /**
+     * Appends persisted signals in order. A failed write is counted and logged, not thrown, so a
+     * full disk cannot fail ingest; the lost signals are still in the signal table.
+     */
+    public synchronized void append(List<ICUSignal> signals) {
+        if (signals.isEmpty()) {
+            return;
+        }
+        long sequence = nextSequence;
+        List<FeedRecord> records = new ArrayList<>(signals.size());
+        for (ICUSignal signal : signals) {
+            records.add(new FeedRecord(sequence++, signal));
+        }
+        try {
+            segmentLog.append(records);
+        } catch (IOException | RuntimeException e) {
+            appendFailedCounter.increment(signals.size());
+            log.error("Failed to append to change feed | size={} | reason={}", signals.size(), e.getMessage(), e);
+            return;
+        }
+        for (FeedRecord record : records) {
+            tail.set(slot(record.sequence()), record);
+        }
+        nextSequence = sequence;
+        appendedCounter.increment(records.size());
+        synchronized (arrivals) {
+            arrivals.notifyAll();
+        }
+    }
+
+    /**
+     * Reads up to {@code max} consecutive records, starting at {@code from} or at the oldest
+     * retained record if {@code from} has already been deleted.
+     *
+     * @return The records read; empty when the consumer is caught up.
+     */
+    public List<FeedRecord> read(long from, int max) {
+        long next = nextSequence;
+        long start = Math.max(from, firstSequence());
+        if (start >= next || max <= 0) {
+            return List.of();
+        }
+        List<FeedRecord> records = new ArrayList<>((int) Math.min(max, next - start));
+        if (start >= Math.max(tailFloor, next - tail.length())) {
+            long end = Math.min(next, start + max);
+            for (long sequence = start; sequence < end; sequence++) {
+                FeedRecord record = tail.get(slot(sequence));
+                if (record == null || record.sequence() != sequence) {
+                    // Overwritten while reading; continue from the segments.
+                    break;
+                }
+                records.add(record);
+            }
+            tailReadCounter.increment(records.size());
+            if (!records.isEmpty()) {
+                return records;
+            }
+        }
+        segmentLog.read(start, max, records);
+        segmentReadCounter.increment(records.size());
+        return records;
+    }
+
+    /**
+     * Waits until a record after {@code sequence} is appended or the timeout elapses.
+     *
+     * @return {@code true} if such a record exists.
+     */
+    public boolean awaitAfter(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (arrivals) {
+            while (nextSequence <= sequence + 1) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(arrivals, remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Oldest sequence that can still be read.
+     */
+    public long firstSequence() {
+        return segmentLog.firstSequence();
+    }
+
+    /**
+     * Sequence of the last appended record, 0 before the first.
+     */
+    public long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        segmentLog.close();
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % tail.length());
+    }
+}
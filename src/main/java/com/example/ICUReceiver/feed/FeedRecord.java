@@ -0,0 +1,12 @@
+package com.example.ICUReceiver.feed;
+
+import com.example.ICUReceiver.model.ICUSignal;
+
+/**
+ * One persisted signal and its position in the {@link ChangeFeed}.
+ *
+ * @param sequence Position in the feed; starts at 1 and increases by one per record.
+ * @param signal   The signal as persisted.
+ */
+public record FeedRecord(long sequence, ICUSignal signal) {
+}
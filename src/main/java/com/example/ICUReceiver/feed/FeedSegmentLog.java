@@ -0,0 +1,415 @@
+package com.example.ICUReceiver.feed;
+
+import com.example.ICUReceiver.model.EcgFeatures;
+import com.example.ICUReceiver.model.ICUSignal;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * On-disk part of the {@link ChangeFeed}: the records of all patients in sequence order, split
+ * into segment files named after their first sequence number.
+ * <p>
+ * Segment layout: a 16 byte header (magic, version, first sequence) followed by length-prefixed
+ * records:
+ * <pre>
+ * int    recordLength   (bytes after this field)
+ * long   sequence
+ * long   timestamp      (epoch nanoseconds, UTC)
+ * int    id
+ * int    nationalId
+ * double heartbeat
+ * double pulse
+ * int    ecgCount
+ * double ecg[ecgCount]
+ * int    peakCount      (ECG features, only for analysed signals; -1 if absent)
+ * double rrMean, rrMin, rrMax, heartRate  (NaN if absent)
+ * </pre>
+ * Readers tell whether the features are present from the record length.
+ * Sequences are dense, so a segment is found by its first sequence and a record within it
+ * through a sparse index holding the offset of every {@code indexInterval}-th record. The index
+ * is rebuilt by scanning on open, which also truncates a torn record left behind by a crash.
+ * <p>
+ * A single writer appends; readers run concurrently and only see records whose bytes are
+ * complete, because a segment's size is published after the write.
+ */
+@Slf4j
+final class FeedSegmentLog implements Closeable {
+
+    static final int MAGIC = 0x49435546; // "ICUF"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private static final int FIXED_RECORD_SIZE = 8 + 8 + 4 + 4 + 8 + 8 + 4;
+    private static final int FEATURES_SIZE = 4 + 4 * 8;
+    private static final String SEGMENT_SUFFIX = ".feed";
+
+    private final Path directory;
+    private final long maxSegmentSize;
+    private final long retentionBytes;
+    private final int indexInterval;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private FileChannel writer;
+    private volatile long nextSequence = 1;
+
+    private FeedSegmentLog(Path directory, long maxSegmentSize, long retentionBytes, int indexInterval) {
+        this.directory = directory;
+        this.maxSegmentSize = maxSegmentSize;
+        this.retentionBytes = retentionBytes;
+        this.indexInterval = indexInterval;
+    }
+
+    static FeedSegmentLog open(Path directory, long maxSegmentSize, long retentionBytes, int indexInterval)
+            throws IOException {
+        Files.createDirectories(directory);
+        FeedSegmentLog feedLog = new FeedSegmentLog(directory, maxSegmentSize, retentionBytes, indexInterval);
+        feedLog.recover();
+        return feedLog;
+    }
+
+    /**
+     * Sequence the next appended record receives.
+     */
+    long nextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Oldest sequence still on disk; equals {@link #nextSequence()} when the log is empty.
+     */
+    long firstSequence() {
+        return segments.firstKey();
+    }
+
+    /**
+     * Appends records whose sequences continue from {@link #nextSequence()}. Single writer only.
+     */
+    void append(List<FeedRecord> records) throws IOException {
+        int batchSize = 0;
+        for (FeedRecord record : records) {
+            batchSize += recordSize(record.signal());
+        }
+        ByteBuffer pending = ByteBuffer.allocate(batchSize);
+        Segment segment = segments.lastEntry().getValue();
+        for (FeedRecord record : records) {
+            int recordSize = recordSize(record.signal());
+            if (segment.size + pending.position() + recordSize > maxSegmentSize
+                    && segment.size + pending.position() > HEADER_SIZE) {
+                flush(pending, segment);
+                segment.lastSequence = record.sequence() - 1;
+                segment = roll(record.sequence());
+            }
+            int offset = (int) (segment.size + pending.position());
+            encode(record, pending);
+            segment.index(record.sequence(), offset, indexInterval);
+        }
+        flush(pending, segment);
+        segment.lastSequence = records.getLast().sequence();
+        nextSequence = records.getLast().sequence() + 1;
+        enforceRetention();
+    }
+
+    /**
+     * Adds up to {@code max} records starting at sequence {@code from} to {@code out}.
+     *
+     * @return The sequence following the last record added.
+     */
+    long read(long from, int max, List<FeedRecord> out) {
+        long sequence = Math.max(from, firstSequence());
+        long end = Math.min(nextSequence, sequence + max);
+        while (sequence < end) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+            if (entry == null) {
+                return sequence;
+            }
+            Segment segment = entry.getValue();
+            long segmentEnd = Math.min(end, segment.lastSequence + 1);
+            if (sequence >= segmentEnd) {
+                return sequence;
+            }
+            ByteBuffer view = segment.view(segment.size);
+            int position = segment.offsetOf(sequence, indexInterval);
+            while (position < view.limit() && sequence < segmentEnd) {
+                int length = view.getInt(position);
+                long recordSequence = view.getLong(position + 4);
+                if (recordSequence >= sequence) {
+                    out.add(decode(view, position));
+                    sequence = recordSequence + 1;
+                }
+                position += 4 + length;
+            }
+        }
+        return sequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(Comparator.comparing(Path::getFileName));
+
+        Segment last = null;
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long fileSize = channel.size();
+                if (fileSize < HEADER_SIZE) {
+                    Files.delete(file);
+                    continue;
+                }
+                MappedByteBuffer view = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                if (view.getInt(0) != MAGIC) {
+                    throw new IOException("Not a feed segment: " + file);
+                }
+                Segment segment = new Segment(file, view.getLong(8));
+                int position = HEADER_SIZE;
+                while (position + 4 <= fileSize) {
+                    int length = view.getInt(position);
+                    if (length < FIXED_RECORD_SIZE || position + 4L + length > fileSize) {
+                        break;
+                    }
+                    long sequence = view.getLong(position + 4);
+                    segment.index(sequence, position, indexInterval);
+                    segment.lastSequence = sequence;
+                    position += 4 + length;
+                }
+                segment.size = position;
+                if (position < fileSize) {
+                    log.warn("Truncating torn feed segment tail | file={} | from={} | to={}", file, fileSize, position);
+                }
+                segments.put(segment.firstSequence, segment);
+                last = segment;
+            }
+        }
+
+        if (last == null) {
+            createSegment(1);
+        } else {
+            nextSequence = last.lastSequence + 1;
+            writer = FileChannel.open(last.path, StandardOpenOption.WRITE);
+            writer.truncate(last.size);
+        }
+        log.info("Opened change feed | directory={} | segments={} | firstSequence={} | nextSequence={}",
+                directory, segments.size(), firstSequence(), nextSequence);
+    }
+
+    private Segment roll(long firstSequence) throws IOException {
+        writer.close();
+        return createSegment(firstSequence);
+    }
+
+    private Segment createSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve("%020d%s".formatted(firstSequence, SEGMENT_SUFFIX));
+        writer = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC).putInt(VERSION).putLong(firstSequence)
+                .flip();
+        while (header.hasRemaining()) {
+            writer.write(header, HEADER_SIZE - header.remaining());
+        }
+        Segment segment = new Segment(file, firstSequence);
+        segment.size = HEADER_SIZE;
+        segments.put(firstSequence, segment);
+        return segment;
+    }
+
+    private void flush(ByteBuffer pending, Segment segment) throws IOException {
+        pending.flip();
+        long position = segment.size;
+        while (pending.hasRemaining()) {
+            position += writer.write(pending, position);
+        }
+        segment.size = position;
+        pending.clear();
+    }
+
+    /**
+     * Deletes the oldest sealed segments while the log exceeds its retention. The active segment
+     * is always kept. A reader still holding a mapping of a deleted segment keeps reading it.
+     */
+    private void enforceRetention() throws IOException {
+        long total = 0;
+        for (Segment segment : segments.values()) {
+            total += segment.size;
+        }
+        while (total > retentionBytes && segments.size() > 1) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            total -= oldest.size;
+            Files.deleteIfExists(oldest.path);
+            log.debug("Deleted feed segment past retention | file={} | lastSequence={}",
+                    oldest.path, oldest.lastSequence);
+        }
+    }
+
+    private static int recordSize(ICUSignal signal) {
+        int ecgCount = signal.getEcgList() == null ? 0 : signal.getEcgList().size();
+        return 4 + FIXED_RECORD_SIZE + ecgCount * 8 + (signal.getEcgFeatures() == null ? 0 : FEATURES_SIZE);
+    }
+
+    private static void encode(FeedRecord record, ByteBuffer buffer) {
+        ICUSignal signal = record.signal();
+        List<Double> ecg = signal.getEcgList() == null ? List.of() : signal.getEcgList();
+        EcgFeatures features = signal.getEcgFeatures();
+        buffer.putInt(FIXED_RECORD_SIZE + ecg.size() * 8 + (features == null ? 0 : FEATURES_SIZE))
+                .putLong(record.sequence())
+                .putLong(toNanos(signal.getTimestamp()))
+                .putInt(signal.getId())
+                .putInt(signal.getNationalId())
+                .putDouble(signal.getHeartbeat())
+                .putDouble(signal.getPulse())
+                .putInt(ecg.size());
+        for (Double sample : ecg) {
+            buffer.putDouble(sample);
+        }
+        if (features != null) {
+            buffer.putInt(features.getPeakCount() == null ? -1 : features.getPeakCount())
+                    .putDouble(orNaN(features.getRrMeanMillis()))
+                    .putDouble(orNaN(features.getRrMinMillis()))
+                    .putDouble(orNaN(features.getRrMaxMillis()))
+                    .putDouble(orNaN(features.getHeartRate()));
+        }
+    }
+
+    private static FeedRecord decode(ByteBuffer view, int position) {
+        int field = position + 4;
+        long sequence = view.getLong(field);
+        long timestamp = view.getLong(field + 8);
+        int id = view.getInt(field + 16);
+        int nationalId = view.getInt(field + 20);
+        double heartbeat = view.getDouble(field + 24);
+        double pulse = view.getDouble(field + 32);
+        int ecgCount = view.getInt(field + 40);
+        List<Double> ecg = new ArrayList<>(ecgCount);
+        int ecgPosition = field + FIXED_RECORD_SIZE;
+        for (int i = 0; i < ecgCount; i++) {
+            ecg.add(view.getDouble(ecgPosition + i * 8));
+        }
+        EcgFeatures features = null;
+        int featuresPosition = ecgPosition + ecgCount * 8;
+        if (view.getInt(position) >= FIXED_RECORD_SIZE + ecgCount * 8 + FEATURES_SIZE) {
+            int peakCount = view.getInt(featuresPosition);
+            features = new EcgFeatures(peakCount < 0 ? null : peakCount,
+                    orNull(view.getDouble(featuresPosition + 4)),
+                    orNull(view.getDouble(featuresPosition + 12)),
+                    orNull(view.getDouble(featuresPosition + 20)),
+                    orNull(view.getDouble(featuresPosition + 28)));
+        }
+        return new FeedRecord(sequence, ICUSignal.builder()
+                .id(id)
+                .nationalId(nationalId)
+                .heartbeat(heartbeat)
+                .pulse(pulse)
+                .timestamp(fromNanos(timestamp))
+                .ecgList(ecg)
+                .ecgFeatures(features)
+                .build());
+    }
+
+    private static double orNaN(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static long toNanos(LocalDateTime timestamp) {
+        try {
+            return Math.addExact(Math.multiplyExact(timestamp.toEpochSecond(ZoneOffset.UTC), 1_000_000_000L),
+                    timestamp.getNano());
+        } catch (ArithmeticException e) {
+            return timestamp.getYear() < 1970 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    private static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long firstSequence;
+        private volatile long size;
+        private volatile long lastSequence;
+        private volatile int[] offsets = new int[16];
+        private volatile int indexed;
+        private MappedByteBuffer mapped;
+
+        private Segment(Path path, long firstSequence) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.lastSequence = firstSequence - 1;
+        }
+
+        /**
+         * Records the offset of every {@code interval}-th record. The entry is stored before the
+         * count is published, so a reader never sees an unset offset.
+         */
+        private void index(long sequence, int offset, int interval) {
+            long ordinal = sequence - firstSequence;
+            if (ordinal % interval != 0) {
+                return;
+            }
+            int slot = (int) (ordinal / interval);
+            int[] current = offsets;
+            if (slot == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[slot] = offset;
+            offsets = current;
+            indexed = slot + 1;
+        }
+
+        /**
+         * Offset of the indexed record at or before {@code sequence}.
+         */
+        private int offsetOf(long sequence, int interval) {
+            int count = indexed;
+            int[] current = offsets;
+            int slot = (int) Math.min((sequence - firstSequence) / interval, count - 1);
+            return slot < 0 ? HEADER_SIZE : current[slot];
+        }
+
+        /**
+         * Returns a read-only view covering at least {@code requiredEnd} committed bytes,
+         * remapping the file when it has grown past the current mapping.
+         */
+        synchronized ByteBuffer view(long requiredEnd) {
+            if (mapped == null || mapped.capacity() < requiredEnd) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, requiredEnd);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return mapped.duplicate().limit((int) requiredEnd);
+        }
+    }
+}
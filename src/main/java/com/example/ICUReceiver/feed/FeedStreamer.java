@@ -0,0 +1,189 @@
+package com.example.ICUReceiver.feed;
+
+import com.example.ICUReceiver.configuration.FeedProperties;
+import com.example.ICUReceiver.dto.FeedRecordDto;
+import com.example.ICUReceiver.exception.InvalidFeedRequestException;
+import com.example.ICUReceiver.mapper.ICUSignalMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Streams the {@link ChangeFeed} to named consumers as newline-delimited JSON.
+ * <p>
+ * Each stream runs on its own virtual thread: it writes everything from the requested sequence
+ * onwards in chunks of {@code batchSize} records, then waits for new records and writes those as
+ * they arrive, until the consumer disconnects or the stream timeout ends the response. Every line
+ * carries its sequence, so a consumer resumes by reconnecting with the last sequence it
+ * processed plus one.
+ * <p>
+ * Consumer names are short identifiers. A consumer's lag gauge exists while it has at least one
+ * open stream and is removed with its last one, so reconnecting clients cannot pile up meters.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.feed.consumer.lag</b> – Records appended but not yet sent to a consumer with an open stream, tagged {@code consumer}.</li>
+ *   <li><b>icu.feed.streams</b> – Open feed streams.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class FeedStreamer {
+
+    private static final Pattern CONSUMER_NAME = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final long IDLE_POLL_MILLIS = 1_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ChangeFeed feed;
+    private final ICUSignalMapper mapper;
+    private final FeedProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Consumer> consumers = new ConcurrentHashMap<>();
+    private final AtomicLong openStreams = new AtomicLong();
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("feed-stream-", 0).factory());
+
+    @Autowired
+    public FeedStreamer(ChangeFeed feed, ICUSignalMapper mapper, FeedProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.feed = feed;
+        this.mapper = mapper;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("icu.feed.streams", openStreams);
+    }
+
+    /**
+     * Opens a stream for {@code consumer} starting at sequence {@code from}.
+     *
+     * @throws InvalidFeedRequestException if the consumer name is not a short identifier.
+     */
+    public ResponseBodyEmitter stream(String consumer, long from) {
+        if (!CONSUMER_NAME.matcher(consumer).matches()) {
+            throw new InvalidFeedRequestException(
+                    "Invalid consumer: use 1-64 letters, digits, '.', '_' or '-'");
+        }
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(properties.getStreamTimeout().toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+
+        long first = feed.firstSequence();
+        if (from > 1 && from < first) {
+            log.warn("Feed consumer resumes past retention | consumer={} | from={} | oldest={}", consumer, from, first);
+        }
+        long start = Math.max(from, first);
+        AtomicLong position = open(consumer);
+        position.set(start - 1);
+        try {
+            executor.execute(() -> run(consumer, start, position, emitter, open));
+        } catch (RuntimeException e) {
+            close(consumer);
+            throw e;
+        }
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param from First sequence to send, already clamped to the oldest retained record so an
+     *             idle wait on an empty feed blocks instead of returning at once.
+     */
+    private void run(String consumer, long from, AtomicLong position, ResponseBodyEmitter emitter, AtomicBoolean open) {
+        openStreams.incrementAndGet();
+        log.info("Feed stream opened | consumer={} | from={}", consumer, from);
+        long next = from;
+        try {
+            while (open.get()) {
+                List<FeedRecord> records = feed.read(next, properties.getBatchSize());
+                if (records.isEmpty()) {
+                    feed.awaitAfter(next - 1, IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                StringBuilder lines = new StringBuilder(records.size() * 128);
+                for (FeedRecord record : records) {
+                    lines.append(objectMapper.writeValueAsString(
+                            new FeedRecordDto(record.sequence(), mapper.toDto(record.signal())))).append('\n');
+                }
+                emitter.send(lines.toString(), MediaType.APPLICATION_NDJSON);
+                next = records.getLast().sequence() + 1;
+                position.set(next - 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // The consumer went away or the response timed out; it resumes from its last sequence.
+            log.debug("Feed stream ended | consumer={} | reason={}", consumer, e.getMessage());
+        } finally {
+            close(consumer);
+            openStreams.decrementAndGet();
+            log.info("Feed stream closed | consumer={} | next={}", consumer, next);
+        }
+    }
+
+    /**
+     * Counts a new stream of {@code consumer}, registering its lag gauge with the first one.
+     *
+     * @return The last sequence sent to the consumer, shared by its streams.
+     */
+    private AtomicLong open(String consumer) {
+        return consumers.compute(consumer, (name, existing) -> {
+            Consumer opened = existing != null ? existing : new Consumer(name);
+            opened.streams++;
+            return opened;
+        }).position;
+    }
+
+    /**
+     * Counts a closed stream of {@code consumer}, removing its lag gauge with the last one.
+     */
+    private void close(String consumer) {
+        consumers.computeIfPresent(consumer, (name, existing) -> {
+            if (--existing.streams > 0) {
+                return existing;
+            }
+            meterRegistry.remove(existing.lag);
+            return null;
+        });
+    }
+
+    /**
+     * Open streams and delivery position of one consumer; only changed inside {@code compute}.
+     */
+    private final class Consumer {
+        private final AtomicLong position = new AtomicLong();
+        private final Gauge lag;
+        private int streams;
+
+        private Consumer(String name) {
+            this.lag = Gauge.builder("icu.feed.consumer.lag", position, p -> Math.max(0, feed.lastSequence() - p.get()))
+                    .tag("consumer", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.ICUReceiver.handler;
 
+import com.example.ICUReceiver.cluster.SignalRouter;
 import com.example.ICUReceiver.model.ICUSignal;
 import com.example.ICUReceiver.dto.ICUSignalDto;
-import com.example.ICUReceiver.repository.ICURepository;
+import com.example.ICUReceiver.exception.IngestOverloadedException;
+import com.example.ICUReceiver.exception.InvalidICUSignalException;
+import com.example.ICUReceiver.exception.RateLimitedException;
+import com.example.ICUReceiver.limit.IngestRateLimiter;
+import com.example.ICUReceiver.trace.IngestTrace;
+import com.example.ICUReceiver.trace.IngestTracer;
+import com.example.ICUReceiver.trace.Stage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
@@ -16,15 +24,30 @@ import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Receives signals uploaded over <code>/ws/dynamic</code>, one JSON signal per text message.
+ * <p>
+ * Every session is a client of its own for rate limiting. A signal over the limit of its session
+ * or patient is dropped and answered with a throttle frame,
+ * <code>{"type":"throttle","scope":"client|patient","nationalId":123456,"retryAfterMs":100}</code>,
+ * so the sender can slow down without the connection being closed.
+ */
 @Slf4j
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ICUSignalWebSocketHandler extends TextWebSocketHandler {
 
     private final List<WebSocketSession> sessionList =
             new CopyOnWriteArrayList<>();
 
     @Autowired
-    private ICURepository icuRepository;
+    private SignalRouter signalRouter;
+
+    @Autowired
+    private IngestTracer tracer;
+
+    @Autowired
+    private IngestRateLimiter rateLimiter;
 
     public void afterConnectionEstablished(WebSocketSession session) {
         sessionList.add(session);
@@ -33,16 +56,20 @@ public class ICUSignalWebSocketHandler extends TextWebSocketHandler {
 
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
         sessionList.remove(session);
+        rateLimiter.forget(session.getId());
         log.info("Connection closed: {} with status {}", session.getId(), status);
     }
 
     public void handleTextMessage(WebSocketSession session, TextMessage message) {
+        IngestTrace trace = tracer.begin(IngestTrace.Channel.WEBSOCKET);
         String payload = message.getPayload();
         log.info("Handle message payload: {}", payload);
         try {
             ObjectMapper objectMapper = new ObjectMapper();
             ICUSignalDto icuSignalDto = objectMapper.readValue(
                     payload, ICUSignalDto.class);
+            trace.mark(Stage.PARSE);
+            rateLimiter.acquire(IngestTrace.Channel.WEBSOCKET, session.getId(), icuSignalDto.getNationalId());
             ICUSignal icuSignal = ICUSignal.builder()
                     .nationalId(icuSignalDto.getNationalId())
                     .heartbeat(icuSignalDto.getHeartbeat())
@@ -50,10 +77,32 @@ public class ICUSignalWebSocketHandler extends TextWebSocketHandler {
                     .timestamp(icuSignalDto.getTimestamp())
                     .ecgList(icuSignalDto.getEcgList())
                     .build();
+            trace.mark(Stage.MAP);
 
-            icuRepository.save(icuSignal);
+            signalRouter.submit(icuSignal, false);
 
-            log.info("ICUSignal saved successfully: {}", icuSignal);
+            log.info("ICUSignal accepted for ingest: {}", icuSignal);
+        } catch (RateLimitedException e) {
+            log.debug("Rate limited, throttling session {}: {}", session.getId(), e.getMessage());
+            try {
+                session.sendMessage(new TextMessage(throttleFrame(e)));
+            } catch (IOException ioException) {
+                log.error("Failed to send throttle frame via WebSocket: {}", ioException.getMessage(), ioException);
+            }
+        } catch (IngestOverloadedException e) {
+            log.warn("Ingest overloaded, rejecting message: {}", e.getMessage());
+            try {
+                session.sendMessage(new TextMessage("Error: Ingest overloaded, retry later"));
+            } catch (IOException ioException) {
+                log.error("Failed to send error message via WebSocket: {}", ioException.getMessage(), ioException);
+            }
+        } catch (InvalidICUSignalException e) {
+            log.warn("Invalid signal, rejecting message: {}", e.getMessage());
+            try {
+                session.sendMessage(new TextMessage("Error: " + e.getMessage()));
+            } catch (IOException ioException) {
+                log.error("Failed to send error message via WebSocket: {}", ioException.getMessage(), ioException);
+            }
         } catch (Exception e) {
             log.error("Parse payload failed where exception: {}", e.getMessage(), e);
             // Optionally send error response via WebSocket
@@ -62,9 +111,18 @@ public class ICUSignalWebSocketHandler extends TextWebSocketHandler {
             } catch (IOException ioException) {
                 log.error("Failed to send error message via WebSocket: {}", ioException.getMessage(), ioException);
             }
+        } finally {
+            tracer.clear();
         }
     }
 
+    static String throttleFrame(RateLimitedException e) {
+        // Round up, so a sender waiting this long finds a token.
+        long retryAfterMs = (e.getRetryAfter().toNanos() + 999_999) / 1_000_000;
+        return "{\"type\":\"throttle\",\"scope\":\"" + e.getScope() + "\",\"nationalId\":" + e.getNationalId()
+                + ",\"retryAfterMs\":" + retryAfterMs + "}";
+    }
+
     List<WebSocketSession> getSessionList() {
         return sessionList;
     }
@@ -0,0 +1,156 @@
+package com.example.ICUReceiver.handler;
+
+import com.example.ICUReceiver.cluster.SignalBus;
+import com.example.ICUReceiver.mapper.ICUSignalMapper;
+import com.example.ICUReceiver.model.ICUSignal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes persisted signals to live viewers on <code>/ws/live</code>.
+ * <p>
+ * A viewer connects with <code>?nationalId=</code> to follow one patient, or without it to
+ * follow all of them, and receives every persisted signal as an {@link com.example.ICUReceiver.dto.ICUSignalDto}
+ * JSON frame. Signals arrive through the {@link SignalBus}, so a viewer sees signals ingested on
+ * any node of the cluster, not only on the node it is connected to. Sends go through a
+ * {@link ConcurrentWebSocketSessionDecorator}; a viewer that stops reading is disconnected once
+ * its send buffer overflows rather than stalling delivery to the others.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.live.viewers</b> – Connected live viewers.</li>
+ *   <li><b>icu.live.delivered</b> – Signal frames sent to viewers.</li>
+ *   <li><b>icu.live.dropped</b> – Signal batches dropped because delivery fell behind the bus.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LiveSignalWebSocketHandler extends TextWebSocketHandler {
+
+    private static final int SEND_TIME_LIMIT_MILLIS = 5_000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 512 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SignalBus signalBus;
+    private final ICUSignalMapper mapper;
+    private final MeterRegistry meterRegistry;
+    private final Counter deliveredCounter;
+
+    private final Map<String, Viewer> viewers = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<WebSocketSession>> byPatient = new ConcurrentHashMap<>();
+    private final Set<WebSocketSession> allPatients = ConcurrentHashMap.newKeySet();
+    private SignalBus.Subscription subscription;
+
+    @Autowired
+    public LiveSignalWebSocketHandler(SignalBus signalBus, ICUSignalMapper mapper, MeterRegistry meterRegistry) {
+        this.signalBus = signalBus;
+        this.mapper = mapper;
+        this.meterRegistry = meterRegistry;
+        this.deliveredCounter = meterRegistry.counter("icu.live.delivered");
+        meterRegistry.gauge("icu.live.viewers", viewers, Map::size);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        subscription = signalBus.subscribe("live-viewers", this::deliver);
+        meterRegistry.gauge("icu.live.dropped", subscription, SignalBus.Subscription::dropped);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        subscription.close();
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Integer nationalId = nationalIdOf(session);
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(
+                session, SEND_TIME_LIMIT_MILLIS, SEND_BUFFER_LIMIT_BYTES);
+        viewers.put(session.getId(), new Viewer(decorated, nationalId));
+        if (nationalId == null) {
+            allPatients.add(decorated);
+        } else {
+            byPatient.computeIfAbsent(nationalId, id -> ConcurrentHashMap.newKeySet()).add(decorated);
+        }
+        log.info("Live viewer connected: {} | nationalId={}", session.getId(), nationalId);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Viewer viewer = viewers.remove(session.getId());
+        if (viewer == null) {
+            return;
+        }
+        if (viewer.nationalId() == null) {
+            allPatients.remove(viewer.session());
+        } else {
+            byPatient.computeIfPresent(viewer.nationalId(), (id, sessions) -> {
+                sessions.remove(viewer.session());
+                return sessions.isEmpty() ? null : sessions;
+            });
+        }
+        log.info("Live viewer disconnected: {} with status {}", session.getId(), status);
+    }
+
+    void deliver(List<ICUSignal> signals) {
+        for (ICUSignal signal : signals) {
+            Set<WebSocketSession> patientViewers = byPatient.get(signal.getNationalId());
+            if ((patientViewers == null || patientViewers.isEmpty()) && allPatients.isEmpty()) {
+                continue;
+            }
+            TextMessage frame = new TextMessage(objectMapper.writeValueAsString(mapper.toDto(signal)));
+            if (patientViewers != null) {
+                patientViewers.forEach(viewer -> send(viewer, frame));
+            }
+            allPatients.forEach(viewer -> send(viewer, frame));
+        }
+    }
+
+    private void send(WebSocketSession viewer, TextMessage frame) {
+        try {
+            viewer.sendMessage(frame);
+            deliveredCounter.increment();
+        } catch (IOException | RuntimeException e) {
+            log.debug("Failed to send live signal to viewer {}: {}", viewer.getId(), e.getMessage());
+        }
+    }
+
+    private static Integer nationalIdOf(WebSocketSession session) {
+        if (session.getUri() == null) {
+            return null;
+        }
+        String value = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("nationalId");
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    int viewerCount() {
+        return viewers.size();
+    }
+
+    private record Viewer(WebSocketSession session, Integer nationalId) {
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.ICUReceiver.ingest;
+
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.cluster.SignalBus;
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.dsp.EcgAnalyzer;
+import com.example.ICUReceiver.exception.IngestOverloadedException;
+import com.example.ICUReceiver.feed.ChangeFeed;
+import com.example.ICUReceiver.exception.InvalidICUSignalException;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ICUService;
+import com.example.ICUReceiver.service.StatsService;
+import com.example.ICUReceiver.snapshot.StateSnapshot;
+import com.example.ICUReceiver.snapshot.StateSnapshotter;
+import com.example.ICUReceiver.trace.IngestTrace;
+import com.example.ICUReceiver.trace.IngestTracer;
+import com.example.ICUReceiver.trace.Stage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ingest stage shared by the REST upload endpoint and the WebSocket handler.
+ * <p>
+ * Patients are partitioned by {@code nationalId} hash across {@link IngestShard single-writer
+ * shards}, each with its own bounded queue and batching writer thread. Submitting validates the
+ * signal with {@link SignalValidator} on the caller's thread and then only enqueues, so implausible
+ * signals are refused before they take queue space or a DB write, container threads never wait on
+ * the database, and a noisy patient only ever delays the patients sharing its shard. On the
+ * writer, each patient stream passes through:
+ * <ol>
+ *   <li><b>Deduplication</b> — signals are keyed by {@code (nationalId, device timestamp)}; a key
+ *       already seen within the dedup window is dropped in memory before it costs a DB write.</li>
+ *   <li><b>Reordering</b> — a bounded {@link ReorderBuffer} releases signals in device-timestamp
+ *       order once they fall outside the lateness window.</li>
+ * </ol>
+ * Released signals first pass through the {@link EcgAnalyzer}, which derives R-R intervals and
+ * heart rate from their ECG samples, patients in parallel. They are then persisted in order,
+ * together with those features, through {@link ICUService#saveSignals} and folded into
+ * per-patient 1-minute, 1-hour and 1-day statistics, merged periodically via {@link StatsService},
+ * then appended to the {@link ChangeFeed} for downstream consumers, recorded in the
+ * {@link LatestSignalCache} and published on the {@link SignalBus} for live viewers on any node.
+ * Signals without a device timestamp are stamped on arrival and skip deduplication.
+ * <p>
+ * When the store supports it, each signal is split across two lanes: the shards form the vitals
+ * lane and persist heartbeat and pulse in small batches, and a separate {@link WaveformLane},
+ * with its own queue, writer threads and larger lingering batches, stores the ECG samples
+ * afterwards. A waveform burst therefore fills the waveform queue, not the shard queues, and
+ * live viewers receive vitals without samples. Once the waveform queue is full, signals carrying
+ * samples are rejected on submission until it drains, so waveforms are never dropped after
+ * being acknowledged.
+ * <p>
+ * Every signal carries an {@link IngestTrace} from submission, or from the socket when the caller
+ * began one, to publication; completed traces are kept by the {@link IngestTracer}.
+ * <p>
+ * The shards' dedup windows and unpersisted signals are part of the {@link StateSnapshotter
+ * state snapshot}. On a warm restart they are put back before the shards start; restored
+ * signals that reached the store after the snapshot was taken are dropped.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.ingest.received.total</b> – Signals submitted to the pipeline.</li>
+ *   <li><b>icu.ingest.rejected.total</b> – Signals rejected because their shard queue or the waveform lane was full.</li>
+ *   <li><b>icu.ingest.validation.rejected</b> – Signals that failed validation, tagged {@code reason}.</li>
+ *   <li><b>icu.ingest.duplicates.dropped</b> – Signals dropped as duplicates.</li>
+ *   <li><b>icu.ingest.late.total</b> – Signals that arrived after later signals had been released.</li>
+ *   <li><b>icu.ingest.write.failed</b> – Released signals dropped because their batch failed for a reason other than the write limits.</li>
+ *   <li><b>icu.ingest.write.retried</b> – Batch writes repeated after the write limits turned them away, tagged {@code lane}.</li>
+ *   <li><b>icu.ingest.reorder.buffered</b> – Signals currently held in reorder buffers.</li>
+ *   <li><b>icu.ingest.shard.queue.depth</b> – Signals waiting in a shard queue, tagged {@code shard}.</li>
+ *   <li><b>icu.ingest.shard.processed</b> – Signals taken off a shard queue, tagged {@code shard}.</li>
+ *   <li><b>icu.ingest.streams.evicted</b> – Patient streams dropped after the dedup window without signals.</li>
+ *   <li><b>icu.ingest.lane.latency</b> – Arrival to persisted, tagged {@code lane} (<code>vitals</code> or <code>waveform</code>).</li>
+ *   <li><b>icu.ingest.lane.budget.exceeded</b> – Vitals persisted later than the vitals latency budget.</li>
+ *   <li><b>icu.ingest.waveform.queue.depth</b> – Waveforms waiting in the waveform lane.</li>
+ *   <li><b>icu.ingest.waveform.rejected</b> – Signals with samples rejected because the waveform lane was full.</li>
+ *   <li><b>icu.ingest.waveform.blocked</b> – Waveforms whose shard had to wait for room in the waveform lane.</li>
+ *   <li><b>icu.ingest.waveform.write.failed</b> – Waveforms given up after failing on their own for a reason other than the write limits.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class IngestPipeline {
+
+    private final SignalValidator validator;
+    private final IngestTracer tracer;
+    private final IngestShard[] shards;
+    private final WaveformLane waveformLane;
+    private final long enqueueTimeoutNanos;
+
+    private final Counter receivedCounter;
+    private final Counter rejectedCounter;
+    private final Counter waveformRejectedCounter;
+
+    @Autowired
+    public IngestPipeline(ICUService service, StatsService statsService, SignalValidator validator,
+                          ChangeFeed changeFeed, SignalBus signalBus, IngestTracer tracer,
+                          EcgAnalyzer ecgAnalyzer, LatestSignalCache latestCache, StateSnapshotter snapshotter,
+                          IngestProperties properties, MeterRegistry meterRegistry) {
+        this.validator = validator;
+        this.tracer = tracer;
+        int count = properties.getShards().getCount() > 0
+                ? properties.getShards().getCount()
+                : Runtime.getRuntime().availableProcessors();
+        this.enqueueTimeoutNanos = properties.getShards().getEnqueueTimeout().toNanos();
+        this.shards = new IngestShard[count];
+        this.waveformLane = properties.getLanes().getWaveform().isEnabled() && service.supportsDeferredWaveforms()
+                ? new WaveformLane(service, changeFeed, latestCache, properties, meterRegistry)
+                : null;
+        for (int i = 0; i < count; i++) {
+            shards[i] = new IngestShard(i, service, statsService, changeFeed, signalBus, waveformLane,
+                    tracer, ecgAnalyzer, latestCache, properties, meterRegistry);
+        }
+        restore(service, snapshotter.takeRestoredIngest());
+        snapshotter.attachIngest(this::captureState);
+
+        this.receivedCounter = meterRegistry.counter("icu.ingest.received.total");
+        this.rejectedCounter = meterRegistry.counter("icu.ingest.rejected.total");
+        this.waveformRejectedCounter = meterRegistry.counter("icu.ingest.waveform.rejected");
+        meterRegistry.gauge("icu.ingest.reorder.buffered", shards,
+                s -> Arrays.stream(s).mapToInt(IngestShard::buffered).sum());
+    }
+
+    /**
+     * Submits one signal for deduplication, reordering and persistence.
+     *
+     * @param signal The signal as received from a device or gateway.
+     * @throws InvalidICUSignalException if the signal fails validation; nothing is queued.
+     * @throws IngestOverloadedException if the patient's shard stays full for the enqueue timeout,
+     *                                   or the signal carries ECG samples while the waveform lane is saturated.
+     */
+    public void submit(ICUSignal signal) {
+        IngestTrace trace = tracer.detach(signal.getNationalId());
+        receivedCounter.increment();
+        validator.validate(signal);
+        if (waveformLane != null && signal.getEcgList() != null && !signal.getEcgList().isEmpty()
+                && waveformLane.isSaturated()) {
+            rejectedCounter.increment();
+            waveformRejectedCounter.increment();
+            throw new IngestOverloadedException(
+                    "Waveform lane saturated for nationalId " + signal.getNationalId() + ", retry later");
+        }
+        boolean deviceTimestamp = signal.getTimestamp() != null;
+        if (!deviceTimestamp) {
+            signal.setTimestamp(LocalDateTime.now());
+        }
+        IngestShard shard = shards[shardFor(signal.getNationalId(), shards.length)];
+        boolean accepted;
+        try {
+            long now = System.nanoTime();
+            trace.mark(Stage.VALIDATE, now);
+            accepted = shard.enqueue(signal, deviceTimestamp, now, trace, enqueueTimeoutNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            rejectedCounter.increment();
+            throw new IngestOverloadedException(
+                    "Ingest queue full for nationalId " + signal.getNationalId() + ", retry later");
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (waveformLane != null) {
+            waveformLane.start();
+        }
+        for (IngestShard shard : shards) {
+            shard.start();
+        }
+        log.info("Ingest pipeline started | shards={} | waveformLane={}", shards.length, waveformLane != null);
+    }
+
+    /**
+     * Persists everything still queued or buffered and stops the shard writers.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (IngestShard shard : shards) {
+            shard.stop();
+        }
+        if (waveformLane != null) {
+            waveformLane.stop();
+        }
+    }
+
+    /**
+     * Copies the dedup windows and unpersisted signals of every shard, each shard between two of
+     * its batches.
+     */
+    CompletableFuture<List<StateSnapshot.PatientIngest>> captureState() {
+        List<CompletableFuture<List<StateSnapshot.PatientIngest>>> captures = new ArrayList<>(shards.length);
+        for (IngestShard shard : shards) {
+            captures.add(shard.capture());
+        }
+        return CompletableFuture.allOf(captures.toArray(CompletableFuture[]::new))
+                .thenApply(done -> captures.stream().flatMap(capture -> capture.join().stream()).toList());
+    }
+
+    private void restore(ICUService service, List<StateSnapshot.PatientIngest> patients) {
+        if (patients.isEmpty()) {
+            return;
+        }
+        int pending = 0;
+        int persisted = 0;
+        for (StateSnapshot.PatientIngest patient : patients) {
+            List<StateSnapshot.PendingSignal> unpersisted = unpersisted(service, patient);
+            pending += unpersisted.size();
+            persisted += patient.pending().size() - unpersisted.size();
+            shards[shardFor(patient.nationalId(), shards.length)].restore(patient, unpersisted);
+        }
+        log.info("Restored ingest state | patients={} | pending={} | alreadyPersisted={}",
+                patients.size(), pending, persisted);
+    }
+
+    /**
+     * Drops the restored signals that reached the store after the snapshot was taken.
+     *
+     * @throws IllegalStateException if the store cannot be read; restoring without the check
+     *                               would persist those signals twice.
+     */
+    private static List<StateSnapshot.PendingSignal> unpersisted(ICUService service, StateSnapshot.PatientIngest patient) {
+        if (patient.pending().isEmpty()) {
+            return patient.pending();
+        }
+        LocalDateTime from = patient.pending().get(0).signal().getTimestamp();
+        LocalDateTime to = from;
+        for (StateSnapshot.PendingSignal signal : patient.pending()) {
+            LocalDateTime timestamp = signal.signal().getTimestamp();
+            from = timestamp.isBefore(from) ? timestamp : from;
+            to = timestamp.isAfter(to) ? timestamp : to;
+        }
+        Set<LocalDateTime> stored;
+        try {
+            stored = new HashSet<>(service.findStoredTimestamps(patient.nationalId(), from, to));
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Cannot check restored signals of nationalId " + patient.nationalId()
+                    + " against the store", e);
+        }
+        if (stored.isEmpty()) {
+            return patient.pending();
+        }
+        return patient.pending().stream()
+                .filter(signal -> !stored.contains(signal.signal().getTimestamp()))
+                .toList();
+    }
+
+    /**
+     * Maps a patient to its shard. The id is mixed first so strided id ranges still spread evenly.
+     */
+    static int shardFor(int nationalId, int shardCount) {
+        int h = nationalId * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), shardCount);
+    }
+
+    /**
+     * Arrival-to-persisted timer of one lane, shared by all writers of the lane.
+     */
+    static Timer laneLatency(MeterRegistry meterRegistry, String lane) {
+        return Timer.builder("icu.ingest.lane.latency")
+                .tag("lane", lane)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    static long toNanos(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+    }
+}
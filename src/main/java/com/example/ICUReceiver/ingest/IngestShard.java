@@ -0,0 +1,476 @@
+package com.example.ICUReceiver.ingest;
+
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.cluster.SignalBus;
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.dsp.EcgAnalyzer;
+import com.example.ICUReceiver.feed.ChangeFeed;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ICUService;
+import com.example.ICUReceiver.service.StatsService;
+import com.example.ICUReceiver.snapshot.StateSnapshot;
+import com.example.ICUReceiver.stats.RollupAccumulator;
+import com.example.ICUReceiver.stats.RollupDelta;
+import com.example.ICUReceiver.stats.RollupKey;
+import com.example.ICUReceiver.trace.IngestTrace;
+import com.example.ICUReceiver.trace.IngestTracer;
+import com.example.ICUReceiver.trace.Stage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One single-writer partition of the ingest pipeline.
+ * <p>
+ * Every patient hashes to exactly one shard, and only the shard's writer thread touches that
+ * patient's dedup and reorder state, so per-patient ordering holds without locks. The writer
+ * drains up to {@code batchSize} queued signals at a time and persists everything they release
+ * in a single {@link ICUService#saveSignals} call, after the {@link EcgAnalyzer} has derived their
+ * ECG features. Between batches, and at least every {@code flushInterval}, it releases signals of
+ * quiet streams that waited out the lateness window, and lets the analyzer evict the detector
+ * state of its idle patients. A patient with nothing buffered and no signal for the dedup window
+ * loses its dedup and reorder state, and its detector state with it, so discharged patients do
+ * not hold memory forever.
+ * Persisted signals also update the shard's {@link RollupAccumulator}, which is merged into the
+ * rollup table through {@link StatsService} every rollup flush interval and on shutdown (deltas
+ * whose merge fails are kept for the next flush), are
+ * appended to the {@link ChangeFeed}, are recorded in the {@link LatestSignalCache} and are
+ * published on the {@link SignalBus} for live viewers. None of them sees a batch before
+ * {@link ICUService#saveSignals} has returned, i.e. committed it.
+ * <p>
+ * A batch the write limits turn away is kept and retried with backoff, see {@link WriteBackoff}.
+ * The writer holds meanwhile, so the shard queue fills and submissions are rejected with 503
+ * instead of acknowledged signals being lost. Only a batch that fails for another reason, after
+ * the service's own retries, is dropped and counted.
+ * <p>
+ * With a {@link WaveformLane} the shard is the vitals lane: it persists signals without their ECG
+ * samples and hands the samples to the waveform lane afterwards, so batches stay small and their
+ * latency does not depend on waveform volume. Signals carrying samples then reach the change feed
+ * from the waveform lane, once complete.
+ * <p>
+ * For state snapshots the writer copies its dedup windows, buffered signals and queued signals
+ * between two batches, see {@link #capture()}; {@link #restore} puts them back before the
+ * writer starts.
+ */
+@Slf4j
+final class IngestShard {
+
+    private static final Pending STOP = new Pending(null, false, 0, null);
+
+    private final int index;
+    private final ICUService service;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long maxLatenessNanos;
+    private final long dedupWindowNanos;
+    private final int dedupCapacity;
+    private final Map<Integer, PatientStream> streams = new HashMap<>();
+    private final StatsService statsService;
+    private final RollupAccumulator rollups = new RollupAccumulator();
+    private final ChangeFeed changeFeed;
+    private final SignalBus signalBus;
+    private final WaveformLane waveformLane;
+    private final IngestTracer tracer;
+    private final EcgAnalyzer ecgAnalyzer;
+    private final LatestSignalCache latestCache;
+    private final Queue<CompletableFuture<List<StateSnapshot.PatientIngest>>> captures = new ConcurrentLinkedQueue<>();
+    private final List<Pending> restored = new ArrayList<>();
+    private final long rollupFlushIntervalNanos;
+    private final long vitalsLatencyBudgetNanos;
+    private final Thread writer;
+
+    private final Counter processedCounter;
+    private final Counter evictedCounter;
+    private final Counter duplicateCounter;
+    private final Counter lateCounter;
+    private final Counter writeFailedCounter;
+    private final WriteBackoff writeBackoff;
+    private final Counter budgetExceededCounter;
+    private final Timer vitalsLatency;
+    private volatile int buffered;
+
+    IngestShard(int index, ICUService service, StatsService statsService, ChangeFeed changeFeed,
+                SignalBus signalBus, WaveformLane waveformLane, IngestTracer tracer,
+                EcgAnalyzer ecgAnalyzer, LatestSignalCache latestCache, IngestProperties properties,
+                MeterRegistry meterRegistry) {
+        this.index = index;
+        this.service = service;
+        this.statsService = statsService;
+        this.changeFeed = changeFeed;
+        this.signalBus = signalBus;
+        this.waveformLane = waveformLane;
+        this.tracer = tracer;
+        this.ecgAnalyzer = ecgAnalyzer;
+        this.latestCache = latestCache;
+        this.queue = new ArrayBlockingQueue<>(properties.getShards().getQueueCapacity());
+        this.batchSize = properties.getShards().getBatchSize();
+        this.flushIntervalNanos = properties.getReorder().getFlushInterval().toNanos();
+        this.maxLatenessNanos = properties.getReorder().getMaxLateness().toNanos();
+        this.dedupWindowNanos = properties.getDedup().getWindow().toNanos();
+        this.dedupCapacity = properties.getDedup().getMaxEntriesPerPatient();
+        this.rollupFlushIntervalNanos = properties.getRollup().getFlushInterval().toNanos();
+        this.vitalsLatencyBudgetNanos = properties.getLanes().getVitalsLatencyBudget().toNanos();
+        this.writer = new Thread(this::run, "ingest-shard-" + index);
+
+        String shard = Integer.toString(index);
+        this.processedCounter = meterRegistry.counter("icu.ingest.shard.processed", "shard", shard);
+        this.evictedCounter = meterRegistry.counter("icu.ingest.streams.evicted");
+        this.duplicateCounter = meterRegistry.counter("icu.ingest.duplicates.dropped");
+        this.lateCounter = meterRegistry.counter("icu.ingest.late.total");
+        this.writeFailedCounter = meterRegistry.counter("icu.ingest.write.failed");
+        this.writeBackoff = new WriteBackoff(properties.getWriteRetry(), "vitals", meterRegistry);
+        this.budgetExceededCounter = meterRegistry.counter("icu.ingest.lane.budget.exceeded", "lane", "vitals");
+        this.vitalsLatency = IngestPipeline.laneLatency(meterRegistry, "vitals");
+        meterRegistry.gauge("icu.ingest.shard.queue.depth",
+                Tags.of("shard", shard), queue, BlockingQueue::size);
+    }
+
+    void start() {
+        writer.start();
+    }
+
+    /**
+     * Hands a signal to this shard's writer.
+     *
+     * @return {@code false} if the queue stayed full for the whole timeout.
+     */
+    boolean enqueue(ICUSignal signal, boolean deviceTimestamp, long arrival, IngestTrace trace, long timeoutNanos)
+            throws InterruptedException {
+        return queue.offer(new Pending(signal, deviceTimestamp, arrival, trace), timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Persists everything still queued or buffered and waits for the writer to exit.
+     */
+    void stop() throws InterruptedException {
+        queue.put(STOP);
+        writer.join();
+    }
+
+    int buffered() {
+        return buffered;
+    }
+
+    /**
+     * Puts back one patient's ingest state from a state snapshot. Only called before
+     * {@link #start()}.
+     *
+     * @param pending The patient's signals from the snapshot that are not in the store yet.
+     */
+    void restore(StateSnapshot.PatientIngest patient, List<StateSnapshot.PendingSignal> pending) {
+        PatientStream stream = streams.computeIfAbsent(patient.nationalId(), id -> new PatientStream());
+        for (long timestamp : patient.seen()) {
+            stream.seen.add(timestamp);
+        }
+        // Restored signals wait out the lateness window again, so stragglers can still join them.
+        long now = System.nanoTime();
+        for (StateSnapshot.PendingSignal signal : pending) {
+            Pending restoredSignal = new Pending(signal.signal(), signal.deviceTimestamp(), now, IngestTrace.NOOP);
+            if (signal.queued()) {
+                accept(restoredSignal, restored);
+            } else {
+                stream.buffer.offer(restoredSignal, IngestPipeline.toNanos(signal.signal().getTimestamp()), now, restored);
+            }
+        }
+        buffered = streams.values().stream().mapToInt(s -> s.buffer.size()).sum();
+    }
+
+    /**
+     * Copies this shard's ingest state: per patient the dedup window and every signal accepted
+     * but not yet persisted, whether buffered or still queued. The writer takes the copy between
+     * two batches, so the state is consistent without locking; a stopped or not yet started
+     * shard is copied on the calling thread.
+     */
+    CompletableFuture<List<StateSnapshot.PatientIngest>> capture() {
+        CompletableFuture<List<StateSnapshot.PatientIngest>> request = new CompletableFuture<>();
+        captures.add(request);
+        if (!writer.isAlive()) {
+            answerCaptures();
+        }
+        return request;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        List<Pending> released = new ArrayList<>();
+        long nextFlush = System.nanoTime() + flushIntervalNanos;
+        long nextRollupFlush = System.nanoTime() + rollupFlushIntervalNanos;
+        boolean stopping = false;
+        if (!restored.isEmpty()) {
+            persist(new ArrayList<>(restored));
+            restored.clear();
+        }
+        while (!stopping) {
+            try {
+                long wakeUp = nextFlush - nextRollupFlush < 0 ? nextFlush : nextRollupFlush;
+                Pending first = queue.poll(Math.max(0, wakeUp - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopping = true;
+            }
+            int processed = 0;
+            for (Pending pending : batch) {
+                if (pending == STOP) {
+                    stopping = true;
+                } else {
+                    accept(pending, released);
+                    processed++;
+                }
+            }
+            processedCounter.increment(processed);
+            batch.clear();
+
+            long now = System.nanoTime();
+            if (stopping) {
+                for (PatientStream stream : streams.values()) {
+                    stream.buffer.drainAll(released);
+                }
+            } else if (now - nextFlush >= 0) {
+                for (PatientStream stream : streams.values()) {
+                    stream.buffer.drainExpired(now, released);
+                }
+                ecgAnalyzer.evictIdle(streams.keySet(), now);
+                evictIdle(now);
+                nextFlush = now + flushIntervalNanos;
+            }
+            if (!released.isEmpty()) {
+                persist(released);
+                released.clear();
+            }
+            if (stopping || now - nextRollupFlush >= 0) {
+                flushRollups();
+                nextRollupFlush = now + rollupFlushIntervalNanos;
+            }
+            buffered = streams.values().stream().mapToInt(stream -> stream.buffer.size()).sum();
+            answerCaptures();
+        }
+        answerCaptures();
+        log.info("Ingest shard {} stopped", index);
+    }
+
+    private void answerCaptures() {
+        CompletableFuture<List<StateSnapshot.PatientIngest>> request = captures.poll();
+        if (request == null) {
+            return;
+        }
+        List<StateSnapshot.PatientIngest> state = captureState();
+        do {
+            request.complete(state);
+        } while ((request = captures.poll()) != null);
+    }
+
+    private List<StateSnapshot.PatientIngest> captureState() {
+        Map<Integer, List<StateSnapshot.PendingSignal>> pending = new LinkedHashMap<>();
+        List<Pending> held = new ArrayList<>(restored);
+        for (PatientStream stream : streams.values()) {
+            stream.buffer.copyTo(held);
+        }
+        for (Pending signal : held) {
+            pending.computeIfAbsent(signal.signal.getNationalId(), id -> new ArrayList<>()).add(copy(signal, false));
+        }
+        for (Pending signal : queue) {
+            if (signal != STOP) {
+                pending.computeIfAbsent(signal.signal.getNationalId(), id -> new ArrayList<>()).add(copy(signal, true));
+            }
+        }
+
+        List<StateSnapshot.PatientIngest> patients = new ArrayList<>(streams.size());
+        streams.forEach((nationalId, stream) -> {
+            List<StateSnapshot.PendingSignal> signals = pending.remove(nationalId);
+            if (stream.seen.size() > 0 || signals != null) {
+                patients.add(new StateSnapshot.PatientIngest(nationalId, stream.seen.toArray(),
+                        signals != null ? signals : List.of()));
+            }
+        });
+        pending.forEach((nationalId, signals) ->
+                patients.add(new StateSnapshot.PatientIngest(nationalId, new long[0], signals)));
+        return patients;
+    }
+
+    /**
+     * Copies a signal the writer may still modify; the samples list itself is never modified.
+     */
+    private static StateSnapshot.PendingSignal copy(Pending pending, boolean queued) {
+        ICUSignal signal = pending.signal;
+        return new StateSnapshot.PendingSignal(ICUSignal.builder()
+                .nationalId(signal.getNationalId())
+                .heartbeat(signal.getHeartbeat())
+                .pulse(signal.getPulse())
+                .timestamp(signal.getTimestamp())
+                .ecgList(signal.getEcgList())
+                .build(), pending.deviceTimestamp, queued);
+    }
+
+    private void accept(Pending pending, List<Pending> released) {
+        pending.trace.mark(Stage.QUEUE);
+        ICUSignal signal = pending.signal;
+        PatientStream stream = streams.computeIfAbsent(signal.getNationalId(), id -> new PatientStream());
+        stream.lastArrival = pending.arrival;
+        long timestamp = IngestPipeline.toNanos(signal.getTimestamp());
+        if (pending.deviceTimestamp && !stream.seen.add(timestamp)) {
+            duplicateCounter.increment();
+            log.debug("Dropped duplicate signal | nationalId={} | timestamp={}",
+                    signal.getNationalId(), signal.getTimestamp());
+            return;
+        }
+        if (stream.buffer.offer(pending, timestamp, pending.arrival, released)) {
+            lateCounter.increment();
+            log.debug("Late signal | nationalId={} | timestamp={}",
+                    signal.getNationalId(), signal.getTimestamp());
+        }
+    }
+
+    /**
+     * Drops the state of patients with nothing buffered whose last signal arrived more than the
+     * dedup window ago. A replay arriving later is accepted like any signal from a new stream.
+     */
+    private void evictIdle(long now) {
+        List<Integer> evicted = new ArrayList<>();
+        streams.entrySet().removeIf(entry -> {
+            PatientStream stream = entry.getValue();
+            if (stream.buffer.size() > 0 || now - stream.lastArrival <= dedupWindowNanos) {
+                return false;
+            }
+            evicted.add(entry.getKey());
+            return true;
+        });
+        if (!evicted.isEmpty()) {
+            ecgAnalyzer.evict(evicted);
+            evictedCounter.increment(evicted.size());
+            log.debug("Ingest shard {} evicted idle patient streams | patients={}", index, evicted.size());
+        }
+    }
+
+    private void persist(List<Pending> released) {
+        List<ICUSignal> signals = new ArrayList<>(released.size());
+        List<List<Double>> samples = waveformLane == null ? null : new ArrayList<>(released.size());
+        long start = System.nanoTime();
+        for (Pending pending : released) {
+            pending.trace.mark(Stage.REORDER, start);
+            signals.add(pending.signal);
+        }
+        try {
+            ecgAnalyzer.analyze(signals);
+            long analyzed = System.nanoTime();
+            for (Pending pending : released) {
+                pending.trace.mark(Stage.ANALYZE, analyzed);
+                if (samples != null) {
+                    samples.add(pending.signal.getEcgList());
+                    pending.signal.setEcgList(null);
+                }
+            }
+            writeBackoff.run(() -> service.saveSignals(signals));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop(released, e);
+            return;
+        } catch (RuntimeException e) {
+            drop(released, e);
+            return;
+        }
+        // saveSignals returned, so the batch is committed; only now may readers see it.
+        try {
+            publish(released, signals, samples);
+        } catch (RuntimeException e) {
+            log.error("Ingest shard {} failed to publish persisted batch | size={} | reason={}",
+                    index, released.size(), e.getMessage(), e);
+        }
+    }
+
+    private void publish(List<Pending> released, List<ICUSignal> signals, List<List<Double>> samples) {
+        latestCache.record(signals);
+        long now = System.nanoTime();
+        List<ICUSignal> complete = samples == null ? signals : new ArrayList<>(signals.size());
+        for (int i = 0; i < released.size(); i++) {
+            Pending pending = released.get(i);
+            pending.trace.mark(Stage.COMMIT, now);
+            long latency = now - pending.arrival;
+            vitalsLatency.record(latency, TimeUnit.NANOSECONDS);
+            if (latency > vitalsLatencyBudgetNanos) {
+                budgetExceededCounter.increment();
+            }
+            rollups.add(pending.signal);
+            if (samples != null) {
+                List<Double> ecg = samples.get(i);
+                if (ecg == null || ecg.isEmpty()) {
+                    complete.add(pending.signal);
+                } else {
+                    waveformLane.offer(pending.signal, ecg, pending.arrival);
+                }
+            }
+        }
+        changeFeed.append(complete);
+        signalBus.publish(signals);
+        long published = System.nanoTime();
+        for (Pending pending : released) {
+            pending.trace.mark(Stage.PUBLISH, published);
+            tracer.complete(pending.trace);
+        }
+    }
+
+    /**
+     * Gives up on a batch that cannot be persisted. The writer stays alive so the shard's other
+     * patients are not stalled, and forgetting the batch's timestamps lets a replay of it through.
+     */
+    private void drop(List<Pending> released, Exception cause) {
+        forget(released);
+        writeFailedCounter.increment(released.size());
+        log.error("Ingest shard {} dropped batch it could not persist | size={} | reason={}",
+                index, released.size(), cause.getMessage(), cause);
+    }
+
+    private void forget(List<Pending> released) {
+        for (Pending pending : released) {
+            PatientStream stream = streams.get(pending.signal.getNationalId());
+            if (pending.deviceTimestamp && stream != null) {
+                stream.seen.remove(IngestPipeline.toNanos(pending.signal.getTimestamp()));
+            }
+        }
+    }
+
+    private void flushRollups() {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        Map<RollupKey, RollupDelta> deltas = rollups.drain();
+        try {
+            statsService.mergeRollups(deltas);
+        } catch (RuntimeException e) {
+            rollups.restore(deltas);
+            log.error("Ingest shard {} failed to merge rollups, keeping them for the next flush | windows={} | reason={}",
+                    index, deltas.size(), e.getMessage(), e);
+        }
+    }
+
+    private record Pending(ICUSignal signal, boolean deviceTimestamp, long arrival, IngestTrace trace) {
+    }
+
+    /**
+     * Dedup and reorder state of one patient, owned by the shard's writer thread.
+     */
+    private final class PatientStream {
+        private final SlidingTimestampSet seen = new SlidingTimestampSet(dedupCapacity, dedupWindowNanos);
+        private final ReorderBuffer<Pending> buffer = new ReorderBuffer<>(maxLatenessNanos);
+        /** {@link System#nanoTime()} of the latest signal accepted for the patient. */
+        private long lastArrival = System.nanoTime();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ICUReceiver.ingest;
+
+/**
+ * Why {@link SignalValidator} turned a signal away; {@link #tag()} is the {@code reason} tag of
+ * the <b>icu.ingest.validation.rejected</b> counter.
+ */
+public enum RejectionReason {
+    NATIONAL_ID("national_id"),
+    HEARTBEAT("heartbeat"),
+    PULSE("pulse"),
+    TIMESTAMP_FUTURE("timestamp_future"),
+    TIMESTAMP_STALE("timestamp_stale"),
+    ECG_EMPTY("ecg_empty"),
+    ECG_TOO_LONG("ecg_too_long"),
+    ECG_NOT_FINITE("ecg_not_finite");
+
+    private final String tag;
+
+    RejectionReason(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
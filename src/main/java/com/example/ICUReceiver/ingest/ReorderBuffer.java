@@ -0,0 +1,94 @@
+package com.example.ICUReceiver.ingest;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Per-patient buffer that puts signals back into device-timestamp order.
+ * <p>
+ * Signals are held until the newest device timestamp seen is more than {@code maxLateness}
+ * ahead of them (event time), or until they have waited {@code maxLateness} on the wall clock
+ * (processing time) so a stream that goes quiet is not stranded. A signal older than the last
+ * released one can no longer be placed in order; it is released immediately and reported late.
+ * <p>
+ * Not thread-safe; callers serialize access per patient.
+ *
+ * @param <T> The buffered signal, possibly wrapped together with ingest metadata.
+ */
+final class ReorderBuffer<T> {
+
+    private final long maxLatenessNanos;
+    private final PriorityQueue<Entry<T>> queue = new PriorityQueue<>();
+    private long maxSeen = Long.MIN_VALUE;
+    private long lastReleased = Long.MIN_VALUE;
+    private long sequence;
+
+    ReorderBuffer(long maxLatenessNanos) {
+        this.maxLatenessNanos = maxLatenessNanos;
+    }
+
+    /**
+     * Buffers a signal and moves every signal that is now in order to {@code released}.
+     *
+     * @param timestamp Device timestamp in epoch nanoseconds.
+     * @param now       Current {@link System#nanoTime()}.
+     * @return {@code true} if the signal arrived too late to be placed in order.
+     */
+    boolean offer(T signal, long timestamp, long now, List<T> released) {
+        if (timestamp < lastReleased) {
+            released.add(signal);
+            return true;
+        }
+        queue.add(new Entry<>(timestamp, now, sequence++, signal));
+        maxSeen = Math.max(maxSeen, timestamp);
+        releaseUpTo(maxSeen - maxLatenessNanos, released);
+        return false;
+    }
+
+    /**
+     * Releases signals that have waited out the lateness window on the wall clock, together
+     * with everything ordered before them.
+     */
+    void drainExpired(long now, List<T> released) {
+        long expiredUpTo = Long.MIN_VALUE;
+        for (Entry<T> entry : queue) {
+            if (now - entry.arrival >= maxLatenessNanos) {
+                expiredUpTo = Math.max(expiredUpTo, entry.timestamp);
+            }
+        }
+        releaseUpTo(expiredUpTo, released);
+    }
+
+    void drainAll(List<T> released) {
+        releaseUpTo(Long.MAX_VALUE, released);
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    /**
+     * Adds every buffered signal to {@code into}, in no particular order, without releasing any.
+     */
+    void copyTo(List<T> into) {
+        for (Entry<T> entry : queue) {
+            into.add(entry.signal);
+        }
+    }
+
+    private void releaseUpTo(long watermark, List<T> released) {
+        while (!queue.isEmpty() && queue.peek().timestamp <= watermark) {
+            Entry<T> entry = queue.poll();
+            lastReleased = entry.timestamp;
+            released.add(entry.signal);
+        }
+    }
+
+    private record Entry<T>(long timestamp, long arrival, long sequence, T signal) implements Comparable<Entry<T>> {
+        @Override
+        public int compareTo(Entry<T> other) {
+            int byTimestamp = Long.compare(timestamp, other.timestamp);
+            return byTimestamp != 0 ? byTimestamp : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.ICUReceiver.ingest;
+
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.exception.InvalidICUSignalException;
+import com.example.ICUReceiver.model.ICUSignal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plausibility checks applied to every signal before it is queued for persistence.
+ * <p>
+ * Checks run on the primitive fields directly rather than through Bean Validation, so a valid
+ * signal costs a handful of comparisons and one pass over its ECG samples, with no reflection
+ * and no allocation. The accepted timestamp window is recomputed at most once per second
+ * instead of reading the wall clock per signal. Signals without a timestamp are accepted; the
+ * pipeline stamps them on arrival.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.ingest.validation.rejected</b> – Signals rejected, tagged {@code reason} with {@link RejectionReason#tag()}.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class SignalValidator {
+
+    private static final long BOUNDS_REFRESH_MILLIS = 1_000;
+
+    private final IngestProperties.Validation limits;
+    private final Map<RejectionReason, Counter> rejectedCounters = new EnumMap<>(RejectionReason.class);
+    private volatile TimestampBounds bounds = new TimestampBounds(0, null, LocalDateTime.MIN);
+
+    @Autowired
+    public SignalValidator(IngestProperties properties, MeterRegistry meterRegistry) {
+        this.limits = properties.getValidation();
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejectedCounters.put(reason, meterRegistry.counter("icu.ingest.validation.rejected", "reason", reason.tag()));
+        }
+    }
+
+    /**
+     * Checks a signal and counts the rejection, if any.
+     *
+     * @return The first failed check, or {@code null} if the signal is acceptable.
+     */
+    public RejectionReason check(ICUSignal signal) {
+        RejectionReason reason = firstFailure(signal);
+        if (reason != null) {
+            rejectedCounters.get(reason).increment();
+        }
+        return reason;
+    }
+
+    /**
+     * Checks a signal and throws if it is not acceptable.
+     *
+     * @throws InvalidICUSignalException naming the failed check and the offending value.
+     */
+    public void validate(ICUSignal signal) {
+        RejectionReason reason = check(signal);
+        if (reason != null) {
+            log.debug("Rejected signal | nationalId={} | reason={}", signal.getNationalId(), reason.tag());
+            throw new InvalidICUSignalException(describe(reason, signal));
+        }
+    }
+
+    private RejectionReason firstFailure(ICUSignal signal) {
+        if (signal.getNationalId() <= 0) {
+            return RejectionReason.NATIONAL_ID;
+        }
+        // Negated comparisons so that NaN fails as well.
+        if (!(signal.getHeartbeat() >= limits.getMinHeartbeat() && signal.getHeartbeat() <= limits.getMaxHeartbeat())) {
+            return RejectionReason.HEARTBEAT;
+        }
+        if (!(signal.getPulse() >= limits.getMinPulse() && signal.getPulse() <= limits.getMaxPulse())) {
+            return RejectionReason.PULSE;
+        }
+        LocalDateTime timestamp = signal.getTimestamp();
+        if (timestamp != null) {
+            TimestampBounds current = currentBounds();
+            if (timestamp.isAfter(current.latest())) {
+                return RejectionReason.TIMESTAMP_FUTURE;
+            }
+            if (current.earliest() != null && timestamp.isBefore(current.earliest())) {
+                return RejectionReason.TIMESTAMP_STALE;
+            }
+        }
+        List<Double> ecg = signal.getEcgList();
+        if (ecg != null) {
+            if (ecg.isEmpty()) {
+                return RejectionReason.ECG_EMPTY;
+            }
+            if (ecg.size() > limits.getMaxEcgSamples()) {
+                return RejectionReason.ECG_TOO_LONG;
+            }
+            for (int i = 0, n = ecg.size(); i < n; i++) {
+                Double sample = ecg.get(i);
+                if (sample == null || !Double.isFinite(sample)) {
+                    return RejectionReason.ECG_NOT_FINITE;
+                }
+            }
+        }
+        return null;
+    }
+
+    private TimestampBounds currentBounds() {
+        long now = System.currentTimeMillis();
+        TimestampBounds current = bounds;
+        if (now - current.computedAt() >= BOUNDS_REFRESH_MILLIS) {
+            // Racing refreshes compute the same window; the last write wins harmlessly.
+            LocalDateTime wallClock = LocalDateTime.now();
+            Duration maxAge = limits.getMaxAge();
+            current = new TimestampBounds(now,
+                    maxAge.isZero() ? null : wallClock.minus(maxAge),
+                    wallClock.plus(limits.getMaxFutureSkew()));
+            bounds = current;
+        }
+        return current;
+    }
+
+    private String describe(RejectionReason reason, ICUSignal signal) {
+        return switch (reason) {
+            case NATIONAL_ID -> "Invalid signal: nationalId must be positive, was " + signal.getNationalId();
+            case HEARTBEAT -> "Invalid signal: heartbeat " + signal.getHeartbeat() + " outside ["
+                    + limits.getMinHeartbeat() + ", " + limits.getMaxHeartbeat() + "]";
+            case PULSE -> "Invalid signal: pulse " + signal.getPulse() + " outside ["
+                    + limits.getMinPulse() + ", " + limits.getMaxPulse() + "]";
+            case TIMESTAMP_FUTURE -> "Invalid signal: timestamp " + signal.getTimestamp()
+                    + " is more than " + limits.getMaxFutureSkew() + " ahead";
+            case TIMESTAMP_STALE -> "Invalid signal: timestamp " + signal.getTimestamp()
+                    + " is older than " + limits.getMaxAge();
+            case ECG_EMPTY -> "Invalid signal: ecgList is empty";
+            case ECG_TOO_LONG -> "Invalid signal: ecgList has " + signal.getEcgList().size()
+                    + " samples, at most " + limits.getMaxEcgSamples() + " allowed";
+            case ECG_NOT_FINITE -> "Invalid signal: ecgList contains a missing or non-finite sample";
+        };
+    }
+
+    private record TimestampBounds(long computedAt, LocalDateTime earliest, LocalDateTime latest) {
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.ICUReceiver.ingest;
+
+import java.util.Arrays;
+
+/**
+ * Exact, bounded set of recently seen device timestamps for one patient.
+ * <p>
+ * Timestamps live in a primitive open-addressing hash table (linear probing, backward-shift
+ * deletion) next to a ring buffer recording insertion order. Entries are evicted from the ring
+ * head once they fall more than {@code windowNanos} behind the newest timestamp, or when the
+ * ring is full. Unlike a bloom filter it never reports a false duplicate, so no real sample is
+ * dropped, at a cost of 24 bytes per remembered timestamp.
+ * <p>
+ * Not thread-safe; callers serialize access per patient.
+ */
+final class SlidingTimestampSet {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long windowNanos;
+    private final long[] ring;
+    private final long[] table;
+    private final int mask;
+    private int head;
+    private int size;
+    private long newest = Long.MIN_VALUE;
+
+    SlidingTimestampSet(int capacity, long windowNanos) {
+        this.windowNanos = windowNanos;
+        this.ring = new long[capacity];
+        this.table = new long[Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1];
+        this.mask = table.length - 1;
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * Records a timestamp.
+     *
+     * @return {@code false} if the timestamp is already remembered, i.e. the signal is a duplicate.
+     */
+    boolean add(long timestamp) {
+        newest = Math.max(newest, timestamp);
+        evict();
+        if (contains(timestamp)) {
+            return false;
+        }
+        if (size == ring.length) {
+            removeHead();
+        }
+        insert(timestamp);
+        ring[(head + size) % ring.length] = timestamp;
+        size++;
+        return true;
+    }
+
+    /**
+     * Forgets a timestamp, e.g. of a signal that failed to persist, so its replay is accepted.
+     */
+    void remove(long timestamp) {
+        if (!contains(timestamp)) {
+            return;
+        }
+        removeKey(timestamp);
+        int i = 0;
+        while (ring[(head + i) % ring.length] != timestamp) {
+            i++;
+        }
+        for (; i < size - 1; i++) {
+            ring[(head + i) % ring.length] = ring[(head + i + 1) % ring.length];
+        }
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Remembered timestamps, oldest inserted first; adding them to an empty set rebuilds this one.
+     */
+    long[] toArray() {
+        long[] timestamps = new long[size];
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = ring[(head + i) % ring.length];
+        }
+        return timestamps;
+    }
+
+    private void evict() {
+        while (size > 0 && ring[head] < newest - windowNanos) {
+            removeHead();
+        }
+    }
+
+    private void removeHead() {
+        removeKey(ring[head]);
+        head = (head + 1) % ring.length;
+        size--;
+    }
+
+    private boolean contains(long key) {
+        for (int i = slot(key); table[i] != EMPTY; i = (i + 1) & mask) {
+            if (table[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void insert(long key) {
+        int i = slot(key);
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = key;
+    }
+
+    private void removeKey(long key) {
+        int i = slot(key);
+        while (table[i] != key) {
+            if (table[i] == EMPTY) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        // Shift later members of the probe run back so lookups never stop at the hole.
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (table[j] == EMPTY) {
+                break;
+            }
+            int home = slot(table[j]);
+            boolean homeInGap = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!homeInGap) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = EMPTY;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
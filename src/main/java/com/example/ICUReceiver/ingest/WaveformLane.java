@@ -0,0 +1,212 @@
+package com.example.ICUReceiver.ingest;
+
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.feed.ChangeFeed;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ICUService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput lane of the ingest pipeline, persisting ECG samples after their vitals.
+ * <p>
+ * The shards persist a signal's vitals without its samples and hand the samples over with
+ * {@link #offer}. Acknowledged waveforms are not dropped under load: while the bounded queue is
+ * full the pipeline rejects new signals carrying samples, see {@link #isSaturated()}, and a shard
+ * whose waveform still finds the queue full waits for room, so the backpressure reaches its own
+ * queue rather than the lane's writes running on the shard's thread. Writers on the lane's own
+ * executor drain up to {@code batchSize} waveforms, waiting at most {@code maxLinger} for a batch
+ * to fill, and persist them in one {@link ICUService#saveWaveforms} call. A batch the write
+ * limits turn away is retried with backoff, see {@link WriteBackoff}. The new waveform references
+ * are set on the signals in the {@link LatestSignalCache}, and completed signals are appended to
+ * the {@link ChangeFeed} once persisted.
+ * <p>
+ * A batch that fails for another reason is retried one waveform at a time, so a single bad
+ * waveform cannot take the others down. Only a waveform that fails on its own is given up; it is
+ * counted, and its signal, whose vitals are stored, is appended to the feed without samples.
+ */
+@Slf4j
+final class WaveformLane {
+
+    private static final Job STOP = new Job(null, null, 0);
+    private static final long OFFER_WAIT_SECONDS = 1;
+
+    private final ICUService service;
+    private final ChangeFeed changeFeed;
+    private final LatestSignalCache latestCache;
+    private final BlockingQueue<Job> queue;
+    private final int writers;
+    private final int batchSize;
+    private final long maxLingerNanos;
+    private final ExecutorService executor;
+
+    private final Timer latency;
+    private final Counter blockedCounter;
+    private final Counter writeFailedCounter;
+    private final WriteBackoff writeBackoff;
+
+    WaveformLane(ICUService service, ChangeFeed changeFeed, LatestSignalCache latestCache,
+                 IngestProperties properties, MeterRegistry meterRegistry) {
+        IngestProperties.Waveform waveform = properties.getLanes().getWaveform();
+        this.service = service;
+        this.changeFeed = changeFeed;
+        this.latestCache = latestCache;
+        this.queue = new ArrayBlockingQueue<>(waveform.getQueueCapacity());
+        this.writers = waveform.getWriters();
+        this.batchSize = waveform.getBatchSize();
+        this.maxLingerNanos = waveform.getMaxLinger().toNanos();
+        this.executor = Executors.newFixedThreadPool(writers, Thread.ofPlatform().name("ingest-waveform-", 0).factory());
+
+        this.latency = IngestPipeline.laneLatency(meterRegistry, "waveform");
+        this.blockedCounter = meterRegistry.counter("icu.ingest.waveform.blocked");
+        this.writeFailedCounter = meterRegistry.counter("icu.ingest.waveform.write.failed");
+        this.writeBackoff = new WriteBackoff(properties.getWriteRetry(), "waveform", meterRegistry);
+        meterRegistry.gauge("icu.ingest.waveform.queue.depth", queue, BlockingQueue::size);
+    }
+
+    void start() {
+        for (int i = 0; i < writers; i++) {
+            executor.execute(this::run);
+        }
+    }
+
+    /**
+     * Whether the queue is full, so signals carrying samples should be turned away before they
+     * are acknowledged.
+     */
+    boolean isSaturated() {
+        return queue.remainingCapacity() == 0;
+    }
+
+    /**
+     * Queues the samples of a signal whose vitals have been persisted, waiting for room while
+     * the queue is full. Only if the calling thread is interrupted while waiting are the samples
+     * persisted on it instead.
+     */
+    void offer(ICUSignal signal, List<Double> samples, long arrival) {
+        Job job = new Job(signal, samples, arrival);
+        if (queue.offer(job)) {
+            return;
+        }
+        blockedCounter.increment();
+        try {
+            while (!queue.offer(job, OFFER_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Waveform lane still full, holding shard | nationalId={} | timestamp={}",
+                        signal.getNationalId(), signal.getTimestamp());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted waiting for the waveform lane, persisting waveform inline | nationalId={} | timestamp={}",
+                    signal.getNationalId(), signal.getTimestamp());
+            persist(List.of(job));
+        }
+    }
+
+    /**
+     * Persists everything still queued and waits for the writers to exit.
+     */
+    void stop() throws InterruptedException {
+        for (int i = 0; i < writers; i++) {
+            queue.put(STOP);
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private void run() {
+        List<Job> batch = new ArrayList<>(batchSize);
+        boolean stopping = false;
+        try {
+            while (!stopping) {
+                Job first = queue.take();
+                if (first == STOP) {
+                    break;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxLingerNanos;
+                while (batch.size() < batchSize) {
+                    Job next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == STOP) {
+                        stopping = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+                persist(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!batch.isEmpty()) {
+                persist(batch);
+            }
+        }
+        log.info("Waveform writer stopped");
+    }
+
+    private void persist(List<Job> batch) {
+        List<ICUSignal> complete = new ArrayList<>(batch.size());
+        for (Job job : batch) {
+            complete.add(ICUSignal.builder()
+                    .id(job.signal.getId())
+                    .nationalId(job.signal.getNationalId())
+                    .heartbeat(job.signal.getHeartbeat())
+                    .pulse(job.signal.getPulse())
+                    .timestamp(job.signal.getTimestamp())
+                    .ecgList(job.samples)
+                    .ecgFeatures(job.signal.getEcgFeatures())
+                    .build());
+        }
+        try {
+            writeBackoff.run(() -> service.saveWaveforms(complete));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            giveUp(batch, e);
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                giveUp(batch, e);
+                return;
+            }
+            log.warn("Waveform lane failed to persist batch, retrying waveforms one by one | size={} | reason={}",
+                    batch.size(), e.getMessage());
+            for (Job job : batch) {
+                persist(List.of(job));
+            }
+            return;
+        }
+        latestCache.attachWaveforms(complete);
+        long now = System.nanoTime();
+        for (Job job : batch) {
+            latency.record(now - job.arrival, TimeUnit.NANOSECONDS);
+        }
+        changeFeed.append(complete);
+    }
+
+    private void giveUp(List<Job> batch, Exception cause) {
+        writeFailedCounter.increment(batch.size());
+        log.error("Waveform lane dropped waveforms it could not persist | size={} | reason={}",
+                batch.size(), cause.getMessage(), cause);
+        changeFeed.append(batch.stream().map(Job::signal).toList());
+    }
+
+    /**
+     * Samples of a persisted signal; {@code signal} itself is shared with live viewers and never modified here.
+     */
+    private record Job(ICUSignal signal, List<Double> samples, long arrival) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ICUReceiver.ingest;
+
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.exception.WriteRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeats a database write that the write limits turned away, backing off exponentially from
+ * {@code initialBackoff} up to {@code maxBackoff} between attempts.
+ * <p>
+ * A {@link WriteRejectedException} means the write never reached the database, so repeating it is
+ * safe. The calling writer is held meanwhile, which lets its queue fill and pushes the overload
+ * back to the submitters. Any other failure is passed on at once.
+ */
+@Slf4j
+final class WriteBackoff {
+
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Counter retriedCounter;
+
+    WriteBackoff(IngestProperties.WriteRetry properties, String lane, MeterRegistry meterRegistry) {
+        this.initialBackoffNanos = Math.max(1, properties.getInitialBackoff().toNanos());
+        this.maxBackoffNanos = Math.max(initialBackoffNanos, properties.getMaxBackoff().toNanos());
+        this.retriedCounter = meterRegistry.counter("icu.ingest.write.retried", "lane", lane);
+    }
+
+    /**
+     * Runs {@code write} until it is no longer rejected.
+     *
+     * @throws InterruptedException if interrupted while backing off; the write has not happened.
+     */
+    void run(Runnable write) throws InterruptedException {
+        long backoff = initialBackoffNanos;
+        while (true) {
+            try {
+                write.run();
+                return;
+            } catch (WriteRejectedException e) {
+                retriedCounter.increment();
+                log.debug("Write rejected, retrying | backoffMs={} | reason={}",
+                        TimeUnit.NANOSECONDS.toMillis(backoff), e.getMessage());
+                TimeUnit.NANOSECONDS.sleep(backoff);
+                backoff = Math.min(backoff * 2, maxBackoffNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.ICUReceiver.limit;
+
+import com.example.ICUReceiver.configuration.WriteLimitProperties;
+import com.example.ICUReceiver.exception.WriteRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps concurrent database writes at the level the database currently sustains.
+ * <p>
+ * Every completed write is a latency sample. Successful writes move the limit along a gradient:
+ * the ratio of the long-term average latency (times {@code tolerance}) to the sample, clamped to
+ * {@code [0.5, 1]}, scales the limit, and a headroom of {@code sqrt(limit)} is added so the limit
+ * keeps probing upwards while latency stays flat. A write that fails or is rejected downstream
+ * multiplies the limit by {@code backoffRatio}. New estimates are blended in with weight
+ * {@code smoothing}, and the limit never grows while fewer than half of the permits are in use,
+ * since such samples say nothing about higher concurrency.
+ * <p>
+ * Admission is a CAS on the in-flight count; writers over the limit wait up to {@code maxWait}
+ * for a permit to be released and are then rejected with {@link WriteRejectedException}.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.write.limit</b> – Current concurrency limit.</li>
+ *   <li><b>icu.write.inflight</b> – Writes currently holding a permit.</li>
+ *   <li><b>icu.write.rejected{reason=limit}</b> – Writes rejected after waiting {@code maxWait}.</li>
+ * </ul>
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final double smoothing;
+    private final double longRttWeight;
+    private final long maxWaitNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private volatile double limit;
+    private double longRttNanos;
+
+    private final Counter rejectedCounter;
+
+    public AdaptiveConcurrencyLimiter(WriteLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.tolerance = properties.getTolerance();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.smoothing = properties.getSmoothing();
+        this.longRttWeight = 2.0 / (properties.getLongWindow() + 1);
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+        this.limit = Math.clamp(properties.getInitialLimit(), minLimit, maxLimit);
+
+        this.rejectedCounter = meterRegistry.counter("icu.write.rejected", "reason", "limit");
+        meterRegistry.gauge("icu.write.limit", this, AdaptiveConcurrencyLimiter::getLimit);
+        meterRegistry.gauge("icu.write.inflight", inFlight);
+    }
+
+    /**
+     * Takes a permit, waiting up to {@code maxWait} while the limit is reached. Close the permit
+     * when the write is done and call {@link Permit#success()} before that if it succeeded.
+     *
+     * @throws WriteRejectedException if no permit became free in time.
+     */
+    public Permit acquire() {
+        int admitted = tryAcquire();
+        if (admitted > 0) {
+            return new Permit(admitted);
+        }
+        long remaining = maxWaitNanos;
+        lock.lock();
+        try {
+            while ((admitted = tryAcquire()) == 0) {
+                if (remaining <= 0) {
+                    rejectedCounter.increment();
+                    throw new WriteRejectedException("Database write limit reached (" + getLimit() + " in flight)");
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteRejectedException("Interrupted waiting for a database write permit");
+        } finally {
+            lock.unlock();
+        }
+        return new Permit(admitted);
+    }
+
+    /**
+     * Current concurrency limit.
+     */
+    public int getLimit() {
+        return enabled ? (int) limit : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Writes currently holding a permit.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the in-flight count including this write, or 0 if the limit is reached.
+     */
+    private int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private void release(long rttNanos, int inFlightAtStart, boolean succeeded) {
+        inFlight.decrementAndGet();
+        if (enabled) {
+            update(rttNanos, inFlightAtStart, succeeded);
+        }
+        lock.lock();
+        try {
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart, boolean succeeded) {
+        double current = limit;
+        double estimate;
+        if (!succeeded) {
+            estimate = current * backoffRatio;
+        } else {
+            longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + longRttWeight * (rttNanos - longRttNanos);
+            double gradient = Math.clamp(tolerance * longRttNanos / Math.max(1, rttNanos), 0.5, 1.0);
+            estimate = current * gradient + Math.sqrt(current);
+            if (estimate > current && inFlightAtStart * 2 < current) {
+                return;
+            }
+        }
+        double next = Math.clamp(current * (1 - smoothing) + estimate * smoothing, minLimit, maxLimit);
+        if ((int) next != (int) current) {
+            log.debug("Database write limit changed | from={} | to={} | rttMs={} | longRttMs={}",
+                    (int) current, (int) next, rttNanos / 1_000_000, (long) longRttNanos / 1_000_000);
+        }
+        limit = next;
+    }
+
+    /**
+     * One admitted write. Closing it releases the slot and records the write's latency.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long start = System.nanoTime();
+        private final int inFlightAtStart;
+        private boolean succeeded;
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Marks the write as completed; a permit closed without it counts as a failure.
+         */
+        public void success() {
+            succeeded = true;
+        }
+
+        @Override
+        public void close() {
+            release(System.nanoTime() - start, inFlightAtStart, succeeded);
+        }
+    }
+}
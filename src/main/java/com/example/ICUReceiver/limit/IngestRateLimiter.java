@@ -0,0 +1,177 @@
+package com.example.ICUReceiver.limit;
+
+import com.example.ICUReceiver.configuration.RateLimitProperties;
+import com.example.ICUReceiver.exception.RateLimitedException;
+import com.example.ICUReceiver.trace.IngestTrace;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for uploaded signals: every signal takes a token from its client's bucket and
+ * from its patient's bucket, so one misbehaving gateway or device cannot saturate ingest for
+ * every other ward.
+ * <p>
+ * Clients are REST callers and WebSocket sessions, patients are keyed by national id; both are
+ * {@link TokenBucket token buckets} refilled at {@code rate} per second up to {@code burst}. A
+ * signal rejected by its patient's bucket gives its client token back. Buckets are created on
+ * first use and looked up without locking; every {@code eviction-interval} the caller that
+ * happens to pass by drops the buckets that have refilled completely, as a full bucket behaves
+ * exactly like a new one.
+ * <p>
+ * REST callers are keyed by {@link #clientKey}: a caller cannot pick its own bucket by naming
+ * itself, unless it is a trusted proxy naming the client behind it.
+ * <p>
+ * Signals forwarded by another cluster node were admitted there and are not limited again, so
+ * the limits apply per entry node.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.ratelimit.rejected{scope=client|patient, channel=rest|websocket}</b> – Signals rejected per limit.</li>
+ *   <li><b>icu.ratelimit.buckets{scope=client|patient}</b> – Buckets currently held.</li>
+ * </ul>
+ */
+@Slf4j
+public class IngestRateLimiter {
+
+    public static final String CLIENT = "client";
+    public static final String PATIENT = "patient";
+
+    private final boolean enabled;
+    private final RateLimitProperties.Bucket clientLimit;
+    private final RateLimitProperties.Bucket patientLimit;
+    private final long evictionIntervalNanos;
+    private final Set<String> trustedProxies;
+
+    private final Map<String, TokenBucket> clients = new ConcurrentHashMap<>();
+    private final Map<Integer, TokenBucket> patients = new ConcurrentHashMap<>();
+    private final AtomicLong nextEviction;
+
+    private final Map<IngestTrace.Channel, Counter> clientRejected = new EnumMap<>(IngestTrace.Channel.class);
+    private final Map<IngestTrace.Channel, Counter> patientRejected = new EnumMap<>(IngestTrace.Channel.class);
+
+    public IngestRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.clientLimit = properties.getClient();
+        this.patientLimit = properties.getPatient();
+        this.evictionIntervalNanos = properties.getEvictionInterval().toNanos();
+        this.trustedProxies = Set.copyOf(properties.getTrustedProxies());
+        this.nextEviction = new AtomicLong(System.nanoTime() + evictionIntervalNanos);
+
+        for (IngestTrace.Channel channel : IngestTrace.Channel.values()) {
+            String tag = channel.name().toLowerCase();
+            clientRejected.put(channel,
+                    meterRegistry.counter("icu.ratelimit.rejected", "scope", CLIENT, "channel", tag));
+            patientRejected.put(channel,
+                    meterRegistry.counter("icu.ratelimit.rejected", "scope", PATIENT, "channel", tag));
+        }
+        meterRegistry.gauge("icu.ratelimit.buckets", Tags.of("scope", CLIENT), clients, Map::size);
+        meterRegistry.gauge("icu.ratelimit.buckets", Tags.of("scope", PATIENT), patients, Map::size);
+    }
+
+    /**
+     * Admits one signal of {@code client} for the patient {@code nationalId}.
+     *
+     * @throws RateLimitedException if either bucket is empty.
+     */
+    public void acquire(IngestTrace.Channel channel, String client, int nationalId) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        evictFullBuckets(now);
+
+        TokenBucket clientBucket = isActive(clientLimit) ? bucket(clients, client, clientLimit, now) : null;
+        if (clientBucket != null) {
+            long wait = clientBucket.tryAcquire(now);
+            if (wait > 0) {
+                clientRejected.get(channel).increment();
+                throw rejected(CLIENT, nationalId, "Client " + client, clientLimit, wait);
+            }
+        }
+        if (isActive(patientLimit)) {
+            long wait = bucket(patients, nationalId, patientLimit, now).tryAcquire(now);
+            if (wait > 0) {
+                if (clientBucket != null) {
+                    clientBucket.release();
+                }
+                patientRejected.get(channel).increment();
+                throw rejected(PATIENT, nationalId, "Patient " + nationalId, patientLimit, wait);
+            }
+        }
+    }
+
+    /**
+     * Names the bucket of a REST caller: its authenticated principal, else the client id sent by a
+     * trusted proxy, else its remote address.
+     *
+     * @param principal     The authenticated principal's name, may be {@code null}.
+     * @param clientId      The <code>X-Client-Id</code> header, may be {@code null}.
+     * @param remoteAddress The caller's address.
+     */
+    public String clientKey(String principal, String clientId, String remoteAddress) {
+        if (principal != null) {
+            return "principal:" + principal;
+        }
+        if (clientId != null && !clientId.isBlank() && trustedProxies.contains(remoteAddress)) {
+            return "client:" + clientId;
+        }
+        return "address:" + remoteAddress;
+    }
+
+    /**
+     * Drops a client's bucket, e.g. once its WebSocket session is closed.
+     */
+    public void forget(String client) {
+        clients.remove(client);
+    }
+
+    int getClientBucketCount() {
+        return clients.size();
+    }
+
+    int getPatientBucketCount() {
+        return patients.size();
+    }
+
+    private static boolean isActive(RateLimitProperties.Bucket limit) {
+        return limit.getRate() > 0;
+    }
+
+    private static <K> TokenBucket bucket(Map<K, TokenBucket> buckets, K key, RateLimitProperties.Bucket limit,
+                                          long now) {
+        TokenBucket bucket = buckets.get(key);
+        return bucket != null
+                ? bucket
+                : buckets.computeIfAbsent(key, k -> new TokenBucket(limit.getRate(), limit.getBurst(), now));
+    }
+
+    private void evictFullBuckets(long now) {
+        long due = nextEviction.get();
+        if (now - due < 0 || !nextEviction.compareAndSet(due, now + evictionIntervalNanos)) {
+            return;
+        }
+        // A caller still holding a dropped bucket takes its token from a full bucket, which a new
+        // bucket would have granted just the same.
+        int before = clients.size() + patients.size();
+        clients.values().removeIf(bucket -> bucket.isFull(now));
+        patients.values().removeIf(bucket -> bucket.isFull(now));
+        log.debug("Evicted full rate limit buckets | evicted={} | remaining={}",
+                before - clients.size() - patients.size(), clients.size() + patients.size());
+    }
+
+    private static RateLimitedException rejected(String scope, int nationalId, String subject,
+                                                 RateLimitProperties.Bucket limit, long waitNanos) {
+        Duration retryAfter = Duration.ofNanos(waitNanos);
+        return new RateLimitedException(subject + " exceeded " + limit.getRate() + " signals/s, retry in "
+                + retryAfter.toMillis() + " ms", scope, nationalId, retryAfter);
+    }
+}
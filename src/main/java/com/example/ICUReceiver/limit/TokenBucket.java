@@ -0,0 +1,61 @@
+package com.example.ICUReceiver.limit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code burst} tokens and refilled at {@code rate} per second.
+ * <p>
+ * Instead of a token count and a refill timestamp, the bucket keeps a single value: the time at
+ * which it will be full again. Taking a token pushes that time one refill interval further, from
+ * now if the bucket was already full; the token is granted as long as the bucket would not be
+ * full again later than {@code burst} intervals from now. Both checks and update are one CAS on
+ * an {@link AtomicLong}, so concurrent callers never block each other.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param now Current {@link System#nanoTime()}; the bucket starts full.
+     */
+    TokenBucket(double rate, int burst, long now) {
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000L / rate));
+        this.capacityNanos = intervalNanos * Math.max(1, burst);
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return 0 if the token was granted, otherwise nanoseconds until one is available.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Puts back a token taken by {@link #tryAcquire} for a signal that was rejected by another limit.
+     */
+    void release() {
+        fullAt.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * Whether the bucket has refilled completely, so dropping it loses nothing.
+     */
+    boolean isFull(long now) {
+        return fullAt.get() - now <= 0;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.ICUReceiver.limit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs {@link WriteLimited} methods under an {@link AdaptiveConcurrencyLimiter} permit.
+ * <p>
+ * Ordered inside the retry but ahead of the circuit breaker, bulkhead and transaction
+ * interceptors: every attempt takes its own permit and releases it before the retry backs off,
+ * and the latency the limiter learns from covers one attempt including its commit, never the
+ * sleep between attempts. The Resilience4j aspect orders this relies on are set in
+ * <code>application.yaml</code>.
+ */
+@Aspect
+@Component
+@Order(WriteLimitAspect.ORDER)
+public class WriteLimitAspect {
+
+    /**
+     * Between <code>resilience4j.retry.retryAspectOrder</code> and
+     * <code>resilience4j.circuitbreaker.circuitBreakerAspectOrder</code>.
+     */
+    public static final int ORDER = 200;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public WriteLimitAspect(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Around("@annotation(com.example.ICUReceiver.limit.WriteLimited)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
+            Object result = joinPoint.proceed();
+            permit.success();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ICUReceiver.limit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a database write that must hold an {@link AdaptiveConcurrencyLimiter} permit, see
+ * {@link WriteLimitAspect}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WriteLimited {
+}
@@ -14,17 +14,21 @@ public class ICUSignalMapper {
                 dto.getHeartbeat(),
                 dto.getPulse(),
                 dto.getTimestamp(),
-                dto.getEcgList()
+                dto.getEcgList(),
+                null,
+                null
         );
     }
 
     public ICUSignalDto toDto(ICUSignal entity) {
         return new ICUSignalDto(
+                entity.getId() != 0 ? entity.getId() : null,
                 entity.getNationalId(),
                 entity.getHeartbeat(),
                 entity.getPulse(),
                 entity.getTimestamp(),
-                entity.getEcgList()
+                entity.getEcgList(),
+                entity.getEcgFeatures()
         );
     }
 }
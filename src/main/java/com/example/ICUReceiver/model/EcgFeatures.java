@@ -0,0 +1,42 @@
+package com.example.ICUReceiver.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Features derived from a signal's ECG samples at ingest by
+ * {@link com.example.ICUReceiver.dsp.EcgAnalyzer}.
+ * <p>
+ * R-R intervals end at an R peak of this signal's samples and may start in the previous signal of
+ * the same stream; the interval fields and the heart rate are {@code null} when none was found.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EcgFeatures {
+
+    /**
+     * R peaks detected in the samples.
+     */
+    @Column(name = "ecg_peak_count")
+    private Integer peakCount;
+
+    @Column(name = "ecg_rr_mean_ms")
+    private Double rrMeanMillis;
+
+    @Column(name = "ecg_rr_min_ms")
+    private Double rrMinMillis;
+
+    @Column(name = "ecg_rr_max_ms")
+    private Double rrMaxMillis;
+
+    /**
+     * Beats per minute derived from the mean R-R interval.
+     */
+    @Column(name = "ecg_heart_rate")
+    private Double heartRate;
+}
@@ -16,8 +16,13 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 public class ICUSignal {
+    /**
+     * Drawn from a pooled sequence, 50 ids per round-trip. Unlike identity columns this lets
+     * Hibernate batch the inserts of a whole ingest batch into a few JDBC statements.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "icusignal_seq")
+    @SequenceGenerator(name = "icusignal_seq", sequenceName = "icusignal_seq", allocationSize = 50)
     private int id;
 
     private int nationalId;
@@ -25,9 +30,22 @@ public class ICUSignal {
     private double pulse;
     private LocalDateTime timestamp;
 
-    @ElementCollection
+    /**
+     * Raw ECG samples; not a column. Persisted in the waveform segment files and
+     * located through {@link #ecgRef}.
+     */
+    @Transient
     List<Double> ecgList;
 
+    @Embedded
+    private WaveformRef ecgRef;
+
+    /**
+     * R-peak and heart rate features derived from {@link #ecgList} at ingest.
+     */
+    @Embedded
+    private EcgFeatures ecgFeatures;
+
     public static ICUSignal fromPayload(ICUSignalDto signalDto) {
         return ICUSignal.builder()
                 .nationalId(signalDto.getNationalId())
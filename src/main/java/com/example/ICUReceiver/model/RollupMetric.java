@@ -0,0 +1,9 @@
+package com.example.ICUReceiver.model;
+
+/**
+ * Vital sign a {@link SignalRollup} row aggregates.
+ */
+public enum RollupMetric {
+    HEARTBEAT,
+    PULSE
+}
@@ -0,0 +1,55 @@
+package com.example.ICUReceiver.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compressed run of one patient's historical signals, written by compaction in place of their
+ * <code>icusignal</code> rows.
+ * <p>
+ * The columns describe the block so range queries can select and count blocks without decoding
+ * them; {@link #data} holds the signals encoded by
+ * {@link com.example.ICUReceiver.store.SignalBlockCodec}.
+ */
+@Entity
+@Table(name = "signal_block")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SignalBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "signalblock_seq")
+    @SequenceGenerator(name = "signalblock_seq", sequenceName = "signalblock_seq", allocationSize = 1)
+    private long id;
+
+    private int nationalId;
+
+    /**
+     * Timestamp of the oldest signal in the block.
+     */
+    private LocalDateTime firstTimestamp;
+
+    /**
+     * Timestamp of the newest signal in the block.
+     */
+    private LocalDateTime lastTimestamp;
+
+    /**
+     * Smallest and largest signal id in the block, used to resolve a signal by id.
+     */
+    private int minSignalId;
+    private int maxSignalId;
+
+    private int signalCount;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] data;
+}
@@ -0,0 +1,34 @@
+package com.example.ICUReceiver.model;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregate of one vital sign for one patient over one tumbling window.
+ * <p>
+ * Holds Welford's running moments ({@code mean}, {@code m2}) rather than raw sums of squares,
+ * so the variance stays numerically stable and rows can be merged with later deltas.
+ */
+@Entity
+@Table(name = "signal_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SignalRollup {
+
+    @EmbeddedId
+    private SignalRollupId id;
+
+    private long count;
+    private double sum;
+    private double mean;
+    private double m2;
+    private double min;
+    private double max;
+}
@@ -0,0 +1,34 @@
+package com.example.ICUReceiver.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Key of a rollup row: one patient, one window, one metric.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignalRollupId implements Serializable {
+
+    private int nationalId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private RollupGranularity granularity;
+
+    private LocalDateTime windowStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private RollupMetric metric;
+}
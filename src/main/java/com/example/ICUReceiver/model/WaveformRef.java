@@ -0,0 +1,32 @@
+package com.example.ICUReceiver.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Location of a signal's raw ECG samples inside the patient's waveform segment files.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaveformRef {
+
+    @Column(name = "ecg_segment")
+    private Integer segment;
+
+    /**
+     * Index of the first sample within the segment.
+     */
+    @Column(name = "ecg_offset")
+    private Long offset;
+
+    /**
+     * Number of samples.
+     */
+    @Column(name = "ecg_length")
+    private Integer length;
+}
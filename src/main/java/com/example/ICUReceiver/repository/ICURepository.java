@@ -5,10 +5,14 @@ import io.micrometer.core.annotation.Timed;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+@Transactional(readOnly = true)
 public interface ICURepository extends JpaRepository<ICUSignal, Integer> {
     @Timed(
             value = "repository.icuSignal.query",
@@ -35,4 +39,36 @@ public interface ICURepository extends JpaRepository<ICUSignal, Integer> {
             LocalDateTime end,
             Pageable pageable
     );
+
+    @Timed(
+            value = "repository.icuSignal.query",
+            extraTags = {"method", "findTimestampsBetween"},
+            description = "Time to find a patient's ICUSignal timestamps within a range"
+    )
+    @Query("select s.timestamp from ICUSignal s where s.nationalId = :nationalId"
+            + " and s.timestamp between :start and :end")
+    List<LocalDateTime> findTimestampsBetween(
+            @Param("nationalId") int nationalId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    @Timed(
+            value = "repository.icuSignal.query",
+            extraTags = {"method", "findOldestBefore"},
+            description = "Time to find a patient's oldest ICUSignal entries before a timestamp"
+    )
+    List<ICUSignal> findByNationalIdAndTimestampBeforeOrderByTimestampAsc(
+            int nationalId,
+            LocalDateTime before,
+            Pageable pageable
+    );
+
+    @Timed(
+            value = "repository.icuSignal.query",
+            extraTags = {"method", "findNationalIdsBefore"},
+            description = "Time to find the patients with ICUSignal entries before a timestamp"
+    )
+    @Query("select distinct s.nationalId from ICUSignal s where s.timestamp < :before")
+    List<Integer> findNationalIdsWithSignalsBefore(@Param("before") LocalDateTime before);
 }
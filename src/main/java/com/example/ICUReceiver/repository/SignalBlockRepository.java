@@ -0,0 +1,43 @@
+package com.example.ICUReceiver.repository;
+
+import com.example.ICUReceiver.model.SignalBlock;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface SignalBlockRepository extends JpaRepository<SignalBlock, Long> {
+    @Timed(
+            value = "repository.signalBlock.query",
+            extraTags = {"method", "findOverlapping"},
+            description = "Time to find the headers of a patient's signal blocks overlapping a timestamp range"
+    )
+    List<Header> findHeadersByNationalIdAndLastTimestampGreaterThanEqualAndFirstTimestampLessThanEqualOrderByLastTimestampDesc(
+            int nationalId,
+            LocalDateTime start,
+            LocalDateTime end
+    );
+
+    @Timed(
+            value = "repository.signalBlock.query",
+            extraTags = {"method", "findBySignalId"},
+            description = "Time to find the headers of signal blocks whose id range covers a signal"
+    )
+    List<Header> findHeadersByMinSignalIdLessThanEqualAndMaxSignalIdGreaterThanEqual(int signalId, int sameSignalId);
+
+    /**
+     * Block columns without the encoded payload.
+     */
+    interface Header {
+        long getId();
+
+        LocalDateTime getFirstTimestamp();
+
+        LocalDateTime getLastTimestamp();
+
+        int getSignalCount();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ICUReceiver.repository;
+
+import com.example.ICUReceiver.model.RollupGranularity;
+import com.example.ICUReceiver.model.SignalRollup;
+import com.example.ICUReceiver.model.SignalRollupId;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface SignalRollupRepository extends JpaRepository<SignalRollup, SignalRollupId> {
+    @Timed(
+            value = "repository.signalRollup.query",
+            extraTags = {"method", "findWindows"},
+            description = "Time to find rollup windows by national ID, granularity and window range"
+    )
+    List<SignalRollup> findByIdNationalIdAndIdGranularityAndIdWindowStartBetweenOrderByIdWindowStartAsc(
+            int nationalId,
+            RollupGranularity granularity,
+            LocalDateTime from,
+            LocalDateTime to
+    );
+}
@@ -0,0 +1,127 @@
+package com.example.ICUReceiver.service;
+
+import com.example.ICUReceiver.configuration.SignalStoreProperties;
+import com.example.ICUReceiver.exception.WriteRejectedException;
+import com.example.ICUReceiver.model.SignalBlock;
+import com.example.ICUReceiver.store.SignalBlockCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job moving signals older than <code>icu.store.compaction.older-than</code> into
+ * compressed per-patient blocks.
+ * <p>
+ * Every {@code interval} the job walks the patients with old signals and compacts each one a
+ * block of {@code blockSize} signals per transaction, oldest first, until none are left. Writes
+ * go through {@link ICUService#compactSignals}, so a run backs off until the next interval when
+ * the write limiter rejects it. Stores that cannot compact leave the job idle.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.compaction.signals</b> – Signals moved into blocks.</li>
+ *   <li><b>icu.compaction.blocks</b> – Blocks written.</li>
+ *   <li><b>icu.compaction.bytes{kind=raw|encoded}</b> – Fixed-width row bytes compacted and block bytes written.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class CompactionService {
+
+    private final ICUService icuService;
+    private final SignalStoreProperties.Compaction properties;
+    private final Counter signalCounter;
+    private final Counter blockCounter;
+    private final Counter rawBytesCounter;
+    private final Counter encodedBytesCounter;
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public CompactionService(ICUService icuService, SignalStoreProperties properties, MeterRegistry meterRegistry) {
+        this.icuService = icuService;
+        this.properties = properties.getCompaction();
+        this.signalCounter = meterRegistry.counter("icu.compaction.signals");
+        this.blockCounter = meterRegistry.counter("icu.compaction.blocks");
+        this.rawBytesCounter = meterRegistry.counter("icu.compaction.bytes", "kind", "raw");
+        this.encodedBytesCounter = meterRegistry.counter("icu.compaction.bytes", "kind", "encoded");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled() || !icuService.supportsCompaction()) {
+            log.info("Signal compaction disabled");
+            return;
+        }
+        long interval = properties.getInterval().toMillis();
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("signal-compaction").daemon().factory());
+        executor.scheduleWithFixedDelay(this::runSafely, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Signal compaction scheduled | olderThan={} | interval={} | blockSize={}",
+                properties.getOlderThan(), properties.getInterval(), properties.getBlockSize());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Compacts every patient's signals older than {@code olderThan}.
+     *
+     * @return Number of signals compacted.
+     * @throws WriteRejectedException if the write limiter refused a block; blocks written before
+     *                                that stay committed.
+     */
+    public long compactOnce() {
+        LocalDateTime before = LocalDateTime.now().minus(properties.getOlderThan());
+        int blockSize = properties.getBlockSize();
+        long compacted = 0;
+        long start = System.nanoTime();
+        List<Integer> patients = icuService.findCompactablePatients(before);
+        for (int nationalId : patients) {
+            SignalBlock block;
+            do {
+                if (Thread.currentThread().isInterrupted()) {
+                    return compacted;
+                }
+                block = icuService.compactSignals(nationalId, before, blockSize);
+                if (block != null) {
+                    compacted += block.getSignalCount();
+                    signalCounter.increment(block.getSignalCount());
+                    blockCounter.increment();
+                    rawBytesCounter.increment((double) block.getSignalCount() * SignalBlockCodec.RAW_SIGNAL_BYTES);
+                    encodedBytesCounter.increment(block.getData().length);
+                }
+            } while (block != null && block.getSignalCount() == blockSize);
+        }
+        if (compacted > 0) {
+            log.info("Compacted ICU signals | patients={} | signals={} | before={} | tookMs={}",
+                    patients.size(), compacted, before, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        }
+        return compacted;
+    }
+
+    private void runSafely() {
+        try {
+            compactOnce();
+        } catch (WriteRejectedException e) {
+            log.info("Signal compaction deferred to the next run | reason={}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Signal compaction failed", e);
+        }
+    }
+}
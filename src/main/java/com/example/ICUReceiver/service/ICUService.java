@@ -1,7 +1,17 @@
 package com.example.ICUReceiver.service;
 
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.exception.WriteRejectedException;
+import com.example.ICUReceiver.limit.WriteLimited;
 import com.example.ICUReceiver.model.ICUSignal;
-import com.example.ICUReceiver.repository.ICURepository;
+import com.example.ICUReceiver.model.SignalBlock;
+import com.example.ICUReceiver.store.CompactingSignalStore;
+import com.example.ICUReceiver.store.DeferredWaveformStore;
+import com.example.ICUReceiver.store.SignalSlice;
+import com.example.ICUReceiver.store.SignalStore;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.micrometer.core.instrument.Counter;
@@ -11,12 +21,15 @@ import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -24,8 +37,13 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * This service demonstrates production-grade design principles:
  * <ul>
- *   <li><b>Resilience</b> — Uses {@link CircuitBreaker} and {@link Retry} to handle transient failures gracefully.</li>
+ *   <li><b>Resilience</b> — Uses {@link CircuitBreaker} and {@link Retry} to handle transient failures gracefully.
+ *       Writes run under their own <code>icuWrites</code> instances: the breaker also opens when too many
+ *       writes are slow, a semaphore {@link Bulkhead} caps concurrent writes, and {@link WriteLimited}
+ *       admits them through the adaptive write limiter.</li>
  *   <li><b>Transactional Safety</b> — Writes are enclosed in a transactional context.</li>
+ *   <li><b>Caching</b> — {@link #findLatest} answers from the {@link LatestSignalCache} when it holds the
+ *       requested page, and seeds it from the store otherwise.</li>
  *   <li><b>Observability</b> — Exposes Micrometer metrics for operations, latency, and reliability tracking.</li>
  *   <li><b>Structured Logging</b> — Consistent logs to aid monitoring and troubleshooting.</li>
  * </ul>
@@ -33,8 +51,10 @@ import java.util.concurrent.TimeUnit;
  * Metrics exported via Micrometer (viewable under <code>/actuator/metrics</code>):
  * <ul>
  *   <li><b>icu.signals.saved.total</b> – Total number of successfully saved ICU signals.</li>
+ *   <li><b>icu.signals.waveforms.saved.total</b> – ECG waveforms saved after their signals.</li>
  *   <li><b>icu.signals.query.duration</b> – Timer measuring signal query execution time.</li>
  *   <li><b>icu.signals.query.total</b> – Total number of signal query requests.</li>
+ *   <li><b>icu.write.rejected{reason=bulkhead|circuit-open}</b> – Writes refused by the bulkhead or the open breaker.</li>
  * </ul>
  */
 @Service
@@ -42,40 +62,58 @@ import java.util.concurrent.TimeUnit;
 public class ICUService {
 
     private static final String ICU_SERVICE = "icuService";
+    private static final String ICU_WRITES = "icuWrites";
 
-    private final ICURepository repository;
+    private final SignalStore store;
+    private final LatestSignalCache latestCache;
     private final Counter saveCounter;
+    private final Counter waveformCounter;
     private final Counter queryCounter;
     private final Timer queryTimer;
+    private final Counter bulkheadRejectedCounter;
+    private final Counter circuitOpenRejectedCounter;
 
     /**
      * Constructs the ICUService with Micrometer instrumentation.
      *
-     * @param repository    The repository for persistent ICU signals.
+     * @param store         The storage backend for persistent ICU signals.
+     * @param latestCache   Newest signals per patient, kept up to date by the ingest pipeline.
      * @param meterRegistry The Micrometer registry for metrics tracking.
      */
     @Autowired
-    public ICUService(ICURepository repository, MeterRegistry meterRegistry) {
-        this.repository = repository;
+    public ICUService(SignalStore store, LatestSignalCache latestCache, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.latestCache = latestCache;
 
         this.saveCounter = meterRegistry.counter("icu.signals.saved.total");
+        this.waveformCounter = meterRegistry.counter("icu.signals.waveforms.saved.total");
         this.queryCounter = meterRegistry.counter("icu.signals.query.total");
         this.queryTimer = meterRegistry.timer("icu.signals.query.duration");
+        this.bulkheadRejectedCounter = meterRegistry.counter("icu.write.rejected", "reason", "bulkhead");
+        this.circuitOpenRejectedCounter = meterRegistry.counter("icu.write.rejected", "reason", "circuit-open");
     }
 
     /**
      * Saves an ICU signal with timestamping, transactional safety, and resilience features.
      * <p>
+     * The device timestamp is kept; only a signal without one is stamped with the current time.
+     * Each call is its own transaction and insert; bulk writers should use {@link #saveSignals(List)}.
      * Increments the custom metric <b>icu.signals.saved.total</b> upon successful save.
      *
      * @param icuSignal The ICU signal to persist.
      */
     @Transactional
-    @CircuitBreaker(name = ICU_SERVICE, fallbackMethod = "fallbackSaveSignal")
-    @Retry(name = ICU_SERVICE)
+    @WriteLimited
+    @CircuitBreaker(name = ICU_WRITES, fallbackMethod = "fallbackSaveSignal")
+    @Retry(name = ICU_WRITES)
+    @Bulkhead(name = ICU_WRITES)
     public void saveSignal(ICUSignal icuSignal) {
-        icuSignal.setTimestamp(LocalDateTime.now());
-        repository.save(icuSignal);
+        if (icuSignal.getTimestamp() == null) {
+            icuSignal.setTimestamp(LocalDateTime.now());
+        }
+        store.append(List.of(icuSignal));
+        // Not recorded by the ingest pipeline; the next read reseeds the patient.
+        latestCache.invalidate(icuSignal.getNationalId());
         saveCounter.increment();
 
         log.info("Saved ICU signal | nationalId={} | timestamp={}",
@@ -83,22 +121,184 @@ public class ICUService {
     }
 
     /**
-     * Fallback invoked when the save operation fails due to circuit-breaker or retry exhaustion.
-     * In a real-world system, this could enqueue the failed data for asynchronous retry.
+     * Fallback for {@link #saveSignal(ICUSignal)} when circuit breaker or retry fails; like
+     * {@link #fallbackSaveSignals} it always rethrows, so the caller never takes an unsaved signal
+     * for stored.
      *
      * @param icuSignal The signal that failed to save.
      * @param t         The exception that triggered the fallback.
      */
     public void fallbackSaveSignal(ICUSignal icuSignal, Throwable t) {
+        rethrowIfRejected(t);
         log.error("Failed to save signal | nationalId={} | reason={}",
                 icuSignal.getNationalId(), t.getMessage());
-        log.warn("Queuing signal for deferred retry or backup processing...");
-        // TODO: Implement message queue / fallback persistence.
+        throw propagate(t);
+    }
+
+    /**
+     * Saves a batch of ICU signals, in order, in a single store append.
+     * <p>
+     * One transaction per batch; with the JDBC store the inserts go out as Hibernate JDBC batches.
+     * <p>
+     * Used by the ingest pipeline once signals have been deduplicated and reordered.
+     * Increments <b>icu.signals.saved.total</b> by the batch size.
+     *
+     * @param icuSignals The signals to persist.
+     */
+    @Transactional
+    @WriteLimited
+    @CircuitBreaker(name = ICU_WRITES, fallbackMethod = "fallbackSaveSignals")
+    @Retry(name = ICU_WRITES)
+    @Bulkhead(name = ICU_WRITES)
+    public void saveSignals(List<ICUSignal> icuSignals) {
+        store.append(icuSignals);
+        saveCounter.increment(icuSignals.size());
+
+        log.debug("Saved ICU signal batch | size={}", icuSignals.size());
+    }
+
+    /**
+     * Fallback for {@link #saveSignals(List)} when circuit breaker or retry fails.
+     * <p>
+     * The batch is not persisted, so the failure is always rethrown: the ingest pipeline must
+     * neither publish the batch nor keep treating its signals as seen.
+     *
+     * @param icuSignals The batch that failed to save.
+     * @param t          The exception that triggered the fallback.
+     */
+    public void fallbackSaveSignals(List<ICUSignal> icuSignals, Throwable t) {
+        rethrowIfRejected(t);
+        log.error("Failed to save signal batch | size={} | reason={}",
+                icuSignals.size(), t.getMessage());
+        throw propagate(t);
+    }
+
+    /**
+     * Surfaces writes that never reached the database as {@link WriteRejectedException}, so
+     * callers back off instead of treating the batch as handled.
+     */
+    private void rethrowIfRejected(Throwable t) {
+        if (t instanceof WriteRejectedException rejected) {
+            throw rejected;
+        }
+        if (t instanceof BulkheadFullException) {
+            bulkheadRejectedCounter.increment();
+            throw new WriteRejectedException("Database write bulkhead full");
+        }
+        if (t instanceof CallNotPermittedException) {
+            circuitOpenRejectedCounter.increment();
+            throw new WriteRejectedException("Database writes suspended, circuit breaker open");
+        }
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof Error error) {
+            throw error;
+        }
+        return t instanceof RuntimeException runtime ? runtime : new IllegalStateException(t.getMessage(), t);
+    }
+
+    /**
+     * The store as a {@link DeferredWaveformStore}; callers check {@link #supportsDeferredWaveforms()}
+     * first, and the latest-signal cache is only enabled with such a store.
+     */
+    private DeferredWaveformStore deferredWaveformStore() {
+        if (store instanceof DeferredWaveformStore deferred) {
+            return deferred;
+        }
+        throw new IllegalStateException(store.getClass().getSimpleName() + " stores waveforms inline");
+    }
+
+    /**
+     * The store as a {@link CompactingSignalStore}; callers check {@link #supportsCompaction()} first.
+     */
+    private CompactingSignalStore compactingSignalStore() {
+        if (store instanceof CompactingSignalStore compacting) {
+            return compacting;
+        }
+        throw new IllegalStateException(store.getClass().getSimpleName() + " does not compact signals");
+    }
+
+    /**
+     * Whether the store can persist ECG samples after their signal, see {@link #saveWaveforms(List)}.
+     */
+    public boolean supportsDeferredWaveforms() {
+        return store instanceof DeferredWaveformStore;
+    }
+
+    /**
+     * Persists the ECG samples of signals already saved without them, in a single transaction.
+     * <p>
+     * Used by the ingest pipeline's waveform lane, so bulk samples never delay the vitals.
+     * Increments <b>icu.signals.waveforms.saved.total</b> by the batch size.
+     *
+     * @param icuSignals Copies of saved signals carrying their id and ECG samples.
+     */
+    @Transactional
+    @WriteLimited
+    @CircuitBreaker(name = ICU_WRITES, fallbackMethod = "fallbackSaveWaveforms")
+    @Retry(name = ICU_WRITES)
+    @Bulkhead(name = ICU_WRITES)
+    public void saveWaveforms(List<ICUSignal> icuSignals) {
+        deferredWaveformStore().attachWaveforms(icuSignals);
+        waveformCounter.increment(icuSignals.size());
+
+        log.debug("Saved ICU waveform batch | size={}", icuSignals.size());
+    }
+
+    /**
+     * Fallback for {@link #saveWaveforms(List)} when circuit breaker or retry fails; like
+     * {@link #fallbackSaveSignals} it always rethrows.
+     *
+     * @param icuSignals The batch that failed to save.
+     * @param t          The exception that triggered the fallback.
+     */
+    public void fallbackSaveWaveforms(List<ICUSignal> icuSignals, Throwable t) {
+        rethrowIfRejected(t);
+        log.error("Failed to save waveform batch | size={} | reason={}",
+                icuSignals.size(), t.getMessage());
+        throw propagate(t);
+    }
+
+    /**
+     * Whether the store can compact old signals, see {@link #compactSignals}.
+     */
+    public boolean supportsCompaction() {
+        return store instanceof CompactingSignalStore;
+    }
+
+    /**
+     * Returns the patients with uncompacted signals older than {@code before}.
+     */
+    public List<Integer> findCompactablePatients(LocalDateTime before) {
+        return compactingSignalStore().compactablePatients(before);
+    }
+
+    /**
+     * Rewrites up to {@code blockSize} of a patient's oldest signals from before {@code before}
+     * into one compressed block, in a single transaction.
+     * <p>
+     * Admitted through the adaptive write limiter, so compaction yields to ingest when the
+     * database is saturated.
+     *
+     * @return The block written, or {@code null} if nothing was left to compact.
+     */
+    @Transactional
+    @WriteLimited
+    public SignalBlock compactSignals(int nationalId, LocalDateTime before, int blockSize) {
+        SignalBlock block = compactingSignalStore().compact(nationalId, before, blockSize);
+        if (block != null) {
+            log.debug("Compacted ICU signals | nationalId={} | signals={} | bytes={}",
+                    nationalId, block.getSignalCount(), block.getData().length);
+        }
+        return block;
     }
 
     /**
      * Retrieves signals for a specific patient within a time range.
      * <p>
+     * Signals already compacted into blocks are decoded by the store and returned like any other.
+     * <p>
      * This method is instrumented with:
      * <ul>
      *   <li><b>icu.signals.query.total</b> — incremented on each invocation.</li>
@@ -124,8 +324,8 @@ public class ICUService {
                         .descending());
 
         try {
-            Page<ICUSignal> result = repository
-                    .findByNationalIdAndTimestampBetweenOrderByTimestampDesc(nationalId, start, end, pageable);
+            SignalSlice slice = store.range(nationalId, start, end, pageable.getOffset(), size);
+            Page<ICUSignal> result = new PageImpl<>(slice.getSignals(), pageable, slice.getTotal());
             log.info("Retrieved {} signals | nationalId={} | range={}–{}",
                     result.getContent().size(), nationalId, start, end);
             return result;
@@ -134,6 +334,21 @@ public class ICUService {
         }
     }
 
+    /**
+     * Returns the timestamps of a patient's stored signals within a time range, without reading
+     * their ECG samples.
+     * <p>
+     * Unlike the query endpoints it has no circuit breaker fallback: a failure propagates, since
+     * an empty answer would be mistaken for signals that were never stored.
+     *
+     * @param nationalId The patient identifier.
+     * @param start      Inclusive start of the time range.
+     * @param end        Inclusive end of the time range.
+     */
+    public List<LocalDateTime> findStoredTimestamps(int nationalId, LocalDateTime start, LocalDateTime end) {
+        return store.timestamps(nationalId, start, end);
+    }
+
     /**
      * Fallback for {@link #findByTimeRange(int, LocalDateTime, LocalDateTime, int, int)}.
      *
@@ -149,6 +364,10 @@ public class ICUService {
     /**
      * Retrieves the most recent ICU signals for a patient, sorted by newest first.
      * <p>
+     * Pages within the {@link LatestSignalCache} capacity are answered from the cache, with ECG
+     * samples read through their waveform references. On a miss the newest signals are read
+     * from the store once, seed the cache and answer the request.
+     * <p>
      * Tracks both query count and duration for observability.
      *
      * @param nationalId The patient identifier.
@@ -162,9 +381,29 @@ public class ICUService {
         long start = System.nanoTime();
         queryCounter.increment();
 
+        Pageable pageable = PageRequest.of(page, size);
+
         try {
-            Page<ICUSignal> result = repository.findByNationalIdOrderByTimestampDesc(
-                    nationalId, PageRequest.of(page, size));
+            LatestSignalCache.Slice cached = latestCache.read(nationalId, pageable.getOffset(), size);
+            if (cached != null) {
+                deferredWaveformStore().readWaveforms(cached.signals());
+                log.debug("Served latest signals from cache | nationalId={} | count={}",
+                        nationalId, cached.signals().size());
+                return new PageImpl<>(cached.signals(), pageable, cached.total());
+            }
+            Page<ICUSignal> result;
+            if (latestCache.covers(pageable.getOffset(), size)) {
+                long version = latestCache.version(nationalId);
+                SignalSlice newest = store.range(nationalId, null, null, 0, latestCache.getCapacity());
+                latestCache.seed(nationalId, version, newest.getSignals(), newest.getTotal());
+                List<ICUSignal> signals = newest.getSignals();
+                result = new PageImpl<>(new ArrayList<>(signals.subList(
+                        (int) Math.min(pageable.getOffset(), signals.size()),
+                        (int) Math.min(pageable.getOffset() + size, signals.size()))), pageable, newest.getTotal());
+            } else {
+                SignalSlice slice = store.range(nationalId, null, null, pageable.getOffset(), size);
+                result = new PageImpl<>(slice.getSignals(), pageable, slice.getTotal());
+            }
             log.info("Retrieved {} latest signals | nationalId={}",
                     result.getContent().size(), nationalId);
             return result;
@@ -0,0 +1,145 @@
+package com.example.ICUReceiver.service;
+
+import com.example.ICUReceiver.dto.MetricStatsDto;
+import com.example.ICUReceiver.dto.PatientStatsDto;
+import com.example.ICUReceiver.dto.WindowStatsDto;
+import com.example.ICUReceiver.model.RollupGranularity;
+import com.example.ICUReceiver.model.RollupMetric;
+import com.example.ICUReceiver.model.SignalRollup;
+import com.example.ICUReceiver.model.SignalRollupId;
+import com.example.ICUReceiver.repository.SignalRollupRepository;
+import com.example.ICUReceiver.stats.RollupDelta;
+import com.example.ICUReceiver.stats.RollupKey;
+import com.example.ICUReceiver.stats.RunningStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persists and serves per-patient rollups of heartbeat and pulse over tumbling windows.
+ * <p>
+ * The ingest shards accumulate per-window deltas and periodically hand them to
+ * {@link #mergeRollups(Map)}, which folds them into the <code>signal_rollup</code> table.
+ * Queries read one row per window and metric, so their cost depends on the number of
+ * windows requested, never on the number of raw signals.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.stats.rollups.merged</b> – Window deltas merged into the rollup table.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class StatsService {
+
+    /** Windows returned when the caller gives no start of range. */
+    static final int DEFAULT_WINDOWS = 60;
+
+    private final SignalRollupRepository repository;
+    private final Counter mergedCounter;
+
+    @Autowired
+    public StatsService(SignalRollupRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.mergedCounter = meterRegistry.counter("icu.stats.rollups.merged");
+    }
+
+    /**
+     * Folds window deltas into their rollup rows, creating rows for new windows.
+     *
+     * @param deltas Moments accumulated per window since the previous merge.
+     */
+    @Transactional
+    public void mergeRollups(Map<RollupKey, RollupDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<SignalRollupId, RunningStats> updates = new HashMap<>();
+        deltas.forEach((key, delta) -> {
+            updates.put(id(key, RollupMetric.HEARTBEAT), delta.getHeartbeat());
+            updates.put(id(key, RollupMetric.PULSE), delta.getPulse());
+        });
+        Map<SignalRollupId, SignalRollup> existing = repository.findAllById(updates.keySet()).stream()
+                .collect(Collectors.toMap(SignalRollup::getId, Function.identity()));
+
+        List<SignalRollup> rows = new ArrayList<>(updates.size());
+        updates.forEach((id, delta) -> {
+            SignalRollup row = existing.get(id);
+            RunningStats merged = row == null ? new RunningStats() : toStats(row);
+            merged.merge(delta);
+            rows.add(new SignalRollup(id, merged.getCount(), merged.getSum(), merged.getMean(),
+                    merged.getM2(), merged.getMin(), merged.getMax()));
+        });
+        repository.saveAll(rows);
+        mergedCounter.increment(deltas.size());
+
+        log.debug("Merged rollup windows | windows={} | rows={}", deltas.size(), rows.size());
+    }
+
+    /**
+     * Returns the windows of one granularity that start within {@code [from, to]}, plus their merge.
+     *
+     * @param nationalId  The patient identifier.
+     * @param granularity Window size.
+     * @param from        Earliest window start, or {@code null} for the {@value #DEFAULT_WINDOWS} windows before {@code to}.
+     * @param to          Latest window start, or {@code null} for now.
+     */
+    public PatientStatsDto findStats(int nationalId, RollupGranularity granularity,
+                                     LocalDateTime from, LocalDateTime to) {
+        LocalDateTime end = granularity.windowStart(to != null ? to : LocalDateTime.now());
+        LocalDateTime start = from != null
+                ? granularity.windowStart(from)
+                : end.minus(granularity.length().multipliedBy(DEFAULT_WINDOWS - 1));
+
+        Map<LocalDateTime, RunningStats[]> byWindow = new TreeMap<>();
+        for (SignalRollup row : repository
+                .findByIdNationalIdAndIdGranularityAndIdWindowStartBetweenOrderByIdWindowStartAsc(
+                        nationalId, granularity, start, end)) {
+            byWindow.computeIfAbsent(row.getId().getWindowStart(), w -> new RunningStats[]{
+                    new RunningStats(), new RunningStats()
+            })[row.getId().getMetric().ordinal()] = toStats(row);
+        }
+
+        RunningStats totalHeartbeat = new RunningStats();
+        RunningStats totalPulse = new RunningStats();
+        List<WindowStatsDto> windows = new ArrayList<>(byWindow.size());
+        byWindow.forEach((windowStart, stats) -> {
+            totalHeartbeat.merge(stats[RollupMetric.HEARTBEAT.ordinal()]);
+            totalPulse.merge(stats[RollupMetric.PULSE.ordinal()]);
+            windows.add(new WindowStatsDto(windowStart, windowStart.plus(granularity.length()),
+                    toDto(stats[RollupMetric.HEARTBEAT.ordinal()]), toDto(stats[RollupMetric.PULSE.ordinal()])));
+        });
+        WindowStatsDto summary = new WindowStatsDto(start, end.plus(granularity.length()),
+                toDto(totalHeartbeat), toDto(totalPulse));
+        return new PatientStatsDto(nationalId, granularity, start, end, summary, windows);
+    }
+
+    private static SignalRollupId id(RollupKey key, RollupMetric metric) {
+        return new SignalRollupId(key.nationalId(), key.granularity(), key.windowStart(), metric);
+    }
+
+    private static RunningStats toStats(SignalRollup row) {
+        return new RunningStats(row.getCount(), row.getSum(), row.getMean(), row.getM2(), row.getMin(), row.getMax());
+    }
+
+    private static MetricStatsDto toDto(RunningStats stats) {
+        if (stats.getCount() == 0) {
+            return new MetricStatsDto(0, 0, 0, 0, 0, 0, 0);
+        }
+        double variance = stats.variance();
+        return new MetricStatsDto(stats.getCount(), stats.getSum(), stats.getMean(),
+                stats.getMin(), stats.getMax(), variance, Math.sqrt(variance));
+    }
+}
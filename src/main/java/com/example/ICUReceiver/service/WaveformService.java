@@ -0,0 +1,71 @@
+package com.example.ICUReceiver.service;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.store.DeferredWaveformStore;
+import com.example.ICUReceiver.store.SignalStore;
+import com.example.ICUReceiver.store.WaveformStore;
+import com.example.ICUReceiver.store.WaveformWindow;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Resolves and streams raw ECG waveform windows from the {@link WaveformStore}.
+ * <p>
+ * Windows are served as byte ranges of the segment files, so the samples are never
+ * decoded or boxed on the way to the client. Signals are looked up through the
+ * {@link DeferredWaveformStore}, which also finds those compacted into blocks. A store that keeps
+ * its samples inline has no waveform files, so every window request is answered as not found.
+ */
+@Service
+@Slf4j
+public class WaveformService {
+
+    private final DeferredWaveformStore store;
+    private final WaveformStore waveformStore;
+
+    @Autowired
+    public WaveformService(SignalStore store, WaveformStore waveformStore) {
+        this.store = store instanceof DeferredWaveformStore deferred ? deferred : null;
+        this.waveformStore = waveformStore;
+        if (this.store == null) {
+            log.info("ECG waveform windows disabled | reason=store keeps ECG samples inline");
+        }
+    }
+
+    /**
+     * Resolves a window of the waveform recorded with a signal.
+     *
+     * @param signalId   The signal id.
+     * @param nationalId The patient the signal must belong to, or {@code null} to accept any patient.
+     * @param from       First sample of the window.
+     * @param count      Number of samples, or {@code null} for the rest of the waveform.
+     * @return The byte range backing the window.
+     * @throws EntityNotFoundException if the signal does not exist, belongs to another patient or carries no waveform.
+     */
+    public WaveformWindow findWindow(int signalId, Integer nationalId, int from, Integer count) {
+        if (store == null) {
+            throw new EntityNotFoundException("ICU signal has no waveform: " + signalId);
+        }
+        ICUSignal signal = store.find(signalId);
+        if (signal == null || nationalId != null && nationalId != signal.getNationalId()) {
+            throw new EntityNotFoundException("ICU signal not found: " + signalId);
+        }
+        if (signal.getEcgRef() == null || signal.getEcgRef().getSegment() == null) {
+            throw new EntityNotFoundException("ICU signal has no waveform: " + signalId);
+        }
+        return waveformStore.window(signal.getNationalId(), signal.getEcgRef(), from, count);
+    }
+
+    /**
+     * Copies a window to the target channel with {@link java.nio.channels.FileChannel#transferTo}.
+     */
+    public void transferTo(WaveformWindow window, WritableByteChannel target) throws IOException {
+        long bytes = waveformStore.transferTo(window, target);
+        log.debug("Streamed waveform window | file={} | bytes={}", window.getFile(), bytes);
+    }
+}
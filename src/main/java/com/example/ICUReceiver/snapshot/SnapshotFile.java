@@ -0,0 +1,328 @@
+package com.example.ICUReceiver.snapshot;
+
+import com.example.ICUReceiver.model.EcgFeatures;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.WaveformRef;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of a {@link StateSnapshot}, written and read through memory-mapped files.
+ * <p>
+ * A file is a fixed header followed by the body:
+ * <pre>
+ * header  magic:int version:short createdAt:long(epoch ms) bodyLength:long crc32:int
+ * body    latestCount:int  { nationalId:int total:long count:int signal* }*
+ *         ingestCount:int  { nationalId:int seenCount:int seen:long* pendingCount:int { pendingFlags:byte signal }* }*
+ * signal  flags:byte id:int heartbeat:double pulse:double timestamp:long(epoch ns, UTC)
+ *         [segment:int offset:long length:int]        if flags &amp; ECG_REF
+ *         [peakCount:int rrMean rrMin rrMax heartRate] if flags &amp; FEATURES, absent values as -1 / NaN
+ *         [count:int sample:double*]                   if flags &amp; SAMPLES
+ * </pre>
+ * The body is sized in a first pass, so the file is mapped once at its final length and filled
+ * in place. It is written to a temporary file, forced to disk and moved over the previous
+ * snapshot atomically, so a crash mid-write leaves the previous snapshot intact. Reading maps
+ * the file read-only and verifies the checksum before decoding anything.
+ */
+public final class SnapshotFile {
+
+    static final int MAGIC = 0x49435553;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 4 + 2 + 8 + 8 + 4;
+    private static final int CRC_OFFSET = HEADER_BYTES - 4;
+
+    private static final int ECG_REF = 1;
+    private static final int FEATURES = 1 << 1;
+    private static final int SAMPLES = 1 << 2;
+
+    private static final int DEVICE_TIMESTAMP = 1;
+    private static final int QUEUED = 1 << 1;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Replaces {@code file} with the snapshot.
+     *
+     * @return Bytes written.
+     */
+    public static long write(Path file, StateSnapshot snapshot) throws IOException {
+        SizeSink size = new SizeSink();
+        encodeBody(snapshot, size);
+        long length = HEADER_BYTES + size.bytes;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large to map: " + length + " bytes");
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.putInt(MAGIC)
+                    .putShort(VERSION)
+                    .putLong(snapshot.createdAt().toEpochMilli())
+                    .putLong(size.bytes)
+                    .putInt(0);
+            encodeBody(snapshot, new BufferSink(buffer));
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_BYTES, (int) size.bytes));
+            buffer.putInt(CRC_OFFSET, (int) crc.getValue());
+            buffer.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return length;
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write}.
+     *
+     * @throws IOException if the file cannot be read, or is truncated, corrupt or of another version.
+     */
+    public static StateSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a state snapshot: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a state snapshot: " + file);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported state snapshot version " + version + ": " + file);
+            }
+            Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+            long bodyLength = buffer.getLong();
+            int expectedCrc = buffer.getInt();
+            if (bodyLength != length - HEADER_BYTES) {
+                throw new IOException("Truncated state snapshot: " + file);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_BYTES, (int) bodyLength));
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("Corrupt state snapshot, checksum mismatch: " + file);
+            }
+            try {
+                return decodeBody(createdAt, buffer);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Corrupt state snapshot: " + file, e);
+            }
+        }
+    }
+
+    private static void encodeBody(StateSnapshot snapshot, Sink out) {
+        out.putInt(snapshot.latest().size());
+        for (StateSnapshot.PatientLatest patient : snapshot.latest()) {
+            out.putInt(patient.nationalId());
+            out.putLong(patient.total());
+            out.putInt(patient.signals().size());
+            for (ICUSignal signal : patient.signals()) {
+                encodeSignal(signal, out);
+            }
+        }
+        out.putInt(snapshot.ingest().size());
+        for (StateSnapshot.PatientIngest patient : snapshot.ingest()) {
+            out.putInt(patient.nationalId());
+            out.putInt(patient.seen().length);
+            for (long timestamp : patient.seen()) {
+                out.putLong(timestamp);
+            }
+            out.putInt(patient.pending().size());
+            for (StateSnapshot.PendingSignal pending : patient.pending()) {
+                out.putByte((pending.deviceTimestamp() ? DEVICE_TIMESTAMP : 0) | (pending.queued() ? QUEUED : 0));
+                encodeSignal(pending.signal(), out);
+            }
+        }
+    }
+
+    private static StateSnapshot decodeBody(Instant createdAt, ByteBuffer in) {
+        int latestCount = count(in);
+        List<StateSnapshot.PatientLatest> latest = new ArrayList<>(latestCount);
+        for (int p = 0; p < latestCount; p++) {
+            int nationalId = in.getInt();
+            long total = in.getLong();
+            int count = count(in);
+            List<ICUSignal> signals = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                signals.add(decodeSignal(nationalId, in));
+            }
+            latest.add(new StateSnapshot.PatientLatest(nationalId, total, signals));
+        }
+        int ingestCount = count(in);
+        List<StateSnapshot.PatientIngest> ingest = new ArrayList<>(ingestCount);
+        for (int p = 0; p < ingestCount; p++) {
+            int nationalId = in.getInt();
+            long[] seen = new long[count(in)];
+            for (int i = 0; i < seen.length; i++) {
+                seen[i] = in.getLong();
+            }
+            int pendingCount = count(in);
+            List<StateSnapshot.PendingSignal> pending = new ArrayList<>(pendingCount);
+            for (int i = 0; i < pendingCount; i++) {
+                int flags = in.get();
+                pending.add(new StateSnapshot.PendingSignal(decodeSignal(nationalId, in),
+                        (flags & DEVICE_TIMESTAMP) != 0, (flags & QUEUED) != 0));
+            }
+            ingest.add(new StateSnapshot.PatientIngest(nationalId, seen, pending));
+        }
+        return new StateSnapshot(createdAt, latest, ingest);
+    }
+
+    private static void encodeSignal(ICUSignal signal, Sink out) {
+        WaveformRef ref = signal.getEcgRef();
+        boolean hasRef = ref != null && ref.getSegment() != null && ref.getOffset() != null && ref.getLength() != null;
+        EcgFeatures features = signal.getEcgFeatures();
+        List<Double> samples = signal.getEcgList();
+        out.putByte((hasRef ? ECG_REF : 0) | (features != null ? FEATURES : 0) | (samples != null ? SAMPLES : 0));
+        out.putInt(signal.getId());
+        out.putDouble(signal.getHeartbeat());
+        out.putDouble(signal.getPulse());
+        LocalDateTime timestamp = signal.getTimestamp();
+        out.putLong(timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano());
+        if (hasRef) {
+            out.putInt(ref.getSegment());
+            out.putLong(ref.getOffset());
+            out.putInt(ref.getLength());
+        }
+        if (features != null) {
+            out.putInt(features.getPeakCount() != null ? features.getPeakCount() : -1);
+            out.putDouble(orNaN(features.getRrMeanMillis()));
+            out.putDouble(orNaN(features.getRrMinMillis()));
+            out.putDouble(orNaN(features.getRrMaxMillis()));
+            out.putDouble(orNaN(features.getHeartRate()));
+        }
+        if (samples != null) {
+            out.putInt(samples.size());
+            for (Double sample : samples) {
+                out.putDouble(sample);
+            }
+        }
+    }
+
+    private static ICUSignal decodeSignal(int nationalId, ByteBuffer in) {
+        int flags = in.get();
+        ICUSignal signal = ICUSignal.builder()
+                .nationalId(nationalId)
+                .id(in.getInt())
+                .heartbeat(in.getDouble())
+                .pulse(in.getDouble())
+                .timestamp(toTimestamp(in.getLong()))
+                .build();
+        if ((flags & ECG_REF) != 0) {
+            signal.setEcgRef(new WaveformRef(in.getInt(), in.getLong(), in.getInt()));
+        }
+        if ((flags & FEATURES) != 0) {
+            int peakCount = in.getInt();
+            signal.setEcgFeatures(new EcgFeatures(peakCount >= 0 ? peakCount : null,
+                    orNull(in.getDouble()), orNull(in.getDouble()), orNull(in.getDouble()), orNull(in.getDouble())));
+        }
+        if ((flags & SAMPLES) != 0) {
+            int count = count(in);
+            List<Double> samples = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                samples.add(in.getDouble());
+            }
+            signal.setEcgList(samples);
+        }
+        return signal;
+    }
+
+    private static int count(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("Invalid element count " + count);
+        }
+        return count;
+    }
+
+    private static LocalDateTime toTimestamp(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * Target of the body encoding: the sizing pass or the mapped file.
+     */
+    private interface Sink {
+        void putByte(int value);
+
+        void putInt(int value);
+
+        void putLong(long value);
+
+        void putDouble(double value);
+    }
+
+    private static final class SizeSink implements Sink {
+        private long bytes;
+
+        @Override
+        public void putByte(int value) {
+            bytes += 1;
+        }
+
+        @Override
+        public void putInt(int value) {
+            bytes += 4;
+        }
+
+        @Override
+        public void putLong(long value) {
+            bytes += 8;
+        }
+
+        @Override
+        public void putDouble(double value) {
+            bytes += 8;
+        }
+    }
+
+    private record BufferSink(ByteBuffer buffer) implements Sink {
+        @Override
+        public void putByte(int value) {
+            buffer.put((byte) value);
+        }
+
+        @Override
+        public void putInt(int value) {
+            buffer.putInt(value);
+        }
+
+        @Override
+        public void putLong(long value) {
+            buffer.putLong(value);
+        }
+
+        @Override
+        public void putDouble(double value) {
+            buffer.putDouble(value);
+        }
+    }
+}
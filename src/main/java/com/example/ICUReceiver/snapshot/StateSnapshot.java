@@ -0,0 +1,47 @@
+package com.example.ICUReceiver.snapshot;
+
+import com.example.ICUReceiver.model.ICUSignal;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * In-process state worth keeping across a restart, as written to and read from the
+ * {@link SnapshotFile}.
+ *
+ * @param createdAt When the state was captured.
+ * @param latest    Cached latest signals per patient, see
+ *                  {@link com.example.ICUReceiver.cache.LatestSignalCache}.
+ * @param ingest    Dedup windows and signals not yet released by the ingest shards.
+ */
+public record StateSnapshot(Instant createdAt, List<PatientLatest> latest, List<PatientIngest> ingest) {
+
+    /**
+     * Newest signals of one patient, without ECG samples.
+     *
+     * @param total   Number of signals the patient has in the store.
+     * @param signals Newest first.
+     */
+    public record PatientLatest(int nationalId, long total, List<ICUSignal> signals) {
+    }
+
+    /**
+     * Ingest state of one patient.
+     *
+     * @param seen    Device timestamps in the dedup window, in epoch nanoseconds, oldest first.
+     * @param pending Signals accepted but not yet persisted: those held in the reorder buffer,
+     *                then those still queued, in queue order.
+     */
+    public record PatientIngest(int nationalId, long[] seen, List<PendingSignal> pending) {
+    }
+
+    /**
+     * An accepted signal not yet persisted, with its ECG samples.
+     *
+     * @param deviceTimestamp Whether the timestamp came from the device rather than from arrival.
+     * @param queued          Whether the signal was still queued, i.e. not yet deduplicated and
+     *                        not part of {@code seen}, rather than held in a reorder buffer.
+     */
+    public record PendingSignal(ICUSignal signal, boolean deviceTimestamp, boolean queued) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.ICUReceiver.snapshot;
+
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.configuration.SnapshotProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps in-process state across restarts: the {@link LatestSignalCache} and the ingest shards'
+ * dedup windows and unpersisted signals.
+ * <p>
+ * The snapshot file is read while this bean is created, and the cache is filled right away. The
+ * ingest pipeline depends on this bean, takes its part with {@link #takeRestoredIngest()} before its
+ * shards start, and {@link #attachIngest attaches} itself as the source of the next snapshots.
+ * The web server accepts connections only once every singleton is initialised, so all state is
+ * back before the first WebSocket message or <code>/latest</code> request. A snapshot that is
+ * missing, unreadable or older than {@code max-age} is ignored and the node starts cold.
+ * <p>
+ * Once the application is ready, a single background thread takes a snapshot every
+ * {@code interval}: the cache is copied entry by entry and each shard copies its own state
+ * between two batches, so neither ingest nor reads stop; encoding and the memory-mapped write
+ * then run on the snapshot thread. A final snapshot is taken on shutdown, after the pipeline
+ * has drained, as this bean is destroyed after the beans depending on it.
+ * <p>
+ * Running aggregates are not part of the snapshot. They live in the rollup table, into which the
+ * shards merge their deltas every rollup flush interval and on shutdown; restoring unmerged
+ * deltas could count a window twice.
+ * <p>
+ * Metrics exported via Micrometer:
+ * <ul>
+ *   <li><b>icu.snapshot.restore.duration</b> – Time to read the snapshot and fill the cache on startup.</li>
+ *   <li><b>icu.snapshot.restart.warm</b> – JVM start to application ready, recorded once per start.</li>
+ *   <li><b>icu.snapshot.write.duration</b> – Time to capture and write one snapshot.</li>
+ *   <li><b>icu.snapshot.bytes</b> – Size of the last snapshot written.</li>
+ *   <li><b>icu.snapshot.failed</b> – Snapshots that could not be taken or written.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class StateSnapshotter {
+
+    private final boolean enabled;
+    private final Path file;
+    private final Duration interval;
+    private final Duration captureTimeout;
+    private final LatestSignalCache latestCache;
+    private final boolean warm;
+    private List<StateSnapshot.PatientIngest> restoredIngest;
+    private volatile Supplier<CompletableFuture<List<StateSnapshot.PatientIngest>>> ingestSource =
+            () -> CompletableFuture.completedFuture(List.of());
+    private ScheduledExecutorService executor;
+
+    private final Timer restoreTimer;
+    private final Timer warmTimer;
+    private final Timer writeTimer;
+    private final AtomicLong lastBytes = new AtomicLong();
+    private final Counter failedCounter;
+
+    @Autowired
+    public StateSnapshotter(SnapshotProperties properties, LatestSignalCache latestCache, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.file = Path.of(properties.getFile());
+        this.interval = properties.getInterval();
+        this.captureTimeout = properties.getCaptureTimeout();
+        this.latestCache = latestCache;
+
+        this.restoreTimer = meterRegistry.timer("icu.snapshot.restore.duration");
+        this.warmTimer = meterRegistry.timer("icu.snapshot.restart.warm");
+        this.writeTimer = meterRegistry.timer("icu.snapshot.write.duration");
+        this.failedCounter = meterRegistry.counter("icu.snapshot.failed");
+        meterRegistry.gauge("icu.snapshot.bytes", lastBytes);
+
+        StateSnapshot restored = enabled ? restore(properties.getMaxAge()) : null;
+        this.warm = restored != null;
+        this.restoredIngest = warm ? restored.ingest() : List.of();
+    }
+
+    /**
+     * Hands over the ingest state of the restored snapshot, empty when the node started cold.
+     * Later calls return an empty list.
+     */
+    public synchronized List<StateSnapshot.PatientIngest> takeRestoredIngest() {
+        List<StateSnapshot.PatientIngest> ingest = restoredIngest;
+        restoredIngest = List.of();
+        return ingest;
+    }
+
+    /**
+     * Sets where the ingest part of later snapshots comes from. A snapshot waits at most
+     * {@code capture-timeout} for it and is skipped otherwise.
+     */
+    public void attachIngest(Supplier<CompletableFuture<List<StateSnapshot.PatientIngest>>> source) {
+        this.ingestSource = source;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        warmTimer.record(uptime, TimeUnit.MILLISECONDS);
+        log.info("Ready to serve | warm={} | jvmStartToReadyMs={}", warm, uptime);
+        start();
+    }
+
+    public synchronized void start() {
+        if (!enabled || executor != null) {
+            return;
+        }
+        long period = interval.toMillis();
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("state-snapshot").daemon().factory());
+        executor.scheduleWithFixedDelay(this::snapshotSafely, period, period, TimeUnit.MILLISECONDS);
+        log.info("State snapshots scheduled | file={} | interval={}", file, interval);
+    }
+
+    /**
+     * Stops the periodic snapshots and takes the final one, if snapshots were started.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = executor;
+            executor = null;
+        }
+        if (running == null) {
+            return;
+        }
+        running.shutdownNow();
+        running.awaitTermination(10, TimeUnit.SECONDS);
+        snapshotSafely();
+    }
+
+    /**
+     * Captures the current state and replaces the snapshot file with it.
+     *
+     * @return Bytes written.
+     */
+    public synchronized long snapshot() throws IOException {
+        long start = System.nanoTime();
+        List<StateSnapshot.PatientIngest> ingest = ingestSource.get()
+                .orTimeout(captureTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .join();
+        StateSnapshot snapshot = new StateSnapshot(Instant.now(), latestCache.capture(), ingest);
+        long bytes = SnapshotFile.write(file, snapshot);
+        long nanos = System.nanoTime() - start;
+        writeTimer.record(nanos, TimeUnit.NANOSECONDS);
+        lastBytes.set(bytes);
+        log.debug("Wrote state snapshot | patients={} | ingestPatients={} | bytes={} | tookMs={}",
+                snapshot.latest().size(), ingest.size(), bytes, nanos / 1_000_000);
+        return bytes;
+    }
+
+    private void snapshotSafely() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            failedCounter.increment();
+            log.error("State snapshot failed | file={} | reason={}", file, e.getMessage(), e);
+        }
+    }
+
+    private StateSnapshot restore(Duration maxAge) {
+        if (!Files.exists(file)) {
+            log.info("No state snapshot, starting cold | file={}", file);
+            return null;
+        }
+        long start = System.nanoTime();
+        StateSnapshot snapshot;
+        try {
+            snapshot = SnapshotFile.read(file);
+        } catch (IOException e) {
+            failedCounter.increment();
+            log.warn("Ignoring unreadable state snapshot, starting cold | file={} | reason={}", file, e.getMessage());
+            return null;
+        }
+        Duration age = Duration.between(snapshot.createdAt(), Instant.now());
+        if (age.compareTo(maxAge) > 0) {
+            log.info("Ignoring stale state snapshot, starting cold | file={} | age={}", file, age);
+            return null;
+        }
+        latestCache.restore(snapshot.latest());
+        long nanos = System.nanoTime() - start;
+        restoreTimer.record(nanos, TimeUnit.NANOSECONDS);
+        log.info("Restored state snapshot | file={} | age={} | patients={} | ingestPatients={} | tookMs={}",
+                file, age, snapshot.latest().size(), snapshot.ingest().size(), nanos / 1_000_000);
+        return snapshot;
+    }
+}
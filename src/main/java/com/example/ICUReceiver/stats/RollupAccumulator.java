@@ -0,0 +1,71 @@
+package com.example.ICUReceiver.stats;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-window statistics accumulated on the ingest path between two flushes to the rollup table.
+ * <p>
+ * Each signal updates one window per {@link RollupGranularity}. The window a patient is
+ * currently in is cached, so the common in-order case costs one map lookup per signal rather
+ * than one per granularity. Values are kept as deltas since the last {@link #drain()}, which
+ * lets late signals for a window that was already flushed be merged into the stored row, and
+ * lets a drain whose merge failed be handed back with {@link #restore(Map)}.
+ * <p>
+ * Not thread-safe; each ingest shard owns one accumulator.
+ */
+public final class RollupAccumulator {
+
+    private static final RollupGranularity[] GRANULARITIES = RollupGranularity.values();
+
+    private Map<RollupKey, RollupDelta> pending = new HashMap<>();
+    private final Map<Integer, Cursor> cursors = new HashMap<>();
+
+    public void add(ICUSignal signal) {
+        Cursor cursor = cursors.computeIfAbsent(signal.getNationalId(), id -> new Cursor());
+        for (int g = 0; g < GRANULARITIES.length; g++) {
+            LocalDateTime windowStart = GRANULARITIES[g].windowStart(signal.getTimestamp());
+            if (!windowStart.equals(cursor.windowStarts[g])) {
+                cursor.windowStarts[g] = windowStart;
+                cursor.deltas[g] = pending.computeIfAbsent(
+                        new RollupKey(signal.getNationalId(), GRANULARITIES[g], windowStart),
+                        key -> new RollupDelta());
+            }
+            cursor.deltas[g].add(signal.getHeartbeat(), signal.getPulse());
+        }
+    }
+
+    /**
+     * Hands over everything accumulated since the previous drain and starts afresh.
+     */
+    public Map<RollupKey, RollupDelta> drain() {
+        Map<RollupKey, RollupDelta> drained = pending;
+        pending = new HashMap<>();
+        cursors.clear();
+        return drained;
+    }
+
+    /**
+     * Takes back deltas from an earlier drain that could not be merged, combining them with
+     * whatever has accumulated since, so the next drain hands them over again.
+     */
+    public void restore(Map<RollupKey, RollupDelta> drained) {
+        drained.forEach((key, delta) -> pending.merge(key, delta, (current, earlier) -> {
+            current.merge(earlier);
+            return current;
+        }));
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    private static final class Cursor {
+        private final LocalDateTime[] windowStarts = new LocalDateTime[GRANULARITIES.length];
+        private final RollupDelta[] deltas = new RollupDelta[GRANULARITIES.length];
+    }
+}
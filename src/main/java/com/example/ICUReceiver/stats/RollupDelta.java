@@ -0,0 +1,28 @@
+package com.example.ICUReceiver.stats;
+
+/**
+ * Moments accumulated for one window since the last flush.
+ */
+public final class RollupDelta {
+
+    private final RunningStats heartbeat = new RunningStats();
+    private final RunningStats pulse = new RunningStats();
+
+    void add(double heartbeatValue, double pulseValue) {
+        heartbeat.add(heartbeatValue);
+        pulse.add(pulseValue);
+    }
+
+    void merge(RollupDelta other) {
+        heartbeat.merge(other.heartbeat);
+        pulse.merge(other.pulse);
+    }
+
+    public RunningStats getHeartbeat() {
+        return heartbeat;
+    }
+
+    public RunningStats getPulse() {
+        return pulse;
+    }
+}
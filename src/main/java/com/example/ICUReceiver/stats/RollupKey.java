@@ -0,0 +1,11 @@
+package com.example.ICUReceiver.stats;
+
+import com.example.ICUReceiver.model.RollupGranularity;
+
+import java.time.LocalDateTime;
+
+/**
+ * One patient's tumbling window at one granularity.
+ */
+public record RollupKey(int nationalId, RollupGranularity granularity, LocalDateTime windowStart) {
+}
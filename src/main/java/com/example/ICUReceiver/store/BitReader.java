@@ -0,0 +1,66 @@
+package com.example.ICUReceiver.store;
+
+/**
+ * Reads the bit stream produced by {@link BitWriter}.
+ */
+final class BitReader {
+
+    private final byte[] buffer;
+    private int position;
+    private long pending;
+    private int pendingBits;
+
+    BitReader(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    boolean readBit() {
+        return read(1) != 0;
+    }
+
+    /**
+     * Reads {@code bits} bits as an unsigned value.
+     */
+    long read(int bits) {
+        if (bits > 32) {
+            long high = read(bits - 32);
+            return (high << 32) | read(32);
+        }
+        while (pendingBits < bits) {
+            if (position == buffer.length) {
+                throw new IllegalStateException("Truncated signal block");
+            }
+            pending = (pending << 8) | (buffer[position++] & 0xFF);
+            pendingBits += 8;
+        }
+        pendingBits -= bits;
+        return (pending >>> pendingBits) & ((1L << bits) - 1);
+    }
+
+    /**
+     * Reads a value written with {@link BitWriter#writeSigned(long)}.
+     */
+    long readSigned() {
+        if (!readBit()) {
+            return 0;
+        }
+        if (!readBit()) {
+            return signed(read(7), 7);
+        }
+        if (!readBit()) {
+            return signed(read(12), 12);
+        }
+        if (!readBit()) {
+            return signed(read(20), 20);
+        }
+        if (!readBit()) {
+            return signed(read(32), 32);
+        }
+        return read(64);
+    }
+
+    private static long signed(long value, int bits) {
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+}
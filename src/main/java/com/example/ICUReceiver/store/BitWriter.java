@@ -0,0 +1,85 @@
+package com.example.ICUReceiver.store;
+
+import java.util.Arrays;
+
+/**
+ * Growable big-endian bit sink used by {@link SignalBlockCodec}. Values are written most
+ * significant bit first; the last byte is zero padded.
+ */
+final class BitWriter {
+
+    private byte[] buffer;
+    private int size;
+    private long pending;
+    private int pendingBits;
+
+    BitWriter(int expectedBytes) {
+        this.buffer = new byte[Math.max(16, expectedBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Writes the low {@code bits} bits of {@code value}.
+     */
+    void write(long value, int bits) {
+        if (bits > 32) {
+            write(value >>> 32, bits - 32);
+            write(value, 32);
+            return;
+        }
+        pending = (pending << bits) | (value & ((1L << bits) - 1));
+        pendingBits += bits;
+        while (pendingBits >= 8) {
+            pendingBits -= 8;
+            put((byte) (pending >>> pendingBits));
+        }
+    }
+
+    /**
+     * Writes a signed value in the smallest of six buckets: {@code 0} for zero, then
+     * {@code 10}, {@code 110}, {@code 1110}, {@code 11110} and {@code 11111} prefixes followed
+     * by 7, 12, 20, 32 and 64 bit two's complement values.
+     */
+    void writeSigned(long value) {
+        if (value == 0) {
+            write(0b0, 1);
+        } else if (fits(value, 7)) {
+            write(0b10, 2);
+            write(value, 7);
+        } else if (fits(value, 12)) {
+            write(0b110, 3);
+            write(value, 12);
+        } else if (fits(value, 20)) {
+            write(0b1110, 4);
+            write(value, 20);
+        } else if (fits(value, 32)) {
+            write(0b11110, 5);
+            write(value, 32);
+        } else {
+            write(0b11111, 5);
+            write(value, 64);
+        }
+    }
+
+    byte[] toByteArray() {
+        if (pendingBits > 0) {
+            put((byte) (pending << (8 - pendingBits)));
+            pendingBits = 0;
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void put(byte b) {
+        if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        buffer[size++] = b;
+    }
+
+    private static boolean fits(long value, int bits) {
+        return value >= -(1L << (bits - 1)) && value < (1L << (bits - 1));
+    }
+}
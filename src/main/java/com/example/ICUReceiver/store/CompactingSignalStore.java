@@ -0,0 +1,30 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.SignalBlock;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * {@link SignalStore} that can rewrite old signals into compressed {@link SignalBlock}s. Reads
+ * must return compacted signals exactly as before. The compaction job only runs when the active
+ * store implements this interface.
+ */
+public interface CompactingSignalStore extends SignalStore {
+
+    /**
+     * Returns the patients with uncompacted signals older than {@code before}.
+     */
+    List<Integer> compactablePatients(LocalDateTime before);
+
+    /**
+     * Moves up to {@code maxSignals} of a patient's oldest uncompacted signals from before
+     * {@code before} into one compressed block.
+     *
+     * @param nationalId The patient identifier.
+     * @param before     Exclusive upper bound of the signal timestamps to compact.
+     * @param maxSignals Maximum number of signals in the block.
+     * @return The block written, or {@code null} if nothing was left to compact.
+     */
+    SignalBlock compact(int nationalId, LocalDateTime before, int maxSignals);
+}
@@ -0,0 +1,40 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.ICUSignal;
+
+import java.util.List;
+
+/**
+ * {@link SignalStore} that keeps ECG samples in the {@link WaveformStore} rather than inline with
+ * the signal, linked through the signal's {@link ICUSignal#getEcgRef() ecgRef}.
+ * <p>
+ * Only such stores can persist samples after their signal, serve waveform windows and back the
+ * latest-signal cache, so the callers of these features check for this interface with
+ * {@code instanceof}. The segment store keeps its samples inline and does not implement it.
+ */
+public interface DeferredWaveformStore extends SignalStore {
+
+    /**
+     * Stores the ECG samples of signals previously appended without them and links them to
+     * their signals.
+     *
+     * @param signals Copies of appended signals carrying their id, patient, timestamp and samples.
+     */
+    void attachWaveforms(List<ICUSignal> signals);
+
+    /**
+     * Reads the ECG samples of signals held without them, such as cached copies of signals
+     * returned earlier, through their {@link ICUSignal#getEcgRef() ecgRef}.
+     *
+     * @param signals Signals to fill in place; those without a reference are left as they are.
+     */
+    void readWaveforms(List<ICUSignal> signals);
+
+    /**
+     * Looks a signal up by id, whether or not it has been compacted, without reading its samples.
+     *
+     * @param signalId The id assigned on {@link #append}.
+     * @return The signal, or {@code null} if there is none with that id.
+     */
+    ICUSignal find(int signalId);
+}
@@ -0,0 +1,228 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.SignalBlock;
+import com.example.ICUReceiver.model.WaveformRef;
+import com.example.ICUReceiver.repository.ICURepository;
+import com.example.ICUReceiver.repository.SignalBlockRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SignalStore} adapter over the relational {@link ICURepository}: one row per signal.
+ * <p>
+ * Raw ECG samples are not stored in the database. They are appended to the {@link WaveformStore}
+ * before the row is inserted, and the row keeps only the {@link WaveformRef}. Reads hydrate
+ * {@link ICUSignal#getEcgList()} from the referenced segment.
+ * <p>
+ * Samples may also be attached after the row: {@link #attachWaveforms(List)} appends them and
+ * sets the reference on the existing rows, which Hibernate flushes as batched updates.
+ * <p>
+ * Old rows can be compacted into {@link SignalBlock}s, see {@link #compact}. Queries that touch
+ * no block read the rows alone. Otherwise the matching blocks are decoded, newest first, only as
+ * far as the requested page needs, and merged with the rows; blocks lying entirely inside the
+ * range are counted from their header.
+ * <p>
+ * Cursors become the row offset of an {@link OffsetPageRequest}, so any cursor is honoured, not
+ * only multiples of the slice limit.
+ */
+public class JpaSignalStore implements DeferredWaveformStore, CompactingSignalStore {
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final Comparator<ICUSignal> NEWEST_FIRST =
+            Comparator.comparing(ICUSignal::getTimestamp).reversed();
+
+    private final ICURepository repository;
+    private final SignalBlockRepository blockRepository;
+    private final WaveformStore waveformStore;
+
+    public JpaSignalStore(ICURepository repository, SignalBlockRepository blockRepository,
+                          WaveformStore waveformStore) {
+        this.repository = repository;
+        this.blockRepository = blockRepository;
+        this.waveformStore = waveformStore;
+    }
+
+    @Override
+    public void append(List<ICUSignal> batch) {
+        for (ICUSignal signal : batch) {
+            if (signal.getTimestamp() == null) {
+                signal.setTimestamp(LocalDateTime.now());
+            }
+            if (signal.getEcgList() != null && !signal.getEcgList().isEmpty()) {
+                signal.setEcgRef(waveformStore.append(
+                        signal.getNationalId(), signal.getTimestamp(), signal.getEcgList()));
+            }
+        }
+        repository.saveAll(batch);
+    }
+
+    @Override
+    public void attachWaveforms(List<ICUSignal> signals) {
+        Map<Integer, WaveformRef> refs = new HashMap<>();
+        for (ICUSignal signal : signals) {
+            WaveformRef ref = waveformStore.append(signal.getNationalId(), signal.getTimestamp(), signal.getEcgList());
+            signal.setEcgRef(ref);
+            refs.put(signal.getId(), ref);
+        }
+        for (ICUSignal row : repository.findAllById(refs.keySet())) {
+            row.setEcgRef(refs.get(row.getId()));
+        }
+    }
+
+    @Override
+    public void readWaveforms(List<ICUSignal> signals) {
+        hydrate(signals);
+    }
+
+    /**
+     * Reads the row, or else decodes the signal from the block whose id range covers it.
+     */
+    @Override
+    public ICUSignal find(int signalId) {
+        ICUSignal row = repository.findById(signalId).orElse(null);
+        if (row != null) {
+            return row;
+        }
+        for (SignalBlockRepository.Header header
+                : blockRepository.findHeadersByMinSignalIdLessThanEqualAndMaxSignalIdGreaterThanEqual(signalId, signalId)) {
+            ICUSignal signal = blockRepository.findById(header.getId())
+                    .map(block -> SignalBlockCodec.find(block, signalId))
+                    .orElse(null);
+            if (signal != null) {
+                return signal;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public SignalSlice range(int nationalId, LocalDateTime start, LocalDateTime end, long cursor, int limit) {
+        LocalDateTime from = start != null ? start : EARLIEST;
+        LocalDateTime to = end != null ? end : LATEST;
+        List<SignalBlockRepository.Header> blocks = blockRepository
+                .findHeadersByNationalIdAndLastTimestampGreaterThanEqualAndFirstTimestampLessThanEqualOrderByLastTimestampDesc(
+                        nationalId, from, to);
+        if (blocks.isEmpty()) {
+            Pageable pageable = new OffsetPageRequest(cursor, limit, Sort.by("timestamp").descending());
+            Page<ICUSignal> page = rows(nationalId, start, end, pageable);
+            return new SignalSlice(hydrate(page.getContent()),
+                    pageable.getOffset() + page.getNumberOfElements(), page.getTotalElements());
+        }
+
+        // Rows and blocks interleave in time, so both sides supply their newest cursor + limit signals.
+        int wanted = (int) Math.min(Integer.MAX_VALUE, cursor + limit);
+        Page<ICUSignal> rows = rows(nationalId, start, end,
+                PageRequest.of(0, wanted, Sort.by("timestamp").descending()));
+        List<ICUSignal> merged = new ArrayList<>(rows.getContent());
+        long total = rows.getTotalElements() + decodeNewest(blocks, from, to, wanted, merged);
+        merged.sort(NEWEST_FIRST);
+
+        List<ICUSignal> signals = merged.subList((int) Math.min(cursor, merged.size()), Math.min(wanted, merged.size()));
+        return new SignalSlice(hydrate(new ArrayList<>(signals)), cursor + signals.size(), total);
+    }
+
+    /**
+     * Reads only the timestamp column; ranges touching compacted blocks page through
+     * {@link #range} instead, which decodes the blocks.
+     */
+    @Override
+    public List<LocalDateTime> timestamps(int nationalId, LocalDateTime start, LocalDateTime end) {
+        if (!blockRepository
+                .findHeadersByNationalIdAndLastTimestampGreaterThanEqualAndFirstTimestampLessThanEqualOrderByLastTimestampDesc(
+                        nationalId, start, end).isEmpty()) {
+            return DeferredWaveformStore.super.timestamps(nationalId, start, end);
+        }
+        return repository.findTimestampsBetween(nationalId, start, end);
+    }
+
+    @Override
+    public List<Integer> compactablePatients(LocalDateTime before) {
+        return repository.findNationalIdsWithSignalsBefore(before);
+    }
+
+    /**
+     * Encodes the oldest rows into a block and deletes them. Must run inside a transaction so
+     * the block and the deletion commit together.
+     */
+    @Override
+    public SignalBlock compact(int nationalId, LocalDateTime before, int maxSignals) {
+        List<ICUSignal> rows = repository.findByNationalIdAndTimestampBeforeOrderByTimestampAsc(
+                nationalId, before, PageRequest.of(0, maxSignals));
+        if (rows.isEmpty()) {
+            return null;
+        }
+        SignalBlock block = blockRepository.save(SignalBlockCodec.encode(nationalId, rows));
+        repository.deleteAllByIdInBatch(rows.stream().map(ICUSignal::getId).toList());
+        return block;
+    }
+
+    private Page<ICUSignal> rows(int nationalId, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        return start == null && end == null
+                ? repository.findByNationalIdOrderByTimestampDesc(nationalId, pageable)
+                : repository.findByNationalIdAndTimestampBetweenOrderByTimestampDesc(
+                        nationalId,
+                        start != null ? start : EARLIEST,
+                        end != null ? end : LATEST,
+                        pageable);
+    }
+
+    /**
+     * Adds the newest {@code wanted} block signals within {@code [from, to]} to {@code into}.
+     * Blocks arrive newest first, so once {@code wanted} signals are collected a block ending
+     * before the oldest of them is only counted: from its header when it lies inside the range,
+     * by decoding it when it straddles a bound.
+     *
+     * @return The number of block signals within the range.
+     */
+    private long decodeNewest(List<SignalBlockRepository.Header> blocks, LocalDateTime from, LocalDateTime to,
+                              int wanted, List<ICUSignal> into) {
+        List<ICUSignal> newest = new ArrayList<>();
+        long total = 0;
+        for (SignalBlockRepository.Header header : blocks) {
+            boolean inside = !header.getFirstTimestamp().isBefore(from) && !header.getLastTimestamp().isAfter(to);
+            boolean needed = newest.size() < wanted
+                    || !header.getLastTimestamp().isBefore(newest.get(wanted - 1).getTimestamp());
+            if (inside && !needed) {
+                total += header.getSignalCount();
+                continue;
+            }
+            SignalBlock block = blockRepository.findById(header.getId()).orElse(null);
+            if (block == null) {
+                continue;
+            }
+            for (ICUSignal signal : SignalBlockCodec.decode(block)) {
+                if (!signal.getTimestamp().isBefore(from) && !signal.getTimestamp().isAfter(to)) {
+                    newest.add(signal);
+                    total++;
+                }
+            }
+            newest.sort(NEWEST_FIRST);
+            if (newest.size() > wanted) {
+                newest.subList(wanted, newest.size()).clear();
+            }
+        }
+        into.addAll(newest);
+        return total;
+    }
+
+    private List<ICUSignal> hydrate(List<ICUSignal> signals) {
+        for (ICUSignal signal : signals) {
+            WaveformRef ref = signal.getEcgRef();
+            if (ref != null && ref.getSegment() != null) {
+                signal.setEcgList(waveformStore.read(signal.getNationalId(), ref));
+            }
+        }
+        return signals;
+    }
+}
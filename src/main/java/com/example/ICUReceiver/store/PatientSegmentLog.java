@@ -0,0 +1,372 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Append-only log of one patient's signals, split into numbered segment files.
+ * <p>
+ * Segment layout: a 16 byte header (magic, version, nationalId, reserved) followed by
+ * length-prefixed records:
+ * <pre>
+ * int    recordLength   (bytes after this field)
+ * long   timestamp      (epoch nanoseconds, UTC)
+ * int    id
+ * double heartbeat
+ * double pulse
+ * int    ecgCount
+ * double ecg[ecgCount]
+ * </pre>
+ * Every {@code indexInterval} records start a new sparse index block holding the block's
+ * position and its min/max timestamp. The index is rebuilt by scanning on open, which also
+ * truncates a torn record left behind by a crash. A segment too short to hold its header, such
+ * as one whose creation was interrupted, is renamed with a {@code .quarantined} suffix and
+ * skipped; recovery carries on with the later segments, and new segments always get a file
+ * number past every existing one.
+ */
+@Slf4j
+final class PatientSegmentLog implements Closeable {
+
+    static final int MAGIC = 0x49435553; // "ICUS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private static final int FIXED_RECORD_SIZE = 8 + 4 + 8 + 8 + 4;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String QUARANTINE_SUFFIX = ".quarantined";
+
+    private static final Comparator<Ref> NEWEST_FIRST = Comparator
+            .comparingLong(Ref::timestamp).reversed()
+            .thenComparing(Comparator.comparingInt(Ref::id).reversed());
+
+    private final Path directory;
+    private final int nationalId;
+    private final long maxSegmentSize;
+    private final int indexInterval;
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final List<IndexBlock> blocks = new ArrayList<>();
+    private FileChannel writer;
+    private int nextFileNumber;
+    private int maxId;
+
+    private PatientSegmentLog(Path directory, int nationalId, long maxSegmentSize, int indexInterval) {
+        this.directory = directory;
+        this.nationalId = nationalId;
+        this.maxSegmentSize = maxSegmentSize;
+        this.indexInterval = indexInterval;
+    }
+
+    static PatientSegmentLog open(Path directory, int nationalId, long maxSegmentSize, int indexInterval)
+            throws IOException {
+        Files.createDirectories(directory);
+        PatientSegmentLog segmentLog = new PatientSegmentLog(directory, nationalId, maxSegmentSize, indexInterval);
+        segmentLog.recover();
+        return segmentLog;
+    }
+
+    int maxId() {
+        return maxId;
+    }
+
+    synchronized void append(List<ICUSignal> signals) throws IOException {
+        int batchSize = 0;
+        for (ICUSignal signal : signals) {
+            batchSize += recordSize(signal);
+        }
+        ByteBuffer pending = ByteBuffer.allocate(batchSize);
+        Segment segment = segments.getLast();
+        for (ICUSignal signal : signals) {
+            int recordSize = recordSize(signal);
+            long end = segment.size + pending.position() + recordSize;
+            if (end > maxSegmentSize && segment.size + pending.position() > HEADER_SIZE) {
+                flush(pending, segment);
+                segment = roll();
+            }
+            int offset = (int) (segment.size + pending.position());
+            long timestamp = toNanos(signal.getTimestamp());
+            encode(signal, timestamp, pending);
+            index(segment.index, offset, offset + recordSize, timestamp);
+            maxId = Math.max(maxId, signal.getId());
+        }
+        flush(pending, segment);
+    }
+
+    /**
+     * Collects every match in {@code [from, to]}, newest first, so the total is exact.
+     */
+    List<Ref> collect(long from, long to) {
+        List<IndexBlock> candidates = new ArrayList<>();
+        synchronized (this) {
+            for (IndexBlock block : blocks) {
+                if (block.maxTs >= from && block.minTs <= to) {
+                    candidates.add(block.copy());
+                }
+            }
+        }
+        List<Ref> refs = new ArrayList<>();
+        for (IndexBlock block : candidates) {
+            ByteBuffer view = segments.get(block.segment).view(block.endOffset);
+            int position = block.startOffset;
+            while (position < block.endOffset) {
+                int length = view.getInt(position);
+                long timestamp = view.getLong(position + 4);
+                if (timestamp >= from && timestamp <= to) {
+                    refs.add(new Ref(timestamp, view.getInt(position + 12), block.segment, position));
+                }
+                position += 4 + length;
+            }
+        }
+        refs.sort(NEWEST_FIRST);
+        return refs;
+    }
+
+    ICUSignal read(Ref ref) {
+        ByteBuffer view = segments.get(ref.segment()).view(ref.offset() + 4L);
+        int length = view.getInt(ref.offset());
+        view = segments.get(ref.segment()).view(ref.offset() + 4L + length);
+        int position = ref.offset() + 4;
+        long timestamp = view.getLong(position);
+        int id = view.getInt(position + 8);
+        double heartbeat = view.getDouble(position + 12);
+        double pulse = view.getDouble(position + 20);
+        int ecgCount = view.getInt(position + 28);
+        List<Double> ecg = new ArrayList<>(ecgCount);
+        int ecgPosition = position + FIXED_RECORD_SIZE;
+        for (int i = 0; i < ecgCount; i++) {
+            ecg.add(view.getDouble(ecgPosition + i * 8));
+        }
+        return ICUSignal.builder()
+                .id(id)
+                .nationalId(nationalId)
+                .heartbeat(heartbeat)
+                .pulse(pulse)
+                .timestamp(fromNanos(timestamp))
+                .ecgList(ecg)
+                .build();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(Comparator.comparing(Path::getFileName));
+
+        for (Path file : files) {
+            nextFileNumber = Math.max(nextFileNumber, fileNumber(file) + 1);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long fileSize = channel.size();
+                if (fileSize < HEADER_SIZE) {
+                    quarantine(file, fileSize);
+                    continue;
+                }
+                Segment segment = new Segment(segments.size(), file);
+                segments.add(segment);
+                MappedByteBuffer view = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                if (view.getInt(0) != MAGIC) {
+                    throw new IOException("Not a signal segment: " + file);
+                }
+                int position = HEADER_SIZE;
+                while (position + 4 <= fileSize) {
+                    int length = view.getInt(position);
+                    if (length < FIXED_RECORD_SIZE || position + 4L + length > fileSize) {
+                        break;
+                    }
+                    long timestamp = view.getLong(position + 4);
+                    index(segment.index, position, position + 4 + length, timestamp);
+                    maxId = Math.max(maxId, view.getInt(position + 12));
+                    position += 4 + length;
+                }
+                segment.size = position;
+                if (position < fileSize) {
+                    log.warn("Truncating torn segment tail | nationalId={} | file={} | from={} | to={}",
+                            nationalId, file, fileSize, position);
+                }
+            }
+        }
+
+        if (segments.isEmpty()) {
+            createSegment();
+        } else {
+            Segment last = segments.getLast();
+            writer = FileChannel.open(last.path, StandardOpenOption.WRITE);
+            writer.truncate(last.size);
+        }
+    }
+
+    private Segment roll() throws IOException {
+        writer.close();
+        return createSegment();
+    }
+
+    private Segment createSegment() throws IOException {
+        int index = segments.size();
+        Path file = directory.resolve("%06d%s".formatted(nextFileNumber++, SEGMENT_SUFFIX));
+        writer = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC).putInt(VERSION).putInt(nationalId).putInt(0)
+                .flip();
+        while (header.hasRemaining()) {
+            writer.write(header, HEADER_SIZE - header.remaining());
+        }
+        Segment segment = new Segment(index, file);
+        segment.size = HEADER_SIZE;
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Moves a segment that cannot be read aside, keeping its bytes for inspection.
+     */
+    private void quarantine(Path file, long fileSize) throws IOException {
+        Path target = file.resolveSibling(file.getFileName() + QUARANTINE_SUFFIX);
+        log.warn("Quarantining short segment | nationalId={} | file={} | size={} | target={}",
+                nationalId, file, fileSize, target);
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int fileNumber(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a numbered signal segment: " + file, e);
+        }
+    }
+
+    private void flush(ByteBuffer pending, Segment segment) throws IOException {
+        pending.flip();
+        long position = segment.size;
+        while (pending.hasRemaining()) {
+            position += writer.write(pending, position);
+        }
+        segment.size = position;
+        pending.clear();
+    }
+
+    private void index(int segment, int startOffset, int endOffset, long timestamp) {
+        IndexBlock block = blocks.isEmpty() ? null : blocks.getLast();
+        if (block == null || block.count == indexInterval || block.segment != segment) {
+            block = new IndexBlock(segment, startOffset);
+            blocks.add(block);
+        }
+        block.endOffset = endOffset;
+        block.count++;
+        block.minTs = Math.min(block.minTs, timestamp);
+        block.maxTs = Math.max(block.maxTs, timestamp);
+    }
+
+    private static int recordSize(ICUSignal signal) {
+        int ecgCount = signal.getEcgList() == null ? 0 : signal.getEcgList().size();
+        return 4 + FIXED_RECORD_SIZE + ecgCount * 8;
+    }
+
+    private static void encode(ICUSignal signal, long timestamp, ByteBuffer buffer) {
+        List<Double> ecg = signal.getEcgList() == null ? List.of() : signal.getEcgList();
+        buffer.putInt(FIXED_RECORD_SIZE + ecg.size() * 8)
+                .putLong(timestamp)
+                .putInt(signal.getId())
+                .putDouble(signal.getHeartbeat())
+                .putDouble(signal.getPulse())
+                .putInt(ecg.size());
+        for (Double sample : ecg) {
+            buffer.putDouble(sample);
+        }
+    }
+
+    static long toNanos(LocalDateTime timestamp) {
+        try {
+            return Math.addExact(Math.multiplyExact(timestamp.toEpochSecond(ZoneOffset.UTC), 1_000_000_000L),
+                    timestamp.getNano());
+        } catch (ArithmeticException e) {
+            return timestamp.getYear() < 1970 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /**
+     * Position of one record, sortable without decoding it.
+     */
+    record Ref(long timestamp, int id, int segment, int offset) {
+    }
+
+    private static final class Segment {
+        private final int index;
+        private final Path path;
+        private volatile long size;
+        private MappedByteBuffer mapped;
+
+        private Segment(int index, Path path) {
+            this.index = index;
+            this.path = path;
+        }
+
+        /**
+         * Returns a read-only view covering at least {@code requiredEnd} committed bytes,
+         * remapping the file when it has grown past the current mapping.
+         */
+        synchronized ByteBuffer view(long requiredEnd) {
+            if (mapped == null || mapped.capacity() < requiredEnd) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return mapped.duplicate();
+        }
+    }
+
+    private static final class IndexBlock {
+        private final int segment;
+        private final int startOffset;
+        private int endOffset;
+        private int count;
+        private long minTs = Long.MAX_VALUE;
+        private long maxTs = Long.MIN_VALUE;
+
+        private IndexBlock(int segment, int startOffset) {
+            this.segment = segment;
+            this.startOffset = startOffset;
+        }
+
+        private IndexBlock copy() {
+            IndexBlock copy = new IndexBlock(segment, startOffset);
+            copy.endOffset = endOffset;
+            copy.count = count;
+            copy.minTs = minTs;
+            copy.maxTs = maxTs;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded, file-based append-only time-series {@link SignalStore}.
+ * <p>
+ * Every patient owns a directory of segment files (see {@link PatientSegmentLog} for the
+ * record layout). A batch is grouped per patient and written with one positional write per
+ * patient, so appends cost a single syscall per patient rather than one round-trip per row.
+ * Reads use a sparse block index to skip segments outside the requested time range and
+ * decode records straight from memory-mapped segments.
+ * <p>
+ * Patient logs are opened eagerly on startup to rebuild their indexes and to recover the id
+ * sequence.
+ */
+@Slf4j
+public class SegmentSignalStore implements SignalStore, Closeable {
+
+    private final Path root;
+    private final long maxSegmentSize;
+    private final int indexInterval;
+    private final Map<Integer, PatientSegmentLog> patients = new ConcurrentHashMap<>();
+    private final AtomicInteger idSequence = new AtomicInteger();
+
+    public SegmentSignalStore(Path root, long maxSegmentSize, int indexInterval) throws IOException {
+        this.root = root;
+        this.maxSegmentSize = maxSegmentSize;
+        this.indexInterval = indexInterval;
+
+        Files.createDirectories(root);
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path directory : directories) {
+                int nationalId;
+                try {
+                    nationalId = Integer.parseInt(directory.getFileName().toString());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                PatientSegmentLog patientLog = PatientSegmentLog.open(directory, nationalId, maxSegmentSize, indexInterval);
+                patients.put(nationalId, patientLog);
+                idSequence.accumulateAndGet(patientLog.maxId(), Math::max);
+            }
+        }
+        log.info("Opened segment store | root={} | patients={} | lastId={}", root, patients.size(), idSequence.get());
+    }
+
+    @Override
+    public void append(List<ICUSignal> batch) {
+        Map<Integer, List<ICUSignal>> byPatient = new LinkedHashMap<>();
+        for (ICUSignal signal : batch) {
+            if (signal.getTimestamp() == null) {
+                signal.setTimestamp(LocalDateTime.now());
+            }
+            signal.setId(idSequence.incrementAndGet());
+            byPatient.computeIfAbsent(signal.getNationalId(), id -> new ArrayList<>()).add(signal);
+        }
+        try {
+            for (Map.Entry<Integer, List<ICUSignal>> entry : byPatient.entrySet()) {
+                patient(entry.getKey()).append(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append signals to segment store", e);
+        }
+    }
+
+    @Override
+    public SignalSlice range(int nationalId, LocalDateTime start, LocalDateTime end, long cursor, int limit) {
+        PatientSegmentLog patientLog = patients.get(nationalId);
+        if (patientLog == null) {
+            return new SignalSlice(List.of(), cursor, 0);
+        }
+        long from = start == null ? Long.MIN_VALUE : PatientSegmentLog.toNanos(start);
+        long to = end == null ? Long.MAX_VALUE : PatientSegmentLog.toNanos(end);
+        List<PatientSegmentLog.Ref> refs = patientLog.collect(from, to);
+
+        int first = (int) Math.min(cursor, refs.size());
+        int last = (int) Math.min(cursor + limit, refs.size());
+        return new SignalSlice(decode(patientLog, refs, first, last), last, refs.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (PatientSegmentLog patientLog : patients.values()) {
+            patientLog.close();
+        }
+    }
+
+    private PatientSegmentLog patient(int nationalId) {
+        return patients.computeIfAbsent(nationalId, id -> {
+            try {
+                return PatientSegmentLog.open(root.resolve(String.valueOf(id)), id, maxSegmentSize, indexInterval);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open segment log for nationalId=" + id, e);
+            }
+        });
+    }
+
+    private static List<ICUSignal> decode(PatientSegmentLog patientLog, List<PatientSegmentLog.Ref> refs,
+                                          int first, int last) {
+        List<ICUSignal> signals = new ArrayList<>(Math.max(0, last - first));
+        for (int i = first; i < last; i++) {
+            signals.add(patientLog.read(refs.get(i)));
+        }
+        return signals;
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.EcgFeatures;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.SignalBlock;
+import com.example.ICUReceiver.model.WaveformRef;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encodes a patient's signals into the payload of a {@link SignalBlock}, oldest first.
+ * <p>
+ * Layout: a 6 byte header (version, timestamp unit, signal count) followed by one bit stream
+ * holding each column in turn:
+ * <ul>
+ *   <li><b>ids</b> – delta to the previous id. Ids come first so {@link #find} can stop after
+ *       this column.</li>
+ *   <li><b>timestamps</b> – delta-of-delta in the coarsest unit (second, milli, micro or nano)
+ *       that represents every timestamp of the block exactly.</li>
+ *   <li><b>heartbeat</b>, <b>pulse</b> – Gorilla XOR encoding: a single {@code 0} bit for a
+ *       repeated value, otherwise the meaningful bits of the XOR with the previous value, reusing
+ *       the previous leading/trailing zero window when it fits.</li>
+ *   <li><b>ECG</b> – a presence bit and, for signals with a waveform, the segment delta, the gap
+ *       to the end of the previous waveform and the length delta. The samples themselves stay in
+ *       the {@link WaveformStore}, where consecutive waveforms of a patient are contiguous, so
+ *       the common reference packs into four bits.</li>
+ *   <li><b>ECG features</b> – a presence bit and, for analysed signals, the peak count delta and
+ *       the R-R mean, minimum and maximum, each XOR encoded against the previous signal's. The heart
+ *       rate costs one bit when it is the one derived from the R-R mean. Version 1 blocks end
+ *       before this column.</li>
+ * </ul>
+ * Signed integers use the bucketed encoding of {@link BitWriter#writeSigned(long)}.
+ * Decoding is lossless.
+ */
+public final class SignalBlockCodec {
+
+    /**
+     * Fixed width of a signal row's columns (id, nationalId, heartbeat, pulse, timestamp and the
+     * three waveform reference columns), the baseline for compression ratios.
+     */
+    public static final int RAW_SIGNAL_BYTES = 48;
+
+    static final byte VERSION = 2;
+    private static final byte VERSION_WITHOUT_FEATURES = 1;
+    private static final int HEADER_SIZE = 6;
+    private static final long[] UNIT_NANOS = {1_000_000_000L, 1_000_000L, 1_000L, 1L};
+
+    private SignalBlockCodec() {
+    }
+
+    /**
+     * Encodes signals of one patient into a block. The signals are ordered by timestamp, then id.
+     *
+     * @param nationalId The patient the signals belong to.
+     * @param signals    Persisted signals with ids and timestamps; must not be empty.
+     */
+    public static SignalBlock encode(int nationalId, List<ICUSignal> signals) {
+        List<ICUSignal> ordered = new ArrayList<>(signals);
+        ordered.sort(Comparator.comparing(ICUSignal::getTimestamp).thenComparingInt(ICUSignal::getId));
+        int unit = timestampUnit(ordered);
+
+        BitWriter bits = new BitWriter(ordered.size() * 8);
+        int minId = Integer.MAX_VALUE;
+        int maxId = Integer.MIN_VALUE;
+        long previousId = 0;
+        for (ICUSignal signal : ordered) {
+            bits.writeSigned(signal.getId() - previousId);
+            previousId = signal.getId();
+            minId = Math.min(minId, signal.getId());
+            maxId = Math.max(maxId, signal.getId());
+        }
+
+        long previousTime = 0;
+        long previousDelta = 0;
+        for (ICUSignal signal : ordered) {
+            long time = toUnits(signal.getTimestamp(), unit);
+            long delta = time - previousTime;
+            bits.writeSigned(delta - previousDelta);
+            previousTime = time;
+            previousDelta = delta;
+        }
+
+        XorEncoder heartbeat = new XorEncoder();
+        for (ICUSignal signal : ordered) {
+            heartbeat.write(bits, signal.getHeartbeat());
+        }
+        XorEncoder pulse = new XorEncoder();
+        for (ICUSignal signal : ordered) {
+            pulse.write(bits, signal.getPulse());
+        }
+
+        long segment = 0;
+        long end = 0;
+        long length = 0;
+        for (ICUSignal signal : ordered) {
+            WaveformRef ref = signal.getEcgRef();
+            boolean present = ref != null && ref.getSegment() != null;
+            bits.writeBit(present);
+            if (present) {
+                long expected = ref.getSegment() == segment ? end : 0;
+                bits.writeSigned(ref.getSegment() - segment);
+                bits.writeSigned(ref.getOffset() - expected);
+                bits.writeSigned(ref.getLength() - length);
+                segment = ref.getSegment();
+                end = ref.getOffset() + ref.getLength();
+                length = ref.getLength();
+            }
+        }
+
+        FeatureEncoder features = new FeatureEncoder();
+        for (ICUSignal signal : ordered) {
+            features.write(bits, signal.getEcgFeatures());
+        }
+
+        byte[] body = bits.toByteArray();
+        byte[] data = ByteBuffer.allocate(HEADER_SIZE + body.length)
+                .put(VERSION)
+                .put((byte) unit)
+                .putInt(ordered.size())
+                .put(body)
+                .array();
+        return SignalBlock.builder()
+                .nationalId(nationalId)
+                .firstTimestamp(ordered.getFirst().getTimestamp())
+                .lastTimestamp(ordered.getLast().getTimestamp())
+                .minSignalId(minId)
+                .maxSignalId(maxId)
+                .signalCount(ordered.size())
+                .data(data)
+                .build();
+    }
+
+    /**
+     * Decodes every signal of a block, oldest first.
+     */
+    public static List<ICUSignal> decode(SignalBlock block) {
+        byte[] data = block.getData();
+        ByteBuffer header = ByteBuffer.wrap(data, 0, HEADER_SIZE);
+        byte version = header.get();
+        if (version != VERSION && version != VERSION_WITHOUT_FEATURES) {
+            throw new IllegalStateException("Unsupported signal block version " + version + " in block " + block.getId());
+        }
+        int unit = header.get();
+        int count = header.getInt();
+        BitReader bits = new BitReader(data, HEADER_SIZE);
+
+        List<ICUSignal> signals = new ArrayList<>(count);
+        long id = 0;
+        for (int i = 0; i < count; i++) {
+            id += bits.readSigned();
+            ICUSignal signal = new ICUSignal();
+            signal.setId((int) id);
+            signal.setNationalId(block.getNationalId());
+            signals.add(signal);
+        }
+
+        long time = 0;
+        long delta = 0;
+        for (ICUSignal signal : signals) {
+            delta += bits.readSigned();
+            time += delta;
+            signal.setTimestamp(fromUnits(time, unit));
+        }
+
+        XorDecoder heartbeat = new XorDecoder();
+        for (ICUSignal signal : signals) {
+            signal.setHeartbeat(heartbeat.read(bits));
+        }
+        XorDecoder pulse = new XorDecoder();
+        for (ICUSignal signal : signals) {
+            signal.setPulse(pulse.read(bits));
+        }
+
+        long segment = 0;
+        long end = 0;
+        long length = 0;
+        for (ICUSignal signal : signals) {
+            if (bits.readBit()) {
+                long nextSegment = segment + bits.readSigned();
+                long offset = (nextSegment == segment ? end : 0) + bits.readSigned();
+                length += bits.readSigned();
+                segment = nextSegment;
+                end = offset + length;
+                signal.setEcgRef(new WaveformRef((int) segment, offset, (int) length));
+            }
+        }
+
+        if (version != VERSION_WITHOUT_FEATURES) {
+            FeatureDecoder features = new FeatureDecoder();
+            for (ICUSignal signal : signals) {
+                signal.setEcgFeatures(features.read(bits));
+            }
+        }
+        return signals;
+    }
+
+    /**
+     * Decodes the signal with the given id, reading only the id column when the block does not
+     * hold it.
+     *
+     * @return The signal, or {@code null} if it is not in the block.
+     */
+    public static ICUSignal find(SignalBlock block, int signalId) {
+        if (signalId < block.getMinSignalId() || signalId > block.getMaxSignalId()) {
+            return null;
+        }
+        int count = ByteBuffer.wrap(block.getData()).getInt(2);
+        BitReader bits = new BitReader(block.getData(), HEADER_SIZE);
+        long id = 0;
+        for (int i = 0; i < count; i++) {
+            id += bits.readSigned();
+            if (id == signalId) {
+                return decode(block).get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return index into {@link #UNIT_NANOS} of the coarsest unit dividing every timestamp.
+     */
+    private static int timestampUnit(List<ICUSignal> signals) {
+        int unit = 0;
+        for (ICUSignal signal : signals) {
+            int nanos = signal.getTimestamp().getNano();
+            while (nanos % UNIT_NANOS[unit] != 0) {
+                unit++;
+            }
+        }
+        return unit;
+    }
+
+    private static long toUnits(LocalDateTime timestamp, int unit) {
+        long perSecond = UNIT_NANOS[0] / UNIT_NANOS[unit];
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * perSecond + timestamp.getNano() / UNIT_NANOS[unit];
+    }
+
+    private static LocalDateTime fromUnits(long value, int unit) {
+        long perSecond = UNIT_NANOS[0] / UNIT_NANOS[unit];
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(value, perSecond),
+                (int) (Math.floorMod(value, perSecond) * UNIT_NANOS[unit]), ZoneOffset.UTC);
+    }
+
+    /**
+     * Each field is written as a presence bit plus its value, so partially filled features
+     * round-trip too.
+     */
+    private static final class FeatureEncoder {
+        private final XorEncoder rrMean = new XorEncoder();
+        private final XorEncoder rrMin = new XorEncoder();
+        private final XorEncoder rrMax = new XorEncoder();
+        private final XorEncoder heartRate = new XorEncoder();
+        private long peakCount;
+
+        void write(BitWriter bits, EcgFeatures features) {
+            bits.writeBit(features != null);
+            if (features == null) {
+                return;
+            }
+            bits.writeBit(features.getPeakCount() != null);
+            if (features.getPeakCount() != null) {
+                bits.writeSigned(features.getPeakCount() - peakCount);
+                peakCount = features.getPeakCount();
+            }
+            writeOptional(bits, rrMean, features.getRrMeanMillis());
+            writeOptional(bits, rrMin, features.getRrMinMillis());
+            writeOptional(bits, rrMax, features.getRrMaxMillis());
+            boolean derived = features.getRrMeanMillis() != null && features.getHeartRate() != null
+                    && features.getHeartRate() == 60_000 / features.getRrMeanMillis();
+            bits.writeBit(derived);
+            if (!derived) {
+                writeOptional(bits, heartRate, features.getHeartRate());
+            }
+        }
+
+        private static void writeOptional(BitWriter bits, XorEncoder encoder, Double value) {
+            bits.writeBit(value != null);
+            if (value != null) {
+                encoder.write(bits, value);
+            }
+        }
+    }
+
+    private static final class FeatureDecoder {
+        private final XorDecoder rrMean = new XorDecoder();
+        private final XorDecoder rrMin = new XorDecoder();
+        private final XorDecoder rrMax = new XorDecoder();
+        private final XorDecoder heartRate = new XorDecoder();
+        private long peakCount;
+
+        EcgFeatures read(BitReader bits) {
+            if (!bits.readBit()) {
+                return null;
+            }
+            EcgFeatures features = new EcgFeatures();
+            if (bits.readBit()) {
+                peakCount += bits.readSigned();
+                features.setPeakCount((int) peakCount);
+            }
+            features.setRrMeanMillis(readOptional(bits, rrMean));
+            features.setRrMinMillis(readOptional(bits, rrMin));
+            features.setRrMaxMillis(readOptional(bits, rrMax));
+            features.setHeartRate(bits.readBit()
+                    ? Double.valueOf(60_000 / features.getRrMeanMillis())
+                    : readOptional(bits, heartRate));
+            return features;
+        }
+
+        private static Double readOptional(BitReader bits, XorDecoder decoder) {
+            return bits.readBit() ? decoder.read(bits) : null;
+        }
+    }
+
+    private static final class XorEncoder {
+        private long previous;
+        private int leading = -1;
+        private int trailing;
+
+        void write(BitWriter bits, double value) {
+            long current = Double.doubleToRawLongBits(value);
+            long xor = current ^ previous;
+            previous = current;
+            if (xor == 0) {
+                bits.writeBit(false);
+                return;
+            }
+            bits.writeBit(true);
+            int nextLeading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int nextTrailing = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && nextLeading >= leading && nextTrailing >= trailing) {
+                bits.writeBit(false);
+                bits.write(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                int significant = 64 - nextLeading - nextTrailing;
+                bits.writeBit(true);
+                bits.write(nextLeading, 5);
+                bits.write(significant - 1, 6);
+                bits.write(xor >>> nextTrailing, significant);
+                leading = nextLeading;
+                trailing = nextTrailing;
+            }
+        }
+    }
+
+    private static final class XorDecoder {
+        private long previous;
+        private int leading;
+        private int trailing;
+
+        double read(BitReader bits) {
+            if (bits.readBit()) {
+                if (bits.readBit()) {
+                    leading = (int) bits.read(5);
+                    trailing = 64 - leading - ((int) bits.read(6) + 1);
+                }
+                previous ^= bits.read(64 - leading - trailing) << trailing;
+            }
+            return Double.longBitsToDouble(previous);
+        }
+    }
+}
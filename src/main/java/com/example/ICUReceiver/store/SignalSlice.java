@@ -0,0 +1,22 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One newest-first slice of a {@link SignalStore#range range} query.
+ */
+@Data
+@AllArgsConstructor
+public class SignalSlice {
+    private List<ICUSignal> signals;
+    private long nextCursor;
+    private long total;
+
+    public boolean hasMore() {
+        return nextCursor < total;
+    }
+}
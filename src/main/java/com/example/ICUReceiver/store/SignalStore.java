@@ -0,0 +1,65 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.ICUSignal;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Storage SPI behind {@link com.example.ICUReceiver.service.ICUService}.
+ * <p>
+ * Implementations decide how signals are laid out on disk; callers only rely on
+ * newest-first ordering per patient. The active implementation is selected with
+ * <code>icu.store.type</code> (<code>jpa</code> or <code>segment</code>). Optional features are
+ * separate interfaces that callers check for: {@link DeferredWaveformStore} and
+ * {@link CompactingSignalStore}.
+ */
+public interface SignalStore {
+
+    /**
+     * Persists a batch of signals. Implementations assign {@link ICUSignal#getId() ids}
+     * and may stamp a missing timestamp with the current time.
+     *
+     * @param batch The signals to persist, possibly spanning several patients.
+     */
+    void append(List<ICUSignal> batch);
+
+    /**
+     * Returns one slice of a patient's signals within a time range, newest first.
+     * <p>
+     * The cursor is the number of matching signals already consumed, so the first slice
+     * starts at 0 and the next one at {@link SignalSlice#getNextCursor()}.
+     *
+     * @param nationalId The patient identifier.
+     * @param start      Inclusive lower bound, or {@code null} for unbounded.
+     * @param end        Inclusive upper bound, or {@code null} for unbounded.
+     * @param cursor     Number of newest-first matches to skip.
+     * @param limit      Maximum number of signals in the slice.
+     * @return The requested slice together with the total match count.
+     */
+    SignalSlice range(int nationalId, LocalDateTime start, LocalDateTime end, long cursor, int limit);
+
+    /**
+     * Returns the timestamps of all a patient's signals within a time range, in no particular
+     * order. The default pages through {@link #range}; stores override it with a query that does
+     * not read the signals' samples.
+     *
+     * @param nationalId The patient identifier.
+     * @param start      Inclusive lower bound.
+     * @param end        Inclusive upper bound.
+     */
+    default List<LocalDateTime> timestamps(int nationalId, LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime> timestamps = new ArrayList<>();
+        long cursor = 0;
+        SignalSlice slice;
+        do {
+            slice = range(nationalId, start, end, cursor, 1_000);
+            for (ICUSignal signal : slice.getSignals()) {
+                timestamps.add(signal.getTimestamp());
+            }
+            cursor = slice.getNextCursor();
+        } while (!slice.getSignals().isEmpty() && cursor < slice.getTotal());
+        return timestamps;
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.WaveformRef;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only, memory-mapped storage for raw ECG waveforms, kept apart from the scalar vitals.
+ * <p>
+ * Each patient owns a directory of preallocated segment files. A segment starts with a 32 byte
+ * header followed by fixed-width samples (big-endian IEEE 754 doubles):
+ * <pre>
+ * int  magic
+ * int  version
+ * int  nationalId
+ * int  sampleRateHz
+ * long startTime     (epoch milliseconds of the first appended waveform)
+ * long sampleCount   (committed samples, updated after every append)
+ * </pre>
+ * A waveform is addressed by a {@link WaveformRef} (segment, first sample, sample count).
+ * Because samples are fixed width, any window of a waveform is a contiguous byte range
+ * that can be sliced from the mapping or handed to {@link FileChannel#transferTo}.
+ */
+@Slf4j
+public class WaveformStore implements Closeable {
+
+    static final int MAGIC = 0x49435557; // "ICUW"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int SAMPLE_SIZE = Double.BYTES;
+
+    private static final int START_TIME_OFFSET = 16;
+    private static final int SAMPLE_COUNT_OFFSET = 24;
+    private static final String SEGMENT_SUFFIX = ".ecg";
+
+    private final Path root;
+    private final long segmentSize;
+    private final int sampleRateHz;
+    private final Map<Integer, PatientWaveforms> patients = new ConcurrentHashMap<>();
+
+    public WaveformStore(Path root, long segmentSize, int sampleRateHz) throws IOException {
+        this.root = root;
+        this.segmentSize = segmentSize;
+        this.sampleRateHz = sampleRateHz;
+        Files.createDirectories(root);
+    }
+
+    public int getSampleRateHz() {
+        return sampleRateHz;
+    }
+
+    /**
+     * Appends one waveform for a patient and returns where it was written.
+     *
+     * @param nationalId The patient identifier.
+     * @param timestamp  Signal timestamp, recorded as the segment start time for a fresh segment.
+     * @param samples    The ECG samples.
+     * @return The reference to persist alongside the signal row.
+     */
+    public WaveformRef append(int nationalId, LocalDateTime timestamp, List<Double> samples) {
+        try {
+            return patient(nationalId).append(timestamp, samples);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append waveform for nationalId=" + nationalId, e);
+        }
+    }
+
+    /**
+     * Decodes a whole waveform into samples.
+     */
+    public List<Double> read(int nationalId, WaveformRef ref) {
+        ByteBuffer view = patient(nationalId).view(ref.getSegment());
+        int position = (int) byteOffset(ref, 0);
+        List<Double> samples = new ArrayList<>(ref.getLength());
+        for (int i = 0; i < ref.getLength(); i++) {
+            samples.add(view.getDouble(position + i * SAMPLE_SIZE));
+        }
+        return samples;
+    }
+
+    /**
+     * Resolves a sample window of a waveform to a byte range of its segment file.
+     * The window is clamped to the waveform.
+     *
+     * @param from  First sample of the window, relative to the waveform.
+     * @param count Number of samples, or {@code null} for the rest of the waveform.
+     */
+    public WaveformWindow window(int nationalId, WaveformRef ref, int from, Integer count) {
+        int first = Math.max(0, Math.min(from, ref.getLength()));
+        int samples = count == null
+                ? ref.getLength() - first
+                : Math.max(0, Math.min(count, ref.getLength() - first));
+        return new WaveformWindow(
+                segmentPath(nationalId, ref.getSegment()),
+                byteOffset(ref, first),
+                (long) samples * SAMPLE_SIZE,
+                samples,
+                sampleRateHz);
+    }
+
+    /**
+     * Streams a window straight from the segment file with {@link FileChannel#transferTo},
+     * without decoding samples on the heap.
+     *
+     * @return Number of bytes written.
+     */
+    public long transferTo(WaveformWindow window, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(window.getFile(), StandardOpenOption.READ)) {
+            long position = window.getPosition();
+            long remaining = window.getByteLength();
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                position += sent;
+                remaining -= sent;
+            }
+            return window.getByteLength();
+        }
+    }
+
+    /**
+     * Forces every patient's active segment to disk.
+     */
+    @Override
+    public void close() {
+        patients.values().forEach(PatientWaveforms::force);
+    }
+
+    private PatientWaveforms patient(int nationalId) {
+        return patients.computeIfAbsent(nationalId, id -> {
+            try {
+                return new PatientWaveforms(id);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open waveform segments for nationalId=" + id, e);
+            }
+        });
+    }
+
+    private Path segmentPath(int nationalId, int segment) {
+        return root.resolve(String.valueOf(nationalId)).resolve("%06d%s".formatted(segment, SEGMENT_SUFFIX));
+    }
+
+    private static long byteOffset(WaveformRef ref, int fromSample) {
+        return HEADER_SIZE + (ref.getOffset() + fromSample) * SAMPLE_SIZE;
+    }
+
+    /**
+     * Segments of one patient. Appends are serialized per patient; reads use duplicates of the
+     * cached mappings and only touch ranges whose references have already been handed out.
+     */
+    private final class PatientWaveforms {
+        private final int nationalId;
+        private final Map<Integer, MappedByteBuffer> mappings = new ConcurrentHashMap<>();
+        private int activeSegment;
+        private MappedByteBuffer active;
+        private long committed;
+
+        private PatientWaveforms(int nationalId) throws IOException {
+            this.nationalId = nationalId;
+            Path directory = root.resolve(String.valueOf(nationalId));
+            Files.createDirectories(directory);
+
+            int last = -1;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : stream) {
+                    String name = file.getFileName().toString();
+                    last = Math.max(last, Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                }
+            }
+            if (last < 0) {
+                openSegment(0, segmentSize, null);
+            } else {
+                activeSegment = last;
+                Path file = segmentPath(nationalId, last);
+                active = map(file, FileChannel.MapMode.READ_WRITE, Files.size(file));
+                committed = active.getLong(SAMPLE_COUNT_OFFSET);
+                mappings.put(last, active);
+            }
+        }
+
+        synchronized WaveformRef append(LocalDateTime timestamp, List<Double> samples) throws IOException {
+            long required = HEADER_SIZE + (committed + samples.size()) * (long) SAMPLE_SIZE;
+            if (required > active.capacity()) {
+                active.force();
+                openSegment(activeSegment + 1,
+                        Math.max(segmentSize, HEADER_SIZE + (long) samples.size() * SAMPLE_SIZE), timestamp);
+            } else if (committed == 0 && timestamp != null) {
+                active.putLong(START_TIME_OFFSET, timestamp.toInstant(ZoneOffset.UTC).toEpochMilli());
+            }
+
+            int position = (int) (HEADER_SIZE + committed * SAMPLE_SIZE);
+            for (int i = 0; i < samples.size(); i++) {
+                active.putDouble(position + i * SAMPLE_SIZE, samples.get(i));
+            }
+            WaveformRef ref = new WaveformRef(activeSegment, committed, samples.size());
+            committed += samples.size();
+            active.putLong(SAMPLE_COUNT_OFFSET, committed);
+            return ref;
+        }
+
+        synchronized void force() {
+            active.force();
+        }
+
+        ByteBuffer view(int segment) {
+            return mappings.computeIfAbsent(segment, index -> {
+                try {
+                    Path file = segmentPath(nationalId, index);
+                    return map(file, FileChannel.MapMode.READ_ONLY, Files.size(file));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).duplicate();
+        }
+
+        private void openSegment(int index, long capacity, LocalDateTime timestamp) throws IOException {
+            Path file = segmentPath(nationalId, index);
+            MappedByteBuffer mapping = map(file, FileChannel.MapMode.READ_WRITE, capacity);
+            mapping.putInt(0, MAGIC)
+                    .putInt(4, VERSION)
+                    .putInt(8, nationalId)
+                    .putInt(12, sampleRateHz)
+                    .putLong(START_TIME_OFFSET,
+                            timestamp == null ? 0 : timestamp.toInstant(ZoneOffset.UTC).toEpochMilli())
+                    .putLong(SAMPLE_COUNT_OFFSET, 0);
+            activeSegment = index;
+            active = mapping;
+            committed = 0;
+            mappings.put(index, mapping);
+            log.debug("Opened waveform segment | nationalId={} | segment={} | capacity={}", nationalId, index, capacity);
+        }
+
+        private MappedByteBuffer map(Path file, FileChannel.MapMode mode, long size) throws IOException {
+            StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                    ? new StandardOpenOption[]{StandardOpenOption.READ}
+                    : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+            try (FileChannel channel = FileChannel.open(file, options)) {
+                return channel.map(mode, 0, size);
+            }
+        }
+    }
+}
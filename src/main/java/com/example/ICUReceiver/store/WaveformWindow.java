@@ -0,0 +1,19 @@
+package com.example.ICUReceiver.store;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/**
+ * A window of one waveform resolved to a contiguous byte range of its segment file.
+ */
+@Data
+@AllArgsConstructor
+public class WaveformWindow {
+    private Path file;
+    private long position;
+    private long byteLength;
+    private int sampleCount;
+    private int sampleRateHz;
+}
@@ -0,0 +1,38 @@
+package com.example.ICUReceiver.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one stage of one traced signal. Disabled unless a recording enables
+ * <code>com.example.ICUReceiver.IngestStage</code>, e.g.
+ * {@code jcmd <pid> JFR.start settings=profile +com.example.ICUReceiver.IngestStage#enabled=true}.
+ */
+@Name("com.example.ICUReceiver.IngestStage")
+@Label("Ingest Stage")
+@Category({"ICU Receiver", "Ingest"})
+@Description("Time one signal spent in one ingest stage")
+@StackTrace(false)
+class IngestStageEvent extends Event {
+
+    @Label("Trace Sequence")
+    long sequence;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Channel")
+    String channel;
+
+    @Label("National Id")
+    int nationalId;
+
+    @Label("Stage Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long stageDuration;
+}
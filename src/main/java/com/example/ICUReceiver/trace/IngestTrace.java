@@ -0,0 +1,55 @@
+package com.example.ICUReceiver.trace;
+
+/**
+ * Stage timings of one signal, filled in as it moves from the socket to the database.
+ * <p>
+ * A trace is written by one thread at a time: the receiving thread up to {@link Stage#VALIDATE},
+ * then the shard writer, with the shard queue as the hand-over. Completed traces are copied into
+ * the {@link IngestTracer}'s ring, so the object itself is short-lived.
+ */
+public class IngestTrace {
+
+    /**
+     * Trace used while tracing is disabled; marks are ignored and it is never recorded.
+     */
+    public static final IngestTrace NOOP = new IngestTrace(Channel.DIRECT, 0) {
+        @Override
+        public void mark(Stage stage, long nanoTime) {
+        }
+    };
+
+    public enum Channel {
+        WEBSOCKET, REST, DIRECT
+    }
+
+    final Channel channel;
+    final long start;
+    final long[] stageNanos = new long[Stage.VALUES.length];
+    int nationalId;
+    private long last;
+
+    IngestTrace(Channel channel, long start) {
+        this.channel = channel;
+        this.start = start;
+        this.last = start;
+    }
+
+    /**
+     * Ends {@code stage} now; it is charged the time since the previous mark.
+     */
+    public void mark(Stage stage) {
+        mark(stage, System.nanoTime());
+    }
+
+    /**
+     * Ends {@code stage} at {@code nanoTime}, a {@link System#nanoTime()} reading shared by a batch.
+     */
+    public void mark(Stage stage, long nanoTime) {
+        stageNanos[stage.ordinal()] += nanoTime - last;
+        last = nanoTime;
+    }
+
+    long totalNanos() {
+        return last - start;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ICUReceiver.trace;
+
+import com.example.ICUReceiver.configuration.TraceProperties;
+import com.example.ICUReceiver.dto.TraceRecordDto;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint listing the slowest recently ingested signals with their stage breakdown.
+ *
+ * <pre>
+ * GET /actuator/ingesttrace?limit=20
+ * </pre>
+ */
+@Component
+@Endpoint(id = "ingesttrace")
+public class IngestTraceEndpoint {
+
+    private final IngestTracer tracer;
+    private final int defaultLimit;
+
+    public IngestTraceEndpoint(IngestTracer tracer, TraceProperties properties) {
+        this.tracer = tracer;
+        this.defaultLimit = properties.getDefaultLimit();
+    }
+
+    @ReadOperation
+    public List<TraceRecordDto> slowest(@Nullable Integer limit) {
+        return tracer.slowest(limit != null ? limit : defaultLimit);
+    }
+}
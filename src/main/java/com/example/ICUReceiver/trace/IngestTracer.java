@@ -0,0 +1,158 @@
+package com.example.ICUReceiver.trace;
+
+import com.example.ICUReceiver.configuration.TraceProperties;
+import com.example.ICUReceiver.dto.TraceRecordDto;
+import jdk.jfr.EventType;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Records where each ingested signal spent its time.
+ * <p>
+ * The WebSocket handler and the upload endpoint {@link #begin} a trace on the receiving thread
+ * and mark the parse and map stages; {@link com.example.ICUReceiver.ingest.IngestPipeline} takes it
+ * over with {@link #detach} and carries it through the shard queue, reorder buffer and batch
+ * write, then hands it back with {@link #complete}. Signals submitted without a begun trace get
+ * one starting at submission. Completed traces are copied into a preallocated {@link TraceRing},
+ * and, while a JFR recording enables it, each stage is emitted as an {@link IngestStageEvent}.
+ * Waveform lane writes happen after the trace completes and are not part of it.
+ */
+public class IngestTracer {
+
+    private static final EventType STAGE_EVENT = EventType.getEventType(IngestStageEvent.class);
+    private static final IngestTrace.Channel[] CHANNELS = IngestTrace.Channel.values();
+
+    private final boolean enabled;
+    private final TraceRing ring;
+    private final ThreadLocal<IngestTrace> current = new ThreadLocal<>();
+
+    public IngestTracer(TraceProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.ring = new TraceRing(enabled ? properties.getCapacity() : 1);
+    }
+
+    /**
+     * Starts timing a signal that has just been received on this thread.
+     *
+     * @return the trace to mark, or {@link IngestTrace#NOOP} when tracing is disabled.
+     */
+    public IngestTrace begin(IngestTrace.Channel channel) {
+        if (!enabled) {
+            return IngestTrace.NOOP;
+        }
+        IngestTrace trace = new IngestTrace(channel, System.nanoTime());
+        current.set(trace);
+        return trace;
+    }
+
+    /**
+     * Takes the trace begun on this thread, or starts one now if there is none, for a signal of
+     * patient {@code nationalId} that is being handed to ingest.
+     */
+    public IngestTrace detach(int nationalId) {
+        if (!enabled) {
+            return IngestTrace.NOOP;
+        }
+        IngestTrace trace = current.get();
+        if (trace == null) {
+            trace = new IngestTrace(IngestTrace.Channel.DIRECT, System.nanoTime());
+        } else {
+            current.remove();
+        }
+        trace.nationalId = nationalId;
+        return trace;
+    }
+
+    /**
+     * Drops a trace begun on this thread that was never handed to ingest, e.g. for an invalid payload.
+     */
+    public void clear() {
+        if (enabled) {
+            current.remove();
+        }
+    }
+
+    /**
+     * Records a trace whose last stage has been marked.
+     */
+    public void complete(IngestTrace trace) {
+        if (trace == IngestTrace.NOOP) {
+            return;
+        }
+        long receivedAt = System.currentTimeMillis() - (System.nanoTime() - trace.start) / 1_000_000;
+        long sequence = ring.add(trace, receivedAt);
+        if (STAGE_EVENT.isEnabled()) {
+            emit(trace, sequence);
+        }
+    }
+
+    /**
+     * Returns the {@code limit} slowest traces still held in the ring, slowest first.
+     */
+    public List<TraceRecordDto> slowest(int limit) {
+        int n = Math.clamp(limit, 0, ring.capacity());
+        if (n == 0) {
+            return List.of();
+        }
+        PriorityQueue<long[]> slowest = new PriorityQueue<>(n, Comparator.comparingLong(r -> r[TraceRing.TOTAL]));
+        long[] record = new long[TraceRing.WIDTH];
+        for (int slot = 0; slot < ring.capacity(); slot++) {
+            if (!ring.read(slot, record)) {
+                continue;
+            }
+            if (slowest.size() < n) {
+                slowest.add(record);
+                record = new long[TraceRing.WIDTH];
+            } else if (record[TraceRing.TOTAL] > slowest.peek()[TraceRing.TOTAL]) {
+                long[] evicted = slowest.poll();
+                slowest.add(record);
+                record = evicted;
+            }
+        }
+        List<TraceRecordDto> result = new ArrayList<>(slowest.size());
+        while (!slowest.isEmpty()) {
+            result.add(toDto(slowest.poll()));
+        }
+        return result.reversed();
+    }
+
+    private static void emit(IngestTrace trace, long sequence) {
+        String channel = trace.channel.name();
+        for (Stage stage : Stage.VALUES) {
+            IngestStageEvent event = new IngestStageEvent();
+            event.sequence = sequence;
+            event.stage = stage.name();
+            event.channel = channel;
+            event.nationalId = trace.nationalId;
+            event.stageDuration = trace.stageNanos[stage.ordinal()];
+            event.commit();
+        }
+    }
+
+    private static TraceRecordDto toDto(long[] record) {
+        Map<String, Double> stages = new LinkedHashMap<>();
+        for (Stage stage : Stage.VALUES) {
+            stages.put(stage.name().toLowerCase(Locale.ROOT), millis(record[TraceRing.STAGES + stage.ordinal()]));
+        }
+        return new TraceRecordDto(
+                record[TraceRing.SEQUENCE],
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(record[TraceRing.RECEIVED_AT]), ZoneId.systemDefault()),
+                (int) record[TraceRing.NATIONAL_ID],
+                CHANNELS[(int) record[TraceRing.CHANNEL]].name().toLowerCase(Locale.ROOT),
+                millis(record[TraceRing.TOTAL]),
+                stages);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ICUReceiver.trace;
+
+/**
+ * Consecutive steps of one signal through ingest, in the order they happen. Each stage lasts from
+ * the end of the previous one until its own end.
+ */
+public enum Stage {
+    /** JSON payload parsed into an {@code ICUSignalDto}; WebSocket only, REST bodies are parsed by Spring MVC. */
+    PARSE,
+    /** DTO mapped to an {@code ICUSignal}. */
+    MAP,
+    /** Cluster routing and validation. */
+    VALIDATE,
+    /** Waiting for room in the patient's shard queue, then queued until the shard writer takes it. */
+    QUEUE,
+    /** Deduplication and the reorder hold until release. */
+    REORDER,
+    /** ECG band-pass filtering and R-peak detection. */
+    ANALYZE,
+    /** The batch insert and its commit. */
+    COMMIT,
+    /** Rollups, change feed append and live bus publish. */
+    PUBLISH;
+
+    static final Stage[] VALUES = values();
+}
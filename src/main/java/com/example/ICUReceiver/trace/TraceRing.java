@@ -0,0 +1,81 @@
+package com.example.ICUReceiver.trace;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring of completed trace records, preallocated as one flat {@code long[]}.
+ * <p>
+ * Writers claim a slot with a single {@code getAndIncrement} and never wait for each other or
+ * for readers. Each slot carries a version, written like a seqlock: negative while the record is
+ * being written, then the record's sequence with release semantics. A reader copies the record
+ * and keeps it only if the version was the same, non-negative value before and after, so a record
+ * overwritten mid-read is skipped rather than reported torn.
+ */
+final class TraceRing {
+
+    static final int SEQUENCE = 0;
+    static final int RECEIVED_AT = 1;
+    static final int NATIONAL_ID = 2;
+    static final int CHANNEL = 3;
+    static final int TOTAL = 4;
+    static final int STAGES = 5;
+    static final int WIDTH = STAGES + Stage.VALUES.length;
+
+    private final int mask;
+    private final long[] records;
+    private final AtomicLongArray versions;
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * @param capacity Number of records kept; rounded up to a power of two.
+     */
+    TraceRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.records = new long[size * WIDTH];
+        this.versions = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            versions.set(i, -1);
+        }
+    }
+
+    /**
+     * @return the sequence assigned to the record.
+     */
+    long add(IngestTrace trace, long receivedAtMillis) {
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        int base = slot * WIDTH;
+        versions.set(slot, -1);
+        VarHandle.storeStoreFence();
+        records[base + SEQUENCE] = sequence;
+        records[base + RECEIVED_AT] = receivedAtMillis;
+        records[base + NATIONAL_ID] = trace.nationalId;
+        records[base + CHANNEL] = trace.channel.ordinal();
+        records[base + TOTAL] = trace.totalNanos();
+        System.arraycopy(trace.stageNanos, 0, records, base + STAGES, trace.stageNanos.length);
+        versions.setRelease(slot, sequence);
+        return sequence;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Copies the record in {@code slot} into {@code into}.
+     *
+     * @return {@code false} if the slot is empty or was rewritten during the copy.
+     */
+    boolean read(int slot, long[] into) {
+        long before = versions.getAcquire(slot);
+        if (before < 0) {
+            return false;
+        }
+        System.arraycopy(records, slot * WIDTH, into, 0, WIDTH);
+        VarHandle.loadLoadFence();
+        return versions.get(slot) == before;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.ICUReceiver.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Reactive runtime tuning, bound from the <code>icu.reactive</code> prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "icu.reactive")
+public class ReactiveProperties {
+
+    private Ingest ingest = new Ingest();
+
+    @Data
+    public static class Ingest {
+        /**
+         * Maximum number of WebSocket signals written to the database in one batch.
+         */
+        private int batchSize = 256;
+
+        /**
+         * Longest a partially filled batch waits before it is written.
+         */
+        private Duration maxBatchDelay = Duration.ofMillis(50);
+    }
+}
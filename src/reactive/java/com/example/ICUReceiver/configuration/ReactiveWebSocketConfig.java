@@ -0,0 +1,47 @@
+package com.example.ICUReceiver.configuration;
+
+import com.example.ICUReceiver.handler.ReactiveICUSignalWebSocketHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
+import org.springframework.web.reactive.socket.server.support.WebSocketHandlerAdapter;
+import org.springframework.web.reactive.socket.server.upgrade.ReactorNettyRequestUpgradeStrategy;
+import reactor.netty.http.server.WebsocketServerSpec;
+
+import java.util.Map;
+
+/**
+ * Reactive counterpart of {@link WebSocketConfig}: maps <code>/ws/dynamic</code> to the
+ * {@link ReactiveICUSignalWebSocketHandler} on Reactor Netty, with the same
+ * permessage-deflate and frame size settings.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties({WebSocketProperties.class, ReactiveProperties.class})
+public class ReactiveWebSocketConfig {
+
+    @Bean
+    public HandlerMapping icuWebSocketHandlerMapping(ReactiveICUSignalWebSocketHandler handler) {
+        return new SimpleUrlHandlerMapping(Map.of("/ws/dynamic", handler), Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    /**
+     * Takes precedence over the default adapter so the handshake applies {@link WebSocketProperties}.
+     */
+    @Bean
+    public WebSocketHandlerAdapter icuWebSocketHandlerAdapter(WebSocketProperties webSocketProperties) {
+        int maxFramePayloadLength = (int) webSocketProperties.getMaxTextMessageSize().toBytes();
+        ReactorNettyRequestUpgradeStrategy upgradeStrategy = new ReactorNettyRequestUpgradeStrategy(
+                () -> WebsocketServerSpec.builder()
+                        .compress(webSocketProperties.isPermessageDeflate())
+                        .maxFramePayloadLength(maxFramePayloadLength));
+        WebSocketHandlerAdapter adapter = new WebSocketHandlerAdapter(new HandshakeWebSocketService(upgradeStrategy));
+        adapter.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return adapter;
+    }
+}
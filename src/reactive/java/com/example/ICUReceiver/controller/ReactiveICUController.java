@@ -0,0 +1,100 @@
+package com.example.ICUReceiver.controller;
+
+import com.example.ICUReceiver.dto.ApiResponse;
+import com.example.ICUReceiver.dto.ICUSignalDto;
+import com.example.ICUReceiver.ingest.SignalValidator;
+import com.example.ICUReceiver.mapper.ICUSignalMapper;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ReactiveICUService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link ICUController}, active when the application runs as a
+ * reactive web application. Exposes the same <b>/api/v1/icu</b> endpoints and response
+ * bodies; every handler returns without blocking a Netty event-loop thread.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1/icu")
+@Slf4j
+public class ReactiveICUController {
+
+    @Autowired
+    private ReactiveICUService service;
+
+    @Autowired
+    private ICUSignalMapper mapper;
+
+    @Autowired
+    private SignalValidator validator;
+
+    /**
+     * Stores one ICU signal; responds once the row is written. Implausible signals are
+     * answered with 400 Bad Request without touching the database.
+     */
+    @PostMapping("/upload")
+    public Mono<ResponseEntity<ApiResponse<Void>>> receive(@RequestBody ICUSignalDto dto) {
+        log.info("Received dto {}", dto);
+        ICUSignal signal = mapper.toEntity(dto);
+        validator.validate(signal);
+        return service.saveSignals(List.of(signal))
+                .thenReturn(ResponseEntity.ok(ApiResponse.success("Data received successfully", null)));
+    }
+
+    @GetMapping("/range/{nationalId}")
+    public Mono<ResponseEntity<ApiResponse<Page<ICUSignalDto>>>> findByTimeRange(
+            @PathVariable int nationalId,
+            @RequestParam LocalDateTime start,
+            @RequestParam LocalDateTime end,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return service.findByTimeRange(nationalId, start, end, page, size)
+                .map(result -> ResponseEntity.ok(ApiResponse.success(
+                        "Fetched ICU signals in time range", result.map(mapper::toDto))));
+    }
+
+    @GetMapping("/latest/{nationalId}")
+    public Mono<ResponseEntity<ApiResponse<Page<ICUSignalDto>>>> findLatest(
+            @PathVariable int nationalId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return service.findLatest(nationalId, page, size)
+                .map(result -> ResponseEntity.ok(ApiResponse.success(
+                        "Fetched latest ICU signals", result.map(mapper::toDto))));
+    }
+
+    /**
+     * Streams a window of the raw ECG waveform; Reactor Netty sends the byte range of the
+     * segment file with zero-copy file transfer.
+     */
+    @GetMapping("/ecg/{signalId}")
+    public Mono<Void> streamEcg(
+            @PathVariable int signalId,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(required = false) Integer count,
+            ServerHttpResponse response
+    ) {
+        return service.findWindow(signalId, from, count).flatMap(window -> {
+            response.getHeaders().setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            response.getHeaders().setContentLength(window.getByteLength());
+            response.getHeaders().set("X-Sample-Rate", String.valueOf(window.getSampleRateHz()));
+            response.getHeaders().set("X-Sample-Count", String.valueOf(window.getSampleCount()));
+            return ((ZeroCopyHttpOutputMessage) response)
+                    .writeWith(window.getFile(), window.getPosition(), window.getByteLength());
+        });
+    }
+}
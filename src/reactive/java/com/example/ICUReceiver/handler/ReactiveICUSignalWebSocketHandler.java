@@ -0,0 +1,92 @@
+package com.example.ICUReceiver.handler;
+
+import com.example.ICUReceiver.configuration.ReactiveProperties;
+import com.example.ICUReceiver.dto.ICUSignalDto;
+import com.example.ICUReceiver.exception.InvalidICUSignalException;
+import com.example.ICUReceiver.ingest.SignalValidator;
+import com.example.ICUReceiver.mapper.ICUSignalMapper;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ReactiveICUService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+
+/**
+ * Reactive counterpart of {@link ICUSignalWebSocketHandler} for <code>/ws/dynamic</code>.
+ * <p>
+ * Inbound frames are parsed, grouped into batches of up to {@code batchSize} (or whatever
+ * arrived within {@code maxBatchDelay}) and written one batch at a time. Demand on the socket
+ * is only renewed once the previous batch is stored, so a slow database stops Reactor Netty
+ * from reading the socket and TCP flow control pushes back on the producer, instead of frames
+ * piling up in memory. Malformed frames and signals failing {@link SignalValidator} are answered
+ * with an error frame and never reach a batch, as in the servlet handler.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveICUSignalWebSocketHandler implements WebSocketHandler {
+
+    static final String INVALID_PAYLOAD = "Error: Invalid payload format";
+    static final String STORE_FAILED = "Error: Failed to store signals";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReactiveICUService service;
+    private final ICUSignalMapper mapper;
+    private final SignalValidator validator;
+    private final int batchSize;
+    private final Duration maxBatchDelay;
+
+    @Autowired
+    public ReactiveICUSignalWebSocketHandler(ReactiveICUService service, ICUSignalMapper mapper,
+                                             SignalValidator validator, ReactiveProperties properties) {
+        this.service = service;
+        this.mapper = mapper;
+        this.validator = validator;
+        this.batchSize = properties.getIngest().getBatchSize();
+        this.maxBatchDelay = properties.getIngest().getMaxBatchDelay();
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        log.info("Connection established: {}", session.getId());
+        Sinks.Many<String> replies = Sinks.many().unicast().onBackpressureBuffer();
+
+        Mono<Void> ingest = session.receive()
+                .map(WebSocketMessage::getPayloadAsText)
+                .<ICUSignal>handle((payload, sink) -> {
+                    try {
+                        ICUSignal signal = mapper.toEntity(objectMapper.readValue(payload, ICUSignalDto.class));
+                        validator.validate(signal);
+                        sink.next(signal);
+                    } catch (InvalidICUSignalException e) {
+                        log.warn("Invalid signal, rejecting message: {}", e.getMessage());
+                        replies.tryEmitNext("Error: " + e.getMessage());
+                    } catch (Exception e) {
+                        log.error("Parse payload failed where exception: {}", e.getMessage());
+                        replies.tryEmitNext(INVALID_PAYLOAD);
+                    }
+                })
+                .bufferTimeout(batchSize, maxBatchDelay, true)
+                .concatMap(batch -> service.saveSignals(batch).onErrorResume(e -> {
+                    log.error("Failed to store signal batch | size={} | reason={}", batch.size(), e.getMessage());
+                    replies.tryEmitNext(STORE_FAILED);
+                    return Mono.empty();
+                }), 1)
+                .then()
+                .doFinally(signal -> {
+                    replies.tryEmitComplete();
+                    log.info("Connection closed: {} with signal {}", session.getId(), signal);
+                });
+
+        return Mono.when(ingest, session.send(replies.asFlux().map(session::textMessage)));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.ICUReceiver.repository;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.WaveformRef;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * R2DBC access to the <code>icusignal</code> table created by the JPA mapping of {@link ICUSignal}.
+ * <p>
+ * Plain SQL through {@link DatabaseClient} instead of a Spring Data R2DBC repository, because
+ * the entity's {@code @Embedded} waveform reference and {@code @Transient} samples are JPA
+ * mappings that Spring Data R2DBC does not understand.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSignalRepository {
+
+    /**
+     * Takes the id straight from the entity's pooled sequence. Each {@code NEXT VALUE} reserves a
+     * whole block for Hibernate's pooled optimizer, so the ids never collide with JPA inserts.
+     */
+    private static final String INSERT = "INSERT INTO icusignal "
+            + "(id, national_id, heartbeat, pulse, timestamp, ecg_segment, ecg_offset, ecg_length) "
+            + "VALUES (NEXT VALUE FOR icusignal_seq, $1, $2, $3, $4, $5, $6, $7)";
+
+    private static final String COLUMNS = "id, national_id, heartbeat, pulse, timestamp, "
+            + "ecg_segment, ecg_offset, ecg_length";
+
+    private static final String RANGE_FILTER = " FROM icusignal "
+            + "WHERE national_id = :nationalId AND timestamp BETWEEN :start AND :end";
+
+    private static final LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveSignalRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Inserts a batch with a single multi-binding statement.
+     *
+     * @return The number of inserted rows.
+     */
+    public Mono<Long> saveAll(List<ICUSignal> batch) {
+        if (batch.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT);
+            for (int i = 0; i < batch.size(); i++) {
+                bind(statement, batch.get(i));
+                if (i < batch.size() - 1) {
+                    statement.add();
+                }
+            }
+            return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+        }).reduce(0L, Long::sum);
+    }
+
+    public Mono<ICUSignal> findById(int id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM icusignal WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveSignalRepository::toSignal)
+                .one();
+    }
+
+    /**
+     * Signals of one patient newest first; {@code null} bounds are open.
+     */
+    public Flux<ICUSignal> findRange(int nationalId, LocalDateTime start, LocalDateTime end, long offset, int limit) {
+        return databaseClient.sql("SELECT " + COLUMNS + RANGE_FILTER
+                        + " ORDER BY timestamp DESC LIMIT :limit OFFSET :offset")
+                .bind("nationalId", nationalId)
+                .bind("start", start != null ? start : MIN_TIMESTAMP)
+                .bind("end", end != null ? end : MAX_TIMESTAMP)
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveSignalRepository::toSignal)
+                .all();
+    }
+
+    public Mono<Long> countRange(int nationalId, LocalDateTime start, LocalDateTime end) {
+        return databaseClient.sql("SELECT COUNT(*) AS total" + RANGE_FILTER)
+                .bind("nationalId", nationalId)
+                .bind("start", start != null ? start : MIN_TIMESTAMP)
+                .bind("end", end != null ? end : MAX_TIMESTAMP)
+                .map(row -> row.get("total", Long.class))
+                .one();
+    }
+
+    private static void bind(Statement statement, ICUSignal signal) {
+        statement.bind(0, signal.getNationalId())
+                .bind(1, signal.getHeartbeat())
+                .bind(2, signal.getPulse())
+                .bind(3, signal.getTimestamp());
+        WaveformRef ref = signal.getEcgRef();
+        if (ref != null) {
+            statement.bind(4, ref.getSegment()).bind(5, ref.getOffset()).bind(6, ref.getLength());
+        } else {
+            statement.bindNull(4, Integer.class).bindNull(5, Long.class).bindNull(6, Integer.class);
+        }
+    }
+
+    private static ICUSignal toSignal(Readable row) {
+        Integer segment = row.get("ecg_segment", Integer.class);
+        return ICUSignal.builder()
+                .id(row.get("id", Integer.class))
+                .nationalId(row.get("national_id", Integer.class))
+                .heartbeat(row.get("heartbeat", Double.class))
+                .pulse(row.get("pulse", Double.class))
+                .timestamp(row.get("timestamp", LocalDateTime.class))
+                .ecgRef(segment == null ? null : new WaveformRef(
+                        segment,
+                        row.get("ecg_offset", Long.class),
+                        row.get("ecg_length", Integer.class)))
+                .build();
+    }
+}
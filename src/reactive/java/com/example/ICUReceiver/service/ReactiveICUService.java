@@ -0,0 +1,140 @@
+package com.example.ICUReceiver.service;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.repository.ReactiveSignalRepository;
+import com.example.ICUReceiver.store.WaveformStore;
+import com.example.ICUReceiver.store.WaveformWindow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link ICUService} for the reactive runtime.
+ * <p>
+ * Signal rows go through R2DBC; ECG samples are still written to and read from the
+ * memory-mapped {@link WaveformStore}, on the bounded elastic scheduler because rolling
+ * to a new segment touches the file system. Exports the same metrics as {@link ICUService}:
+ * <ul>
+ *   <li><b>icu.signals.saved.total</b> – Total number of successfully saved ICU signals.</li>
+ *   <li><b>icu.signals.query.duration</b> – Timer measuring signal query execution time.</li>
+ *   <li><b>icu.signals.query.total</b> – Total number of signal query requests.</li>
+ * </ul>
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveICUService {
+
+    private final ReactiveSignalRepository repository;
+    private final WaveformStore waveformStore;
+    private final MeterRegistry meterRegistry;
+    private final Counter saveCounter;
+    private final Counter queryCounter;
+    private final Timer queryTimer;
+
+    @Autowired
+    public ReactiveICUService(ReactiveSignalRepository repository, WaveformStore waveformStore,
+                              MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.waveformStore = waveformStore;
+        this.meterRegistry = meterRegistry;
+
+        this.saveCounter = meterRegistry.counter("icu.signals.saved.total");
+        this.queryCounter = meterRegistry.counter("icu.signals.query.total");
+        this.queryTimer = meterRegistry.timer("icu.signals.query.duration");
+    }
+
+    /**
+     * Persists a batch of signals. The returned {@link Mono} completes once the rows are
+     * written, which is what lets callers apply backpressure up to the database.
+     *
+     * @param icuSignals Signals to persist; a signal without a device timestamp is stamped now.
+     */
+    public Mono<Void> saveSignals(List<ICUSignal> icuSignals) {
+        return Mono.fromCallable(() -> writeWaveforms(icuSignals))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(repository::saveAll)
+                .doOnNext(saved -> {
+                    saveCounter.increment(saved);
+                    log.debug("Saved ICU signal batch | size={}", saved);
+                })
+                .then();
+    }
+
+    public Mono<Page<ICUSignal>> findByTimeRange(int nationalId, LocalDateTime start, LocalDateTime end,
+                                                 int page, int size) {
+        return findPage(nationalId, start, end, page, size);
+    }
+
+    public Mono<Page<ICUSignal>> findLatest(int nationalId, int page, int size) {
+        return findPage(nationalId, null, null, page, size);
+    }
+
+    /**
+     * Resolves a window of the waveform recorded with a signal.
+     *
+     * @throws EntityNotFoundException (signalled) if the signal does not exist or carries no waveform.
+     */
+    public Mono<WaveformWindow> findWindow(int signalId, int from, Integer count) {
+        return repository.findById(signalId)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("ICU signal not found: " + signalId)))
+                .<WaveformWindow>handle((signal, sink) -> {
+                    if (signal.getEcgRef() == null) {
+                        sink.error(new EntityNotFoundException("ICU signal has no waveform: " + signalId));
+                        return;
+                    }
+                    sink.next(waveformStore.window(signal.getNationalId(), signal.getEcgRef(), from, count));
+                });
+    }
+
+    private Mono<Page<ICUSignal>> findPage(int nationalId, LocalDateTime start, LocalDateTime end,
+                                           int page, int size) {
+        return Mono.defer(() -> {
+            queryCounter.increment();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            long offset = (long) page * size;
+            return Mono.zip(
+                            repository.findRange(nationalId, start, end, offset, size)
+                                    .map(this::hydrate)
+                                    .collectList(),
+                            repository.countRange(nationalId, start, end))
+                    .<Page<ICUSignal>>map(result -> new PageImpl<>(result.getT1(),
+                            PageRequest.of(page, size, Sort.by("timestamp").descending()), result.getT2()))
+                    .doFinally(signal -> sample.stop(queryTimer));
+        });
+    }
+
+    private List<ICUSignal> writeWaveforms(List<ICUSignal> icuSignals) {
+        for (ICUSignal signal : icuSignals) {
+            if (signal.getTimestamp() == null) {
+                signal.setTimestamp(LocalDateTime.now());
+            }
+            if (signal.getEcgList() != null && !signal.getEcgList().isEmpty()) {
+                signal.setEcgRef(waveformStore.append(
+                        signal.getNationalId(), signal.getTimestamp(), signal.getEcgList()));
+            }
+        }
+        return icuSignals;
+    }
+
+    private ICUSignal hydrate(ICUSignal signal) {
+        if (signal.getEcgRef() != null) {
+            signal.setEcgList(waveformStore.read(signal.getNationalId(), signal.getEcgRef()));
+        }
+        return signal;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.ICUReceiver.benchmark;
+
+import com.example.ICUReceiver.IcuReceiverApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servlet (Tomcat + JPA) versus reactive (Netty + R2DBC) stack at 5,000 concurrent WebSocket producers.
+ * <p>
+ * Each run boots the application in-process, connects {@code bench.connections} WebSocket clients to
+ * <code>/ws/dynamic</code>, has every client send one signal per second for {@code bench.seconds}, and
+ * meanwhile issues dashboard reads against <code>/api/v1/icu/latest</code> from 64 concurrent clients.
+ * Reports heap used after GC and live threads once all sockets are connected, plus read latency
+ * percentiles. Clients share the JVM, so absolute heap numbers include them; compare the two runs.
+ * <p>
+ * Run with {@code mvn test -Preactive,benchmark -Dtest=StackComparisonBenchmarkTest}. 5,000 sockets
+ * need {@code ulimit -n} well above 10,000.
+ */
+@Tag("benchmark")
+class StackComparisonBenchmarkTest {
+
+    private static final int CONNECTIONS = Integer.getInteger("bench.connections", 5_000);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("bench.seconds", 30));
+    private static final int READERS = 64;
+
+    @Test
+    void servletStack() throws Exception {
+        run("servlet", WebApplicationType.SERVLET);
+    }
+
+    @Test
+    void reactiveStack() throws Exception {
+        run("reactive", WebApplicationType.REACTIVE, "reactive");
+    }
+
+    private void run(String label, WebApplicationType type, String... profiles) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(IcuReceiverApplication.class)
+                .web(type)
+                .profiles(profiles)
+                .properties(
+                        "server.port=0",
+                        "logging.level.com.example.ICUReceiver=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + label,
+                        "spring.r2dbc.url=r2dbc:h2:mem:///bench-" + label,
+                        "icu.waveform.directory=./target/bench-" + label + "/waveforms",
+                        "icu.feed.directory=./target/bench-" + label + "/feed")
+                .run();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().executor(executor).build();
+            long heapBaseline = usedHeapAfterGc();
+
+            List<WebSocket> sockets = connect(client, port);
+            long heapConnected = usedHeapAfterGc();
+            int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            AtomicLong sendErrors = new AtomicLong();
+            ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+            long deadline = System.nanoTime() + DURATION.toNanos();
+            List<CompletableFuture<?>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                int reader = r;
+                readers.add(CompletableFuture.runAsync(
+                        () -> latencies.add(read(client, port, reader, deadline)), executor));
+            }
+            CompletableFuture<?>[] pending = new CompletableFuture<?>[sockets.size()];
+            while (System.nanoTime() < deadline) {
+                long tick = System.nanoTime();
+                for (int i = 0; i < sockets.size(); i++) {
+                    if (pending[i] == null || pending[i].isDone()) {
+                        pending[i] = sockets.get(i).sendText(payload(i), true)
+                                .exceptionally(e -> {
+                                    sendErrors.incrementAndGet();
+                                    return null;
+                                });
+                    }
+                }
+                TimeUnit.NANOSECONDS.sleep(Math.max(0, TimeUnit.SECONDS.toNanos(1) - (System.nanoTime() - tick)));
+            }
+            CompletableFuture.allOf(readers.toArray(CompletableFuture[]::new)).join();
+            sockets.forEach(WebSocket::abort);
+
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            long heapPerConnection = (heapConnected - heapBaseline) / Math.max(1, sockets.size());
+            System.out.printf("%-8s connections=%d heapConnected=%dMB heapPerConnection=%dKB threads=%d "
+                            + "reads=%d p50=%.2fms p99=%.2fms p999=%.2fms sendErrors=%d%n",
+                    label, sockets.size(), heapConnected >> 20, heapPerConnection >> 10,
+                    threads, all.length, percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999),
+                    sendErrors.get());
+        }
+    }
+
+    private static List<WebSocket> connect(HttpClient client, int port) throws InterruptedException {
+        URI uri = URI.create("ws://localhost:" + port + "/ws/dynamic");
+        Semaphore inFlight = new Semaphore(200);
+        List<CompletableFuture<WebSocket>> futures = new ArrayList<>(CONNECTIONS);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            inFlight.acquire();
+            futures.add(client.newWebSocketBuilder()
+                    .buildAsync(uri, new WebSocket.Listener() {
+                    })
+                    .whenComplete((socket, e) -> inFlight.release()));
+        }
+        List<WebSocket> sockets = new ArrayList<>(CONNECTIONS);
+        for (CompletableFuture<WebSocket> future : futures) {
+            try {
+                sockets.add(future.join());
+            } catch (RuntimeException e) {
+                // Counted through the connections figure in the report.
+            }
+        }
+        return sockets;
+    }
+
+    private static long[] read(HttpClient client, int port, int reader, long deadline) {
+        long[] samples = new long[1 << 16];
+        int n = 0;
+        while (System.nanoTime() < deadline && n < samples.length) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(
+                    "http://localhost:" + port + "/api/v1/icu/latest/" + (reader % CONNECTIONS) + "?size=20")).build();
+            long start = System.nanoTime();
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                samples[n++] = System.nanoTime() - start;
+            } catch (Exception e) {
+                return Arrays.copyOf(samples, n);
+            }
+        }
+        return Arrays.copyOf(samples, n);
+    }
+
+    private static String payload(int nationalId) {
+        return "{\"nationalId\":" + nationalId + ",\"heartbeat\":80.0,\"pulse\":97.0,\"timestamp\":\""
+                + LocalDateTime.now() + "\"}";
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+}
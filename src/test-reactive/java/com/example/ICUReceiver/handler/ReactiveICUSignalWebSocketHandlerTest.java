@@ -0,0 +1,102 @@
+package com.example.ICUReceiver.handler;
+
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.configuration.ReactiveProperties;
+import com.example.ICUReceiver.ingest.SignalValidator;
+import com.example.ICUReceiver.mapper.ICUSignalMapper;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ReactiveICUService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveICUSignalWebSocketHandlerTest {
+
+    private static final String VALID = """
+            {"nationalId": 1, "heartbeat": 80.0, "pulse": 70.0, "timestamp": "2025-11-09T10:00:00"}
+            """;
+
+    @Mock
+    private ReactiveICUService service;
+
+    @Mock
+    private WebSocketSession session;
+
+    private final List<String> replies = new CopyOnWriteArrayList<>();
+    private ReactiveICUSignalWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        IngestProperties ingestProperties = new IngestProperties();
+        ingestProperties.getValidation().setMaxAge(Duration.ZERO);
+        handler = new ReactiveICUSignalWebSocketHandler(service, new ICUSignalMapper(),
+                new SignalValidator(ingestProperties, new SimpleMeterRegistry()), new ReactiveProperties());
+        lenient().when(session.getId()).thenReturn("123");
+        lenient().when(session.textMessage(anyString())).thenAnswer(invocation -> text(invocation.getArgument(0)));
+        lenient().when(session.send(any())).thenAnswer(invocation -> {
+            Publisher<WebSocketMessage> outbound = invocation.getArgument(0);
+            return Flux.from(outbound).doOnNext(message -> replies.add(message.getPayloadAsText())).then();
+        });
+    }
+
+    @Test
+    void testHandle_batchesValidFramesAndRepliesToInvalidOnes() {
+        when(session.receive()).thenReturn(Flux.just(text(VALID), text("{ invalid json }"), text(VALID)));
+        when(service.saveSignals(anyList())).thenReturn(Mono.empty());
+
+        StepVerifier.create(handler.handle(session)).verifyComplete();
+
+        ArgumentCaptor<List<ICUSignal>> batch = ArgumentCaptor.forClass(List.class);
+        verify(service, times(1)).saveSignals(batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertEquals(List.of(ReactiveICUSignalWebSocketHandler.INVALID_PAYLOAD), replies);
+    }
+
+    @Test
+    void testHandle_repliesToInvalidSignalWithoutStoringIt() {
+        when(session.receive()).thenReturn(Flux.just(text(VALID.replace("\"pulse\": 70.0", "\"pulse\": -1.0"))));
+
+        StepVerifier.create(handler.handle(session)).verifyComplete();
+
+        verify(service, never()).saveSignals(anyList());
+        assertEquals(1, replies.size());
+        assertTrue(replies.getFirst().startsWith("Error: Invalid signal: pulse"));
+    }
+
+    @Test
+    void testHandle_reportsStoreFailureAndKeepsSessionOpen() {
+        when(session.receive()).thenReturn(Flux.just(text(VALID)));
+        when(service.saveSignals(anyList())).thenReturn(Mono.error(new IllegalStateException("db down")));
+
+        StepVerifier.create(handler.handle(session)).verifyComplete();
+
+        assertEquals(List.of(ReactiveICUSignalWebSocketHandler.STORE_FAILED), replies);
+    }
+
+    private static WebSocketMessage text(String payload) {
+        return new WebSocketMessage(WebSocketMessage.Type.TEXT,
+                DefaultDataBufferFactory.sharedInstance.wrap(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}
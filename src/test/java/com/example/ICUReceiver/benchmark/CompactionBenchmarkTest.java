@@ -0,0 +1,134 @@
+package com.example.ICUReceiver.benchmark;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.SignalBlock;
+import com.example.ICUReceiver.model.WaveformRef;
+import com.example.ICUReceiver.store.SignalBlockCodec;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures how far compaction shrinks historical signals and how fast blocks decode.
+ * <p>
+ * Each dataset is one patient's 1 Hz stream cut into blocks of {@value #BLOCK_SIZE} signals. The
+ * raw size is the fixed width of the row columns ({@link SignalBlockCodec#RAW_SIGNAL_BYTES}
+ * bytes per signal, before any database row overhead). Datasets:
+ * <ul>
+ *   <li><b>monitor</b> – integer heart rate and SpO2 drifting slowly, millisecond timestamp jitter,
+ *       ids interleaved with 64 other patients, contiguous ECG waveforms.</li>
+ *   <li><b>decimal</b> – the same with one-decimal vitals.</li>
+ *   <li><b>noise</b> – random doubles and nanosecond timestamps, the worst case.</li>
+ * </ul>
+ * Run with <code>mvn test -Pbenchmark</code>.
+ */
+@Tag("benchmark")
+class CompactionBenchmarkTest {
+
+    private static final int BLOCK_SIZE = 1_024;
+    private static final int BLOCKS = 200;
+    private static final int ROUNDS = 5;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 0, 0);
+
+    @Test
+    void compressionRatioAndDecodeThroughput() {
+        System.out.printf("%-8s %12s %12s %8s %10s %14s %14s%n",
+                "dataset", "raw(B)", "encoded(B)", "ratio", "B/signal", "encode(sig/s)", "decode(sig/s)");
+
+        double monitor = run("monitor", monitor(false));
+        run("decimal", monitor(true));
+        run("noise", noise());
+
+        assertTrue(monitor >= 4, "monitor vitals should compact at least 4x, got " + monitor);
+    }
+
+    /**
+     * @return the compression ratio.
+     */
+    private double run(String name, IntFunction<ICUSignal> source) {
+        List<List<ICUSignal>> chunks = new ArrayList<>(BLOCKS);
+        for (int b = 0; b < BLOCKS; b++) {
+            List<ICUSignal> chunk = new ArrayList<>(BLOCK_SIZE);
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                chunk.add(source.apply(b * BLOCK_SIZE + i));
+            }
+            chunks.add(chunk);
+        }
+
+        List<SignalBlock> blocks = new ArrayList<>(BLOCKS);
+        long encodeNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            blocks.clear();
+            long start = System.nanoTime();
+            for (List<ICUSignal> chunk : chunks) {
+                blocks.add(SignalBlockCodec.encode(1, chunk));
+            }
+            encodeNanos = Math.min(encodeNanos, System.nanoTime() - start);
+        }
+
+        long decodeNanos = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (SignalBlock block : blocks) {
+                checksum += SignalBlockCodec.decode(block).getLast().getId();
+            }
+            decodeNanos = Math.min(decodeNanos, System.nanoTime() - start);
+        }
+
+        long signals = (long) BLOCKS * BLOCK_SIZE;
+        long raw = signals * SignalBlockCodec.RAW_SIGNAL_BYTES;
+        long encoded = blocks.stream().mapToLong(block -> block.getData().length).sum();
+        double ratio = raw / (double) encoded;
+        System.out.printf("%-8s %12d %12d %8.1f %10.2f %14.0f %14.0f%n",
+                name, raw, encoded, ratio, encoded / (double) signals,
+                signals * 1e9 / encodeNanos, signals * 1e9 / decodeNanos);
+        assertTrue(checksum != 0);
+        return ratio;
+    }
+
+    private static IntFunction<ICUSignal> monitor(boolean decimal) {
+        Random random = new Random(42);
+        double[] heartbeat = {80};
+        double[] pulse = {97};
+        long[] offset = {0};
+        return i -> {
+            if (random.nextInt(10) == 0) {
+                heartbeat[0] = Math.clamp(heartbeat[0] + random.nextInt(3) - 1, 50, 150);
+            }
+            if (random.nextInt(30) == 0) {
+                pulse[0] = Math.clamp(pulse[0] + random.nextInt(3) - 1, 90, 100);
+            }
+            double hb = decimal ? heartbeat[0] + random.nextInt(10) / 10.0 : heartbeat[0];
+            double spo2 = decimal ? pulse[0] + random.nextInt(10) / 10.0 : pulse[0];
+            WaveformRef ref = new WaveformRef(0, offset[0], 500);
+            offset[0] += 500;
+            return ICUSignal.builder()
+                    .id(i * 65 + random.nextInt(8))
+                    .nationalId(1)
+                    .heartbeat(hb)
+                    .pulse(spo2)
+                    .timestamp(BASE.plusSeconds(i).plusNanos(random.nextInt(20) * 1_000_000L))
+                    .ecgRef(ref)
+                    .build();
+        };
+    }
+
+    private static IntFunction<ICUSignal> noise() {
+        Random random = new Random(42);
+        return i -> ICUSignal.builder()
+                .id(i * 65 + random.nextInt(8))
+                .nationalId(1)
+                .heartbeat(random.nextDouble() * 200)
+                .pulse(random.nextDouble() * 100)
+                .timestamp(BASE.plusSeconds(i).plusNanos(random.nextInt(1_000_000_000)))
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.ICUReceiver.benchmark;
+
+import com.example.ICUReceiver.dto.ICUSignalDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures bandwidth saved versus CPU spent when compressing ECG-bearing payloads.
+ * <p>
+ * Gzip mirrors what Tomcat applies to <code>/range</code> and <code>/latest</code> responses;
+ * raw deflate without context takeover mirrors a single permessage-deflate frame on <code>/ws/dynamic</code>.
+ * Run with <code>mvn test -Pbenchmark</code>.
+ */
+@Tag("benchmark")
+class CompressionBenchmarkTest {
+
+    private static final int[] ECG_SAMPLES = {0, 250, 500, 2500};
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compressionRatioAndCostPerMessage() throws IOException {
+        System.out.printf("%-8s %10s %10s %8s %12s %10s %8s %12s %12s%n",
+                "samples", "raw(B)", "gzip(B)", "ratio", "gzip(us)", "deflate(B)", "ratio", "deflate(us)", "inflate(us)");
+
+        for (int samples : ECG_SAMPLES) {
+            byte[] payload = objectMapper.writeValueAsString(signal(samples)).getBytes(StandardCharsets.UTF_8);
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                gzip(payload);
+                inflate(deflate(payload), payload.length);
+            }
+
+            long gzipNanos = 0;
+            long deflateNanos = 0;
+            long inflateNanos = 0;
+            int gzipSize = 0;
+            int deflateSize = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long t0 = System.nanoTime();
+                gzipSize = gzip(payload).length;
+                long t1 = System.nanoTime();
+                byte[] deflated = deflate(payload);
+                long t2 = System.nanoTime();
+                inflate(deflated, payload.length);
+                long t3 = System.nanoTime();
+                deflateSize = deflated.length;
+                gzipNanos += t1 - t0;
+                deflateNanos += t2 - t1;
+                inflateNanos += t3 - t2;
+            }
+
+            System.out.printf("%-8d %10d %10d %8.2f %12.1f %10d %8.2f %12.1f %12.1f%n",
+                    samples, payload.length,
+                    gzipSize, (double) payload.length / gzipSize, gzipNanos / 1_000.0 / MEASURED_ROUNDS,
+                    deflateSize, (double) payload.length / deflateSize, deflateNanos / 1_000.0 / MEASURED_ROUNDS,
+                    inflateNanos / 1_000.0 / MEASURED_ROUNDS);
+
+            if (samples > 0) {
+                assertTrue(deflateSize < payload.length, "ECG payloads should shrink under deflate");
+            }
+        }
+    }
+
+    private static ICUSignalDto signal(int samples) {
+        Random random = new Random(42);
+        List<Double> ecg = new ArrayList<>(samples);
+        for (int i = 0; i < samples; i++) {
+            double t = i / 500.0;
+            ecg.add(Math.sin(2 * Math.PI * 1.2 * t) + 0.05 * random.nextGaussian());
+        }
+        return new ICUSignalDto(123456, 82.0, 97.0, LocalDateTime.of(2025, 11, 9, 14, 30), ecg);
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            byte[] buffer = new byte[payload.length + 64];
+            int length = deflater.deflate(buffer);
+            byte[] result = new byte[length];
+            System.arraycopy(buffer, 0, result, 0, length);
+            return result;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int originalLength) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] buffer = new byte[originalLength];
+            inflater.inflate(buffer);
+            return buffer;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
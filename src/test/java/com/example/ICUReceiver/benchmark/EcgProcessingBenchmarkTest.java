@@ -0,0 +1,107 @@
+package com.example.ICUReceiver.benchmark;
+
+import com.example.ICUReceiver.configuration.EcgProperties;
+import com.example.ICUReceiver.dsp.EcgAnalyzer;
+import com.example.ICUReceiver.dsp.SyntheticEcg;
+import com.example.ICUReceiver.model.ICUSignal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures how many concurrent 500 Hz ECG streams one node analyses in real time.
+ * <p>
+ * Every stream sends one 1 s signal per tick, and each tick is analysed as one batch spanning all
+ * streams, like a shard batch under full load. Streams run at 60–120 bpm with noise, wander and
+ * hum. Each stream repeats a {@value #CYCLE_SECONDS} s recording holding a whole number of beats,
+ * so the repeats join without a break. The real-time factor is the number of seconds of signal
+ * analysed for all streams per wall-clock second; it must stay above 1. Heart rate error is
+ * measured against the generator's rate, after the learning phase. Run with <code>mvn test -Pbenchmark</code>.
+ */
+@Tag("benchmark")
+class EcgProcessingBenchmarkTest {
+
+    private static final int STREAMS = 500;
+    private static final int SAMPLE_RATE = 500;
+    private static final int CYCLE_SECONDS = 5;
+    private static final int SECONDS = 30;
+    private static final int WARMUP_SECONDS = 10;
+    /** Whole beats in {@value #CYCLE_SECONDS} s. */
+    private static final double[] HEART_RATES = {60, 72, 84, 96, 108, 120};
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 0, 0);
+
+    @Test
+    void realtimeFactorForConcurrentStreams() {
+        List<List<List<Double>>> recordings = new ArrayList<>(STREAMS);
+        for (int s = 0; s < STREAMS; s++) {
+            SyntheticEcg ecg = new SyntheticEcg(SAMPLE_RATE, heartRate(s), 0.02, s);
+            List<List<Double>> cycle = new ArrayList<>(CYCLE_SECONDS);
+            for (int second = 0; second < CYCLE_SECONDS; second++) {
+                cycle.add(ecg.next(SAMPLE_RATE));
+            }
+            recordings.add(cycle);
+        }
+
+        System.out.printf("%-12s %8s %12s %14s %10s %12s%n",
+                "mode", "streams", "wall(ms)", "samples/s", "realtime", "hr-err(bpm)");
+        run("warmup", 0, recordings);
+        run("1-thread", 1, recordings);
+        double parallel = run("fork-join", 0, recordings);
+
+        assertTrue(parallel >= 1, "analysis must keep up with " + STREAMS + " streams, got " + parallel + "x");
+    }
+
+    /**
+     * @return the real-time factor.
+     */
+    private double run(String mode, int parallelism, List<List<List<Double>>> recordings) {
+        EcgProperties properties = new EcgProperties();
+        properties.setParallelism(parallelism);
+        double errorSum = 0;
+        int errorCount = 0;
+        long nanos = 0;
+        try (EcgAnalyzer analyzer = new EcgAnalyzer(properties, SAMPLE_RATE, new SimpleMeterRegistry())) {
+            for (int second = 0; second < SECONDS; second++) {
+                List<ICUSignal> batch = new ArrayList<>(STREAMS);
+                for (int s = 0; s < STREAMS; s++) {
+                    batch.add(ICUSignal.builder()
+                            .nationalId(s)
+                            .heartbeat(80.0)
+                            .pulse(97.0)
+                            .timestamp(BASE.plusSeconds(second))
+                            .ecgList(recordings.get(s).get(second % CYCLE_SECONDS))
+                            .build());
+                }
+                long start = System.nanoTime();
+                analyzer.analyze(batch);
+                nanos += System.nanoTime() - start;
+
+                if (second >= WARMUP_SECONDS) {
+                    for (int s = 0; s < STREAMS; s++) {
+                        Double measured = batch.get(s).getEcgFeatures().getHeartRate();
+                        if (measured != null) {
+                            errorSum += Math.abs(measured - heartRate(s));
+                            errorCount++;
+                        }
+                    }
+                }
+            }
+        }
+
+        double wallSeconds = nanos / 1e9;
+        double realtime = SECONDS / wallSeconds;
+        System.out.printf("%-12s %8d %12.1f %14.0f %9.0fx %12.2f%n", mode, STREAMS, nanos / 1e6,
+                (double) STREAMS * SECONDS * SAMPLE_RATE / wallSeconds, realtime, errorSum / Math.max(1, errorCount));
+        return realtime;
+    }
+
+    private static double heartRate(int stream) {
+        return HEART_RATES[stream % HEART_RATES.length];
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.ICUReceiver.benchmark;
+
+import com.example.ICUReceiver.IcuReceiverApplication;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ICUService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sustained inserts per second into the embedded H2 database, before and after the
+ * write-oriented JDBC settings.
+ * <p>
+ * <b>baseline</b> writes each signal in its own transaction with JDBC batching disabled and a
+ * single shared pool, as the receiver did before ingest batching. <b>tuned</b> uses the shipped
+ * configuration: batches of {@value #BATCH_SIZE} per transaction, Hibernate JDBC batching with
+ * ordered inserts, pooled sequence ids and the separate ingest pool. Both run {@value #WRITERS}
+ * concurrent writers, mirroring shard writers. Run with <code>mvn test -Pbenchmark</code>.
+ */
+@Tag("benchmark")
+class InsertThroughputBenchmarkTest {
+
+    private static final int WRITERS = 4;
+    private static final int BATCH_SIZE = 256;
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASURED = Duration.ofSeconds(10);
+
+    @Test
+    void sustainedInsertsPerSecond() throws Exception {
+        double baseline = measure("baseline", false,
+                "spring.jpa.properties.hibernate.jdbc.batch_size=1",
+                "spring.jpa.properties.hibernate.order_inserts=false",
+                "icu.datasource.split-pools=false");
+        double tuned = measure("tuned", true);
+
+        System.out.printf("%-10s %14s%n", "mode", "inserts/s");
+        System.out.printf("%-10s %14.0f%n", "baseline", baseline);
+        System.out.printf("%-10s %14.0f%n", "tuned", tuned);
+        System.out.printf("speed-up   %13.1fx%n", tuned / baseline);
+
+        assertTrue(tuned > baseline, "batched inserts should outpace one transaction per signal");
+    }
+
+    private double measure(String name, boolean batched, String... overrides) throws Exception {
+        List<String> properties = new ArrayList<>(List.of(
+                "logging.level.com.example.ICUReceiver=WARN",
+                "logging.level.org.hibernate=WARN",
+                "spring.datasource.url=jdbc:h2:mem:insert-" + name + "-" + System.nanoTime(),
+                "icu.store.type=jpa"));
+        properties.addAll(List.of(overrides));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(IcuReceiverApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+             ExecutorService executor = Executors.newFixedThreadPool(WRITERS)) {
+            ICUService service = context.getBean(ICUService.class);
+            LongAdder inserted = new LongAdder();
+            long start = System.nanoTime();
+            long measureFrom = start + WARMUP.toNanos();
+            long end = measureFrom + MEASURED.toNanos();
+
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                int nationalId = writer + 1;
+                writers.add(executor.submit(() -> {
+                    LocalDateTime timestamp = LocalDateTime.now();
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        List<ICUSignal> batch = new ArrayList<>(BATCH_SIZE);
+                        for (int i = 0; i < BATCH_SIZE; i++) {
+                            timestamp = timestamp.plusNanos(2_000_000);
+                            batch.add(ICUSignal.builder()
+                                    .nationalId(nationalId)
+                                    .heartbeat(80)
+                                    .pulse(97)
+                                    .timestamp(timestamp)
+                                    .build());
+                        }
+                        if (batched) {
+                            service.saveSignals(batch);
+                        } else {
+                            batch.forEach(service::saveSignal);
+                        }
+                        if (now >= measureFrom) {
+                            inserted.add(BATCH_SIZE);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            return inserted.sum() / (MEASURED.toNanos() / 1e9);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.ICUReceiver.benchmark;
+
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.cluster.InProcessSignalBus;
+import com.example.ICUReceiver.configuration.EcgProperties;
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.configuration.TraceProperties;
+import com.example.ICUReceiver.dsp.EcgAnalyzer;
+import com.example.ICUReceiver.exception.IngestOverloadedException;
+import com.example.ICUReceiver.feed.ChangeFeed;
+import com.example.ICUReceiver.ingest.IngestPipeline;
+import com.example.ICUReceiver.ingest.SignalValidator;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ICUService;
+import com.example.ICUReceiver.service.StatsService;
+import com.example.ICUReceiver.snapshot.StateSnapshotter;
+import com.example.ICUReceiver.store.SignalSlice;
+import com.example.ICUReceiver.store.DeferredWaveformStore;
+import com.example.ICUReceiver.store.WaveformStore;
+import com.example.ICUReceiver.trace.IngestTracer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures vitals latency while ECG uploads saturate ingest, with waveforms stored inline with
+ * their vitals and with the separate waveform lane. The store writes real waveform segments and
+ * adds a fixed commit cost per transaction. Run with <code>mvn test -Pbenchmark</code>.
+ */
+@Tag("benchmark")
+class LaneIsolationBenchmarkTest {
+
+    private static final int VITALS_PATIENTS = 200;
+    private static final int VITALS_PER_SECOND_PER_PATIENT = 5;
+    private static final int WAVEFORM_PRODUCERS = 8;
+    private static final int ECG_SAMPLES = 5_000;
+    private static final long COMMIT_MILLIS = 2;
+    private static final Duration RUN = Duration.ofSeconds(5);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void vitalsLatencyUnderWaveformSaturation() throws Exception {
+        System.out.printf("%-8s %10s %10s %10s %12s %12s%n",
+                "mode", "p50(ms)", "p99(ms)", "rejected", "waveforms", "wf-blocked");
+        double inline = run("inline", false);
+        double lanes = run("lanes", true);
+
+        assertTrue(lanes < inline, "the waveform lane should lower vitals p99");
+    }
+
+    private double run(String mode, boolean lanes) throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IngestProperties properties = new IngestProperties();
+        properties.getReorder().setMaxLateness(Duration.ZERO);
+        properties.getShards().setCount(2);
+        properties.getShards().setQueueCapacity(1024);
+        properties.getValidation().setMaxAge(Duration.ZERO);
+        properties.getLanes().getWaveform().setEnabled(lanes);
+        // Lane scheduling only; the cost of ECG analysis is measured by EcgProcessingBenchmarkTest.
+        EcgProperties ecgProperties = new EcgProperties();
+        ecgProperties.setEnabled(false);
+
+        try (WaveformStore waveforms = new WaveformStore(root.resolve(mode + "-waveforms"), 64L << 20, 500);
+             ChangeFeed feed = new ChangeFeed(root.resolve(mode + "-feed"), 64L << 20, Long.MAX_VALUE, 64, 65_536,
+                     meterRegistry)) {
+            LatestSignalCache latestCache = new LatestSignalCache(0, 1_000, meterRegistry);
+            ICUService service = new ICUService(new CommitCostStore(waveforms), latestCache, meterRegistry);
+            IngestPipeline pipeline = new IngestPipeline(service, mock(StatsService.class),
+                    new SignalValidator(properties, meterRegistry), feed, new InProcessSignalBus(),
+                    new IngestTracer(new TraceProperties()), new EcgAnalyzer(ecgProperties, 500, meterRegistry),
+                    latestCache, mock(StateSnapshotter.class), properties, meterRegistry);
+            pipeline.start();
+
+            LongAdder rejectedVitals = new LongAdder();
+            long end = System.nanoTime() + RUN.toNanos();
+            List<Double> ecg = Collections.nCopies(ECG_SAMPLES, 0.5);
+            try (ExecutorService producers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int p = 0; p < WAVEFORM_PRODUCERS; p++) {
+                    int nationalId = 10_000 + p;
+                    producers.execute(() -> {
+                        AtomicInteger tick = new AtomicInteger();
+                        while (System.nanoTime() < end) {
+                            try {
+                                pipeline.submit(signal(nationalId, tick.incrementAndGet(), new ArrayList<>(ecg)));
+                            } catch (IngestOverloadedException e) {
+                                LockSupport.parkNanos(1_000_000);
+                            }
+                        }
+                    });
+                }
+                long period = TimeUnit.SECONDS.toNanos(1) / VITALS_PER_SECOND_PER_PATIENT;
+                for (int p = 1; p <= VITALS_PATIENTS; p++) {
+                    int nationalId = p;
+                    producers.execute(() -> {
+                        int tick = 0;
+                        for (long next = System.nanoTime(); next < end; next += period) {
+                            LockSupport.parkNanos(next - System.nanoTime());
+                            try {
+                                pipeline.submit(signal(nationalId, ++tick, null));
+                            } catch (IngestOverloadedException e) {
+                                rejectedVitals.increment();
+                            }
+                        }
+                    });
+                }
+            }
+            pipeline.stop();
+
+            Timer vitals = meterRegistry.get("icu.ingest.lane.latency").tag("lane", "vitals").timer();
+            double p50 = percentile(vitals, 0.5);
+            double p99 = percentile(vitals, 0.99);
+            System.out.printf("%-8s %10.1f %10.1f %10d %12.0f %12.0f%n", mode, p50, p99, rejectedVitals.sum(),
+                    meterRegistry.counter("icu.signals.waveforms.saved.total").count(),
+                    meterRegistry.counter("icu.ingest.waveform.blocked").count());
+            return p99;
+        }
+    }
+
+    private static double percentile(Timer timer, double percentile) {
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        throw new IllegalStateException("percentile not published: " + percentile);
+    }
+
+    private static ICUSignal signal(int nationalId, int tick, List<Double> ecg) {
+        return ICUSignal.builder()
+                .nationalId(nationalId)
+                .heartbeat(80.0)
+                .pulse(97.0)
+                .timestamp(LocalDateTime.now().withNano(0).plusNanos(tick))
+                .ecgList(ecg)
+                .build();
+    }
+
+    /**
+     * Keeps rows in memory, writes samples to the waveform store and pays a commit per call.
+     */
+    private static final class CommitCostStore implements DeferredWaveformStore {
+
+        private final WaveformStore waveforms;
+        private final AtomicInteger ids = new AtomicInteger();
+
+        private CommitCostStore(WaveformStore waveforms) {
+            this.waveforms = waveforms;
+        }
+
+        @Override
+        public void append(List<ICUSignal> batch) {
+            for (ICUSignal signal : batch) {
+                signal.setId(ids.incrementAndGet());
+                if (signal.getEcgList() != null) {
+                    signal.setEcgRef(waveforms.append(signal.getNationalId(), signal.getTimestamp(), signal.getEcgList()));
+                }
+            }
+            commit();
+        }
+
+        @Override
+        public void attachWaveforms(List<ICUSignal> signals) {
+            for (ICUSignal signal : signals) {
+                signal.setEcgRef(waveforms.append(signal.getNationalId(), signal.getTimestamp(), signal.getEcgList()));
+            }
+            commit();
+        }
+
+        @Override
+        public void readWaveforms(List<ICUSignal> signals) {
+        }
+
+        @Override
+        public ICUSignal find(int signalId) {
+            return null;
+        }
+
+        @Override
+        public SignalSlice range(int nationalId, LocalDateTime start, LocalDateTime end, long cursor, int limit) {
+            return new SignalSlice(List.of(), cursor, 0);
+        }
+
+        private static void commit() {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(COMMIT_MILLIS));
+        }
+    }
+}
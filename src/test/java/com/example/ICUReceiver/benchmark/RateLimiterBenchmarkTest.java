@@ -0,0 +1,139 @@
+package com.example.ICUReceiver.benchmark;
+
+import com.example.ICUReceiver.configuration.RateLimitProperties;
+import com.example.ICUReceiver.exception.RateLimitedException;
+import com.example.ICUReceiver.limit.IngestRateLimiter;
+import com.example.ICUReceiver.trace.IngestTrace;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures admission decisions per second of the upload rate limiter when every thread uploads
+ * through one gateway, with limits that admit everything and with the gateway flooding far above
+ * its limit, at rising thread counts. The baseline keeps the same client and patient buckets but
+ * guards a classic token count and refill timestamp with a lock. Run with
+ * <code>mvn test -Pbenchmark</code>.
+ */
+@Tag("benchmark")
+class RateLimiterBenchmarkTest {
+
+    private static final int[] THREADS = {1, 4, 16};
+    private static final int PATIENTS = 10_000;
+    private static final Duration RUN = Duration.ofSeconds(2);
+    /** Far above the uploads a receiver parses per second, so admission never becomes the bottleneck. */
+    private static final double MIN_DECISIONS_PER_SECOND = 200_000;
+
+    @Test
+    void lockFreeVersusLockedUnderOneGateway() throws Exception {
+        System.out.printf("%-10s %-8s %8s %14s %12s%n", "limiter", "load", "threads", "decisions/s", "admitted%");
+        double lockFree = 0;
+        double locked = 0;
+        for (int threads : THREADS) {
+            lockFree = run("lock-free", "admit", lockFree(1e9), threads);
+            locked = run("locked", "admit", locked(1e9), threads);
+        }
+        for (int threads : THREADS) {
+            double flood = run("lock-free", "flood", lockFree(1_000), threads);
+            run("locked", "flood", locked(1_000), threads);
+            assertTrue(flood > MIN_DECISIONS_PER_SECOND, "rejecting a flood should stay cheap");
+        }
+
+        assertTrue(lockFree > MIN_DECISIONS_PER_SECOND, "admission should stay cheap under contention");
+        // Lock contention needs cores running the callers in parallel.
+        if (Runtime.getRuntime().availableProcessors() >= 4) {
+            assertTrue(lockFree > locked, "the lock-free limiter should scale past the locked one");
+        }
+    }
+
+    private static double run(String limiter, String load, Admission admission, int threads) throws Exception {
+        LongAdder decisions = new LongAdder();
+        LongAdder admitted = new LongAdder();
+        long end = System.nanoTime() + RUN.toNanos();
+        try (ExecutorService callers = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                callers.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long count = 0;
+                    long granted = 0;
+                    while ((count & 1023) != 0 || System.nanoTime() < end) {
+                        if (admission.admit(random.nextInt(PATIENTS))) {
+                            granted++;
+                        }
+                        count++;
+                    }
+                    decisions.add(count);
+                    admitted.add(granted);
+                });
+            }
+        }
+        double perSecond = decisions.sum() / (RUN.toNanos() / 1e9);
+        System.out.printf("%-10s %-8s %8d %14.0f %11.1f%%%n", limiter, load, threads, perSecond,
+                100.0 * admitted.sum() / decisions.sum());
+        return perSecond;
+    }
+
+    private static Admission lockFree(double clientRate) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setClient(new RateLimitProperties.Bucket(clientRate, (int) Math.min(clientRate, 1_000_000)));
+        properties.setPatient(new RateLimitProperties.Bucket(1e9, 1_000_000));
+        IngestRateLimiter limiter = new IngestRateLimiter(properties, new SimpleMeterRegistry());
+        return nationalId -> {
+            try {
+                limiter.acquire(IngestTrace.Channel.REST, "gateway", nationalId);
+                return true;
+            } catch (RateLimitedException e) {
+                return false;
+            }
+        };
+    }
+
+    private static Admission locked(double clientRate) {
+        LockedBucket client = new LockedBucket(clientRate, Math.min(clientRate, 1_000_000));
+        Map<Integer, LockedBucket> patients = new ConcurrentHashMap<>();
+        return nationalId -> client.tryAcquire()
+                && patients.computeIfAbsent(nationalId, id -> new LockedBucket(1e9, 1_000_000)).tryAcquire();
+    }
+
+    private interface Admission {
+        boolean admit(int nationalId);
+    }
+
+    /**
+     * Token count and last refill time under one monitor.
+     */
+    private static final class LockedBucket {
+
+        private final double ratePerNano;
+        private final double burst;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private LockedBucket(double rate, double burst) {
+            this.ratePerNano = rate / 1e9;
+            this.burst = burst;
+            this.tokens = burst;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
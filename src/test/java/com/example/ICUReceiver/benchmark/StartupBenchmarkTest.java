@@ -0,0 +1,179 @@
+package com.example.ICUReceiver.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Launches the packaged receiver as a child JVM and measures the time from process start until
+ * the first WebSocket frame on <code>/ws/dynamic</code> is accepted and stored, plus the
+ * resident set size at that point. Compares the plain jar with the AOT-processed jar, with and
+ * without the AppCDS archive.
+ * <p>
+ * Build the artifacts first, then run:
+ * <pre>
+ * mvn -Paot package -DskipTests
+ * mvn test -Pbenchmark -Dtest=StartupBenchmarkTest -Dstartup.runs=5
+ * </pre>
+ * Modes whose artifacts are missing are skipped. RSS is read from <code>/proc</code>, so the
+ * benchmark only runs on Linux.
+ */
+@Tag("benchmark")
+class StartupBenchmarkTest {
+
+    private static final Path TARGET = Path.of("target");
+    private static final String JAR = "ICUReceiver-0.0.1-SNAPSHOT.jar";
+    private static final long STARTUP_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final int runs = Integer.getInteger("startup.runs", 5);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void timeToFirstAcceptedWebSocketMessage() throws Exception {
+        assumeTrue(Files.isReadable(Path.of("/proc/self/status")), "RSS is read from /proc");
+        Path jar = TARGET.resolve(JAR);
+        Path cdsJar = TARGET.resolve("cds").resolve(JAR);
+        Path archive = TARGET.resolve("cds").resolve("application.jsa");
+        assumeTrue(Files.exists(jar), "package the application first: " + jar);
+
+        System.out.printf("%-8s %6s %12s %12s %10s%n", "mode", "runs", "p50(ms)", "max(ms)", "rss(MB)");
+        long plain = run("jar", jar);
+        if (Files.exists(cdsJar) && Files.exists(archive)) {
+            run("aot", cdsJar, "-Dspring.aot.enabled=true");
+            long cds = run("aot+cds", cdsJar, "-Dspring.aot.enabled=true",
+                    "-XX:SharedArchiveFile=" + archive.toAbsolutePath());
+
+            assertTrue(cds < plain, "the AOT + AppCDS build should reach its first accepted message sooner");
+        } else {
+            System.out.println("aot, aot+cds skipped: run mvn -Paot package first");
+        }
+    }
+
+    /**
+     * Starts {@link #runs} fresh receivers and returns the median time to first accepted message in
+     * milliseconds.
+     */
+    private long run(String mode, Path jar, String... jvmFlags) throws Exception {
+        long[] millis = new long[runs];
+        long[] rssKb = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            Path directory = Files.createDirectories(root.resolve(mode.replace('+', '-') + "-" + i));
+            long[] sample = startOnce(jar, directory, Arrays.asList(jvmFlags), 1_000 + i);
+            millis[i] = sample[0];
+            rssKb[i] = sample[1];
+        }
+        Arrays.sort(millis);
+        Arrays.sort(rssKb);
+        System.out.printf("%-8s %6d %12d %12d %10.1f%n",
+                mode, runs, millis[runs / 2], millis[runs - 1], rssKb[runs / 2] / 1024.0);
+        return millis[runs / 2];
+    }
+
+    /**
+     * @return the time to first accepted message in milliseconds and the RSS in kB at that moment.
+     */
+    private long[] startOnce(Path jar, Path directory, List<String> jvmFlags, int nationalId) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmFlags);
+        command.addAll(List.of("-jar", jar.toAbsolutePath().toString(),
+                "--server.port=" + port,
+                "--logging.level.root=WARN",
+                "--icu.ingest.reorder.max-lateness=0ms",
+                "--icu.ingest.reorder.flush-interval=5ms"));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(directory.resolve("receiver.log").toFile())
+                .start();
+        try {
+            WebSocket socket = connect(process, port, start);
+            socket.sendText("""
+                    {"nationalId": %d, "heartbeat": 80.0, "pulse": 97.0, "timestamp": "%s"}
+                    """.formatted(nationalId, LocalDateTime.now().withNano(0)), true).join();
+            awaitStored(process, port, nationalId, start);
+            long elapsed = System.nanoTime() - start;
+            long rss = rssKb(process.pid());
+            socket.abort();
+            return new long[]{TimeUnit.NANOSECONDS.toMillis(elapsed), rss};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private WebSocket connect(Process process, int port, long start) throws InterruptedException {
+        URI uri = URI.create("ws://localhost:" + port + "/ws/dynamic");
+        while (true) {
+            try {
+                return client.newWebSocketBuilder().buildAsync(uri, new WebSocket.Listener() {
+                }).join();
+            } catch (CompletionException e) {
+                checkAlive(process, start);
+                TimeUnit.MILLISECONDS.sleep(2);
+            }
+        }
+    }
+
+    private void awaitStored(Process process, int port, int nationalId, long start) throws Exception {
+        HttpRequest latest = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/v1/icu/latest/" + nationalId)).build();
+        while (!client.send(latest, HttpResponse.BodyHandlers.ofString()).body()
+                .contains("\"nationalId\":" + nationalId)) {
+            checkAlive(process, start);
+            TimeUnit.MILLISECONDS.sleep(2);
+        }
+    }
+
+    private static void checkAlive(Process process, long start) {
+        if (!process.isAlive()) {
+            fail("receiver exited with " + process.exitValue() + " before accepting a message");
+        }
+        if (System.nanoTime() - start > STARTUP_TIMEOUT_NANOS) {
+            fail("receiver did not accept a message within 60s");
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        throw new IllegalStateException("no VmRSS for pid " + pid);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.ICUReceiver.benchmark;
+
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.cluster.InProcessSignalBus;
+import com.example.ICUReceiver.configuration.EcgProperties;
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.configuration.TraceProperties;
+import com.example.ICUReceiver.dsp.EcgAnalyzer;
+import com.example.ICUReceiver.feed.ChangeFeed;
+import com.example.ICUReceiver.ingest.IngestPipeline;
+import com.example.ICUReceiver.ingest.SignalValidator;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ICUService;
+import com.example.ICUReceiver.service.StatsService;
+import com.example.ICUReceiver.snapshot.StateSnapshotter;
+import com.example.ICUReceiver.store.SignalSlice;
+import com.example.ICUReceiver.store.SignalStore;
+import com.example.ICUReceiver.trace.IngestTrace;
+import com.example.ICUReceiver.trace.IngestTracer;
+import com.example.ICUReceiver.trace.Stage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures what per-stage tracing costs ingest throughput: the pipeline runs against an
+ * in-memory store with tracing off, with the trace ring only, and with the JFR stage events
+ * enabled by a recording. Rounds alternate between modes and the best round of each is kept.
+ * Run with <code>mvn test -Pbenchmark</code>.
+ */
+@Tag("benchmark")
+class TraceOverheadBenchmarkTest {
+
+    private static final int PRODUCERS = 8;
+    private static final int SIGNALS_PER_PRODUCER = 50_000;
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path root;
+
+    @Test
+    void tracingOverheadOnIngestThroughput() throws Exception {
+        run("warmup", true, false);
+        double off = 0;
+        double ring = 0;
+        double jfr = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            off = Math.max(off, run("off-" + round, false, false));
+            ring = Math.max(ring, run("ring-" + round, true, false));
+            jfr = Math.max(jfr, run("jfr-" + round, true, true));
+        }
+
+        System.out.printf("%-10s %14s %10s%n", "mode", "signals/s", "overhead");
+        System.out.printf("%-10s %14.0f %10s%n", "off", off, "-");
+        System.out.printf("%-10s %14.0f %9.1f%%%n", "ring", ring, 100 * (1 - ring / off));
+        System.out.printf("%-10s %14.0f %9.1f%%%n", "ring+jfr", jfr, 100 * (1 - jfr / off));
+
+        assertTrue(ring >= off * 0.95, "tracing into the ring should cost under 5% of ingest throughput");
+    }
+
+    /**
+     * @return signals persisted per second.
+     */
+    private double run(String name, boolean tracing, boolean jfr) throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IngestProperties properties = new IngestProperties();
+        properties.getReorder().setMaxLateness(Duration.ZERO);
+        properties.getShards().setCount(4);
+        properties.getShards().setEnqueueTimeout(Duration.ofSeconds(30));
+        properties.getValidation().setMaxAge(Duration.ZERO);
+        TraceProperties traceProperties = new TraceProperties();
+        traceProperties.setEnabled(tracing);
+
+        try (ChangeFeed feed = new ChangeFeed(root.resolve(name), 64L << 20, Long.MAX_VALUE, 64, 65_536,
+                meterRegistry);
+             Recording recording = new Recording()) {
+            if (jfr) {
+                recording.enable("com.example.ICUReceiver.IngestStage");
+                recording.setToDisk(false);
+                recording.start();
+            }
+            IngestTracer tracer = new IngestTracer(traceProperties);
+            LatestSignalCache latestCache = new LatestSignalCache(0, 1_000, meterRegistry);
+            IngestPipeline pipeline = new IngestPipeline(new ICUService(new DiscardingStore(), latestCache, meterRegistry),
+                    mock(StatsService.class), new SignalValidator(properties, meterRegistry), feed,
+                    new InProcessSignalBus(), tracer, new EcgAnalyzer(new EcgProperties(), 500, meterRegistry),
+                    latestCache, mock(StateSnapshotter.class), properties, meterRegistry);
+            pipeline.start();
+
+            LocalDateTime base = LocalDateTime.now().withNano(0);
+            long start = System.nanoTime();
+            try (ExecutorService producers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int p = 0; p < PRODUCERS; p++) {
+                    int producer = p;
+                    producers.execute(() -> {
+                        for (int i = 0; i < SIGNALS_PER_PRODUCER; i++) {
+                            IngestTrace trace = tracer.begin(IngestTrace.Channel.WEBSOCKET);
+                            ICUSignal signal = ICUSignal.builder()
+                                    .nationalId(producer * 1_000 + i % 1_000)
+                                    .heartbeat(80.0)
+                                    .pulse(97.0)
+                                    .timestamp(base.plusNanos(i))
+                                    .build();
+                            trace.mark(Stage.MAP);
+                            pipeline.submit(signal);
+                        }
+                    });
+                }
+            }
+            pipeline.stop();
+            long elapsed = System.nanoTime() - start;
+            return PRODUCERS * SIGNALS_PER_PRODUCER / (elapsed / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    private static final class DiscardingStore implements SignalStore {
+
+        @Override
+        public void append(List<ICUSignal> batch) {
+        }
+
+        @Override
+        public SignalSlice range(int nationalId, LocalDateTime start, LocalDateTime end, long cursor, int limit) {
+            return new SignalSlice(List.of(), cursor, 0);
+        }
+    }
+}
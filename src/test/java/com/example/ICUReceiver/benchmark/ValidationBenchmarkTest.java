@@ -0,0 +1,76 @@
+package com.example.ICUReceiver.benchmark;
+
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.dto.ICUSignalDto;
+import com.example.ICUReceiver.ingest.SignalValidator;
+import com.example.ICUReceiver.model.ICUSignal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures what {@link SignalValidator} adds per message, next to the JSON parse every message
+ * already pays on the REST and WebSocket paths. Run with <code>mvn test -Pbenchmark</code>.
+ */
+@Tag("benchmark")
+class ValidationBenchmarkTest {
+
+    private static final int[] ECG_SAMPLES = {0, 500, 2500};
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 50_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SignalValidator validator = new SignalValidator(new IngestProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void validationCostPerMessage() {
+        System.out.printf("%-8s %12s %14s %8s%n", "samples", "parse(us)", "validate(us)", "share");
+
+        for (int samples : ECG_SAMPLES) {
+            String payload = objectMapper.writeValueAsString(signal(samples));
+            ICUSignal signal = ICUSignal.fromPayload(objectMapper.readValue(payload, ICUSignalDto.class));
+
+            int accepted = 0;
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                objectMapper.readValue(payload, ICUSignalDto.class);
+                accepted += validator.check(signal) == null ? 1 : 0;
+            }
+
+            long t0 = System.nanoTime();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                accepted += objectMapper.readValue(payload, ICUSignalDto.class).getNationalId() > 0 ? 1 : 0;
+            }
+            long t1 = System.nanoTime();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                accepted += validator.check(signal) == null ? 1 : 0;
+            }
+            long t2 = System.nanoTime();
+
+            double parseMicros = (t1 - t0) / 1_000.0 / MEASURED_ROUNDS;
+            double validateMicros = (t2 - t1) / 1_000.0 / MEASURED_ROUNDS;
+            System.out.printf("%-8d %12.3f %14.3f %7.1f%%%n",
+                    samples, parseMicros, validateMicros, 100 * validateMicros / parseMicros);
+
+            assertTrue(accepted > 0);
+            assertTrue(validateMicros < parseMicros / 10, "validation should cost a fraction of parsing");
+        }
+    }
+
+    private static ICUSignalDto signal(int samples) {
+        Random random = new Random(42);
+        List<Double> ecg = samples == 0 ? null : new ArrayList<>(samples);
+        for (int i = 0; i < samples; i++) {
+            double t = i / 500.0;
+            ecg.add(Math.sin(2 * Math.PI * 1.2 * t) + 0.05 * random.nextGaussian());
+        }
+        return new ICUSignalDto(123456, 82.0, 97.0, LocalDateTime.now().withNano(0), ecg);
+    }
+}
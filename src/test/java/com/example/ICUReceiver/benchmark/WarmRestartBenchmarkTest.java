@@ -0,0 +1,160 @@
+package com.example.ICUReceiver.benchmark;
+
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.configuration.SnapshotProperties;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ICUService;
+import com.example.ICUReceiver.snapshot.StateSnapshot;
+import com.example.ICUReceiver.snapshot.StateSnapshotter;
+import com.example.ICUReceiver.store.SignalSlice;
+import com.example.ICUReceiver.store.DeferredWaveformStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures how long a restarted node needs until every patient's latest signals are served from
+ * memory: warm, by restoring a state snapshot, and cold, by refilling the cache through store
+ * queries with a fixed cost each. Run with <code>mvn test -Pbenchmark</code>.
+ */
+@Tag("benchmark")
+class WarmRestartBenchmarkTest {
+
+    private static final int PATIENTS = 10_000;
+    private static final int LATEST = 50;
+    private static final int SEEN = 128;
+    private static final int READERS = 8;
+    private static final long QUERY_MILLIS = 2;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 10, 0);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void warmRestoreVersusColdRefill() throws Exception {
+        SnapshotProperties properties = new SnapshotProperties();
+        properties.setFile(root.resolve("state.snapshot").toString());
+
+        LatestSignalCache before = new LatestSignalCache(LATEST, PATIENTS, new SimpleMeterRegistry());
+        List<StateSnapshot.PatientIngest> ingest = new ArrayList<>(PATIENTS);
+        for (int p = 1; p <= PATIENTS; p++) {
+            before.seed(p, before.version(p), newest(p), LATEST * 10);
+            long[] seen = new long[SEEN];
+            for (int i = 0; i < SEEN; i++) {
+                seen[i] = i * 1_000_000L;
+            }
+            ingest.add(new StateSnapshot.PatientIngest(p, seen, List.of()));
+        }
+        StateSnapshotter writer = new StateSnapshotter(properties, before, new SimpleMeterRegistry());
+        writer.attachIngest(() -> CompletableFuture.completedFuture(ingest));
+        long writeStart = System.nanoTime();
+        long bytes = writer.snapshot();
+        double writeMillis = (System.nanoTime() - writeStart) / 1e6;
+
+        System.out.printf("%-6s %12s %12s %12s %10s %12s%n",
+                "mode", "restore(ms)", "serve(ms)", "total(ms)", "queries", "bytes");
+
+        QueryCostStore warmStore = new QueryCostStore();
+        LatestSignalCache warmCache = new LatestSignalCache(LATEST, PATIENTS, new SimpleMeterRegistry());
+        long restoreStart = System.nanoTime();
+        StateSnapshotter restored = new StateSnapshotter(properties, warmCache, new SimpleMeterRegistry());
+        double restoreMillis = (System.nanoTime() - restoreStart) / 1e6;
+        double warmServe = serveAll(new ICUService(warmStore, warmCache, new SimpleMeterRegistry()));
+        System.out.printf("%-6s %12.1f %12.1f %12.1f %10d %12d%n", "warm", restoreMillis, warmServe,
+                restoreMillis + warmServe, warmStore.queries.sum(), bytes);
+
+        QueryCostStore coldStore = new QueryCostStore();
+        LatestSignalCache coldCache = new LatestSignalCache(LATEST, PATIENTS, new SimpleMeterRegistry());
+        double coldServe = serveAll(new ICUService(coldStore, coldCache, new SimpleMeterRegistry()));
+        System.out.printf("%-6s %12.1f %12.1f %12.1f %10d %12s%n", "cold", 0.0, coldServe,
+                coldServe, coldStore.queries.sum(), "-");
+        System.out.printf("snapshot write %.1f ms for %d patients x %d signals%n", writeMillis, PATIENTS, LATEST);
+
+        assertEquals(PATIENTS, restored.takeRestoredIngest().size());
+        assertEquals(0, warmStore.queries.sum(), "a warm node should answer every patient from memory");
+        assertTrue(restoreMillis + warmServe < coldServe, "restoring the snapshot should beat refilling the cache");
+    }
+
+    /**
+     * Reads the first page of every patient's latest signals with concurrent readers.
+     *
+     * @return Elapsed milliseconds.
+     */
+    private static double serveAll(ICUService service) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService readers = Executors.newFixedThreadPool(READERS)) {
+            for (int r = 0; r < READERS; r++) {
+                readers.execute(() -> {
+                    for (int p = next.incrementAndGet(); p <= PATIENTS; p = next.incrementAndGet()) {
+                        service.findLatest(p, 0, 20);
+                    }
+                });
+            }
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static List<ICUSignal> newest(int nationalId) {
+        List<ICUSignal> signals = new ArrayList<>(LATEST);
+        for (int i = LATEST; i > 0; i--) {
+            signals.add(ICUSignal.builder()
+                    .id(nationalId * LATEST + i)
+                    .nationalId(nationalId)
+                    .heartbeat(80.0)
+                    .pulse(97.0)
+                    .timestamp(BASE.plusSeconds(i))
+                    .build());
+        }
+        return signals;
+    }
+
+    /**
+     * Answers range queries with generated signals and pays a fixed cost per query.
+     */
+    private static final class QueryCostStore implements DeferredWaveformStore {
+
+        private final LongAdder queries = new LongAdder();
+
+        @Override
+        public void append(List<ICUSignal> batch) {
+        }
+
+        @Override
+        public void attachWaveforms(List<ICUSignal> signals) {
+        }
+
+        @Override
+        public void readWaveforms(List<ICUSignal> signals) {
+        }
+
+        @Override
+        public ICUSignal find(int signalId) {
+            return null;
+        }
+
+        @Override
+        public SignalSlice range(int nationalId, LocalDateTime start, LocalDateTime end, long cursor, int limit) {
+            queries.increment();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(QUERY_MILLIS));
+            List<ICUSignal> signals = newest(nationalId);
+            return new SignalSlice(signals.subList(0, Math.min(limit, signals.size())), limit, LATEST * 10);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.ICUReceiver.cache;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.WaveformRef;
+import com.example.ICUReceiver.snapshot.StateSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatestSignalCacheTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 10, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LatestSignalCache cache = new LatestSignalCache(3, 1_000, meterRegistry);
+
+    @Test
+    void testRead_missesUntilSeeded() {
+        assertNull(cache.read(1, 0, 3));
+
+        assertTrue(cache.seed(1, cache.version(1), List.of(signal(2, 2), signal(1, 1)), 2));
+
+        LatestSignalCache.Slice slice = cache.read(1, 0, 3);
+        assertEquals(List.of(2, 1), ids(slice.signals()));
+        assertEquals(2, slice.total());
+        assertEquals(1.0, meterRegistry.counter("icu.cache.latest.requests", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("icu.cache.latest.requests", "result", "miss").count());
+    }
+
+    @Test
+    void testSeed_isDiscardedWhenSignalsWereRecordedMeanwhile() {
+        long version = cache.version(1);
+
+        cache.record(List.of(signal(3, 3)));
+
+        assertFalse(cache.seed(1, version, List.of(signal(2, 2)), 2));
+        assertNull(cache.read(1, 0, 1));
+        assertTrue(cache.seed(1, cache.version(1), List.of(signal(3, 3), signal(2, 2)), 3));
+    }
+
+    @Test
+    void testSeed_keepsNoEntryForPatientWithoutSignals() {
+        assertFalse(cache.seed(1, cache.version(1), List.of(), 0));
+
+        cache.record(List.of(signal(1, 1)));
+
+        assertEquals(0, cache.getPatientCount());
+        assertNull(cache.read(1, 0, 1));
+    }
+
+    @Test
+    void testSeed_evictsPatientReadLeastRecentlyBeyondMaxPatients() {
+        LatestSignalCache bounded = new LatestSignalCache(3, 2, meterRegistry);
+        bounded.seed(1, bounded.version(1), List.of(signal(1, 1)), 1);
+        bounded.seed(2, bounded.version(2), List.of(signal(2, 2)), 1);
+        bounded.read(1, 0, 1);
+
+        assertTrue(bounded.seed(3, bounded.version(3), List.of(signal(3, 3)), 1));
+
+        assertEquals(2, bounded.getPatientCount());
+        assertNotNull(bounded.read(1, 0, 1));
+        assertNull(bounded.read(2, 0, 1));
+        assertNotNull(bounded.read(3, 0, 1));
+        assertEquals(1.0, meterRegistry.counter("icu.cache.latest.evicted").count());
+    }
+
+    @Test
+    void testRecord_keepsNewestFirstAndCountsEverySignal() {
+        cache.seed(1, cache.version(1), List.of(signal(2, 20), signal(1, 10)), 5);
+
+        cache.record(List.of(signal(4, 40), signal(3, 30), signal(0, 5)));
+
+        LatestSignalCache.Slice slice = cache.read(1, 0, 3);
+        assertEquals(List.of(4, 3, 2), ids(slice.signals()));
+        assertEquals(8, slice.total());
+        // The fourth newest signal is only in the store.
+        assertNull(cache.read(1, 2, 2));
+    }
+
+    @Test
+    void testRead_answersAnyPageWhenEverySignalIsCached() {
+        cache.seed(1, cache.version(1), List.of(signal(2, 2), signal(1, 1)), 2);
+
+        LatestSignalCache.Slice beyond = cache.read(1, 2, 5);
+
+        assertTrue(beyond.signals().isEmpty());
+        assertEquals(2, beyond.total());
+    }
+
+    @Test
+    void testRead_returnsCopiesWithoutSamples() {
+        ICUSignal stored = signal(1, 1);
+        stored.setEcgList(List.of(0.1, 0.2));
+        cache.seed(1, cache.version(1), List.of(stored), 1);
+
+        ICUSignal read = cache.read(1, 0, 1).signals().getFirst();
+        read.setEcgList(List.of(0.3));
+
+        assertNull(cache.read(1, 0, 1).signals().getFirst().getEcgList());
+    }
+
+    @Test
+    void testAttachWaveforms_setsReferenceOfCachedSignal() {
+        cache.seed(1, cache.version(1), List.of(signal(1, 1)), 1);
+        ICUSignal withWaveform = signal(1, 1);
+        withWaveform.setEcgRef(new WaveformRef(0, 100L, 500));
+
+        cache.attachWaveforms(List.of(withWaveform));
+
+        assertEquals(new WaveformRef(0, 100L, 500), cache.read(1, 0, 1).signals().getFirst().getEcgRef());
+    }
+
+    @Test
+    void testInvalidate_requiresNewSeed() {
+        cache.seed(1, cache.version(1), List.of(signal(1, 1)), 1);
+
+        cache.invalidate(1);
+
+        assertNull(cache.read(1, 0, 1));
+    }
+
+    @Test
+    void testCapture_restoresIntoEmptyCache() {
+        cache.seed(1, cache.version(1), List.of(signal(2, 2), signal(1, 1)), 7);
+        cache.version(2);
+
+        List<StateSnapshot.PatientLatest> captured = cache.capture();
+        LatestSignalCache restored = new LatestSignalCache(3, 1_000, new SimpleMeterRegistry());
+        restored.restore(captured);
+
+        assertEquals(1, captured.size());
+        LatestSignalCache.Slice slice = restored.read(1, 0, 2);
+        assertEquals(List.of(2, 1), ids(slice.signals()));
+        assertEquals(7, slice.total());
+    }
+
+    @Test
+    void testDisabledCache_neverAnswers() {
+        LatestSignalCache disabled = new LatestSignalCache(0, 1_000, meterRegistry);
+        disabled.seed(1, disabled.version(1), List.of(signal(1, 1)), 1);
+
+        assertFalse(disabled.covers(0, 1));
+        assertNull(disabled.read(1, 0, 1));
+    }
+
+    private static ICUSignal signal(int id, int second) {
+        return ICUSignal.builder()
+                .id(id)
+                .nationalId(1)
+                .heartbeat(80.0)
+                .pulse(95.0)
+                .timestamp(BASE.plusSeconds(second))
+                .build();
+    }
+
+    private static List<Integer> ids(List<ICUSignal> signals) {
+        return signals.stream().map(ICUSignal::getId).toList();
+    }
+}
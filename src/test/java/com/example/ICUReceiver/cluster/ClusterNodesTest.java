@@ -0,0 +1,219 @@
+package com.example.ICUReceiver.cluster;
+
+import com.example.ICUReceiver.IcuReceiverApplication;
+import com.example.ICUReceiver.repository.ICURepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs three receiver nodes side by side in this JVM, each with its own database and waveform
+ * directory, sharing the in-process signal bus.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClusterNodesTest {
+
+    private static final List<String> NODE_IDS = List.of("node-1", "node-2", "node-3");
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final Map<String, ConfigurableApplicationContext> nodes = new LinkedHashMap<>();
+    private final Map<String, Integer> ports = new LinkedHashMap<>();
+    private ConsistentHashRing<String> ring;
+
+    @BeforeAll
+    void startNodes() throws IOException {
+        Map<String, String> members = new LinkedHashMap<>();
+        for (String id : NODE_IDS) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                ports.put(id, socket.getLocalPort());
+            }
+            members.put(id, id);
+        }
+        ring = new ConsistentHashRing<>(members, 128);
+
+        String run = Long.toString(System.nanoTime());
+        for (String id : NODE_IDS) {
+            List<String> properties = new ArrayList<>(List.of(
+                    "server.port=" + ports.get(id),
+                    "logging.level.com.example.ICUReceiver=WARN",
+                    "spring.datasource.url=jdbc:h2:mem:cluster-" + id + "-" + run,
+                    "icu.waveform.directory=./target/cluster-" + run + "/" + id,
+                    "icu.feed.directory=./target/cluster-" + run + "/" + id + "-feed",
+                    "icu.ingest.reorder.max-lateness=0ms",
+                    "icu.ingest.reorder.flush-interval=20ms",
+                    "icu.cluster.enabled=true",
+                    "icu.cluster.node-id=" + id,
+                    "icu.cluster.topic=cluster-test-" + run,
+                    "icu.cluster.forward-timeout=1s",
+                    "icu.cluster.secret=cluster-test-" + run));
+            for (int i = 0; i < NODE_IDS.size(); i++) {
+                properties.add("icu.cluster.members[" + i + "].id=" + NODE_IDS.get(i));
+                properties.add("icu.cluster.members[" + i + "].url=http://localhost:" + ports.get(NODE_IDS.get(i)));
+            }
+            nodes.put(id, new SpringApplicationBuilder(IcuReceiverApplication.class)
+                    .properties(properties.toArray(String[]::new))
+                    .run());
+        }
+    }
+
+    @AfterAll
+    void stopNodes() {
+        nodes.values().forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void testSignalIsStoredOnOwnerAndVisibleFromEveryNode() throws Exception {
+        int nationalId = patientOwnedBy("node-2");
+        BlockingQueue<String> liveFrames = new LinkedBlockingQueue<>();
+        WebSocket viewer = client.newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + ports.get("node-3") + "/ws/live?nationalId=" + nationalId),
+                        new CollectingListener(liveFrames))
+                .join();
+
+        assertEquals(200, upload("node-1", nationalId).statusCode());
+
+        String frame = liveFrames.poll(10, TimeUnit.SECONDS);
+        assertNotNull(frame, "viewer on node-3 should see the signal ingested on node-2");
+        assertTrue(frame.contains("\"nationalId\":" + nationalId));
+        assertEquals(1, stored("node-2", nationalId));
+        assertEquals(0, stored("node-1", nationalId));
+        assertEquals(0, stored("node-3", nationalId));
+
+        HttpResponse<String> latest = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + ports.get("node-3")
+                        + "/api/v1/icu/latest/" + nationalId)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, latest.statusCode());
+        assertTrue(latest.body().contains("\"nationalId\":" + nationalId), latest.body());
+
+        viewer.sendClose(WebSocket.NORMAL_CLOSURE, "done").join();
+    }
+
+    @Test
+    void testEcgIsServedForSignalIdReturnedByLatest() throws Exception {
+        int nationalId = patientOwnedBy("node-2");
+        assertEquals(200, upload("node-1", nationalId, "[0.1, 0.2, 0.3, 0.4]").statusCode());
+
+        String[] signalId = new String[1];
+        await(() -> {
+            Matcher id = ID.matcher(get("node-1", "/api/v1/icu/latest/" + nationalId).body());
+            signalId[0] = id.find() ? id.group(1) : null;
+            return signalId[0] != null;
+        });
+        String ecgPath = "/api/v1/icu/ecg/" + signalId[0] + "?nationalId=";
+        await(() -> get("node-1", ecgPath + nationalId).statusCode() == 200);
+
+        HttpResponse<String> ecg = get("node-1", ecgPath + nationalId);
+        assertEquals("4", ecg.headers().firstValue("X-Sample-Count").orElse(null));
+        assertEquals(404, get("node-1", ecgPath + patientOwnedBy("node-2", nationalId)).statusCode());
+    }
+
+    @Test
+    void testEcgRequestWithoutNationalIdIsRejected() throws Exception {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + ports.get("node-1") + "/api/v1/icu/ecg/1")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("nationalId"), response.body());
+    }
+
+    @Test
+    void testSignalsAreRefusedWhileOwnerIsDown() throws Exception {
+        int nationalId = patientOwnedBy("node-3");
+        nodes.remove("node-3").close();
+
+        assertEquals(503, upload("node-1", nationalId).statusCode());
+        assertEquals(503, upload("node-2", nationalId).statusCode());
+
+        assertEquals(0, stored("node-1", nationalId));
+        assertEquals(0, stored("node-2", nationalId));
+    }
+
+    private HttpResponse<String> upload(String node, int nationalId) throws Exception {
+        return upload(node, nationalId, null);
+    }
+
+    private HttpResponse<String> upload(String node, int nationalId, String ecgList) throws Exception {
+        String body = """
+                {"nationalId": %d, "heartbeat": 80.0, "pulse": 97.0, "timestamp": "%s", "ecgList": %s}
+                """.formatted(nationalId, LocalDateTime.now().withNano(0), ecgList);
+        return client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + ports.get(node) + "/api/v1/icu/upload"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String node, String path) {
+        try {
+            return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + ports.get(node) + path)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } catch (IOException | InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long stored(String node, int nationalId) {
+        return nodes.get(node).getBean(ICURepository.class)
+                .findByNationalIdOrderByTimestampDesc(nationalId, PageRequest.of(0, 10))
+                .getTotalElements();
+    }
+
+    private int patientOwnedBy(String node) {
+        return patientOwnedBy(node, 0);
+    }
+
+    private int patientOwnedBy(String node, int after) {
+        for (int id = after + 1; ; id++) {
+            if (ring.ownerOf(id).equals(node)) {
+                return id;
+            }
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 10s");
+            Thread.sleep(50);
+        }
+    }
+
+    private record CollectingListener(BlockingQueue<String> frames) implements WebSocket.Listener {
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            frames.add(data.toString());
+            webSocket.request(1);
+            return null;
+        }
+    }
+}
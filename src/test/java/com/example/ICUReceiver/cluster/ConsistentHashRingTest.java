@@ -0,0 +1,82 @@
+package com.example.ICUReceiver.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int PATIENTS = 30_000;
+
+    @Test
+    void testOwnerOf_isIdenticalForRingsBuiltFromSameMembers() {
+        ConsistentHashRing<String> first = ring("node-1", "node-2", "node-3");
+        ConsistentHashRing<String> second = ring("node-3", "node-1", "node-2");
+
+        for (int id = 1; id <= 1_000; id++) {
+            assertEquals(first.ownerOf(id), second.ownerOf(id));
+        }
+    }
+
+    @Test
+    void testOwnerOf_spreadsPatientsEvenly() {
+        ConsistentHashRing<String> ring = ring("node-1", "node-2", "node-3");
+        Map<String, Integer> counts = new HashMap<>();
+        for (int id = 1; id <= PATIENTS; id++) {
+            counts.merge(ring.ownerOf(id), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count ->
+                assertTrue(count > PATIENTS / 3 * 0.8 && count < PATIENTS / 3 * 1.2, "node load " + count));
+    }
+
+    @Test
+    void testOwnerOf_addingNodeOnlyMovesPatientsToIt() {
+        ConsistentHashRing<String> before = ring("node-1", "node-2", "node-3");
+        ConsistentHashRing<String> after = ring("node-1", "node-2", "node-3", "node-4");
+
+        int moved = 0;
+        for (int id = 1; id <= PATIENTS; id++) {
+            String owner = after.ownerOf(id);
+            if (!owner.equals(before.ownerOf(id))) {
+                assertEquals("node-4", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > PATIENTS / 4 * 0.8 && moved < PATIENTS / 4 * 1.2, "moved " + moved);
+    }
+
+    @Test
+    void testOwnerOf_skipsUnavailableNodeForItsPatientsOnly() {
+        ConsistentHashRing<String> ring = ring("node-1", "node-2", "node-3");
+
+        for (int id = 1; id <= 1_000; id++) {
+            String owner = ring.ownerOf(id);
+            String fallback = ring.ownerOf(id, node -> !node.equals("node-2"));
+            if (owner.equals("node-2")) {
+                assertNotEquals("node-2", fallback);
+            } else {
+                assertEquals(owner, fallback);
+            }
+        }
+        assertNull(ring.ownerOf(1, node -> false));
+    }
+
+    @Test
+    void testConstructor_rejectsEmptyMembership() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(Map.of(), 16));
+    }
+
+    private static ConsistentHashRing<String> ring(String... ids) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (String id : ids) {
+            nodes.put(id, id);
+        }
+        return new ConsistentHashRing<>(nodes, 128);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.ICUReceiver.cluster;
+
+import com.example.ICUReceiver.configuration.ClusterProperties;
+import com.example.ICUReceiver.configuration.ClusterProperties.Member;
+import com.example.ICUReceiver.dto.ICUSignalDto;
+import com.example.ICUReceiver.exception.ClusterForwardingException;
+import com.example.ICUReceiver.exception.IngestOverloadedException;
+import com.example.ICUReceiver.exception.InvalidICUSignalException;
+import com.example.ICUReceiver.ingest.IngestPipeline;
+import com.example.ICUReceiver.ingest.SignalValidator;
+import com.example.ICUReceiver.mapper.ICUSignalMapper;
+import com.example.ICUReceiver.model.ICUSignal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SignalRouterTest {
+
+    @Mock
+    private IngestPipeline ingestPipeline;
+
+    @Mock
+    private ClusterForwarder forwarder;
+
+    @Mock
+    private SignalValidator validator;
+
+    private ClusterMembership membership;
+    private SignalRouter router;
+
+    @BeforeEach
+    void setUp() {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setNodeId("node-1");
+        properties.setSecret("s3cret");
+        properties.setMembers(List.of(
+                new Member("node-1", "http://localhost:1"),
+                new Member("node-2", "http://localhost:2")));
+        membership = new ClusterMembership(properties);
+        router = new SignalRouter(ingestPipeline, membership, forwarder, validator, new ICUSignalMapper());
+    }
+
+    @Test
+    void testSubmit_ingestsLocallyOwnedPatient() {
+        ICUSignal signal = signal(patientOwnedBy("node-1"));
+
+        router.submit(signal, false);
+
+        verify(ingestPipeline).submit(signal);
+        verifyNoInteractions(forwarder);
+    }
+
+    @Test
+    void testSubmit_validatesAndForwardsRemotelyOwnedPatient() {
+        ICUSignal signal = signal(patientOwnedBy("node-2"));
+
+        router.submit(signal, false);
+
+        verify(validator).validate(signal);
+        verify(forwarder).forwardSignal(eq(membership.ownerOf(signal.getNationalId())), any(ICUSignalDto.class));
+        verifyNoInteractions(ingestPipeline);
+    }
+
+    @Test
+    void testIsForwardedByMember_requiresConfiguredMemberAndSecret() {
+        assertTrue(membership.isForwardedByMember("node-2", "s3cret"));
+        assertFalse(membership.isForwardedByMember("node-9", "s3cret"));
+        assertFalse(membership.isForwardedByMember("node-2", "guess"));
+        assertFalse(membership.isForwardedByMember("node-2", null));
+
+        ClusterProperties noSecret = new ClusterProperties();
+        noSecret.setMembers(List.of(new Member("node-1", "http://localhost:1")));
+        noSecret.setEnabled(true);
+        assertFalse(new ClusterMembership(noSecret).isForwardedByMember("node-1", ""));
+    }
+
+    @Test
+    void testSubmit_doesNotForwardInvalidSignal() {
+        ICUSignal signal = signal(patientOwnedBy("node-2"));
+        doThrow(new InvalidICUSignalException("bad")).when(validator).validate(signal);
+
+        assertThrows(InvalidICUSignalException.class, () -> router.submit(signal, false));
+
+        verifyNoInteractions(forwarder, ingestPipeline);
+    }
+
+    @Test
+    void testSubmit_ingestsForwardedSignalRegardlessOfOwner() {
+        ICUSignal signal = signal(patientOwnedBy("node-2"));
+
+        router.submit(signal, true);
+
+        verify(ingestPipeline).submit(signal);
+        verifyNoInteractions(forwarder);
+    }
+
+    @Test
+    void testSubmit_refusesSignalWhenOwnerIsUnreachable() {
+        ICUSignal signal = signal(patientOwnedBy("node-2"));
+        doThrow(new ClusterForwardingException("down", null)).when(forwarder).forwardSignal(any(), any());
+
+        assertThrows(IngestOverloadedException.class, () -> router.submit(signal, false));
+        assertThrows(IngestOverloadedException.class, () -> router.submit(signal, false));
+
+        verify(forwarder, times(1)).forwardSignal(any(), any());
+        verifyNoInteractions(ingestPipeline);
+        Member owner = membership.ownerOf(signal.getNationalId());
+        assertEquals("node-2", owner.getId());
+        assertTrue(membership.isSuspected(owner));
+    }
+
+    private int patientOwnedBy(String nodeId) {
+        for (int id = 1; ; id++) {
+            if (membership.ownerOf(id).getId().equals(nodeId)) {
+                return id;
+            }
+        }
+    }
+
+    private static ICUSignal signal(int nationalId) {
+        return ICUSignal.builder().nationalId(nationalId).heartbeat(80).pulse(97).build();
+    }
+}
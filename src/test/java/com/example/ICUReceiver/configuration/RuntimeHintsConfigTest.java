@@ -0,0 +1,43 @@
+package com.example.ICUReceiver.configuration;
+
+import com.example.ICUReceiver.dto.ApiResponse;
+import com.example.ICUReceiver.dto.FeedRecordDto;
+import com.example.ICUReceiver.dto.ICUSignalDto;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.WaveformRef;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeHintsConfigTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new RuntimeHintsConfig.IcuRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testRegisterHints_coversPayloadsBoundByJackson() throws Exception {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ICUSignalDto.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(ICUSignalDto.class.getMethod("setEcgList", List.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(FeedRecordDto.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ApiResponse.class).test(hints));
+    }
+
+    @Test
+    void testRegisterHints_coversEntities() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ICUSignal.class)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS)
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(WaveformRef.class).test(hints));
+    }
+}
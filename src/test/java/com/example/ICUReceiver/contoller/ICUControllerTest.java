@@ -1,21 +1,35 @@
 package com.example.ICUReceiver.contoller;
 
 import com.example.ICUReceiver.controller.ICUController;
+import com.example.ICUReceiver.cluster.ClusterForwarder;
+import com.example.ICUReceiver.cluster.ClusterMembership;
+import com.example.ICUReceiver.cluster.SignalRouter;
+import com.example.ICUReceiver.configuration.TraceProperties;
 import com.example.ICUReceiver.dto.ApiResponse;
 import com.example.ICUReceiver.dto.ICUSignalDto;
+import com.example.ICUReceiver.dto.PatientStatsDto;
+import com.example.ICUReceiver.exception.RateLimitedException;
+import com.example.ICUReceiver.limit.IngestRateLimiter;
 import com.example.ICUReceiver.mapper.ICUSignalMapper;
 import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.RollupGranularity;
 import com.example.ICUReceiver.service.ICUService;
+import com.example.ICUReceiver.service.StatsService;
+import com.example.ICUReceiver.trace.IngestTrace;
+import com.example.ICUReceiver.trace.IngestTracer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -32,25 +46,103 @@ class ICUControllerTest {
     @Mock
     private ICUSignalMapper mapper;
 
+    @Mock
+    private SignalRouter signalRouter;
+
+    @Mock
+    private StatsService statsService;
+
+    @Mock
+    private IngestRateLimiter rateLimiter;
+
+    @Mock
+    private ClusterMembership membership;
+
+    @Spy
+    private IngestTracer tracer = new IngestTracer(new TraceProperties());
+
     @InjectMocks
     private ICUController controller;
 
     @Test
-    void testReceive_callsServiceAndReturnsSuccess() {
+    void testReceive_submitsToSignalRouterAndReturnsSuccess() {
         ICUSignalDto dto = new ICUSignalDto();
         ICUSignal entity = new ICUSignal();
         when(mapper.toEntity(dto)).thenReturn(entity);
 
-        ResponseEntity<ApiResponse<Void>> response = controller.receive(dto);
+        ResponseEntity<ApiResponse<Void>> response = controller.receive(dto, null, new MockHttpServletRequest());
 
         verify(mapper).toEntity(dto);
-        verify(service).saveSignal(entity);
+        verify(signalRouter).submit(entity, false);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals("Data received successfully", response.getBody().getMessage());
         assertNull(response.getBody().getData());
     }
 
+    @Test
+    void testReceive_ingestsSignalForwardedByMemberLocally() {
+        ICUSignalDto dto = new ICUSignalDto();
+        ICUSignal entity = new ICUSignal();
+        when(mapper.toEntity(dto)).thenReturn(entity);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(ClusterForwarder.CLUSTER_SECRET, "s3cret");
+        when(membership.isForwardedByMember("node-2", "s3cret")).thenReturn(true);
+
+        controller.receive(dto, "node-2", request);
+
+        verify(signalRouter).submit(entity, true);
+        verifyNoInteractions(rateLimiter);
+    }
+
+    @Test
+    void testReceive_routesAndLimitsSignalWithUntrustedForwardingHeader() {
+        ICUSignalDto dto = new ICUSignalDto();
+        dto.setNationalId(7);
+        ICUSignal entity = new ICUSignal();
+        when(mapper.toEntity(dto)).thenReturn(entity);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.9");
+        when(membership.isForwardedByMember("node-2", null)).thenReturn(false);
+        when(rateLimiter.clientKey(null, null, "10.0.0.9")).thenReturn("address:10.0.0.9");
+
+        controller.receive(dto, "node-2", request);
+
+        verify(rateLimiter).acquire(IngestTrace.Channel.REST, "address:10.0.0.9", 7);
+        verify(signalRouter).submit(entity, false);
+    }
+
+    @Test
+    void testReceive_limitsByPrincipalClientIdAndRemoteAddress() {
+        ICUSignalDto dto = new ICUSignalDto();
+        dto.setNationalId(7);
+        MockHttpServletRequest gateway = new MockHttpServletRequest();
+        gateway.setRemoteAddr("10.0.0.2");
+        gateway.addHeader(ICUController.CLIENT_ID, "ward-3");
+        MockHttpServletRequest authenticated = new MockHttpServletRequest();
+        authenticated.setRemoteAddr("10.0.0.9");
+        authenticated.setUserPrincipal(() -> "monitor-12");
+        when(rateLimiter.clientKey(null, "ward-3", "10.0.0.2")).thenReturn("client:ward-3");
+        when(rateLimiter.clientKey("monitor-12", null, "10.0.0.9")).thenReturn("principal:monitor-12");
+
+        controller.receive(dto, null, gateway);
+        controller.receive(dto, null, authenticated);
+
+        verify(rateLimiter).acquire(IngestTrace.Channel.REST, "client:ward-3", 7);
+        verify(rateLimiter).acquire(IngestTrace.Channel.REST, "principal:monitor-12", 7);
+    }
+
+    @Test
+    void testReceive_rateLimitedSignalIsNotSubmitted() {
+        ICUSignalDto dto = new ICUSignalDto();
+        doThrow(new RateLimitedException("Patient 0 exceeded 10.0 signals/s", IngestRateLimiter.PATIENT, 0,
+                Duration.ofMillis(100))).when(rateLimiter).acquire(any(), any(), anyInt());
+
+        assertThrows(RateLimitedException.class, () -> controller.receive(dto, null, new MockHttpServletRequest()));
+
+        verifyNoInteractions(mapper, signalRouter);
+    }
+
     @Test
     void testFindByTimeRange_callsServiceAndMapper() {
         int nationalId = 1;
@@ -91,4 +183,18 @@ class ICUControllerTest {
         assertNotNull(response.getBody().getData());
         assertEquals(servicePage.getContent().size(), response.getBody().getData().getContent().size());
     }
+
+    @Test
+    void testFindStats_returnsRollupsFromStatsService() {
+        PatientStatsDto stats = new PatientStatsDto();
+        when(statsService.findStats(1, RollupGranularity.HOUR, null, null)).thenReturn(stats);
+
+        ResponseEntity<ApiResponse<PatientStatsDto>> response =
+                controller.findStats(1, RollupGranularity.HOUR, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("Fetched ICU signal statistics", response.getBody().getMessage());
+        assertSame(stats, response.getBody().getData());
+    }
 }
@@ -0,0 +1,138 @@
+package com.example.ICUReceiver.dsp;
+
+import com.example.ICUReceiver.configuration.EcgProperties;
+import com.example.ICUReceiver.model.ICUSignal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EcgAnalyzerTest {
+
+    private static final int RATE = 500;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 10, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EcgProperties properties;
+    private EcgAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EcgProperties();
+        properties.setParallelism(4);
+        analyzer = new EcgAnalyzer(properties, RATE, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        analyzer.close();
+    }
+
+    @Test
+    void testAnalyze_measuresEachPatientFromItsOwnStream() {
+        double[] heartRates = {55, 70, 90, 130};
+        SyntheticEcg[] streams = new SyntheticEcg[heartRates.length];
+        for (int p = 0; p < heartRates.length; p++) {
+            streams[p] = new SyntheticEcg(RATE, heartRates[p], 0.02, p);
+        }
+
+        List<ICUSignal> last = List.of();
+        for (int second = 0; second < 8; second++) {
+            List<ICUSignal> batch = new ArrayList<>();
+            for (int p = 0; p < heartRates.length; p++) {
+                batch.add(signal(p, BASE.plusSeconds(second), streams[p].next(RATE)));
+            }
+            analyzer.analyze(batch);
+            last = batch;
+        }
+
+        for (int p = 0; p < heartRates.length; p++) {
+            assertEquals(heartRates[p], last.get(p).getEcgFeatures().getHeartRate(), 2.0);
+        }
+        assertEquals(heartRates.length, analyzer.getStreamCount());
+        assertEquals(32.0, meterRegistry.counter("icu.ecg.signals").count());
+        assertEquals(32.0 * RATE, meterRegistry.counter("icu.ecg.samples").count());
+        assertEquals(0.0, meterRegistry.counter("icu.ecg.resets").count());
+    }
+
+    @Test
+    void testAnalyze_skipsSignalsWithoutSamples() {
+        ICUSignal vitals = signal(1, BASE, null);
+        ICUSignal empty = signal(2, BASE, List.of());
+
+        analyzer.analyze(List.of(vitals, empty));
+
+        assertNull(vitals.getEcgFeatures());
+        assertNull(empty.getEcgFeatures());
+        assertEquals(0, analyzer.getStreamCount());
+    }
+
+    @Test
+    void testAnalyze_restartsStreamAfterGap() {
+        SyntheticEcg ecg = new SyntheticEcg(RATE, 72, 0, 1);
+        for (int second = 0; second < 4; second++) {
+            analyzer.analyze(List.of(signal(1, BASE.plusSeconds(second), ecg.next(RATE))));
+        }
+        ICUSignal contiguous = signal(1, BASE.plusSeconds(4), ecg.next(RATE));
+        analyzer.analyze(List.of(contiguous));
+        ICUSignal afterGap = signal(1, BASE.plusSeconds(30), ecg.next(RATE));
+        analyzer.analyze(List.of(afterGap));
+
+        assertTrue(contiguous.getEcgFeatures().getPeakCount() > 0);
+        assertEquals(0, afterGap.getEcgFeatures().getPeakCount());
+        assertEquals(1.0, meterRegistry.counter("icu.ecg.resets").count());
+    }
+
+    @Test
+    void testEvictIdle_dropsStreamsWithoutSignalsForIdleTimeout() {
+        SyntheticEcg ecg = new SyntheticEcg(RATE, 70, 0.02, 0);
+        analyzer.analyze(List.of(signal(1, BASE, ecg.next(RATE)), signal(2, BASE, ecg.next(RATE))));
+        long now = System.nanoTime();
+
+        analyzer.evictIdle(List.of(1, 2), now);
+        assertEquals(2, analyzer.getStreamCount());
+
+        analyzer.evictIdle(List.of(1), now + properties.getIdleTimeout().toNanos() + 1);
+        assertEquals(1, analyzer.getStreamCount());
+        assertEquals(1.0, meterRegistry.counter("icu.ecg.streams.evicted").count());
+    }
+
+    @Test
+    void testEvict_dropsStreamsOfGivenPatientsAtOnce() {
+        SyntheticEcg ecg = new SyntheticEcg(RATE, 70, 0.02, 0);
+        analyzer.analyze(List.of(signal(1, BASE, ecg.next(RATE)), signal(2, BASE, ecg.next(RATE))));
+
+        analyzer.evict(List.of(2, 3));
+
+        assertEquals(1, analyzer.getStreamCount());
+        assertEquals(1.0, meterRegistry.counter("icu.ecg.streams.evicted").count());
+    }
+
+    @Test
+    void testAnalyze_doesNothingWhenDisabled() {
+        properties.setEnabled(false);
+        EcgAnalyzer disabled = new EcgAnalyzer(properties, RATE, meterRegistry);
+        ICUSignal signal = signal(1, BASE, new SyntheticEcg(RATE, 72, 0, 1).next(RATE));
+
+        disabled.analyze(List.of(signal));
+        disabled.close();
+
+        assertNull(signal.getEcgFeatures());
+    }
+
+    private static ICUSignal signal(int nationalId, LocalDateTime timestamp, List<Double> ecg) {
+        return ICUSignal.builder()
+                .nationalId(nationalId)
+                .heartbeat(80.0)
+                .pulse(97.0)
+                .timestamp(timestamp)
+                .ecgList(ecg)
+                .build();
+    }
+}
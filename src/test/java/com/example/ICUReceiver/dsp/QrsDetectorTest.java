@@ -0,0 +1,92 @@
+package com.example.ICUReceiver.dsp;
+
+import com.example.ICUReceiver.model.EcgFeatures;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrsDetectorTest {
+
+    private static final int RATE = 500;
+
+    @Test
+    void testProcess_measuresHeartRateOfCleanEcg() {
+        for (double heartRate : new double[]{45, 72, 120, 160}) {
+            QrsDetector detector = new QrsDetector(RATE);
+            SyntheticEcg ecg = new SyntheticEcg(RATE, heartRate, 0, 1);
+            EcgFeatures features = null;
+            for (int second = 0; second < 10; second++) {
+                EcgFeatures next = detector.process(ecg.nextArray(RATE), RATE);
+                // Below 60 bpm some seconds hold no beat.
+                features = next.getHeartRate() != null ? next : features;
+            }
+
+            assertNotNull(features, "no intervals at " + heartRate + " bpm");
+            assertEquals(heartRate, features.getHeartRate(), 1.0);
+            assertEquals(60_000 / heartRate, features.getRrMinMillis(), 2 * 1_000.0 / RATE);
+            assertEquals(60_000 / heartRate, features.getRrMaxMillis(), 2 * 1_000.0 / RATE);
+        }
+    }
+
+    @Test
+    void testProcess_ignoresWanderHumAndNoise() {
+        QrsDetector detector = new QrsDetector(RATE);
+        SyntheticEcg ecg = new SyntheticEcg(RATE, 80, 0.05, 2);
+        int peaks = 0;
+        EcgFeatures features = null;
+        for (int second = 0; second < 30; second++) {
+            features = detector.process(ecg.nextArray(RATE), RATE);
+            peaks += features.getPeakCount();
+        }
+
+        // 28 s after the learning phase at 80 bpm.
+        assertEquals(28 * 80 / 60.0, peaks, 1.5);
+        assertEquals(80, features.getHeartRate(), 2.0);
+    }
+
+    @Test
+    void testProcess_carriesBeatsAcrossShortBuffers() {
+        QrsDetector detector = new QrsDetector(RATE);
+        SyntheticEcg ecg = new SyntheticEcg(RATE, 60, 0, 3);
+        int peaks = 0;
+        int intervals = 0;
+        for (int chunk = 0; chunk < 200; chunk++) {
+            EcgFeatures features = detector.process(ecg.nextArray(50), 50);
+            peaks += features.getPeakCount();
+            if (features.getRrMeanMillis() != null) {
+                intervals++;
+                assertEquals(1_000, features.getRrMeanMillis(), 2 * 1_000.0 / RATE);
+            }
+        }
+
+        // 100 ms buffers hold at most one beat, so every interval spans two buffers.
+        assertEquals(18, peaks, 1);
+        assertEquals(peaks - 1, intervals);
+    }
+
+    @Test
+    void testProcess_findsNoPeaksInFlatLine() {
+        QrsDetector detector = new QrsDetector(RATE);
+        EcgFeatures features = null;
+        for (int second = 0; second < 5; second++) {
+            features = detector.process(new double[RATE], RATE);
+        }
+
+        assertEquals(new EcgFeatures(0, null, null, null, null), features);
+    }
+
+    @Test
+    void testReset_startsANewLearningPhase() {
+        QrsDetector detector = new QrsDetector(RATE);
+        SyntheticEcg ecg = new SyntheticEcg(RATE, 72, 0, 4);
+        for (int second = 0; second < 5; second++) {
+            detector.process(ecg.nextArray(RATE), RATE);
+        }
+
+        detector.reset();
+
+        assertEquals(0, detector.process(ecg.nextArray(RATE), RATE).getPeakCount());
+        assertEquals(0, detector.process(ecg.nextArray(RATE), RATE).getPeakCount());
+        assertTrue(detector.process(ecg.nextArray(RATE), RATE).getPeakCount() > 0);
+    }
+}
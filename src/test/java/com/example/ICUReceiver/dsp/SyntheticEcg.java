@@ -0,0 +1,52 @@
+package com.example.ICUReceiver.dsp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sinus-rhythm ECG at a fixed heart rate for tests and benchmarks. It uses the beat shape of the
+ * load generator: P wave, R spike and T wave as Gaussian bumps. Breathing baseline wander, 50 Hz
+ * mains hum and white noise are added on top.
+ */
+public final class SyntheticEcg {
+
+    private final double sampleRateHz;
+    private final double beatSeconds;
+    private final double noise;
+    private final Random random;
+    private long sample;
+
+    /**
+     * @param noise Standard deviation of the white noise, relative to the 1.0 R amplitude; 0
+     *              also disables wander and hum.
+     */
+    public SyntheticEcg(double sampleRateHz, double heartRate, double noise, long seed) {
+        this.sampleRateHz = sampleRateHz;
+        this.beatSeconds = 60 / heartRate;
+        this.noise = noise;
+        this.random = new Random(seed);
+    }
+
+    public List<Double> next(int length) {
+        List<Double> samples = new ArrayList<>(length);
+        for (int i = 0; i < length; i++, sample++) {
+            double seconds = sample / sampleRateHz;
+            double phase = seconds % beatSeconds / beatSeconds;
+            double value = 0.1 * Math.exp(-Math.pow((phase - 0.2) / 0.03, 2))
+                    + 1.0 * Math.exp(-Math.pow((phase - 0.35) / 0.01, 2))
+                    + 0.3 * Math.exp(-Math.pow((phase - 0.6) / 0.05, 2));
+            if (noise > 0) {
+                value += 0.3 * Math.sin(2 * Math.PI * 0.25 * seconds)
+                        + 0.05 * Math.sin(2 * Math.PI * 50 * seconds)
+                        + random.nextGaussian() * noise;
+            }
+            samples.add(value);
+        }
+        return samples;
+    }
+
+    public double[] nextArray(int length) {
+        return next(length).stream().mapToDouble(Double::doubleValue).toArray();
+    }
+}
@@ -4,9 +4,12 @@ import com.example.ICUReceiver.dto.ApiResponse;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class GlobalExceptionHandlerTest {
@@ -53,4 +56,30 @@ public class GlobalExceptionHandlerTest {
         assertFalse(response.getBody().isSuccess());
         assertEquals("Invalid signal", response.getBody().getMessage());
     }
+
+    @Test
+    void testHandleInvalidFeedRequest() {
+        InvalidFeedRequestException ex = new InvalidFeedRequestException("Invalid consumer");
+
+        ResponseEntity<ApiResponse<Void>> response = handler.handleInvalidFeedRequest(ex);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().isSuccess());
+        assertEquals("Invalid consumer", response.getBody().getMessage());
+    }
+
+    @Test
+    void testHandleRateLimited() {
+        RateLimitedException ex = new RateLimitedException("Client ward-3 exceeded 500.0 signals/s", "client", 7,
+                Duration.ofMillis(1_200));
+
+        ResponseEntity<ApiResponse<Void>> response = handler.handleRateLimited(ex);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().isSuccess());
+        assertEquals("Client ward-3 exceeded 500.0 signals/s", response.getBody().getMessage());
+    }
 }
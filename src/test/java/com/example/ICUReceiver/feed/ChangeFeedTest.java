@@ -0,0 +1,170 @@
+package com.example.ICUReceiver.feed;
+
+import com.example.ICUReceiver.model.EcgFeatures;
+import com.example.ICUReceiver.model.ICUSignal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 10, 0);
+
+    @TempDir
+    Path root;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testAppend_assignsConsecutiveSequencesAcrossBatches() throws IOException {
+        try (ChangeFeed feed = open(1 << 20, 1024)) {
+            feed.append(signals(1, 3));
+            feed.append(signals(2, 2));
+
+            List<FeedRecord> records = feed.read(0, 100);
+
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), records.stream().map(FeedRecord::sequence).toList());
+            assertEquals(2, records.get(3).signal().getNationalId());
+            assertEquals(5, feed.lastSequence());
+            assertEquals(5.0, meterRegistry.get("icu.feed.read").tag("source", "tail").counter().count());
+        }
+    }
+
+    @Test
+    void testRead_resumesFromOffsetAndStopsAtMax() throws IOException {
+        try (ChangeFeed feed = open(1 << 20, 1024)) {
+            feed.append(signals(1, 10));
+
+            List<FeedRecord> records = feed.read(4, 3);
+
+            assertEquals(List.of(4L, 5L, 6L), records.stream().map(FeedRecord::sequence).toList());
+            assertEquals(BASE.plusSeconds(3), records.getFirst().signal().getTimestamp());
+            assertTrue(feed.read(11, 10).isEmpty());
+        }
+    }
+
+    @Test
+    void testRead_servesRecordsOlderThanTailFromSegments() throws IOException {
+        try (ChangeFeed feed = open(512, 4)) {
+            feed.append(signals(1, 20));
+
+            List<FeedRecord> records = feed.read(2, 5);
+
+            assertEquals(List.of(2L, 3L, 4L, 5L, 6L), records.stream().map(FeedRecord::sequence).toList());
+            assertEquals(List.of(1.0, 0.5), records.getFirst().signal().getEcgList());
+            assertEquals(5.0, meterRegistry.get("icu.feed.read").tag("source", "segment").counter().count());
+            assertTrue(segmentFiles() > 1);
+        }
+    }
+
+    @Test
+    void testRead_keepsEcgFeaturesInSegments() throws IOException {
+        try (ChangeFeed feed = open(512, 4)) {
+            List<ICUSignal> signals = signals(1, 10);
+            signals.get(1).setEcgFeatures(new EcgFeatures(2, 812.0, 790.0, 834.0, 60_000 / 812.0));
+            signals.get(2).setEcgFeatures(new EcgFeatures(0, null, null, null, null));
+            feed.append(signals);
+
+            List<FeedRecord> records = feed.read(1, 3);
+
+            assertEquals(3.0, meterRegistry.get("icu.feed.read").tag("source", "segment").counter().count());
+            assertNull(records.get(0).signal().getEcgFeatures());
+            assertEquals(signals.get(1).getEcgFeatures(), records.get(1).signal().getEcgFeatures());
+            assertEquals(signals.get(2).getEcgFeatures(), records.get(2).signal().getEcgFeatures());
+            assertEquals(List.of(2.0, 0.5), records.get(2).signal().getEcgList());
+        }
+    }
+
+    @Test
+    void testOpen_recoversSequenceAndTruncatesTornRecord() throws IOException {
+        try (ChangeFeed feed = open(1 << 20, 1024)) {
+            feed.append(signals(1, 4));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(root)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        Files.write(segment, new byte[]{0, 0, 1}, StandardOpenOption.APPEND);
+
+        try (ChangeFeed feed = open(1 << 20, 1024)) {
+            feed.append(signals(2, 1));
+
+            List<FeedRecord> records = feed.read(0, 100);
+
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), records.stream().map(FeedRecord::sequence).toList());
+            assertEquals(2, records.getLast().signal().getNationalId());
+        }
+    }
+
+    @Test
+    void testRetention_dropsOldestSegmentsAndReadsFromOldestRetained() throws IOException {
+        try (ChangeFeed feed = new ChangeFeed(root, 256, 600, 4, 4, meterRegistry)) {
+            for (int i = 0; i < 10; i++) {
+                feed.append(signals(1, 2));
+            }
+
+            long first = feed.firstSequence();
+            List<FeedRecord> records = feed.read(0, 100);
+
+            assertTrue(first > 1);
+            assertEquals(first, records.getFirst().sequence());
+            assertEquals(20, records.getLast().sequence());
+        }
+    }
+
+    @Test
+    void testAwaitAfter_wakesWhenRecordIsAppended() throws Exception {
+        try (ChangeFeed feed = open(1 << 20, 1024)) {
+            assertFalse(feed.awaitAfter(0, 10, TimeUnit.MILLISECONDS));
+
+            CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return feed.awaitAfter(0, 5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            feed.append(signals(1, 1));
+
+            assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private ChangeFeed open(long segmentSize, int tailCapacity) throws IOException {
+        return new ChangeFeed(root, segmentSize, Long.MAX_VALUE, 4, tailCapacity, meterRegistry);
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(root)) {
+            return files.count();
+        }
+    }
+
+    private static List<ICUSignal> signals(int nationalId, int count) {
+        List<ICUSignal> signals = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            signals.add(ICUSignal.builder()
+                    .id(i + 1)
+                    .nationalId(nationalId)
+                    .heartbeat(80.0 + i)
+                    .pulse(95.0)
+                    .timestamp(BASE.plusSeconds(i))
+                    .ecgList(List.of((double) i, 0.5))
+                    .build());
+        }
+        return signals;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.ICUReceiver.feed;
+
+import com.example.ICUReceiver.configuration.FeedProperties;
+import com.example.ICUReceiver.mapper.ICUSignalMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class FeedStreamerTest {
+
+    @TempDir
+    Path root;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testStream_removesLagGaugeWithConsumersLastStream() throws Exception {
+        try (ChangeFeed feed = new ChangeFeed(root, 1 << 20, Long.MAX_VALUE, 4, 64, meterRegistry)) {
+            FeedStreamer streamer = new FeedStreamer(feed, mock(ICUSignalMapper.class), new FeedProperties(), meterRegistry);
+
+            streamer.stream("ehr-bridge", 0);
+            assertNotNull(meterRegistry.find("icu.feed.consumer.lag").tag("consumer", "ehr-bridge").gauge());
+
+            streamer.shutdown();
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (meterRegistry.find("icu.feed.consumer.lag").gauge() != null && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertNull(meterRegistry.find("icu.feed.consumer.lag").gauge());
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package com.example.ICUReceiver.handler;
 
+import com.example.ICUReceiver.cluster.SignalRouter;
+import com.example.ICUReceiver.configuration.TraceProperties;
+import com.example.ICUReceiver.exception.IngestOverloadedException;
+import com.example.ICUReceiver.exception.InvalidICUSignalException;
+import com.example.ICUReceiver.exception.RateLimitedException;
+import com.example.ICUReceiver.limit.IngestRateLimiter;
 import com.example.ICUReceiver.model.ICUSignal;
-import com.example.ICUReceiver.repository.ICURepository;
+import com.example.ICUReceiver.trace.IngestTrace;
+import com.example.ICUReceiver.trace.IngestTracer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.io.IOException;
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -26,7 +35,13 @@ class ICUSignalWebSocketHandlerTest {
     private ICUSignalWebSocketHandler handler;
 
     @Mock
-    private ICURepository icuRepository;
+    private SignalRouter signalRouter;
+
+    @Mock
+    private IngestRateLimiter rateLimiter;
+
+    @Spy
+    private IngestTracer tracer = new IngestTracer(new TraceProperties());
 
     @Mock
     private WebSocketSession session;
@@ -53,6 +68,7 @@ class ICUSignalWebSocketHandlerTest {
         handler.afterConnectionClosed(session, CloseStatus.NORMAL);
 
         assertFalse(handler.getSessionList().contains(session));
+        verify(rateLimiter).forget("123");
     }
 
     @Test
@@ -71,7 +87,7 @@ class ICUSignalWebSocketHandlerTest {
 
         handler.handleTextMessage(session, message);
 
-        verify(icuRepository, times(1)).save(any(ICUSignal.class));
+        verify(signalRouter, times(1)).submit(any(ICUSignal.class), eq(false));
     }
 
     @Test
@@ -83,8 +99,63 @@ class ICUSignalWebSocketHandlerTest {
 
         handler.handleTextMessage(session, message);
 
-        verify(icuRepository, never()).save(any());
+        verify(signalRouter, never()).submit(any(), anyBoolean());
 
         verify(session, times(1)).sendMessage(any());
     }
+
+    @Test
+    void testHandleTextMessage_overloadedSendsRetryFrame() throws Exception {
+        String payload = """
+                {
+                    "nationalId": 1,
+                    "heartbeat": 80.0,
+                    "pulse": 70.0,
+                    "timestamp": "2025-11-09T10:00:00"
+                }
+                """;
+        doThrow(new IngestOverloadedException("full")).when(signalRouter).submit(any(ICUSignal.class), eq(false));
+
+        handler.handleTextMessage(session, new TextMessage(payload));
+
+        verify(session).sendMessage(new TextMessage("Error: Ingest overloaded, retry later"));
+    }
+
+    @Test
+    void testHandleTextMessage_invalidSignalSendsReason() throws Exception {
+        String payload = """
+                {
+                    "nationalId": 1,
+                    "heartbeat": 80.0,
+                    "pulse": -1.0,
+                    "timestamp": "2025-11-09T10:00:00"
+                }
+                """;
+        doThrow(new InvalidICUSignalException("Invalid signal: pulse -1.0 outside [0.0, 350.0]"))
+                .when(signalRouter).submit(any(ICUSignal.class), eq(false));
+
+        handler.handleTextMessage(session, new TextMessage(payload));
+
+        verify(session).sendMessage(new TextMessage("Error: Invalid signal: pulse -1.0 outside [0.0, 350.0]"));
+    }
+
+    @Test
+    void testHandleTextMessage_rateLimitedSendsThrottleFrame() throws Exception {
+        String payload = """
+                {
+                    "nationalId": 1,
+                    "heartbeat": 80.0,
+                    "pulse": 70.0,
+                    "timestamp": "2025-11-09T10:00:00"
+                }
+                """;
+        doThrow(new RateLimitedException("Patient 1 exceeded 10.0 signals/s", IngestRateLimiter.PATIENT, 1,
+                Duration.ofMillis(99).plusNanos(1))).when(rateLimiter).acquire(IngestTrace.Channel.WEBSOCKET, "123", 1);
+
+        handler.handleTextMessage(session, new TextMessage(payload));
+
+        verify(signalRouter, never()).submit(any(), anyBoolean());
+        verify(session).sendMessage(
+                new TextMessage("{\"type\":\"throttle\",\"scope\":\"patient\",\"nationalId\":1,\"retryAfterMs\":100}"));
+    }
 }
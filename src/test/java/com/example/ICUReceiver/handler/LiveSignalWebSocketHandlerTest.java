@@ -0,0 +1,91 @@
+package com.example.ICUReceiver.handler;
+
+import com.example.ICUReceiver.cluster.SignalBus;
+import com.example.ICUReceiver.mapper.ICUSignalMapper;
+import com.example.ICUReceiver.model.ICUSignal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LiveSignalWebSocketHandlerTest {
+
+    @Mock
+    private SignalBus signalBus;
+
+    @Mock
+    private SignalBus.Subscription subscription;
+
+    @Mock
+    private WebSocketSession patientViewer;
+
+    @Mock
+    private WebSocketSession wardViewer;
+
+    private LiveSignalWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        when(signalBus.subscribe(anyString(), any())).thenReturn(subscription);
+        handler = new LiveSignalWebSocketHandler(signalBus, new ICUSignalMapper(), new SimpleMeterRegistry());
+        handler.subscribe();
+        lenient().when(patientViewer.getId()).thenReturn("patient");
+        lenient().when(patientViewer.getUri()).thenReturn(URI.create("ws://localhost/ws/live?nationalId=1"));
+        lenient().when(wardViewer.getId()).thenReturn("ward");
+        lenient().when(wardViewer.getUri()).thenReturn(URI.create("ws://localhost/ws/live"));
+    }
+
+    @Test
+    void testDeliver_sendsSignalsToViewersOfThatPatientAndOfAllPatients() throws Exception {
+        handler.afterConnectionEstablished(patientViewer);
+        handler.afterConnectionEstablished(wardViewer);
+
+        handler.deliver(List.of(signal(1), signal(2)));
+
+        ArgumentCaptor<TextMessage> patientFrames = ArgumentCaptor.forClass(TextMessage.class);
+        verify(patientViewer, times(1)).sendMessage(patientFrames.capture());
+        assertTrue(patientFrames.getValue().getPayload().contains("\"nationalId\":1"));
+        verify(wardViewer, times(2)).sendMessage(any(TextMessage.class));
+    }
+
+    @Test
+    void testDeliver_skipsClosedViewers() throws Exception {
+        handler.afterConnectionEstablished(patientViewer);
+        handler.afterConnectionClosed(patientViewer, CloseStatus.NORMAL);
+
+        handler.deliver(List.of(signal(1)));
+
+        verify(patientViewer, never()).sendMessage(any());
+        assertEquals(0, handler.viewerCount());
+    }
+
+    @Test
+    void testUnsubscribe_closesBusSubscription() {
+        handler.unsubscribe();
+
+        verify(subscription).close();
+    }
+
+    private static ICUSignal signal(int nationalId) {
+        return ICUSignal.builder()
+                .nationalId(nationalId)
+                .heartbeat(80)
+                .pulse(97)
+                .timestamp(LocalDateTime.of(2025, 11, 9, 10, 0))
+                .build();
+    }
+}
@@ -0,0 +1,540 @@
+package com.example.ICUReceiver.ingest;
+
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.cluster.SignalBus;
+import com.example.ICUReceiver.configuration.EcgProperties;
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.configuration.TraceProperties;
+import com.example.ICUReceiver.dsp.EcgAnalyzer;
+import com.example.ICUReceiver.dto.TraceRecordDto;
+import com.example.ICUReceiver.exception.IngestOverloadedException;
+import com.example.ICUReceiver.exception.InvalidICUSignalException;
+import com.example.ICUReceiver.exception.WriteRejectedException;
+import com.example.ICUReceiver.feed.ChangeFeed;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ICUService;
+import com.example.ICUReceiver.service.StatsService;
+import com.example.ICUReceiver.snapshot.StateSnapshot;
+import com.example.ICUReceiver.snapshot.StateSnapshotter;
+import com.example.ICUReceiver.stats.RollupDelta;
+import com.example.ICUReceiver.stats.RollupKey;
+import com.example.ICUReceiver.trace.IngestTrace;
+import com.example.ICUReceiver.trace.IngestTracer;
+import com.example.ICUReceiver.trace.Stage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestPipelineTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 10, 0);
+
+    @Mock
+    private ICUService service;
+
+    @Mock
+    private StatsService statsService;
+
+    @Mock
+    private ChangeFeed changeFeed;
+
+    @Mock
+    private SignalBus signalBus;
+
+    @Mock
+    private StateSnapshotter snapshotter;
+
+    private IngestProperties properties;
+    private MeterRegistry meterRegistry;
+    private IngestTracer tracer;
+    private EcgAnalyzer ecgAnalyzer;
+    private LatestSignalCache latestCache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IngestProperties();
+        properties.getReorder().setMaxLateness(Duration.ofSeconds(2));
+        properties.getShards().setCount(2);
+        // BASE is a fixed date in the past
+        properties.getValidation().setMaxAge(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        tracer = new IngestTracer(new TraceProperties());
+        ecgAnalyzer = new EcgAnalyzer(new EcgProperties(), 500, meterRegistry);
+        latestCache = new LatestSignalCache(50, 1_000, meterRegistry);
+    }
+
+    @Test
+    void testSubmit_dropsReplayedDuplicateBeforePersisting() throws InterruptedException {
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE));
+        pipeline.submit(signal(1, BASE));
+        pipeline.stop();
+
+        assertEquals(1, persisted().size());
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.duplicates.dropped").count());
+    }
+
+    @Test
+    void testSubmit_acceptsReplayOfBatchThatFailedToPersist() throws InterruptedException {
+        properties.getShards().setCount(1);
+        properties.getReorder().setMaxLateness(Duration.ZERO);
+        properties.getReorder().setFlushInterval(Duration.ofMillis(1));
+        doThrow(new IllegalStateException("db down")).doNothing().when(service).saveSignals(anyList());
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE));
+        verify(service, timeout(1_000)).saveSignals(anyList());
+        pipeline.submit(signal(1, BASE));
+        pipeline.stop();
+
+        verify(service, times(2)).saveSignals(anyList());
+        assertEquals(0.0, meterRegistry.counter("icu.ingest.duplicates.dropped").count());
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.write.failed").count());
+    }
+
+    @Test
+    void testStop_retriesBatchRejectedByWriteLimitsUntilPersisted() throws InterruptedException {
+        properties.getWriteRetry().setInitialBackoff(Duration.ofMillis(1));
+        doThrow(new WriteRejectedException("limit"), new WriteRejectedException("bulkhead"))
+                .doNothing().when(service).saveSignals(anyList());
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE));
+        pipeline.stop();
+
+        verify(service, times(3)).saveSignals(anyList());
+        verify(changeFeed).append(anyList());
+        assertEquals(0.0, meterRegistry.counter("icu.ingest.write.failed").count());
+        assertEquals(2.0, meterRegistry.counter("icu.ingest.write.retried", "lane", "vitals").count());
+    }
+
+    @Test
+    void testSubmit_keepsWriterAliveWhenAnalysisFails() throws InterruptedException {
+        properties.getShards().setCount(1);
+        properties.getReorder().setMaxLateness(Duration.ZERO);
+        properties.getReorder().setFlushInterval(Duration.ofMillis(1));
+        ecgAnalyzer = mock(EcgAnalyzer.class);
+        doThrow(new IllegalStateException("dsp down")).doNothing().when(ecgAnalyzer).analyze(anyList());
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE));
+        verify(ecgAnalyzer, timeout(1_000)).analyze(anyList());
+        pipeline.submit(signal(1, BASE.plusSeconds(1)));
+        pipeline.stop();
+
+        assertEquals(List.of(BASE.plusSeconds(1)), persisted().stream().map(ICUSignal::getTimestamp).toList());
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.write.failed").count());
+    }
+
+    @Test
+    void testSubmit_persistsReorderedSignalsInDeviceTimestampOrder() throws InterruptedException {
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE.plusSeconds(1)));
+        pipeline.submit(signal(1, BASE));
+        pipeline.submit(signal(1, BASE.plusSeconds(5)));
+        pipeline.stop();
+
+        assertEquals(List.of(BASE, BASE.plusSeconds(1), BASE.plusSeconds(5)),
+                persisted().stream().map(ICUSignal::getTimestamp).toList());
+    }
+
+    @Test
+    void testSubmit_countsLateArrivalAndStillPersistsIt() throws InterruptedException {
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE.plusSeconds(1)));
+        pipeline.submit(signal(1, BASE.plusSeconds(10)));
+        pipeline.submit(signal(1, BASE));
+        pipeline.stop();
+
+        assertEquals(3, persisted().size());
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.late.total").count());
+    }
+
+    @Test
+    void testSubmit_stampsSignalWithoutDeviceTimestamp() throws InterruptedException {
+        IngestPipeline pipeline = started();
+        ICUSignal signal = signal(1, null);
+
+        pipeline.submit(signal);
+        pipeline.stop();
+
+        assertNotNull(signal.getTimestamp());
+    }
+
+    @Test
+    void testSubmit_evictsStreamIdleForDedupWindow() throws InterruptedException {
+        properties.getShards().setCount(1);
+        properties.getReorder().setMaxLateness(Duration.ZERO);
+        properties.getReorder().setFlushInterval(Duration.ofMillis(1));
+        properties.getDedup().setWindow(Duration.ofMillis(20));
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (meterRegistry.counter("icu.ingest.streams.evicted").count() < 1) {
+            assertTrue(System.nanoTime() < deadline, "idle stream not evicted within 1s");
+            Thread.sleep(5);
+        }
+        pipeline.submit(signal(2, BASE));
+        pipeline.stop();
+
+        assertEquals(2, persisted().size());
+        assertEquals(2.0, meterRegistry.counter("icu.ingest.shard.processed", "shard", "0").count());
+    }
+
+    @Test
+    void testStop_mergesRollupsOfPersistedSignals() throws InterruptedException {
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE));
+        pipeline.submit(signal(1, BASE.plusSeconds(1)));
+        pipeline.stop();
+
+        ArgumentCaptor<Map<RollupKey, RollupDelta>> rollups = ArgumentCaptor.forClass(Map.class);
+        verify(statsService).mergeRollups(rollups.capture());
+        assertEquals(3, rollups.getValue().size());
+        rollups.getValue().values().forEach(delta -> assertEquals(2, delta.getHeartbeat().getCount()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStop_keepsRollupsWhoseMergeFailedForTheNextFlush() throws InterruptedException {
+        properties.getShards().setCount(1);
+        properties.getReorder().setMaxLateness(Duration.ZERO);
+        properties.getReorder().setFlushInterval(Duration.ofMillis(1));
+        properties.getRollup().setFlushInterval(Duration.ofMillis(1));
+        doThrow(new IllegalStateException("db down")).doNothing().when(statsService).mergeRollups(anyMap());
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE));
+        verify(statsService, timeout(1_000)).mergeRollups(anyMap());
+        pipeline.stop();
+
+        ArgumentCaptor<Map<RollupKey, RollupDelta>> rollups = ArgumentCaptor.forClass(Map.class);
+        verify(statsService, times(2)).mergeRollups(rollups.capture());
+        Map<RollupKey, RollupDelta> merged = rollups.getAllValues().get(1);
+        assertEquals(3, merged.size());
+        merged.values().forEach(delta -> assertEquals(1, delta.getHeartbeat().getCount()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStop_publishesPersistedSignalsOnBus() throws InterruptedException {
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE));
+        pipeline.submit(signal(1, BASE));
+        pipeline.stop();
+
+        ArgumentCaptor<List<ICUSignal>> published = ArgumentCaptor.forClass(List.class);
+        verify(signalBus, atLeastOnce()).publish(published.capture());
+        assertEquals(persisted(), published.getAllValues().stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStop_appendsPersistedSignalsToChangeFeedInOrder() throws InterruptedException {
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE.plusSeconds(1)));
+        pipeline.submit(signal(1, BASE));
+        pipeline.stop();
+
+        ArgumentCaptor<List<ICUSignal>> appended = ArgumentCaptor.forClass(List.class);
+        verify(changeFeed, atLeastOnce()).append(appended.capture());
+        assertEquals(List.of(BASE, BASE.plusSeconds(1)), appended.getAllValues().stream()
+                .flatMap(List::stream).map(ICUSignal::getTimestamp).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStop_persistsVitalsWithoutSamplesAndWaveformsInTheirOwnLane() throws InterruptedException {
+        when(service.supportsDeferredWaveforms()).thenReturn(true);
+        IngestPipeline pipeline = started();
+        ICUSignal withEcg = signal(1, BASE);
+        withEcg.setEcgList(List.of(0.1, 0.2));
+
+        pipeline.submit(withEcg);
+        pipeline.submit(signal(2, BASE));
+        pipeline.stop();
+
+        assertEquals(2, persisted().size());
+        assertTrue(persisted().stream().allMatch(signal -> signal.getEcgList() == null));
+        ArgumentCaptor<List<ICUSignal>> waveforms = ArgumentCaptor.forClass(List.class);
+        verify(service).saveWaveforms(waveforms.capture());
+        assertEquals(List.of(0.1, 0.2), waveforms.getValue().getFirst().getEcgList());
+        ArgumentCaptor<List<ICUSignal>> appended = ArgumentCaptor.forClass(List.class);
+        verify(changeFeed, atLeastOnce()).append(appended.capture());
+        assertEquals(List.of(List.of(0.1, 0.2)), appended.getAllValues().stream().flatMap(List::stream)
+                .filter(signal -> signal.getNationalId() == 1).map(ICUSignal::getEcgList).toList());
+        assertEquals(2, meterRegistry.get("icu.ingest.lane.latency").tag("lane", "vitals").timer().count());
+        assertEquals(1, meterRegistry.get("icu.ingest.lane.latency").tag("lane", "waveform").timer().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStop_storesEcgFeaturesWithVitalsAndWaveform() throws InterruptedException {
+        when(service.supportsDeferredWaveforms()).thenReturn(true);
+        IngestPipeline pipeline = started();
+        ICUSignal withEcg = signal(1, BASE);
+        withEcg.setEcgList(List.of(0.1, 0.2));
+
+        pipeline.submit(withEcg);
+        pipeline.submit(signal(2, BASE));
+        pipeline.stop();
+
+        ICUSignal vitals = persisted().stream().filter(signal -> signal.getNationalId() == 1).findFirst().orElseThrow();
+        assertNotNull(vitals.getEcgFeatures());
+        assertEquals(0, vitals.getEcgFeatures().getPeakCount());
+        assertNull(persisted().stream().filter(signal -> signal.getNationalId() == 2).findFirst().orElseThrow()
+                .getEcgFeatures());
+        ArgumentCaptor<List<ICUSignal>> waveforms = ArgumentCaptor.forClass(List.class);
+        verify(service).saveWaveforms(waveforms.capture());
+        assertEquals(vitals.getEcgFeatures(), waveforms.getValue().getFirst().getEcgFeatures());
+        assertEquals(2.0, meterRegistry.counter("icu.ecg.samples").count());
+    }
+
+    @Test
+    void testSubmit_rejectsWhenShardQueueStaysFull() {
+        properties.getShards().setCount(1);
+        properties.getShards().setQueueCapacity(1);
+        properties.getShards().setEnqueueTimeout(Duration.ZERO);
+        // Writers are not started, so the first signal occupies the only queue slot.
+        IngestPipeline pipeline = new IngestPipeline(service, statsService,
+                new SignalValidator(properties, meterRegistry), changeFeed, signalBus, tracer, ecgAnalyzer,
+                latestCache, snapshotter, properties, meterRegistry);
+
+        pipeline.submit(signal(1, BASE));
+
+        assertThrows(IngestOverloadedException.class, () -> pipeline.submit(signal(2, BASE)));
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.rejected.total").count());
+        assertEquals(1.0, meterRegistry.get("icu.ingest.shard.queue.depth").tag("shard", "0").gauge().value());
+    }
+
+    @Test
+    void testSubmit_rejectsSignalWithSamplesWhileWaveformLaneIsSaturated() throws InterruptedException {
+        when(service.supportsDeferredWaveforms()).thenReturn(true);
+        properties.getShards().setCount(1);
+        properties.getReorder().setMaxLateness(Duration.ZERO);
+        properties.getLanes().getWaveform().setWriters(1);
+        properties.getLanes().getWaveform().setBatchSize(1);
+        properties.getLanes().getWaveform().setQueueCapacity(1);
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writerBlocked.await();
+            return null;
+        }).when(service).saveWaveforms(anyList());
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(withEcg(1, BASE));
+        verify(service, timeout(1_000)).saveWaveforms(anyList());
+        pipeline.submit(withEcg(2, BASE));
+        while (meterRegistry.get("icu.ingest.waveform.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(IngestOverloadedException.class, () -> pipeline.submit(withEcg(3, BASE)));
+        pipeline.submit(signal(3, BASE));
+        writerBlocked.countDown();
+        pipeline.stop();
+
+        verify(service, times(2)).saveWaveforms(anyList());
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.waveform.rejected").count());
+        assertEquals(0.0, meterRegistry.counter("icu.ingest.waveform.blocked").count());
+    }
+
+    @Test
+    void testSubmit_rejectsInvalidSignalBeforeQueueing() throws InterruptedException {
+        IngestPipeline pipeline = started();
+        ICUSignal invalid = signal(1, BASE);
+        invalid.setPulse(-5);
+
+        assertThrows(InvalidICUSignalException.class, () -> pipeline.submit(invalid));
+        pipeline.stop();
+
+        verify(service, never()).saveSignals(anyList());
+        assertEquals(0.0, meterRegistry.get("icu.ingest.shard.processed").tag("shard", "0").counter().count()
+                + meterRegistry.get("icu.ingest.shard.processed").tag("shard", "1").counter().count());
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.validation.rejected", "reason", "pulse").count());
+    }
+
+    @Test
+    void testStop_recordsStageTimingsOfPersistedSignals() throws InterruptedException {
+        IngestPipeline pipeline = started();
+
+        IngestTrace trace = tracer.begin(IngestTrace.Channel.WEBSOCKET);
+        trace.mark(Stage.PARSE);
+        pipeline.submit(signal(7, BASE));
+        pipeline.submit(signal(8, BASE));
+        pipeline.stop();
+
+        List<TraceRecordDto> traces = tracer.slowest(10);
+        assertEquals(2, traces.size());
+        TraceRecordDto received = traces.stream().filter(t -> t.getNationalId() == 7).findFirst().orElseThrow();
+        assertEquals("websocket", received.getChannel());
+        assertEquals("direct", traces.stream().filter(t -> t.getNationalId() == 8).findFirst().orElseThrow().getChannel());
+        assertEquals(List.of("parse", "map", "validate", "queue", "reorder", "analyze", "commit", "publish"),
+                List.copyOf(received.getStageMillis().keySet()));
+        assertEquals(received.getTotalMillis(),
+                received.getStageMillis().values().stream().mapToDouble(Double::doubleValue).sum(), 1e-6);
+        assertTrue(traces.get(0).getTotalMillis() >= traces.get(1).getTotalMillis());
+    }
+
+    @Test
+    void testStop_recordsPersistedSignalsInLatestCache() throws InterruptedException {
+        latestCache.seed(1, latestCache.version(1), List.of(signal(1, BASE.minusSeconds(1))), 1);
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE));
+        pipeline.submit(signal(1, BASE.plusSeconds(1)));
+        pipeline.submit(signal(2, BASE));
+        pipeline.stop();
+
+        LatestSignalCache.Slice cached = latestCache.read(1, 0, 10);
+        assertEquals(3, cached.total());
+        assertEquals(List.of(BASE.plusSeconds(1), BASE, BASE.minusSeconds(1)), cached.signals().stream().map(ICUSignal::getTimestamp).toList());
+        assertNull(latestCache.read(2, 0, 10));
+    }
+
+    @Test
+    void testStop_leavesFeedCacheAndRollupsUntouchedWhenSaveFails() throws InterruptedException {
+        doThrow(new IllegalStateException("db down")).when(service).saveSignals(anyList());
+        latestCache.seed(1, latestCache.version(1), List.of(signal(1, BASE.minusSeconds(1))), 1);
+        IngestPipeline pipeline = started();
+
+        pipeline.submit(signal(1, BASE));
+        pipeline.submit(signal(1, BASE.plusSeconds(1)));
+        pipeline.stop();
+
+        verifyNoInteractions(changeFeed, signalBus, statsService);
+        assertEquals(1, latestCache.read(1, 0, 10).total());
+        assertTrue(tracer.slowest(10).isEmpty());
+        assertEquals(2.0, meterRegistry.counter("icu.ingest.write.failed").count());
+    }
+
+    @Test
+    void testCaptureState_restoresQueuedSignalsIntoNewPipeline() throws InterruptedException {
+        // Writers are not started, so both signals are still queued when the state is copied.
+        IngestPipeline previous = new IngestPipeline(mock(ICUService.class), statsService,
+                new SignalValidator(properties, meterRegistry), changeFeed, signalBus, tracer, ecgAnalyzer,
+                latestCache, snapshotter, properties, new SimpleMeterRegistry());
+        previous.submit(signal(1, BASE.plusSeconds(1)));
+        previous.submit(signal(1, BASE));
+
+        List<StateSnapshot.PatientIngest> state = previous.captureState().join();
+
+        assertEquals(1, state.size());
+        assertEquals(2, state.getFirst().pending().size());
+        assertTrue(state.getFirst().pending().stream().allMatch(StateSnapshot.PendingSignal::queued));
+        when(snapshotter.takeRestoredIngest()).thenReturn(state);
+        when(service.findStoredTimestamps(1, BASE, BASE.plusSeconds(1))).thenReturn(List.of());
+        IngestPipeline pipeline = started();
+        pipeline.submit(signal(1, BASE));
+        pipeline.stop();
+
+        assertEquals(List.of(BASE, BASE.plusSeconds(1)), persisted().stream().map(ICUSignal::getTimestamp).toList());
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.duplicates.dropped").count());
+    }
+
+    @Test
+    void testCaptureState_restoresBufferedSignalsNotYetStored() throws InterruptedException {
+        properties.getReorder().setMaxLateness(Duration.ofMinutes(1));
+        properties.getReorder().setFlushInterval(Duration.ofMillis(10));
+        IngestPipeline previous = new IngestPipeline(mock(ICUService.class), statsService,
+                new SignalValidator(properties, meterRegistry), changeFeed, signalBus, tracer, ecgAnalyzer,
+                latestCache, snapshotter, properties, new SimpleMeterRegistry());
+        previous.start();
+        previous.submit(signal(1, BASE));
+        previous.submit(signal(1, BASE.plusSeconds(1)));
+
+        List<StateSnapshot.PatientIngest> state = previous.captureState().join();
+        while (state.isEmpty() || state.getFirst().pending().stream().anyMatch(StateSnapshot.PendingSignal::queued)) {
+            state = previous.captureState().join();
+        }
+        previous.stop();
+
+        assertEquals(2, state.getFirst().seen().length);
+        // The first signal reached the store after the snapshot was taken.
+        when(snapshotter.takeRestoredIngest()).thenReturn(state);
+        when(service.findStoredTimestamps(1, BASE, BASE.plusSeconds(1))).thenReturn(List.of(BASE));
+        IngestPipeline pipeline = started();
+        pipeline.submit(signal(1, BASE));
+        pipeline.stop();
+
+        assertEquals(List.of(BASE.plusSeconds(1)), persisted().stream().map(ICUSignal::getTimestamp).toList());
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.duplicates.dropped").count());
+    }
+
+    @Test
+    void testRestore_failsWhenStoreCannotBeChecked() {
+        ICUSignal pending = signal(1, BASE);
+        when(snapshotter.takeRestoredIngest()).thenReturn(List.of(new StateSnapshot.PatientIngest(1, new long[0],
+                List.of(new StateSnapshot.PendingSignal(pending, true, true)))));
+        when(service.findStoredTimestamps(1, BASE, BASE)).thenThrow(new IllegalStateException("db down"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, this::started);
+
+        assertTrue(e.getMessage().contains("nationalId 1"));
+    }
+
+    @Test
+    void testShardFor_spreadsSequentialIdsEvenly() {
+        int[] counts = new int[8];
+        for (int id = 1; id <= 8000; id++) {
+            counts[IngestPipeline.shardFor(id, counts.length)]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > 900 && count < 1100, "shard load " + count);
+        }
+    }
+
+    private IngestPipeline started() {
+        IngestPipeline pipeline = new IngestPipeline(service, statsService,
+                new SignalValidator(properties, meterRegistry), changeFeed, signalBus, tracer, ecgAnalyzer,
+                latestCache, snapshotter, properties, meterRegistry);
+        pipeline.start();
+        return pipeline;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ICUSignal> persisted() {
+        ArgumentCaptor<List<ICUSignal>> batches = ArgumentCaptor.forClass(List.class);
+        verify(service, atLeastOnce()).saveSignals(batches.capture());
+        return batches.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    private static ICUSignal withEcg(int nationalId, LocalDateTime timestamp) {
+        ICUSignal signal = signal(nationalId, timestamp);
+        signal.setEcgList(List.of(0.1, 0.2));
+        return signal;
+    }
+
+    private static ICUSignal signal(int nationalId, LocalDateTime timestamp) {
+        return ICUSignal.builder()
+                .nationalId(nationalId)
+                .heartbeat(80.0)
+                .pulse(95.0)
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ICUReceiver.ingest;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReorderBufferTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final ReorderBuffer<ICUSignal> buffer = new ReorderBuffer<>(2 * SECOND);
+
+    @Test
+    void testOffer_releasesInTimestampOrderOnceOutsideLatenessWindow() {
+        List<ICUSignal> released = new ArrayList<>();
+
+        buffer.offer(signal(3), 3 * SECOND, 0, released);
+        buffer.offer(signal(2), 2 * SECOND, 0, released);
+        assertTrue(released.isEmpty());
+
+        buffer.offer(signal(6), 6 * SECOND, 0, released);
+
+        assertEquals(List.of(2, 3), ids(released));
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    void testOffer_reportsSignalOlderThanLastReleasedAsLate() {
+        List<ICUSignal> released = new ArrayList<>();
+        buffer.offer(signal(1), 1 * SECOND, 0, released);
+        buffer.offer(signal(9), 9 * SECOND, 0, released);
+
+        boolean late = buffer.offer(signal(0), 0, 0, released);
+
+        assertTrue(late);
+        assertEquals(List.of(1, 0), ids(released));
+    }
+
+    @Test
+    void testDrainExpired_releasesSignalsThatWaitedOutTheWindow() {
+        List<ICUSignal> released = new ArrayList<>();
+        buffer.offer(signal(2), 2 * SECOND, 0, released);
+        buffer.offer(signal(1), 1 * SECOND, SECOND, released);
+
+        buffer.drainExpired(2 * SECOND, released);
+
+        assertEquals(List.of(1, 2), ids(released));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testCopyTo_listsBufferedSignalsWithoutReleasingThem() {
+        List<ICUSignal> released = new ArrayList<>();
+        buffer.offer(signal(2), 2 * SECOND, 0, released);
+        buffer.offer(signal(1), 1 * SECOND, 0, released);
+        List<ICUSignal> copied = new ArrayList<>();
+
+        buffer.copyTo(copied);
+
+        assertEquals(List.of(1, 2), ids(copied).stream().sorted().toList());
+        assertEquals(2, buffer.size());
+        assertTrue(released.isEmpty());
+    }
+
+    private static ICUSignal signal(int id) {
+        ICUSignal signal = new ICUSignal();
+        signal.setId(id);
+        return signal;
+    }
+
+    private static List<Integer> ids(List<ICUSignal> signals) {
+        return signals.stream().map(ICUSignal::getId).toList();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.ICUReceiver.ingest;
+
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.exception.InvalidICUSignalException;
+import com.example.ICUReceiver.model.ICUSignal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignalValidatorTest {
+
+    private MeterRegistry meterRegistry;
+    private SignalValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        validator = new SignalValidator(new IngestProperties(), meterRegistry);
+    }
+
+    @Test
+    void testCheck_acceptsPlausibleSignal() {
+        assertNull(validator.check(signal()));
+        assertDoesNotThrow(() -> validator.validate(signal()));
+    }
+
+    @Test
+    void testCheck_acceptsSignalWithoutTimestampOrEcg() {
+        ICUSignal signal = signal();
+        signal.setTimestamp(null);
+        signal.setEcgList(null);
+
+        assertNull(validator.check(signal));
+    }
+
+    @Test
+    void testCheck_rejectsImplausibleVitals() {
+        ICUSignal nationalId = signal();
+        nationalId.setNationalId(0);
+        ICUSignal heartbeat = signal();
+        heartbeat.setHeartbeat(Double.NaN);
+        ICUSignal pulse = signal();
+        pulse.setPulse(-5);
+
+        assertEquals(RejectionReason.NATIONAL_ID, validator.check(nationalId));
+        assertEquals(RejectionReason.HEARTBEAT, validator.check(heartbeat));
+        assertEquals(RejectionReason.PULSE, validator.check(pulse));
+    }
+
+    @Test
+    void testCheck_rejectsTimestampsOutsideAcceptedWindow() {
+        ICUSignal future = signal();
+        future.setTimestamp(LocalDateTime.now().plusHours(1));
+        ICUSignal stale = signal();
+        stale.setTimestamp(LocalDateTime.of(1970, 1, 1, 0, 0));
+
+        assertEquals(RejectionReason.TIMESTAMP_FUTURE, validator.check(future));
+        assertEquals(RejectionReason.TIMESTAMP_STALE, validator.check(stale));
+    }
+
+    @Test
+    void testCheck_zeroMaxAgeAcceptsOldTimestamps() {
+        IngestProperties properties = new IngestProperties();
+        properties.getValidation().setMaxAge(Duration.ZERO);
+        ICUSignal backfill = signal();
+        backfill.setTimestamp(LocalDateTime.of(2001, 1, 1, 0, 0));
+
+        assertNull(new SignalValidator(properties, meterRegistry).check(backfill));
+    }
+
+    @Test
+    void testCheck_rejectsMalformedEcg() {
+        ICUSignal empty = signal();
+        empty.setEcgList(List.of());
+        ICUSignal tooLong = signal();
+        tooLong.setEcgList(Collections.nCopies(15_001, 0.1));
+        ICUSignal infinite = signal();
+        infinite.setEcgList(List.of(0.1, Double.POSITIVE_INFINITY));
+        ICUSignal missing = signal();
+        missing.setEcgList(new ArrayList<>(Arrays.asList(0.1, null)));
+
+        assertEquals(RejectionReason.ECG_EMPTY, validator.check(empty));
+        assertEquals(RejectionReason.ECG_TOO_LONG, validator.check(tooLong));
+        assertEquals(RejectionReason.ECG_NOT_FINITE, validator.check(infinite));
+        assertEquals(RejectionReason.ECG_NOT_FINITE, validator.check(missing));
+    }
+
+    @Test
+    void testValidate_throwsWithReasonAndCountsPerReason() {
+        ICUSignal pulse = signal();
+        pulse.setPulse(-5);
+
+        InvalidICUSignalException e = assertThrows(InvalidICUSignalException.class, () -> validator.validate(pulse));
+        validator.check(pulse);
+
+        assertEquals("Invalid signal: pulse -5.0 outside [0.0, 350.0]", e.getMessage());
+        assertEquals(2.0, meterRegistry.counter("icu.ingest.validation.rejected", "reason", "pulse").count());
+        assertEquals(0.0, meterRegistry.counter("icu.ingest.validation.rejected", "reason", "heartbeat").count());
+    }
+
+    private static ICUSignal signal() {
+        return ICUSignal.builder()
+                .nationalId(1)
+                .heartbeat(80.0)
+                .pulse(95.0)
+                .timestamp(LocalDateTime.now().minusSeconds(1))
+                .ecgList(List.of(0.1, 0.2, 0.3))
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.ICUReceiver.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingTimestampSetTest {
+
+    @Test
+    void testAdd_detectsDuplicatesWithinWindow() {
+        SlidingTimestampSet set = new SlidingTimestampSet(16, 100);
+
+        assertTrue(set.add(10));
+        assertTrue(set.add(20));
+        assertFalse(set.add(10));
+        assertFalse(set.add(20));
+    }
+
+    @Test
+    void testAdd_forgetsTimestampsOutsideWindow() {
+        SlidingTimestampSet set = new SlidingTimestampSet(16, 100);
+        set.add(10);
+
+        set.add(500);
+
+        assertEquals(1, set.size());
+        assertTrue(set.add(10));
+    }
+
+    @Test
+    void testAdd_boundsMemoryByEvictingOldestInsertion() {
+        SlidingTimestampSet set = new SlidingTimestampSet(4, Long.MAX_VALUE / 2);
+        for (long ts = 1; ts <= 6; ts++) {
+            set.add(ts);
+        }
+
+        assertEquals(4, set.size());
+        assertTrue(set.add(1));
+        assertFalse(set.add(6));
+    }
+
+    @Test
+    void testRemove_forgetsTimestampAndKeepsInsertionOrder() {
+        SlidingTimestampSet set = new SlidingTimestampSet(4, 100);
+        for (long ts : new long[]{10, 20, 30}) {
+            set.add(ts);
+        }
+
+        set.remove(20);
+        set.remove(99);
+
+        assertArrayEquals(new long[]{10, 30}, set.toArray());
+        assertFalse(set.add(30));
+        assertTrue(set.add(20));
+        assertArrayEquals(new long[]{10, 30, 20}, set.toArray());
+    }
+
+    @Test
+    void testToArray_rebuildsTheSameWindow() {
+        SlidingTimestampSet set = new SlidingTimestampSet(4, 100);
+        for (long ts : new long[]{10, 30, 20, 40, 50, 110}) {
+            set.add(ts);
+        }
+
+        SlidingTimestampSet copy = new SlidingTimestampSet(4, 100);
+        for (long ts : set.toArray()) {
+            copy.add(ts);
+        }
+
+        assertArrayEquals(new long[]{20, 40, 50, 110}, set.toArray());
+        assertArrayEquals(set.toArray(), copy.toArray());
+        assertFalse(copy.add(20));
+    }
+
+    @Test
+    void testAdd_matchesReferenceSetUnderChurn() {
+        int capacity = 64;
+        SlidingTimestampSet set = new SlidingTimestampSet(capacity, Long.MAX_VALUE / 2);
+        long[] window = new long[capacity];
+        Set<Long> reference = new HashSet<>();
+        Random random = new Random(7);
+        int inserted = 0;
+
+        for (int i = 0; i < 20_000; i++) {
+            long ts = random.nextInt(256);
+            boolean expected = !reference.contains(ts);
+            assertEquals(expected, set.add(ts), "timestamp " + ts + " at step " + i);
+            if (expected) {
+                if (inserted >= capacity) {
+                    reference.remove(window[inserted % capacity]);
+                }
+                window[inserted % capacity] = ts;
+                reference.add(ts);
+                inserted++;
+            }
+        }
+    }
+}
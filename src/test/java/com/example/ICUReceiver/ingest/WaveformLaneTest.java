@@ -0,0 +1,118 @@
+package com.example.ICUReceiver.ingest;
+
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.configuration.IngestProperties;
+import com.example.ICUReceiver.exception.WriteRejectedException;
+import com.example.ICUReceiver.feed.ChangeFeed;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.service.ICUService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaveformLaneTest {
+
+    @Mock
+    private ICUService service;
+
+    @Mock
+    private ChangeFeed changeFeed;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testOffer_waitsForRoomInsteadOfPersistingOnCallingThread() throws InterruptedException {
+        IngestProperties properties = new IngestProperties();
+        properties.getLanes().getWaveform().setQueueCapacity(1);
+        properties.getLanes().getWaveform().setMaxLinger(Duration.ZERO);
+        // Writers are not started yet, so the first waveform occupies the only queue slot.
+        WaveformLane lane = lane(properties);
+        lane.offer(signal(1), List.of(0.1), 0);
+        assertTrue(lane.isSaturated());
+
+        Thread shard = Thread.ofPlatform().start(() -> lane.offer(signal(2), List.of(0.2), 0));
+        shard.join(200);
+        assertTrue(shard.isAlive());
+        verifyNoInteractions(service);
+
+        lane.start();
+        shard.join(5_000);
+        lane.stop();
+
+        assertFalse(shard.isAlive());
+        verify(service, atLeastOnce()).saveWaveforms(anyList());
+        assertFalse(lane.isSaturated());
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.waveform.blocked").count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPersist_retriesRejectedBatchAndAppendsItOnceStored() throws InterruptedException {
+        IngestProperties properties = new IngestProperties();
+        properties.getWriteRetry().setInitialBackoff(Duration.ofMillis(1));
+        doThrow(new WriteRejectedException("bulkhead")).doNothing().when(service).saveWaveforms(anyList());
+        WaveformLane lane = lane(properties);
+
+        lane.start();
+        lane.offer(signal(1), List.of(0.1), 0);
+        lane.stop();
+
+        verify(service, times(2)).saveWaveforms(anyList());
+        ArgumentCaptor<List<ICUSignal>> appended = ArgumentCaptor.forClass(List.class);
+        verify(changeFeed).append(appended.capture());
+        assertEquals(List.of(0.1), appended.getValue().getFirst().getEcgList());
+        assertEquals(0.0, meterRegistry.counter("icu.ingest.waveform.write.failed").count());
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.write.retried", "lane", "waveform").count());
+    }
+
+    @Test
+    void testPersist_givesUpOnlyTheWaveformThatFailsOnItsOwn() throws InterruptedException {
+        IngestProperties properties = new IngestProperties();
+        properties.getLanes().getWaveform().setWriters(1);
+        doAnswer(invocation -> {
+            List<ICUSignal> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(signal -> signal.getNationalId() == 2)) {
+                throw new IllegalStateException("constraint violated");
+            }
+            return null;
+        }).when(service).saveWaveforms(anyList());
+        WaveformLane lane = lane(properties);
+
+        // Queued before the writer starts, so all three end up in one batch.
+        lane.offer(signal(1), List.of(0.1), 0);
+        lane.offer(signal(2), List.of(0.2), 0);
+        lane.offer(signal(3), List.of(0.3), 0);
+        lane.start();
+        lane.stop();
+
+        verify(service, times(4)).saveWaveforms(anyList());
+        verify(changeFeed, times(3)).append(anyList());
+        assertEquals(1.0, meterRegistry.counter("icu.ingest.waveform.write.failed").count());
+    }
+
+    private WaveformLane lane(IngestProperties properties) {
+        return new WaveformLane(service, changeFeed, new LatestSignalCache(0, 1_000, meterRegistry),
+                properties, meterRegistry);
+    }
+
+    private static ICUSignal signal(int nationalId) {
+        return ICUSignal.builder()
+                .id(nationalId)
+                .nationalId(nationalId)
+                .heartbeat(80.0)
+                .pulse(95.0)
+                .timestamp(LocalDateTime.of(2025, 11, 9, 10, 0))
+                .build();
+    }
+}
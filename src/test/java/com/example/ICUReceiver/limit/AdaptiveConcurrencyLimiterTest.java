@@ -0,0 +1,118 @@
+package com.example.ICUReceiver.limit;
+
+import com.example.ICUReceiver.configuration.WriteLimitProperties;
+import com.example.ICUReceiver.exception.WriteRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testAcquire_rejectsWritesOverTheLimitAfterMaxWait() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 2, Duration.ofMillis(10));
+
+        try (AdaptiveConcurrencyLimiter.Permit first = limiter.acquire();
+             AdaptiveConcurrencyLimiter.Permit second = limiter.acquire()) {
+            assertEquals(2, limiter.getInFlight());
+            assertThrows(WriteRejectedException.class, limiter::acquire);
+        }
+
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1.0, meterRegistry.counter("icu.write.rejected", "reason", "limit").count());
+    }
+
+    @Test
+    void testAcquire_waitingWriterIsAdmittedWhenPermitIsReleased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, Duration.ofSeconds(5));
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire();
+
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+            try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
+                permit.success();
+            }
+        });
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+
+        held.success();
+        held.close();
+        waiter.get(5, TimeUnit.SECONDS);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testRelease_failuresShrinkLimitDownToMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 2, 8, Duration.ZERO);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.acquire().close();
+        }
+
+        assertEquals(2, limiter.getLimit());
+        assertEquals(2.0, meterRegistry.get("icu.write.limit").gauge().value());
+    }
+
+    @Test
+    void testRelease_slowWriteShrinksLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 1, 8, Duration.ZERO);
+        for (int i = 0; i < 50; i++) {
+            try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
+                permit.success();
+            }
+        }
+
+        try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
+            Thread.sleep(20);
+            permit.success();
+        }
+
+        assertTrue(limiter.getLimit() < 8, "limit=" + limiter.getLimit());
+    }
+
+    @Test
+    void testRelease_saturatedFastWritesGrowLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 16, Duration.ZERO);
+
+        for (int i = 0; i < 50; i++) {
+            AdaptiveConcurrencyLimiter.Permit first = limiter.acquire();
+            AdaptiveConcurrencyLimiter.Permit second = limiter.acquire();
+            first.success();
+            second.success();
+            first.close();
+            second.close();
+        }
+
+        assertTrue(limiter.getLimit() > 2, "limit=" + limiter.getLimit());
+    }
+
+    @Test
+    void testAcquire_disabledLimiterAdmitsEveryWrite() {
+        WriteLimitProperties properties = new WriteLimitProperties();
+        properties.setEnabled(false);
+        properties.setMaxWait(Duration.ZERO);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+        }
+
+        assertEquals(100, limiter.getInFlight());
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initial, int min, int max, Duration maxWait) {
+        WriteLimitProperties properties = new WriteLimitProperties();
+        properties.setInitialLimit(initial);
+        properties.setMinLimit(min);
+        properties.setMaxLimit(max);
+        properties.setMaxWait(maxWait);
+        return new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.ICUReceiver.limit;
+
+import com.example.ICUReceiver.configuration.RateLimitProperties;
+import com.example.ICUReceiver.exception.RateLimitedException;
+import com.example.ICUReceiver.trace.IngestTrace;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testAcquire_rejectsClientOverItsBurst() {
+        IngestRateLimiter limiter = limiter(new RateLimitProperties.Bucket(1, 2), new RateLimitProperties.Bucket(0, 0));
+
+        limiter.acquire(IngestTrace.Channel.REST, "ward-3", 1);
+        limiter.acquire(IngestTrace.Channel.REST, "ward-3", 2);
+        RateLimitedException e = assertThrows(RateLimitedException.class,
+                () -> limiter.acquire(IngestTrace.Channel.REST, "ward-3", 3));
+        limiter.acquire(IngestTrace.Channel.REST, "ward-4", 3);
+
+        assertEquals(IngestRateLimiter.CLIENT, e.getScope());
+        assertEquals(3, e.getNationalId());
+        assertTrue(e.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertEquals(1.0, meterRegistry.counter("icu.ratelimit.rejected", "scope", "client", "channel", "rest").count());
+    }
+
+    @Test
+    void testAcquire_limitsPatientAcrossClientsAndReturnsClientToken() {
+        IngestRateLimiter limiter = limiter(new RateLimitProperties.Bucket(1, 2), new RateLimitProperties.Bucket(1, 1));
+
+        limiter.acquire(IngestTrace.Channel.WEBSOCKET, "session-1", 7);
+        RateLimitedException e = assertThrows(RateLimitedException.class,
+                () -> limiter.acquire(IngestTrace.Channel.WEBSOCKET, "session-2", 7));
+
+        assertEquals(IngestRateLimiter.PATIENT, e.getScope());
+        // The rejected signal did not use up session-2's tokens.
+        limiter.acquire(IngestTrace.Channel.WEBSOCKET, "session-2", 8);
+        limiter.acquire(IngestTrace.Channel.WEBSOCKET, "session-2", 9);
+        assertEquals(1.0,
+                meterRegistry.counter("icu.ratelimit.rejected", "scope", "patient", "channel", "websocket").count());
+    }
+
+    @Test
+    void testAcquire_admitsEverythingWhenDisabled() {
+        RateLimitProperties properties = properties(new RateLimitProperties.Bucket(1, 1),
+                new RateLimitProperties.Bucket(1, 1));
+        properties.setEnabled(false);
+        IngestRateLimiter limiter = new IngestRateLimiter(properties, meterRegistry);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(IngestTrace.Channel.REST, "ward-3", 7);
+        }
+
+        assertEquals(0, limiter.getClientBucketCount());
+    }
+
+    @Test
+    void testAcquire_evictsBucketsThatRefilled() throws InterruptedException {
+        RateLimitProperties properties = properties(new RateLimitProperties.Bucket(1_000, 1),
+                new RateLimitProperties.Bucket(1_000, 1));
+        properties.setEvictionInterval(Duration.ofMillis(20));
+        IngestRateLimiter limiter = new IngestRateLimiter(properties, meterRegistry);
+        limiter.acquire(IngestTrace.Channel.REST, "ward-3", 7);
+        assertEquals(1, limiter.getPatientBucketCount());
+
+        Thread.sleep(50);
+        limiter.acquire(IngestTrace.Channel.REST, "ward-4", 8);
+
+        assertEquals(1, limiter.getClientBucketCount());
+        assertEquals(1, limiter.getPatientBucketCount());
+        assertEquals(1.0, meterRegistry.get("icu.ratelimit.buckets").tag("scope", "patient").gauge().value());
+    }
+
+    @Test
+    void testClientKey_trustsClientIdOnlyFromTrustedProxies() {
+        RateLimitProperties properties = properties(new RateLimitProperties.Bucket(1, 1),
+                new RateLimitProperties.Bucket(1, 1));
+        properties.setTrustedProxies(List.of("10.0.0.2"));
+        IngestRateLimiter limiter = new IngestRateLimiter(properties, meterRegistry);
+
+        assertEquals("client:ward-3", limiter.clientKey(null, "ward-3", "10.0.0.2"));
+        assertEquals("address:10.0.0.9", limiter.clientKey(null, "ward-3", "10.0.0.9"));
+        assertEquals("address:10.0.0.2", limiter.clientKey(null, " ", "10.0.0.2"));
+        assertEquals("principal:monitor-12", limiter.clientKey("monitor-12", "ward-3", "10.0.0.2"));
+    }
+
+    @Test
+    void testForget_dropsClientBucket() {
+        IngestRateLimiter limiter = limiter(new RateLimitProperties.Bucket(1, 1), new RateLimitProperties.Bucket(0, 0));
+        limiter.acquire(IngestTrace.Channel.WEBSOCKET, "session-1", 7);
+
+        limiter.forget("session-1");
+
+        assertEquals(0, limiter.getClientBucketCount());
+        limiter.acquire(IngestTrace.Channel.WEBSOCKET, "session-1", 7);
+    }
+
+    private IngestRateLimiter limiter(RateLimitProperties.Bucket client, RateLimitProperties.Bucket patient) {
+        return new IngestRateLimiter(properties(client, patient), meterRegistry);
+    }
+
+    private static RateLimitProperties properties(RateLimitProperties.Bucket client, RateLimitProperties.Bucket patient) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setClient(client);
+        properties.setPatient(patient);
+        return properties;
+    }
+}
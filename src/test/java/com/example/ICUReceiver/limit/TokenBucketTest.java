@@ -0,0 +1,86 @@
+package com.example.ICUReceiver.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testTryAcquire_grantsBurstThenReportsWait() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+
+        assertEquals(SECOND / 10, bucket.tryAcquire(0));
+    }
+
+    @Test
+    void testTryAcquire_refillsAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+
+        assertEquals(SECOND / 20, bucket.tryAcquire(SECOND / 20));
+        assertEquals(0, bucket.tryAcquire(SECOND / 10));
+    }
+
+    @Test
+    void testTryAcquire_neverHoldsMoreThanBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+        long later = 60 * SECOND;
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void testRelease_returnsToken() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+        bucket.tryAcquire(0);
+
+        bucket.release();
+
+        assertEquals(0, bucket.tryAcquire(0));
+    }
+
+    @Test
+    void testIsFull_onceRefilled() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        assertTrue(bucket.isFull(0));
+
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        assertFalse(bucket.isFull(SECOND / 10));
+        assertTrue(bucket.isFull(SECOND / 5));
+    }
+
+    @Test
+    void testTryAcquire_concurrentCallersShareBurstExactly() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 1_000, 0);
+        AtomicInteger granted = new AtomicInteger();
+
+        try (ExecutorService callers = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                callers.execute(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        if (bucket.tryAcquire(0) == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+
+        assertEquals(1_000, granted.get());
+    }
+}
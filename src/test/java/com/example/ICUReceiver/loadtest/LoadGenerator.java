@@ -0,0 +1,220 @@
+package com.example.ICUReceiver.loadtest;
+
+import com.example.ICUReceiver.IcuReceiverApplication;
+import com.example.ICUReceiver.controller.ICUController;
+import com.example.ICUReceiver.dto.ICUSignalDto;
+import com.example.ICUReceiver.store.SignalStore;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulates ICU beds against an in-process receiver on the embedded H2 database.
+ * <p>
+ * Boots the application on a random port, opens {@code beds} WebSocket connections to
+ * <code>/ws/dynamic</code> and starts {@code uploaders} REST clients on
+ * <code>/api/v1/icu/upload</code>. Every bed runs on its own virtual thread and sends
+ * {@link ICUSignalDto} payloads with synthetic vitals and an ECG trace on a fixed schedule.
+ * Payload timestamps are the <em>intended</em> send time, so a stalled receiver shows up as lag
+ * rather than as a silently lower send rate (no coordinated omission).
+ * <p>
+ * Run as a test with {@code mvn test -Pbenchmark -Dtest=LoadGeneratorTest -Dload.beds=2000}, or
+ * from the IDE through {@link #main(String[])} with the same <code>load.*</code> system properties.
+ */
+public class LoadGenerator {
+
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder wsErrors = new LongAdder();
+    private final LongAdder restErrors = new LongAdder();
+    private final LongAdder connectFailures = new LongAdder();
+    private final Recorder lag = new Recorder(3);
+    private final Recorder uploadLatency = new Recorder(3);
+    private volatile boolean measuring;
+
+    public LoadGenerator(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadGenerator(LoadTestConfig.fromSystemProperties()).run().print(System.out);
+    }
+
+    public LoadReport run() throws Exception {
+        try (ConfigurableApplicationContext context = startReceiver();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            RecordingSignalStore store = context.getBean(RecordingSignalStore.class);
+            HttpClient client = HttpClient.newBuilder().executor(executor).build();
+
+            long start = System.nanoTime();
+            long measureFrom = start + config.getWarmup().toNanos();
+            long end = measureFrom + config.getDuration().toNanos();
+            long period = (long) (TimeUnit.SECONDS.toNanos(1) / config.getRatePerSecond());
+
+            List<Future<?>> beds = new ArrayList<>();
+            for (int bed = 0; bed < config.getBeds(); bed++) {
+                int nationalId = bed + 1;
+                beds.add(executor.submit(() -> streamOverWebSocket(client, port, nationalId, start, period, end)));
+            }
+            for (int uploader = 0; uploader < config.getUploaders(); uploader++) {
+                int nationalId = config.getBeds() + uploader + 1;
+                beds.add(executor.submit(() -> streamOverRest(client, port, nationalId, start, period, end)));
+            }
+
+            LockSupport.parkNanos(measureFrom - System.nanoTime());
+            store.startRecording();
+            uploadLatency.reset();
+            sent.reset();
+            wsErrors.reset();
+            restErrors.reset();
+            measuring = true;
+            for (Future<?> bed : beds) {
+                bed.get();
+            }
+            measuring = false;
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - measureFrom);
+
+            return new LoadReport(config, elapsed, sent.sum(), store.stored(),
+                    wsErrors.sum() + connectFailures.sum(), restErrors.sum(),
+                    lag.getIntervalHistogram(), uploadLatency.getIntervalHistogram());
+        }
+    }
+
+    private ConfigurableApplicationContext startReceiver() {
+        return new SpringApplicationBuilder(IcuReceiverApplication.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.com.example.ICUReceiver=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + System.nanoTime(),
+                        "icu.waveform.directory=./target/load/waveforms-" + System.nanoTime(),
+                        "icu.feed.directory=./target/load/feed-" + System.nanoTime(),
+                        "icu.ingest.reorder.max-lateness=" + config.getMaxLateness().toMillis() + "ms",
+                        // Every simulated device uploads from localhost, naming itself in X-Client-Id.
+                        "icu.rate-limit.trusted-proxies=127.0.0.1,0:0:0:0:0:0:0:1")
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof SignalStore signalStore && !(bean instanceof RecordingSignalStore)
+                                ? new RecordingSignalStore(signalStore, lag)
+                                : bean;
+                    }
+                }))
+                .run();
+    }
+
+    private void streamOverWebSocket(HttpClient client, int port, int nationalId, long start, long period, long end) {
+        WebSocket socket;
+        try {
+            socket = client.newWebSocketBuilder()
+                    .buildAsync(URI.create("ws://localhost:" + port + "/ws/dynamic"), new ErrorFrameListener())
+                    .join();
+        } catch (RuntimeException e) {
+            connectFailures.increment();
+            return;
+        }
+        long next = start + ThreadLocalRandom.current().nextLong(period);
+        while (next < end) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            try {
+                socket.sendText(payload(nationalId, next), true).join();
+                count(sent);
+            } catch (RuntimeException e) {
+                count(wsErrors);
+            }
+            next += period;
+        }
+        socket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+    }
+
+    private void streamOverRest(HttpClient client, int port, int nationalId, long start, long period, long end) {
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/icu/upload");
+        long next = start + ThreadLocalRandom.current().nextLong(period);
+        while (next < end) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .header(ICUController.CLIENT_ID, "load-" + nationalId)
+                    .POST(HttpRequest.BodyPublishers.ofString(payload(nationalId, next)))
+                    .build();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                count(sent);
+                if (response.statusCode() / 100 != 2) {
+                    count(restErrors);
+                } else if (measuring) {
+                    uploadLatency.recordValue((System.nanoTime() - next) / 1_000);
+                }
+            } catch (Exception e) {
+                count(restErrors);
+            }
+            next += period;
+        }
+    }
+
+    /**
+     * Builds a signal for the intended send instant {@code sendNanos}, with vitals around a
+     * per-bed baseline and an ECG trace of sinus beats sampled at 500 Hz.
+     */
+    private String payload(int nationalId, long sendNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime timestamp = LocalDateTime.ofInstant(
+                Instant.now().minusNanos(System.nanoTime() - sendNanos), ZoneId.systemDefault());
+        double heartRate = 60 + nationalId % 40 + random.nextGaussian() * 2;
+        List<Double> ecg = new ArrayList<>(config.getEcgLength());
+        double beatSeconds = 60 / heartRate;
+        for (int i = 0; i < config.getEcgLength(); i++) {
+            double phase = (i / 500.0) % beatSeconds / beatSeconds;
+            ecg.add(0.1 * Math.exp(-Math.pow((phase - 0.2) / 0.03, 2))
+                    + 1.0 * Math.exp(-Math.pow((phase - 0.35) / 0.01, 2))
+                    + 0.3 * Math.exp(-Math.pow((phase - 0.6) / 0.05, 2))
+                    + random.nextGaussian() * 0.02);
+        }
+        ICUSignalDto dto = new ICUSignalDto(nationalId, heartRate, 95 + random.nextDouble() * 4, timestamp, ecg);
+        return objectMapper.writeValueAsString(dto);
+    }
+
+    private void count(LongAdder counter) {
+        if (measuring) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Counts the handler's "Error: ..." frames as WebSocket errors.
+     */
+    private final class ErrorFrameListener implements WebSocket.Listener {
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            if (data.toString().startsWith("Error")) {
+                count(wsErrors);
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.ICUReceiver.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link LoadGenerator} with the <code>load.*</code> system properties
+ * (defaults: 500 WebSocket beds, 50 REST uploaders, 2 signals/s, 250 ECG samples, 30 s).
+ */
+@Tag("benchmark")
+class LoadGeneratorTest {
+
+    @Test
+    void sustainsConfiguredBedsWithoutErrors() throws Exception {
+        LoadReport report = new LoadGenerator(LoadTestConfig.fromSystemProperties()).run();
+        report.print(System.out);
+
+        assertTrue(report.getStored() > 0, "no signal reached the store");
+        assertEquals(0, report.getWsErrors() + report.getRestErrors(), "transport or ingest errors");
+    }
+}
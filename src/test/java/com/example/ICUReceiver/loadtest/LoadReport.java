@@ -0,0 +1,63 @@
+package com.example.ICUReceiver.loadtest;
+
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+
+/**
+ * Result of one load run: throughput, error counts and latency distributions in microseconds.
+ */
+@Value
+public class LoadReport {
+
+    LoadTestConfig config;
+    Duration elapsed;
+    long sent;
+    long stored;
+    long wsErrors;
+    long restErrors;
+
+    /** Intended send time to the moment the signal reached the signal store. */
+    Histogram endToEndLag;
+
+    /** REST upload round trip, measured from the intended send time. */
+    Histogram uploadLatency;
+
+    public double sentPerSecond() {
+        return sent / seconds();
+    }
+
+    public double storedPerSecond() {
+        return stored / seconds();
+    }
+
+    public double errorRate() {
+        return sent == 0 ? 0 : (double) (wsErrors + restErrors) / sent;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("beds=%d uploaders=%d rate=%.1f/s ecgLength=%d elapsed=%ds%n",
+                config.getBeds(), config.getUploaders(), config.getRatePerSecond(), config.getEcgLength(),
+                elapsed.toSeconds());
+        out.printf("sent=%d (%.0f/s) stored=%d (%.0f/s) wsErrors=%d restErrors=%d errorRate=%.4f%%%n",
+                sent, sentPerSecond(), stored, storedPerSecond(), wsErrors, restErrors, errorRate() * 100);
+        line(out, "end-to-end lag", endToEndLag);
+        line(out, "upload latency", uploadLatency);
+    }
+
+    private double seconds() {
+        return Math.max(1e-9, elapsed.toNanos() / 1e9);
+    }
+
+    private static void line(PrintStream out, String label, Histogram histogram) {
+        out.printf("%-15s n=%d p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n", label,
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1e3,
+                histogram.getValueAtPercentile(90) / 1e3,
+                histogram.getValueAtPercentile(99) / 1e3,
+                histogram.getValueAtPercentile(99.9) / 1e3,
+                histogram.getMaxValue() / 1e3);
+    }
+}
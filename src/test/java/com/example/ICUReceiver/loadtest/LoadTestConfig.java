@@ -0,0 +1,48 @@
+package com.example.ICUReceiver.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Shape of one load run. Every field can be overridden with a <code>load.*</code> system property,
+ * e.g. <code>-Dload.beds=2000 -Dload.ecgLength=500</code>.
+ */
+@Value
+@Builder
+public class LoadTestConfig {
+
+    /** WebSocket connections to <code>/ws/dynamic</code>, one simulated bed each. */
+    int beds;
+
+    /** REST clients posting to <code>/api/v1/icu/upload</code>, one simulated bed each. */
+    int uploaders;
+
+    /** Signals per second sent by every bed. */
+    double ratePerSecond;
+
+    /** ECG samples per signal; 250 is half a second at 500 Hz. */
+    int ecgLength;
+
+    /** Measured run time, after warm-up. */
+    Duration duration;
+
+    /** Load applied before measurement starts, so JIT and pools settle. */
+    Duration warmup;
+
+    /** Reorder lateness applied to the receiver; end-to-end lag includes this hold-back by design. */
+    Duration maxLateness;
+
+    public static LoadTestConfig fromSystemProperties() {
+        return LoadTestConfig.builder()
+                .beds(Integer.getInteger("load.beds", 500))
+                .uploaders(Integer.getInteger("load.uploaders", 50))
+                .ratePerSecond(Double.parseDouble(System.getProperty("load.ratePerSecond", "2")))
+                .ecgLength(Integer.getInteger("load.ecgLength", 250))
+                .duration(Duration.parse(System.getProperty("load.duration", "PT30S")))
+                .warmup(Duration.parse(System.getProperty("load.warmup", "PT5S")))
+                .maxLateness(Duration.parse(System.getProperty("load.maxLateness", "PT0.2S")))
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.ICUReceiver.loadtest;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.store.SignalSlice;
+import com.example.ICUReceiver.store.SignalStore;
+import org.HdrHistogram.Recorder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorates the active {@link SignalStore} and records, for every appended signal, the time
+ * from its payload timestamp to the append. The load generator stamps each payload with its
+ * intended send time, so this is the socket-to-storage lag including queueing and reordering.
+ */
+class RecordingSignalStore implements SignalStore, Closeable {
+
+    private final SignalStore delegate;
+    private final Recorder lag;
+    private final LongAdder stored = new LongAdder();
+    private volatile boolean recording;
+
+    RecordingSignalStore(SignalStore delegate, Recorder lag) {
+        this.delegate = delegate;
+        this.lag = lag;
+    }
+
+    @Override
+    public void append(List<ICUSignal> batch) {
+        delegate.append(batch);
+        if (!recording) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(ZoneId.systemDefault());
+        for (ICUSignal signal : batch) {
+            lag.recordValue(Math.max(0, ChronoUnit.MICROS.between(signal.getTimestamp(), now)));
+        }
+        stored.add(batch.size());
+    }
+
+    @Override
+    public SignalSlice range(int nationalId, LocalDateTime start, LocalDateTime end, long cursor, int limit) {
+        return delegate.range(nationalId, start, end, cursor, limit);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    void startRecording() {
+        lag.reset();
+        stored.reset();
+        recording = true;
+    }
+
+    long stored() {
+        return stored.sum();
+    }
+}
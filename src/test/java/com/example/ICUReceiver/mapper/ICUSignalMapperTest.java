@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class ICUSignalMapperTest {
 
@@ -37,14 +38,22 @@ public class ICUSignalMapperTest {
     @Test
     void testToDto() {
         ICUSignal entity = new ICUSignal(1, 123, 80.0, 70.0,
-                LocalDateTime.of(2025, 11, 9, 10, 0), Arrays.asList(0.1, 0.2, 0.3));
+                LocalDateTime.of(2025, 11, 9, 10, 0), Arrays.asList(0.1, 0.2, 0.3), null, null);
 
         ICUSignalDto dto = mapper.toDto(entity);
 
+        assertEquals(1, dto.getId());
         assertEquals(entity.getNationalId(), dto.getNationalId());
         assertEquals(entity.getHeartbeat(), dto.getHeartbeat());
         assertEquals(entity.getPulse(), dto.getPulse());
         assertEquals(entity.getTimestamp(), dto.getTimestamp());
         assertEquals(entity.getEcgList(), dto.getEcgList());
     }
+
+    @Test
+    void testToDto_leavesIdOutBeforeSignalIsStored() {
+        ICUSignal entity = ICUSignal.builder().nationalId(123).heartbeat(80.0).pulse(70.0).build();
+
+        assertNull(mapper.toDto(entity).getId());
+    }
 }
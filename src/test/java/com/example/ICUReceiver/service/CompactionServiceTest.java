@@ -0,0 +1,85 @@
+package com.example.ICUReceiver.service;
+
+import com.example.ICUReceiver.configuration.SignalStoreProperties;
+import com.example.ICUReceiver.exception.WriteRejectedException;
+import com.example.ICUReceiver.model.SignalBlock;
+import com.example.ICUReceiver.store.SignalBlockCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CompactionServiceTest {
+
+    @Mock
+    private ICUService icuService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CompactionService compactionService;
+
+    @BeforeEach
+    void setUp() {
+        SignalStoreProperties properties = new SignalStoreProperties();
+        properties.getCompaction().setOlderThan(Duration.ofDays(1));
+        properties.getCompaction().setBlockSize(2);
+        compactionService = new CompactionService(icuService, properties, meterRegistry);
+    }
+
+    @Test
+    void testCompactOnce_compactsEachPatientUntilAPartialBlock() {
+        when(icuService.findCompactablePatients(any())).thenReturn(List.of(1, 2));
+        when(icuService.compactSignals(eq(1), any(), eq(2))).thenReturn(block(2, 20), block(1, 12));
+        when(icuService.compactSignals(eq(2), any(), eq(2))).thenReturn(block(2, 18), null);
+
+        LocalDateTime earliest = LocalDateTime.now().minusDays(1);
+        long compacted = compactionService.compactOnce();
+
+        assertEquals(5, compacted);
+        verify(icuService, times(2)).compactSignals(eq(1), any(), eq(2));
+        verify(icuService, times(2)).compactSignals(eq(2), any(), eq(2));
+        verify(icuService).findCompactablePatients(argThat(before -> !before.isBefore(earliest)));
+        assertEquals(5.0, meterRegistry.counter("icu.compaction.signals").count());
+        assertEquals(3.0, meterRegistry.counter("icu.compaction.blocks").count());
+        assertEquals(5.0 * SignalBlockCodec.RAW_SIGNAL_BYTES,
+                meterRegistry.counter("icu.compaction.bytes", "kind", "raw").count());
+        assertEquals(50.0, meterRegistry.counter("icu.compaction.bytes", "kind", "encoded").count());
+    }
+
+    @Test
+    void testCompactOnce_stopsWhenWritesAreRejected() {
+        when(icuService.findCompactablePatients(any())).thenReturn(List.of(1, 2));
+        when(icuService.compactSignals(eq(1), any(), eq(2))).thenThrow(new WriteRejectedException("limit"));
+
+        assertThrows(WriteRejectedException.class, compactionService::compactOnce);
+        verify(icuService, never()).compactSignals(eq(2), any(), anyInt());
+    }
+
+    @Test
+    void testStart_staysIdleWhenStoreCannotCompact() throws InterruptedException {
+        when(icuService.supportsCompaction()).thenReturn(false);
+
+        compactionService.start();
+        compactionService.stop();
+
+        verify(icuService, never()).findCompactablePatients(any());
+    }
+
+    private static SignalBlock block(int signals, int bytes) {
+        return SignalBlock.builder()
+                .signalCount(signals)
+                .data(new byte[bytes])
+                .build();
+    }
+}
@@ -1,18 +1,24 @@
 package com.example.ICUReceiver.service;
 
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.exception.WriteRejectedException;
 import com.example.ICUReceiver.model.ICUSignal;
-import com.example.ICUReceiver.repository.ICURepository;
+import com.example.ICUReceiver.store.SignalSlice;
+import com.example.ICUReceiver.store.DeferredWaveformStore;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,7 +31,7 @@ import static org.mockito.Mockito.*;
 class ICUServiceTest {
 
     @Mock
-    private ICURepository repository;
+    private DeferredWaveformStore store;
 
     @Mock
     private MeterRegistry meterRegistry;
@@ -39,6 +45,12 @@ class ICUServiceTest {
     @Mock
     private Timer queryTimer;
 
+    @Mock
+    private Counter bulkheadRejectedCounter;
+
+    @Mock
+    private Counter circuitOpenRejectedCounter;
+
     private ICUService icuService;
 
     @BeforeEach
@@ -46,48 +58,71 @@ class ICUServiceTest {
         when(meterRegistry.counter("icu.signals.saved.total")).thenReturn(saveCounter);
         when(meterRegistry.counter("icu.signals.query.total")).thenReturn(queryCounter);
         when(meterRegistry.timer("icu.signals.query.duration")).thenReturn(queryTimer);
-        icuService = new ICUService(repository, meterRegistry);
+        when(meterRegistry.counter("icu.write.rejected", "reason", "bulkhead")).thenReturn(bulkheadRejectedCounter);
+        when(meterRegistry.counter("icu.write.rejected", "reason", "circuit-open")).thenReturn(circuitOpenRejectedCounter);
+        icuService = new ICUService(store, new LatestSignalCache(0, 1_000, new SimpleMeterRegistry()), meterRegistry);
     }
 
     @Test
-    void testSaveSignal_callsRepositoryAndIncrementsCounter() {
+    void testSaveSignal_appendsToStoreAndIncrementsCounter() {
         ICUSignal signal = new ICUSignal();
         signal.setNationalId(1);
 
         icuService.saveSignal(signal);
 
-        verify(repository, times(1)).save(signal);
+        verify(store, times(1)).append(List.of(signal));
         verify(saveCounter, times(1)).increment();
         assertNotNull(signal.getTimestamp()); // timestamp should be set
     }
 
     @Test
-    void testFindByTimeRange_callsRepositoryAndRecordsTimer() {
+    void testSaveSignal_keepsDeviceTimestamp() {
+        LocalDateTime deviceTime = LocalDateTime.of(2025, 11, 9, 10, 0);
+        ICUSignal signal = new ICUSignal();
+        signal.setTimestamp(deviceTime);
+
+        icuService.saveSignal(signal);
+
+        assertEquals(deviceTime, signal.getTimestamp());
+    }
+
+    @Test
+    void testSaveSignals_appendsBatchAndCountsEachSignal() {
+        ICUSignal first = new ICUSignal();
+        ICUSignal second = new ICUSignal();
+        List<ICUSignal> batch = List.of(first, second);
+
+        icuService.saveSignals(batch);
+
+        verify(store, times(1)).append(batch);
+        verify(saveCounter, times(1)).increment(2);
+    }
+
+    @Test
+    void testFindByTimeRange_queriesStoreAndRecordsTimer() {
         int nationalId = 1;
         LocalDateTime start = LocalDateTime.now().minusDays(1);
         LocalDateTime end = LocalDateTime.now();
-        Page<ICUSignal> pageResult = new PageImpl<>(List.of(new ICUSignal()));
+        SignalSlice slice = new SignalSlice(List.of(new ICUSignal()), 1, 1);
 
-        when(repository.findByNationalIdAndTimestampBetweenOrderByTimestampDesc(
-                eq(nationalId), eq(start), eq(end), any(Pageable.class)))
-                .thenReturn(pageResult);
+        when(store.range(nationalId, start, end, 0L, 10)).thenReturn(slice);
 
         Page<ICUSignal> result = icuService.findByTimeRange(nationalId, start, end, 0, 10);
 
         assertEquals(1, result.getContent().size());
+        assertEquals(1, result.getTotalElements());
         verify(queryCounter, times(1)).increment();
         verify(queryTimer, times(1)).record(anyLong(), eq(TimeUnit.NANOSECONDS));
     }
 
     @Test
-    void testFindLatest_callsRepositoryAndRecordsTimer() {
+    void testFindLatest_queriesStoreAndRecordsTimer() {
         int nationalId = 1;
-        Page<ICUSignal> pageResult = new PageImpl<>(List.of(new ICUSignal()));
+        SignalSlice slice = new SignalSlice(List.of(new ICUSignal()), 1, 1);
 
-        when(repository.findByNationalIdOrderByTimestampDesc(eq(nationalId), any(Pageable.class)))
-                .thenReturn(pageResult);
+        when(store.range(nationalId, null, null, 5L, 5)).thenReturn(slice);
 
-        Page<ICUSignal> result = icuService.findLatest(nationalId, 0, 5);
+        Page<ICUSignal> result = icuService.findLatest(nationalId, 1, 5);
 
         assertEquals(1, result.getContent().size());
         verify(queryCounter, times(1)).increment();
@@ -95,12 +130,80 @@ class ICUServiceTest {
     }
 
     @Test
-    void testFallbackSaveSignal_logsError() {
+    void testFindLatest_seedsCacheOnMissAndAnswersNextReadFromIt() {
+        LatestSignalCache latestCache = new LatestSignalCache(10, 1_000, new SimpleMeterRegistry());
+        ICUService cached = new ICUService(store, latestCache, meterRegistry);
+        LocalDateTime now = LocalDateTime.of(2025, 11, 9, 10, 0);
+        List<ICUSignal> newest = List.of(signal(3, now.plusSeconds(2)), signal(2, now.plusSeconds(1)), signal(1, now));
+        when(store.range(1, null, null, 0L, 10)).thenReturn(new SignalSlice(newest, 3, 3));
+
+        Page<ICUSignal> first = cached.findLatest(1, 0, 2);
+        Page<ICUSignal> second = cached.findLatest(1, 1, 2);
+
+        assertEquals(List.of(3, 2), first.getContent().stream().map(ICUSignal::getId).toList());
+        assertEquals(List.of(1), second.getContent().stream().map(ICUSignal::getId).toList());
+        assertEquals(3, second.getTotalElements());
+        verify(store, times(1)).range(anyInt(), any(), any(), anyLong(), anyInt());
+        verify(store, times(1)).readWaveforms(anyList());
+    }
+
+    @Test
+    void testSaveSignal_invalidatesCachedPatient() {
+        LatestSignalCache latestCache = new LatestSignalCache(10, 1_000, new SimpleMeterRegistry());
+        ICUService cached = new ICUService(store, latestCache, meterRegistry);
+        latestCache.seed(1, latestCache.version(1), List.of(signal(1, LocalDateTime.of(2025, 11, 9, 10, 0))), 1);
         ICUSignal signal = new ICUSignal();
-        Throwable ex = new RuntimeException("fail");
+        signal.setNationalId(1);
 
-        // just call fallback, check no exception thrown
-        icuService.fallbackSaveSignal(signal, ex);
+        cached.saveSignal(signal);
+
+        assertNull(latestCache.read(1, 0, 10));
+    }
+
+    @Test
+    void testFallbackSaveSignal_rethrowsDatabaseFailure() {
+        RuntimeException failure = new IllegalStateException("db down");
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> icuService.fallbackSaveSignal(new ICUSignal(), failure));
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    void testFallbackSaveSignals_rethrowsDatabaseFailure() {
+        RuntimeException failure = new IllegalStateException("db down");
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> icuService.fallbackSaveSignals(List.of(new ICUSignal()), failure));
+        assertSame(failure, thrown);
+        verify(bulkheadRejectedCounter, never()).increment();
+    }
+
+    @Test
+    void testFallbackSaveWaveforms_rethrowsDatabaseFailure() {
+        RuntimeException failure = new IllegalStateException("db down");
+
+        assertSame(failure, assertThrows(RuntimeException.class,
+                () -> icuService.fallbackSaveWaveforms(List.of(new ICUSignal()), failure)));
+    }
+
+    @Test
+    void testFallbackSaveSignals_rethrowsBulkheadRejectionAndCountsIt() {
+        BulkheadFullException full = BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("icuWrites"));
+
+        assertThrows(WriteRejectedException.class,
+                () -> icuService.fallbackSaveSignals(List.of(new ICUSignal()), full));
+        verify(bulkheadRejectedCounter, times(1)).increment();
+    }
+
+    @Test
+    void testFallbackSaveWaveforms_rethrowsOpenCircuitAndCountsIt() {
+        CallNotPermittedException open = CallNotPermittedException.createCallNotPermittedException(
+                CircuitBreaker.ofDefaults("icuWrites"));
+
+        assertThrows(WriteRejectedException.class,
+                () -> icuService.fallbackSaveWaveforms(List.of(new ICUSignal()), open));
+        verify(circuitOpenRejectedCounter, times(1)).increment();
     }
 
     @Test
@@ -115,4 +218,14 @@ class ICUServiceTest {
         Page<ICUSignal> result = icuService.fallbackFindLatest(1, 0, 10, new RuntimeException());
         assertTrue(result.isEmpty());
     }
+
+    private static ICUSignal signal(int id, LocalDateTime timestamp) {
+        return ICUSignal.builder()
+                .id(id)
+                .nationalId(1)
+                .heartbeat(80.0)
+                .pulse(95.0)
+                .timestamp(timestamp)
+                .build();
+    }
 }
@@ -0,0 +1,136 @@
+package com.example.ICUReceiver.service;
+
+import com.example.ICUReceiver.dto.PatientStatsDto;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.RollupGranularity;
+import com.example.ICUReceiver.model.RollupMetric;
+import com.example.ICUReceiver.model.SignalRollup;
+import com.example.ICUReceiver.model.SignalRollupId;
+import com.example.ICUReceiver.repository.SignalRollupRepository;
+import com.example.ICUReceiver.stats.RollupAccumulator;
+import com.example.ICUReceiver.stats.RollupDelta;
+import com.example.ICUReceiver.stats.RollupKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatsServiceTest {
+
+    private static final LocalDateTime WINDOW = LocalDateTime.of(2025, 11, 9, 10, 0);
+
+    @Mock
+    private SignalRollupRepository repository;
+
+    @Mock
+    private MeterRegistry meterRegistry;
+
+    @Mock
+    private Counter mergedCounter;
+
+    private StatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        when(meterRegistry.counter("icu.stats.rollups.merged")).thenReturn(mergedCounter);
+        statsService = new StatsService(repository, meterRegistry);
+    }
+
+    @Test
+    void testMergeRollups_foldsDeltaIntoExistingRow() {
+        SignalRollupId heartbeatId = new SignalRollupId(1, RollupGranularity.HOUR, WINDOW, RollupMetric.HEARTBEAT);
+        // 80 and 90 stored earlier
+        when(repository.findAllById(anyCollection()))
+                .thenReturn(List.of(new SignalRollup(heartbeatId, 2, 170, 85, 50, 80, 90)));
+
+        statsService.mergeRollups(hourDeltas(100));
+
+        ArgumentCaptor<List<SignalRollup>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(saved.capture());
+        Map<SignalRollupId, SignalRollup> rows = saved.getValue().stream()
+                .collect(Collectors.toMap(SignalRollup::getId, row -> row));
+        SignalRollup heartbeat = rows.get(heartbeatId);
+        assertEquals(3, heartbeat.getCount());
+        assertEquals(270, heartbeat.getSum());
+        assertEquals(90, heartbeat.getMean(), 1e-9);
+        assertEquals(200, heartbeat.getM2(), 1e-9);
+        assertEquals(100, heartbeat.getMax());
+        SignalRollup pulse = rows.get(new SignalRollupId(1, RollupGranularity.HOUR, WINDOW, RollupMetric.PULSE));
+        assertEquals(1, pulse.getCount());
+        assertEquals(90, pulse.getMean());
+        verify(mergedCounter).increment(1);
+    }
+
+    @Test
+    void testMergeRollups_ignoresEmptyDeltas() {
+        statsService.mergeRollups(Map.of());
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testFindStats_returnsWindowsAndTheirMerge() {
+        when(repository.findByIdNationalIdAndIdGranularityAndIdWindowStartBetweenOrderByIdWindowStartAsc(
+                1, RollupGranularity.HOUR, WINDOW, WINDOW.plusHours(1)))
+                .thenReturn(List.of(
+                        row(WINDOW, RollupMetric.HEARTBEAT, 2, 160, 80, 0, 80, 80),
+                        row(WINDOW, RollupMetric.PULSE, 2, 140, 70, 0, 70, 70),
+                        row(WINDOW.plusHours(1), RollupMetric.HEARTBEAT, 2, 200, 100, 0, 100, 100),
+                        row(WINDOW.plusHours(1), RollupMetric.PULSE, 2, 180, 90, 0, 90, 90)));
+
+        PatientStatsDto stats = statsService.findStats(1, RollupGranularity.HOUR,
+                WINDOW.plusMinutes(15), WINDOW.plusHours(1).plusMinutes(30));
+
+        assertEquals(WINDOW, stats.getFrom());
+        assertEquals(WINDOW.plusHours(1), stats.getTo());
+        assertEquals(2, stats.getWindows().size());
+        assertEquals(WINDOW.plusHours(1), stats.getWindows().get(0).getWindowEnd());
+        assertEquals(100, stats.getWindows().get(1).getHeartbeat().getMean());
+        assertEquals(4, stats.getSummary().getHeartbeat().getCount());
+        assertEquals(90, stats.getSummary().getHeartbeat().getMean());
+        assertEquals(400.0 / 3, stats.getSummary().getHeartbeat().getVariance(), 1e-9);
+        assertEquals(80, stats.getSummary().getPulse().getMean());
+    }
+
+    @Test
+    void testFindStats_defaultsToTrailingWindows() {
+        when(repository.findByIdNationalIdAndIdGranularityAndIdWindowStartBetweenOrderByIdWindowStartAsc(
+                anyInt(), any(), any(), any())).thenReturn(List.of());
+
+        PatientStatsDto stats = statsService.findStats(1, RollupGranularity.MINUTE, null, WINDOW);
+
+        assertEquals(WINDOW.minusMinutes(StatsService.DEFAULT_WINDOWS - 1), stats.getFrom());
+        assertEquals(WINDOW, stats.getTo());
+        assertTrue(stats.getWindows().isEmpty());
+        assertEquals(0, stats.getSummary().getHeartbeat().getCount());
+    }
+
+    private static Map<RollupKey, RollupDelta> hourDeltas(double heartbeat) {
+        RollupAccumulator accumulator = new RollupAccumulator();
+        accumulator.add(ICUSignal.builder().nationalId(1).heartbeat(heartbeat).pulse(heartbeat - 10)
+                .timestamp(WINDOW.plusMinutes(5)).build());
+        return accumulator.drain().entrySet().stream()
+                .filter(entry -> entry.getKey().granularity() == RollupGranularity.HOUR)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private static SignalRollup row(LocalDateTime windowStart, RollupMetric metric, long count, double sum,
+                                    double mean, double m2, double min, double max) {
+        return new SignalRollup(new SignalRollupId(1, RollupGranularity.HOUR, windowStart, metric),
+                count, sum, mean, m2, min, max);
+    }
+}
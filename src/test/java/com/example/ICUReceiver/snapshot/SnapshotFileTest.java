@@ -0,0 +1,114 @@
+package com.example.ICUReceiver.snapshot;
+
+import com.example.ICUReceiver.model.EcgFeatures;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.WaveformRef;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 10, 0, 0, 123_456_789);
+    private static final Instant CREATED_AT = Instant.parse("2025-11-09T10:05:00Z");
+
+    @TempDir
+    Path root;
+
+    @Test
+    void testWriteAndRead_roundTripsLatestAndIngestState() throws IOException {
+        ICUSignal withRef = signal(1, 0);
+        withRef.setEcgRef(new WaveformRef(2, 4096L, 500));
+        withRef.setEcgFeatures(new EcgFeatures(3, 800.0, null, 820.0, 75.0));
+        ICUSignal withSamples = signal(2, 1);
+        withSamples.setEcgList(List.of(0.1, -0.2, 0.3));
+        StateSnapshot snapshot = new StateSnapshot(CREATED_AT,
+                List.of(new StateSnapshot.PatientLatest(7, 42, List.of(withRef, signal(3, -1)))),
+                List.of(new StateSnapshot.PatientIngest(7, new long[]{10L, 20L, 30L}, List.of(
+                        new StateSnapshot.PendingSignal(withSamples, true, false),
+                        new StateSnapshot.PendingSignal(signal(4, 2), false, true)))));
+        Path file = root.resolve("state.snapshot");
+
+        long bytes = SnapshotFile.write(file, snapshot);
+        StateSnapshot read = SnapshotFile.read(file);
+
+        assertEquals(Files.size(file), bytes);
+        assertEquals(CREATED_AT, read.createdAt());
+        StateSnapshot.PatientLatest latest = read.latest().getFirst();
+        assertEquals(7, latest.nationalId());
+        assertEquals(42, latest.total());
+        assertEquals(withRef, latest.signals().get(0));
+        assertEquals(signal(3, -1), latest.signals().get(1));
+
+        StateSnapshot.PatientIngest ingest = read.ingest().getFirst();
+        assertArrayEquals(new long[]{10L, 20L, 30L}, ingest.seen());
+        assertEquals(new StateSnapshot.PendingSignal(withSamples, true, false), ingest.pending().get(0));
+        assertEquals(new StateSnapshot.PendingSignal(signal(4, 2), false, true), ingest.pending().get(1));
+    }
+
+    @Test
+    void testWrite_replacesPreviousSnapshotWithoutLeavingTemporaryFile() throws IOException {
+        Path file = root.resolve("state.snapshot");
+        SnapshotFile.write(file, new StateSnapshot(CREATED_AT,
+                List.of(new StateSnapshot.PatientLatest(7, 1, List.of(signal(1, 0)))), List.of()));
+
+        SnapshotFile.write(file, new StateSnapshot(CREATED_AT.plusSeconds(30), List.of(), List.of()));
+
+        StateSnapshot read = SnapshotFile.read(file);
+        assertEquals(CREATED_AT.plusSeconds(30), read.createdAt());
+        assertTrue(read.latest().isEmpty());
+        assertFalse(Files.exists(root.resolve("state.snapshot.tmp")));
+    }
+
+    @Test
+    void testRead_rejectsCorruptBody() throws IOException {
+        Path file = root.resolve("state.snapshot");
+        SnapshotFile.write(file, new StateSnapshot(CREATED_AT,
+                List.of(new StateSnapshot.PatientLatest(7, 1, List.of(signal(1, 0)))), List.of()));
+        byte[] content = Files.readAllBytes(file);
+        content[SnapshotFile.HEADER_BYTES + 10] ^= 0x5A;
+        Files.write(file, content);
+
+        IOException error = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+
+        assertTrue(error.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void testRead_rejectsTruncatedFile() throws IOException {
+        Path file = root.resolve("state.snapshot");
+        SnapshotFile.write(file, new StateSnapshot(CREATED_AT,
+                List.of(new StateSnapshot.PatientLatest(7, 1, List.of(signal(1, 0)))), List.of()));
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 8));
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+    }
+
+    @Test
+    void testRead_rejectsOtherFiles() throws IOException {
+        Path file = root.resolve("state.snapshot");
+        Files.writeString(file, "this is not a snapshot, just some text");
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+    }
+
+    private static ICUSignal signal(int id, int second) {
+        return ICUSignal.builder()
+                .id(id)
+                .nationalId(7)
+                .heartbeat(80.0 + id)
+                .pulse(95.0)
+                .timestamp(BASE.plusSeconds(second))
+                .build();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.ICUReceiver.snapshot;
+
+import com.example.ICUReceiver.cache.LatestSignalCache;
+import com.example.ICUReceiver.configuration.SnapshotProperties;
+import com.example.ICUReceiver.model.ICUSignal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateSnapshotterTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 10, 0);
+
+    @TempDir
+    Path root;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SnapshotProperties properties;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        file = root.resolve("state.snapshot");
+        properties = new SnapshotProperties();
+        properties.setFile(file.toString());
+        properties.setInterval(Duration.ofHours(1));
+        properties.setCaptureTimeout(Duration.ofMillis(200));
+    }
+
+    @Test
+    void testConstructor_restoresCacheAndIngestFromSnapshot() throws IOException {
+        StateSnapshot.PatientIngest ingest = new StateSnapshot.PatientIngest(7, new long[]{1L}, List.of());
+        SnapshotFile.write(file, new StateSnapshot(Instant.now(),
+                List.of(new StateSnapshot.PatientLatest(7, 3, List.of(signal(2, 2), signal(1, 1)))),
+                List.of(ingest)));
+        LatestSignalCache cache = new LatestSignalCache(10, 1_000, meterRegistry);
+
+        StateSnapshotter snapshotter = new StateSnapshotter(properties, cache, meterRegistry);
+
+        LatestSignalCache.Slice slice = cache.read(7, 0, 2);
+        assertEquals(3, slice.total());
+        assertEquals(2, slice.signals().size());
+        List<StateSnapshot.PatientIngest> restored = snapshotter.takeRestoredIngest();
+        assertEquals(1, restored.size());
+        assertEquals(7, restored.getFirst().nationalId());
+        assertArrayEquals(ingest.seen(), restored.getFirst().seen());
+        assertTrue(snapshotter.takeRestoredIngest().isEmpty());
+        assertEquals(1, meterRegistry.timer("icu.snapshot.restore.duration").count());
+    }
+
+    @Test
+    void testConstructor_ignoresStaleSnapshot() throws IOException {
+        properties.setMaxAge(Duration.ofMinutes(1));
+        SnapshotFile.write(file, new StateSnapshot(Instant.now().minus(Duration.ofMinutes(5)),
+                List.of(new StateSnapshot.PatientLatest(7, 1, List.of(signal(1, 1)))),
+                List.of(new StateSnapshot.PatientIngest(7, new long[]{1L}, List.of()))));
+        LatestSignalCache cache = new LatestSignalCache(10, 1_000, meterRegistry);
+
+        StateSnapshotter snapshotter = new StateSnapshotter(properties, cache, meterRegistry);
+
+        assertNull(cache.read(7, 0, 10));
+        assertTrue(snapshotter.takeRestoredIngest().isEmpty());
+    }
+
+    @Test
+    void testConstructor_startsColdOnUnreadableSnapshot() throws IOException {
+        Files.writeString(file, "garbage");
+        LatestSignalCache cache = new LatestSignalCache(10, 1_000, meterRegistry);
+
+        StateSnapshotter snapshotter = new StateSnapshotter(properties, cache, meterRegistry);
+
+        assertEquals(0, cache.getPatientCount());
+        assertTrue(snapshotter.takeRestoredIngest().isEmpty());
+        assertEquals(1.0, meterRegistry.counter("icu.snapshot.failed").count());
+    }
+
+    @Test
+    void testSnapshot_writesCacheAndAttachedIngestState() throws IOException {
+        LatestSignalCache cache = new LatestSignalCache(10, 1_000, meterRegistry);
+        cache.seed(7, cache.version(7), List.of(signal(1, 1)), 1);
+        StateSnapshotter snapshotter = new StateSnapshotter(properties, cache, meterRegistry);
+        StateSnapshot.PendingSignal pending = new StateSnapshot.PendingSignal(signal(2, 2), true, true);
+        snapshotter.attachIngest(() -> CompletableFuture.completedFuture(
+                List.of(new StateSnapshot.PatientIngest(7, new long[0], List.of(pending)))));
+
+        long bytes = snapshotter.snapshot();
+
+        StateSnapshot written = SnapshotFile.read(file);
+        assertEquals(Files.size(file), bytes);
+        assertEquals(1, written.latest().size());
+        assertEquals(List.of(pending), written.ingest().getFirst().pending());
+        assertEquals(bytes, meterRegistry.get("icu.snapshot.bytes").gauge().value());
+    }
+
+    @Test
+    void testSnapshot_failsWhenIngestDoesNotAnswerInTime() {
+        StateSnapshotter snapshotter = new StateSnapshotter(properties,
+                new LatestSignalCache(10, 1_000, meterRegistry), meterRegistry);
+        snapshotter.attachIngest(CompletableFuture::new);
+
+        assertThrows(RuntimeException.class, snapshotter::snapshot);
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testStop_takesFinalSnapshotOnlyAfterStart() throws InterruptedException {
+        StateSnapshotter snapshotter = new StateSnapshotter(properties,
+                new LatestSignalCache(10, 1_000, meterRegistry), meterRegistry);
+
+        snapshotter.stop();
+        assertFalse(Files.exists(file));
+
+        snapshotter.start();
+        snapshotter.stop();
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    void testDisabled_neitherRestoresNorStarts() throws IOException, InterruptedException {
+        SnapshotFile.write(file, new StateSnapshot(Instant.now(),
+                List.of(new StateSnapshot.PatientLatest(7, 1, List.of(signal(1, 1)))), List.of()));
+        properties.setEnabled(false);
+        LatestSignalCache cache = new LatestSignalCache(10, 1_000, meterRegistry);
+        StateSnapshotter snapshotter = new StateSnapshotter(properties, cache, meterRegistry);
+
+        snapshotter.start();
+        Files.delete(file);
+        snapshotter.stop();
+
+        assertEquals(0, cache.getPatientCount());
+        assertFalse(Files.exists(file));
+    }
+
+    private static ICUSignal signal(int id, int second) {
+        return ICUSignal.builder()
+                .id(id)
+                .nationalId(7)
+                .heartbeat(80.0)
+                .pulse(95.0)
+                .timestamp(BASE.plusSeconds(second))
+                .build();
+    }
+}
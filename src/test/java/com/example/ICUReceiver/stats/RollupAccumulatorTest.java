@@ -0,0 +1,101 @@
+package com.example.ICUReceiver.stats;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.RollupGranularity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupAccumulatorTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 10, 0, 0);
+
+    @Test
+    void testAdd_updatesOneWindowPerGranularity() {
+        RollupAccumulator accumulator = new RollupAccumulator();
+
+        accumulator.add(signal(1, BASE.plusSeconds(10), 80));
+        accumulator.add(signal(1, BASE.plusSeconds(70), 90));
+
+        Map<RollupKey, RollupDelta> drained = accumulator.drain();
+        assertEquals(4, drained.size());
+        assertEquals(1, drained.get(new RollupKey(1, RollupGranularity.MINUTE, BASE)).getHeartbeat().getCount());
+        assertEquals(1, drained.get(new RollupKey(1, RollupGranularity.MINUTE, BASE.plusMinutes(1)))
+                .getHeartbeat().getCount());
+        RollupDelta hour = drained.get(new RollupKey(1, RollupGranularity.HOUR, BASE));
+        assertEquals(2, hour.getHeartbeat().getCount());
+        assertEquals(85, hour.getHeartbeat().getMean());
+        assertEquals(2, drained.get(new RollupKey(1, RollupGranularity.DAY, BASE.toLocalDate().atStartOfDay()))
+                .getPulse().getCount());
+    }
+
+    @Test
+    void testAdd_lateSignalReturnsToItsEarlierWindow() {
+        RollupAccumulator accumulator = new RollupAccumulator();
+
+        accumulator.add(signal(1, BASE, 80));
+        accumulator.add(signal(1, BASE.plusMinutes(1), 90));
+        accumulator.add(signal(1, BASE.plusSeconds(30), 100));
+
+        Map<RollupKey, RollupDelta> drained = accumulator.drain();
+        RollupDelta first = drained.get(new RollupKey(1, RollupGranularity.MINUTE, BASE));
+        assertEquals(2, first.getHeartbeat().getCount());
+        assertEquals(90, first.getHeartbeat().getMean());
+    }
+
+    @Test
+    void testAdd_keepsPatientsApart() {
+        RollupAccumulator accumulator = new RollupAccumulator();
+
+        accumulator.add(signal(1, BASE, 80));
+        accumulator.add(signal(2, BASE, 120));
+
+        Map<RollupKey, RollupDelta> drained = accumulator.drain();
+        assertEquals(80, drained.get(new RollupKey(1, RollupGranularity.HOUR, BASE)).getHeartbeat().getMean());
+        assertEquals(120, drained.get(new RollupKey(2, RollupGranularity.HOUR, BASE)).getHeartbeat().getMean());
+    }
+
+    @Test
+    void testDrain_startsAfreshWithNewDeltas() {
+        RollupAccumulator accumulator = new RollupAccumulator();
+        accumulator.add(signal(1, BASE, 80));
+        accumulator.drain();
+
+        assertTrue(accumulator.isEmpty());
+
+        accumulator.add(signal(1, BASE.plusSeconds(5), 90));
+        RollupDelta delta = accumulator.drain().get(new RollupKey(1, RollupGranularity.MINUTE, BASE));
+        assertEquals(1, delta.getHeartbeat().getCount());
+        assertEquals(90, delta.getHeartbeat().getMean());
+    }
+
+    @Test
+    void testRestore_combinesFailedDrainWithNewDeltas() {
+        RollupAccumulator accumulator = new RollupAccumulator();
+        accumulator.add(signal(1, BASE, 80));
+        Map<RollupKey, RollupDelta> failed = accumulator.drain();
+
+        accumulator.add(signal(1, BASE.plusSeconds(5), 100));
+        accumulator.add(signal(2, BASE, 120));
+        accumulator.restore(failed);
+
+        Map<RollupKey, RollupDelta> drained = accumulator.drain();
+        assertEquals(6, drained.size());
+        RollupDelta minute = drained.get(new RollupKey(1, RollupGranularity.MINUTE, BASE));
+        assertEquals(2, minute.getHeartbeat().getCount());
+        assertEquals(90, minute.getHeartbeat().getMean());
+        assertEquals(1, drained.get(new RollupKey(2, RollupGranularity.MINUTE, BASE)).getPulse().getCount());
+    }
+
+    private static ICUSignal signal(int nationalId, LocalDateTime timestamp, double heartbeat) {
+        return ICUSignal.builder()
+                .nationalId(nationalId)
+                .heartbeat(heartbeat)
+                .pulse(heartbeat - 10)
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.ICUReceiver.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunningStatsTest {
+
+    @Test
+    void testAdd_matchesTwoPassComputation() {
+        double[] values = new Random(7).doubles(1_000, 40, 180).toArray();
+        RunningStats stats = new RunningStats();
+        for (double value : values) {
+            stats.add(value);
+        }
+
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        double mean = sum / values.length;
+        double squares = 0;
+        for (double value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+
+        assertEquals(values.length, stats.getCount());
+        assertEquals(sum, stats.getSum(), 1e-6);
+        assertEquals(mean, stats.getMean(), 1e-9);
+        assertEquals(squares / (values.length - 1), stats.variance(), 1e-6);
+        assertEquals(min, stats.getMin());
+        assertEquals(max, stats.getMax());
+    }
+
+    @Test
+    void testAdd_staysAccurateForLargeOffset() {
+        RunningStats stats = new RunningStats();
+        for (int i = 0; i < 1_000; i++) {
+            stats.add(1e9 + i % 3);
+        }
+
+        assertEquals(1e9 + 1, stats.getMean(), 1e-3);
+        assertEquals(0.667, stats.variance(), 1e-3);
+    }
+
+    @Test
+    void testMerge_equalsAddingAllValuesSequentially() {
+        double[] values = new Random(11).doubles(500, 50, 120).toArray();
+        RunningStats sequential = new RunningStats();
+        RunningStats left = new RunningStats();
+        RunningStats right = new RunningStats();
+        for (int i = 0; i < values.length; i++) {
+            sequential.add(values[i]);
+            (i < 180 ? left : right).add(values[i]);
+        }
+
+        left.merge(right);
+
+        assertEquals(sequential.getCount(), left.getCount());
+        assertEquals(sequential.getMean(), left.getMean(), 1e-9);
+        assertEquals(sequential.getM2(), left.getM2(), 1e-6);
+        assertEquals(sequential.getMin(), left.getMin());
+        assertEquals(sequential.getMax(), left.getMax());
+    }
+
+    @Test
+    void testMerge_intoEmptyCopiesOtherAndEmptyOtherIsNoop() {
+        RunningStats other = new RunningStats();
+        other.add(80);
+        other.add(90);
+        RunningStats empty = new RunningStats();
+
+        empty.merge(other);
+        other.merge(new RunningStats());
+
+        assertEquals(2, empty.getCount());
+        assertEquals(85, empty.getMean());
+        assertEquals(50, empty.variance());
+        assertEquals(2, other.getCount());
+    }
+
+    @Test
+    void testVariance_isZeroForSingleValue() {
+        RunningStats stats = new RunningStats();
+        stats.add(72);
+
+        assertEquals(0, stats.variance());
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.SignalBlock;
+import com.example.ICUReceiver.repository.ICURepository;
+import com.example.ICUReceiver.repository.SignalBlockRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JpaSignalStoreTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 10, 0);
+
+    @Mock
+    private ICURepository repository;
+
+    @Mock
+    private SignalBlockRepository blockRepository;
+
+    @Mock
+    private WaveformStore waveformStore;
+
+    @InjectMocks
+    private JpaSignalStore store;
+
+    @Test
+    void testRange_withoutBlocksReadsRowsOnly() {
+        List<ICUSignal> rows = List.of(signal(2, 20), signal(1, 10));
+        when(blockRepository.findHeadersByNationalIdAndLastTimestampGreaterThanEqualAndFirstTimestampLessThanEqualOrderByLastTimestampDesc(
+                eq(1), any(), any())).thenReturn(List.of());
+        when(repository.findByNationalIdOrderByTimestampDesc(eq(1), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(rows, PageRequest.of(0, 2), 5));
+
+        SignalSlice slice = store.range(1, null, null, 0, 2);
+
+        assertEquals(rows, slice.getSignals());
+        assertEquals(5, slice.getTotal());
+        verify(blockRepository, never()).findById(any());
+    }
+
+    @Test
+    void testRange_startsAtCursorThatIsNoMultipleOfTheLimit() {
+        List<ICUSignal> rows = List.of(signal(3, 30), signal(2, 20));
+        when(blockRepository.findHeadersByNationalIdAndLastTimestampGreaterThanEqualAndFirstTimestampLessThanEqualOrderByLastTimestampDesc(
+                eq(1), any(), any())).thenReturn(List.of());
+        when(repository.findByNationalIdOrderByTimestampDesc(eq(1), argThat(pageable -> pageable.getOffset() == 3)))
+                .thenReturn(new PageImpl<>(rows, new OffsetPageRequest(3, 2, Sort.by("timestamp").descending()), 6));
+
+        SignalSlice slice = store.range(1, null, null, 3, 2);
+
+        assertEquals(rows, slice.getSignals());
+        assertEquals(5, slice.getNextCursor());
+        assertEquals(6, slice.getTotal());
+    }
+
+    @Test
+    void testRange_mergesRowsWithDecodedBlocksNewestFirst() {
+        // Rows at 40s and 25s; a block holding 10s..30s and an older one holding 0s..5s.
+        SignalBlock recent = block(7, List.of(signal(3, 10), signal(4, 20), signal(5, 30)));
+        SignalBlock old = block(8, List.of(signal(1, 0), signal(2, 5)));
+        when(blockRepository.findHeadersByNationalIdAndLastTimestampGreaterThanEqualAndFirstTimestampLessThanEqualOrderByLastTimestampDesc(
+                eq(1), any(), any())).thenReturn(List.of(header(recent), header(old)));
+        when(blockRepository.findById(7L)).thenReturn(Optional.of(recent));
+        when(repository.findByNationalIdOrderByTimestampDesc(eq(1), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(signal(10, 40), signal(11, 25)), PageRequest.of(0, 3), 2));
+
+        SignalSlice slice = store.range(1, null, null, 0, 3);
+
+        // Newest first: 40 (row), 30 (block), 25 (row), then 20, 10, 5, 0.
+        assertEquals(List.of(10, 5, 11), slice.getSignals().stream().map(ICUSignal::getId).toList());
+        assertEquals(3, slice.getNextCursor());
+        assertEquals(7, slice.getTotal());
+        // The old block ends before the page and lies inside the range: counted, never loaded.
+        verify(blockRepository, never()).findById(8L);
+    }
+
+    @Test
+    void testRange_decodesBlocksStraddlingTheRangeToCountThem() {
+        SignalBlock block = block(7, List.of(signal(1, 0), signal(2, 10), signal(3, 20)));
+        when(blockRepository.findHeadersByNationalIdAndLastTimestampGreaterThanEqualAndFirstTimestampLessThanEqualOrderByLastTimestampDesc(
+                eq(1), any(), any())).thenReturn(List.of(header(block)));
+        when(blockRepository.findById(7L)).thenReturn(Optional.of(block));
+        when(repository.findByNationalIdAndTimestampBetweenOrderByTimestampDesc(eq(1), any(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 10), 0));
+
+        SignalSlice slice = store.range(1, BASE.plusSeconds(5), BASE.plusSeconds(30), 0, 10);
+
+        assertEquals(List.of(3, 2), slice.getSignals().stream().map(ICUSignal::getId).toList());
+        assertEquals(2, slice.getTotal());
+    }
+
+    @Test
+    void testTimestamps_readsTimestampColumnWithoutHydratingSamples() {
+        LocalDateTime to = BASE.plusSeconds(30);
+        when(blockRepository.findHeadersByNationalIdAndLastTimestampGreaterThanEqualAndFirstTimestampLessThanEqualOrderByLastTimestampDesc(
+                1, BASE, to)).thenReturn(List.of());
+        when(repository.findTimestampsBetween(1, BASE, to)).thenReturn(List.of(BASE, to));
+
+        assertEquals(List.of(BASE, to), store.timestamps(1, BASE, to));
+        verifyNoInteractions(waveformStore);
+    }
+
+    @Test
+    void testTimestamps_pagesThroughRangeWhenBlocksOverlap() {
+        SignalBlock block = block(7, List.of(signal(1, 0), signal(2, 10)));
+        when(blockRepository.findHeadersByNationalIdAndLastTimestampGreaterThanEqualAndFirstTimestampLessThanEqualOrderByLastTimestampDesc(
+                eq(1), any(), any())).thenReturn(List.of(header(block)));
+        when(blockRepository.findById(7L)).thenReturn(Optional.of(block));
+        when(repository.findByNationalIdAndTimestampBetweenOrderByTimestampDesc(eq(1), any(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(signal(3, 20)), PageRequest.of(0, 1_000), 1));
+
+        assertEquals(List.of(BASE.plusSeconds(20), BASE.plusSeconds(10), BASE),
+                store.timestamps(1, BASE, BASE.plusSeconds(20)));
+        verify(repository, never()).findTimestampsBetween(anyInt(), any(), any());
+    }
+
+    @Test
+    void testCompact_writesBlockAndDeletesItsRows() {
+        List<ICUSignal> rows = List.of(signal(1, 0), signal(2, 10));
+        LocalDateTime before = BASE.plusMinutes(1);
+        when(repository.findByNationalIdAndTimestampBeforeOrderByTimestampAsc(1, before, PageRequest.of(0, 100)))
+                .thenReturn(rows);
+        when(blockRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SignalBlock block = store.compact(1, before, 100);
+
+        assertEquals(2, block.getSignalCount());
+        assertEquals(rows, SignalBlockCodec.decode(block));
+        verify(repository).deleteAllByIdInBatch(List.of(1, 2));
+    }
+
+    @Test
+    void testCompact_returnsNullWhenNothingIsOldEnough() {
+        when(repository.findByNationalIdAndTimestampBeforeOrderByTimestampAsc(eq(1), any(), any()))
+                .thenReturn(List.of());
+
+        assertNull(store.compact(1, BASE, 100));
+        verify(blockRepository, never()).save(any());
+    }
+
+    @Test
+    void testFind_fallsBackToBlockCoveringTheId() {
+        SignalBlock block = block(7, List.of(signal(3, 0), signal(4, 10)));
+        when(repository.findById(4)).thenReturn(Optional.empty());
+        when(blockRepository.findHeadersByMinSignalIdLessThanEqualAndMaxSignalIdGreaterThanEqual(4, 4))
+                .thenReturn(List.of(header(block)));
+        when(blockRepository.findById(7L)).thenReturn(Optional.of(block));
+        when(repository.findById(9)).thenReturn(Optional.empty());
+
+        assertEquals(signal(4, 10), store.find(4));
+        assertNull(store.find(9));
+    }
+
+    private static ICUSignal signal(int id, int second) {
+        return ICUSignal.builder()
+                .id(id)
+                .nationalId(1)
+                .heartbeat(80)
+                .pulse(97)
+                .timestamp(BASE.plusSeconds(second))
+                .build();
+    }
+
+    private static SignalBlock block(long id, List<ICUSignal> signals) {
+        SignalBlock block = SignalBlockCodec.encode(1, new ArrayList<>(signals));
+        block.setId(id);
+        return block;
+    }
+
+    private static SignalBlockRepository.Header header(SignalBlock block) {
+        return new SignalBlockRepository.Header() {
+            @Override
+            public long getId() {
+                return block.getId();
+            }
+
+            @Override
+            public LocalDateTime getFirstTimestamp() {
+                return block.getFirstTimestamp();
+            }
+
+            @Override
+            public LocalDateTime getLastTimestamp() {
+                return block.getLastTimestamp();
+            }
+
+            @Override
+            public int getSignalCount() {
+                return block.getSignalCount();
+            }
+        };
+    }
+}
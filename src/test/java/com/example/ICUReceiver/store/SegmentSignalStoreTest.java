@@ -0,0 +1,140 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.ICUSignal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentSignalStoreTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 10, 0);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void testAppendAndRange_returnsNewestFirst() throws IOException {
+        try (SegmentSignalStore store = new SegmentSignalStore(root, 1 << 20, 4)) {
+            store.append(signals(1, 10));
+
+            List<ICUSignal> latest = store.range(1, null, null, 0, 3).getSignals();
+
+            assertEquals(3, latest.size());
+            assertEquals(BASE.plusSeconds(9), latest.get(0).getTimestamp());
+            assertEquals(BASE.plusSeconds(7), latest.get(2).getTimestamp());
+            assertEquals(List.of(9.0, 0.5), latest.get(0).getEcgList());
+        }
+    }
+
+    @Test
+    void testRange_pagesThroughMatchesWithCursor() throws IOException {
+        try (SegmentSignalStore store = new SegmentSignalStore(root, 1 << 20, 4)) {
+            store.append(signals(1, 20));
+            store.append(signals(2, 5));
+
+            SignalSlice first = store.range(1, BASE.plusSeconds(5), BASE.plusSeconds(14), 0, 4);
+            SignalSlice second = store.range(1, BASE.plusSeconds(5), BASE.plusSeconds(14), first.getNextCursor(), 4);
+
+            assertEquals(10, first.getTotal());
+            assertTrue(first.hasMore());
+            assertEquals(BASE.plusSeconds(14), first.getSignals().get(0).getTimestamp());
+            assertEquals(BASE.plusSeconds(10), second.getSignals().get(0).getTimestamp());
+            assertEquals(8, second.getNextCursor());
+        }
+    }
+
+    @Test
+    void testRange_unknownPatientReturnsEmptySlice() throws IOException {
+        try (SegmentSignalStore store = new SegmentSignalStore(root, 1 << 20, 4)) {
+            SignalSlice slice = store.range(42, null, null, 0, 10);
+
+            assertTrue(slice.getSignals().isEmpty());
+            assertEquals(0, slice.getTotal());
+        }
+    }
+
+    @Test
+    void testRange_handlesOutOfOrderAppends() throws IOException {
+        try (SegmentSignalStore store = new SegmentSignalStore(root, 1 << 20, 2)) {
+            List<ICUSignal> batch = signals(1, 6);
+            store.append(List.of(batch.get(5), batch.get(0), batch.get(1), batch.get(2)));
+            store.append(List.of(batch.get(3), batch.get(4)));
+
+            List<ICUSignal> latest = store.range(1, null, null, 0, 2).getSignals();
+
+            assertEquals(BASE.plusSeconds(5), latest.get(0).getTimestamp());
+            assertEquals(BASE.plusSeconds(4), latest.get(1).getTimestamp());
+        }
+    }
+
+    @Test
+    void testReopen_rebuildsIndexAndIdSequenceAcrossSegments() throws IOException {
+        try (SegmentSignalStore store = new SegmentSignalStore(root, 256, 4)) {
+            store.append(signals(1, 12));
+        }
+        try (Stream<Path> files = Files.list(root.resolve("1"))) {
+            assertTrue(files.count() > 1, "small max segment size should roll segments");
+        }
+
+        try (SegmentSignalStore reopened = new SegmentSignalStore(root, 256, 4)) {
+            SignalSlice all = reopened.range(1, null, null, 0, 100);
+            assertEquals(12, all.getTotal());
+
+            List<ICUSignal> next = signals(1, 1);
+            reopened.append(next);
+            assertEquals(13, next.get(0).getId());
+        }
+    }
+
+    @Test
+    void testReopen_quarantinesShortSegmentAndRecoversLaterOnes() throws IOException {
+        try (SegmentSignalStore store = new SegmentSignalStore(root, 256, 4)) {
+            store.append(signals(1, 12));
+        }
+        Path patient = root.resolve("1");
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(patient)) {
+            segments = files.sorted().toList();
+        }
+        assertTrue(segments.size() > 2, "small max segment size should roll segments");
+        Path middle = segments.get(1);
+        Path last = segments.getLast();
+        long lastSize = Files.size(last);
+        Files.write(middle, new byte[8]);
+
+        try (SegmentSignalStore reopened = new SegmentSignalStore(root, 256, 4)) {
+            SignalSlice all = reopened.range(1, null, null, 0, 100);
+            assertTrue(all.getTotal() > 0 && all.getTotal() < 12);
+            assertEquals(BASE.plusSeconds(11), all.getSignals().getFirst().getTimestamp());
+
+            reopened.append(signals(1, 1));
+            assertEquals(all.getTotal() + 1, reopened.range(1, null, null, 0, 100).getTotal());
+        }
+        assertFalse(Files.exists(middle));
+        assertTrue(Files.exists(middle.resolveSibling(middle.getFileName() + ".quarantined")));
+        assertTrue(Files.size(last) >= lastSize);
+    }
+
+    private static List<ICUSignal> signals(int nationalId, int count) {
+        List<ICUSignal> signals = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            signals.add(ICUSignal.builder()
+                    .nationalId(nationalId)
+                    .heartbeat(80.0 + i)
+                    .pulse(95.0)
+                    .timestamp(BASE.plusSeconds(i))
+                    .ecgList(List.of((double) i, 0.5))
+                    .build());
+        }
+        return signals;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.EcgFeatures;
+import com.example.ICUReceiver.model.ICUSignal;
+import com.example.ICUReceiver.model.SignalBlock;
+import com.example.ICUReceiver.model.WaveformRef;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignalBlockCodecTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 9, 10, 0);
+
+    @Test
+    void testEncodeDecode_roundTripsEverySignalExactly() {
+        Random random = new Random(7);
+        List<ICUSignal> signals = new ArrayList<>();
+        long offset = 0;
+        for (int i = 0; i < 500; i++) {
+            WaveformRef ref = null;
+            if (i % 3 != 0) {
+                int length = 200 + random.nextInt(100);
+                ref = new WaveformRef(i / 200, i % 200 == 0 ? 0L : offset, length);
+                offset = ref.getOffset() + length + (i % 50 == 0 ? 17 : 0);
+            }
+            signals.add(signal(1_000 + i * 37 + random.nextInt(20),
+                    BASE.plusNanos(i * 1_000_000_000L + random.nextInt(1_000_000)),
+                    random.nextGaussian() * 30, i % 7 == 0 ? Double.NaN : -random.nextDouble(), ref));
+        }
+
+        SignalBlock block = SignalBlockCodec.encode(9, signals);
+        List<ICUSignal> decoded = SignalBlockCodec.decode(block);
+
+        assertEquals(signals, decoded);
+        assertEquals(500, block.getSignalCount());
+        assertEquals(signals.getFirst().getTimestamp(), block.getFirstTimestamp());
+        assertEquals(signals.getLast().getTimestamp(), block.getLastTimestamp());
+    }
+
+    @Test
+    void testEncodeDecode_roundTripsEcgFeatures() {
+        List<ICUSignal> signals = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ICUSignal signal = signal(10 + i, BASE.plusSeconds(i), 80, 97, new WaveformRef(0, i * 500L, 500));
+            double rr = 750 + (i % 4) * 2;
+            signal.setEcgFeatures(switch (i % 5) {
+                case 0 -> null;
+                case 1 -> new EcgFeatures(1, null, null, null, null);
+                case 2 -> new EcgFeatures(null, rr, null, null, 72.5);
+                default -> new EcgFeatures(1 + i % 2, rr, rr - 4, rr + 6, 60_000 / rr);
+            });
+            signals.add(signal);
+        }
+
+        assertEquals(signals, SignalBlockCodec.decode(SignalBlockCodec.encode(9, signals)));
+    }
+
+    @Test
+    void testDecode_readsVersion1BlocksWithoutFeatures() {
+        List<ICUSignal> signals = List.of(
+                signal(5, BASE, 80, 97, null),
+                signal(9, BASE.plusSeconds(1), 81, 97, new WaveformRef(2, 40L, 10)));
+        SignalBlock block = SignalBlockCodec.encode(9, signals);
+        // Signals without features only append absent bits, which a version 1 reader never reaches.
+        block.getData()[0] = 1;
+
+        assertEquals(signals, SignalBlockCodec.decode(block));
+    }
+
+    @Test
+    void testEncode_ordersByTimestampAndRecordsHeader() {
+        List<ICUSignal> signals = List.of(
+                signal(12, BASE.plusSeconds(2), 80, 97, null),
+                signal(10, BASE, 81, 96, null),
+                signal(11, BASE.plusSeconds(1), 82, 95, null));
+
+        SignalBlock block = SignalBlockCodec.encode(9, signals);
+
+        assertEquals(List.of(10, 11, 12), SignalBlockCodec.decode(block).stream().map(ICUSignal::getId).toList());
+        assertEquals(9, block.getNationalId());
+        assertEquals(BASE, block.getFirstTimestamp());
+        assertEquals(BASE.plusSeconds(2), block.getLastTimestamp());
+        assertEquals(10, block.getMinSignalId());
+        assertEquals(12, block.getMaxSignalId());
+    }
+
+    @Test
+    void testEncode_regularVitalsCompressWell() {
+        List<ICUSignal> signals = new ArrayList<>();
+        for (int i = 0; i < 1_024; i++) {
+            signals.add(signal(100 + i * 50, BASE.plusSeconds(i), 80 + i % 3, 97, new WaveformRef(0, i * 500L, 500)));
+        }
+
+        SignalBlock block = SignalBlockCodec.encode(9, signals);
+
+        double bytesPerSignal = block.getData().length / (double) signals.size();
+        assertTrue(bytesPerSignal < 4, "bytes per signal: " + bytesPerSignal);
+    }
+
+    @Test
+    void testFind_decodesOnlyTheRequestedSignal() {
+        List<ICUSignal> signals = List.of(
+                signal(5, BASE, 80, 97, null),
+                signal(9, BASE.plusSeconds(1), 81, 97, new WaveformRef(2, 40L, 10)));
+        SignalBlock block = SignalBlockCodec.encode(9, signals);
+
+        assertEquals(signals.get(1), SignalBlockCodec.find(block, 9));
+        assertNull(SignalBlockCodec.find(block, 7));
+        assertNull(SignalBlockCodec.find(block, 10));
+    }
+
+    @Test
+    void testDecode_rejectsUnknownVersion() {
+        SignalBlock block = SignalBlockCodec.encode(9, List.of(signal(1, BASE, 80, 97, null)));
+        block.getData()[0] = 99;
+
+        assertThrows(IllegalStateException.class, () -> SignalBlockCodec.decode(block));
+    }
+
+    private static ICUSignal signal(int id, LocalDateTime timestamp, double heartbeat, double pulse, WaveformRef ref) {
+        return ICUSignal.builder()
+                .id(id)
+                .nationalId(9)
+                .heartbeat(heartbeat)
+                .pulse(pulse)
+                .timestamp(timestamp)
+                .ecgRef(ref)
+                .build();
+    }
+}
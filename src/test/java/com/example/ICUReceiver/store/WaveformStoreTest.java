@@ -0,0 +1,80 @@
+package com.example.ICUReceiver.store;
+
+import com.example.ICUReceiver.model.WaveformRef;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaveformStoreTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2025, 11, 9, 10, 0);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void testAppendAndRead_roundTripsSamples() throws IOException {
+        WaveformStore store = new WaveformStore(root, 1 << 16, 500);
+
+        WaveformRef first = store.append(7, TIMESTAMP, List.of(0.1, 0.2, 0.3));
+        WaveformRef second = store.append(7, TIMESTAMP.plusSeconds(1), List.of(0.4, 0.5));
+
+        assertEquals(new WaveformRef(0, 0L, 3), first);
+        assertEquals(new WaveformRef(0, 3L, 2), second);
+        assertEquals(List.of(0.4, 0.5), store.read(7, second));
+    }
+
+    @Test
+    void testWindowAndTransferTo_streamsRawSampleSlice() throws IOException {
+        WaveformStore store = new WaveformStore(root, 1 << 16, 500);
+        store.append(7, TIMESTAMP, List.of(9.0));
+        WaveformRef ref = store.append(7, TIMESTAMP, List.of(1.0, 2.0, 3.0, 4.0));
+
+        WaveformWindow window = store.window(7, ref, 1, 10);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.transferTo(window, Channels.newChannel(out));
+
+        assertEquals(3, window.getSampleCount());
+        assertEquals(500, window.getSampleRateHz());
+        ByteBuffer body = ByteBuffer.wrap(out.toByteArray());
+        assertEquals(24, body.remaining());
+        assertEquals(2.0, body.getDouble());
+        assertEquals(3.0, body.getDouble());
+        assertEquals(4.0, body.getDouble());
+    }
+
+    @Test
+    void testAppend_rollsToNewSegmentWhenFull() throws IOException {
+        WaveformStore store = new WaveformStore(root, WaveformStore.HEADER_SIZE + 4 * 8, 500);
+
+        store.append(7, TIMESTAMP, List.of(1.0, 2.0, 3.0));
+        WaveformRef rolled = store.append(7, TIMESTAMP, List.of(4.0, 5.0));
+
+        assertEquals(new WaveformRef(1, 0L, 2), rolled);
+        assertEquals(List.of(4.0, 5.0), store.read(7, rolled));
+        assertTrue(Files.exists(root.resolve("7").resolve("000001.ecg")));
+    }
+
+    @Test
+    void testReopen_continuesAfterCommittedSamples() throws IOException {
+        WaveformStore store = new WaveformStore(root, 1 << 16, 500);
+        WaveformRef before = store.append(7, TIMESTAMP, List.of(1.0, 2.0));
+        store.close();
+
+        WaveformStore reopened = new WaveformStore(root, 1 << 16, 500);
+        WaveformRef after = reopened.append(7, TIMESTAMP, List.of(3.0));
+
+        assertEquals(new WaveformRef(0, 2L, 1), after);
+        assertEquals(List.of(1.0, 2.0), reopened.read(7, before));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.ICUReceiver.trace;
+
+import com.example.ICUReceiver.configuration.TraceProperties;
+import com.example.ICUReceiver.dto.TraceRecordDto;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestTracerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSlowest_returnsSlowestRecentTracesSlowestFirst() {
+        IngestTracer tracer = tracer(true, 4);
+
+        for (int i = 1; i <= 10; i++) {
+            tracer.complete(trace(i, i % 2 == 0 ? i * 1_000_000L : i * 1_000L));
+        }
+
+        // Only the four most recent (7..10) are retained; 8 and 10 are the slow ones, then 9.
+        List<TraceRecordDto> slowest = tracer.slowest(3);
+        assertEquals(List.of(10, 8, 9), slowest.stream().map(TraceRecordDto::getNationalId).toList());
+        assertEquals(10.0, slowest.getFirst().getTotalMillis(), 1e-9);
+        assertEquals(10.0, slowest.getFirst().getStageMillis().get("commit"), 1e-9);
+        assertEquals(9, slowest.getFirst().getSequence());
+    }
+
+    @Test
+    void testDetach_takesTraceBegunOnThisThreadOnce() {
+        IngestTracer tracer = tracer(true, 16);
+
+        IngestTrace begun = tracer.begin(IngestTrace.Channel.WEBSOCKET);
+
+        assertSame(begun, tracer.detach(1));
+        IngestTrace next = tracer.detach(2);
+        assertNotSame(begun, next);
+        assertEquals(IngestTrace.Channel.DIRECT, next.channel);
+    }
+
+    @Test
+    void testClear_dropsTraceThatWasNeverHandedToIngest() {
+        IngestTracer tracer = tracer(true, 16);
+
+        tracer.begin(IngestTrace.Channel.REST);
+        tracer.clear();
+
+        assertEquals(IngestTrace.Channel.DIRECT, tracer.detach(1).channel);
+    }
+
+    @Test
+    void testDisabledTracer_recordsNothing() {
+        IngestTracer tracer = tracer(false, 16);
+
+        IngestTrace trace = tracer.begin(IngestTrace.Channel.WEBSOCKET);
+        trace.mark(Stage.PARSE);
+        tracer.complete(tracer.detach(1));
+
+        assertSame(IngestTrace.NOOP, trace);
+        assertTrue(tracer.slowest(10).isEmpty());
+    }
+
+    @Test
+    void testComplete_emitsOneJfrEventPerStageWhenRecording() throws Exception {
+        IngestTracer tracer = tracer(true, 16);
+        Path dump = directory.resolve("trace.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.ICUReceiver.IngestStage");
+            recording.start();
+            tracer.complete(trace(42, 5_000_000L));
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        assertEquals(Stage.values().length, events.size());
+        RecordedEvent commit = events.stream()
+                .filter(event -> event.getString("stage").equals("COMMIT"))
+                .findFirst().orElseThrow();
+        assertEquals(42, commit.getInt("nationalId"));
+        assertEquals(5_000_000L, commit.getDuration("stageDuration").toNanos());
+    }
+
+    private static IngestTracer tracer(boolean enabled, int capacity) {
+        TraceProperties properties = new TraceProperties();
+        properties.setEnabled(enabled);
+        properties.setCapacity(capacity);
+        return new IngestTracer(properties);
+    }
+
+    /**
+     * A trace whose whole duration is spent in {@link Stage#COMMIT}.
+     */
+    private static IngestTrace trace(int nationalId, long commitNanos) {
+        IngestTrace trace = new IngestTrace(IngestTrace.Channel.WEBSOCKET, 0);
+        trace.nationalId = nationalId;
+        trace.mark(Stage.COMMIT, commitNanos);
+        return trace;
+    }
+}